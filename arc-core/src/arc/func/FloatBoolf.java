@@ -0,0 +1,5 @@
+package arc.func;
+
+public interface FloatBoolf{
+    boolean get(float f);
+}
@@ -0,0 +1,5 @@
+package arc.func;
+
+public interface IntFloatf{
+    float get(int i);
+}
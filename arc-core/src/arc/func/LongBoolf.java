@@ -0,0 +1,5 @@
+package arc.func;
+
+public interface LongBoolf{
+    boolean get(long l);
+}
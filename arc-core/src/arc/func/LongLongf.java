@@ -0,0 +1,5 @@
+package arc.func;
+
+public interface LongLongf{
+    long get(long l);
+}
@@ -0,0 +1,5 @@
+package arc.func;
+
+public interface Longc{
+    void get(long l);
+}
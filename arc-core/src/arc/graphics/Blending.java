@@ -15,6 +15,9 @@ public class Blending{
 
     public final int src, dst, srcAlpha, dstAlpha;
 
+    private static int lastSortId;
+    private int sortId;
+
     public Blending(int src, int dst){
         this.src = src;
         this.dst = dst;
@@ -29,6 +32,12 @@ public class Blending{
         this.dstAlpha = dstAlpha;
     }
 
+    /** @return a small id used to group draw requests by blending, assigned in order of first use. */
+    public int sortId(){
+        if(sortId == 0) sortId = ++lastSortId;
+        return sortId;
+    }
+
     /** Enables/disables blending and sets the correct GL blend function. */
     public void apply(){
         Gl.enable(Gl.blend);
@@ -20,6 +20,9 @@ public abstract class GLTexture implements Disposable{
     protected TextureWrap uWrap = TextureWrap.clampToEdge;
     protected TextureWrap vWrap = TextureWrap.clampToEdge;
 
+    private static int lastSortId;
+    private int sortId;
+
     /** Generates a new OpenGL texture with the specified target. */
     public GLTexture(int glTarget){
         this(glTarget, Gl.genTexture());
@@ -30,6 +33,15 @@ public abstract class GLTexture implements Disposable{
         this.glHandle = glHandle;
     }
 
+    /**
+     * @return a small id used to group draw requests by texture. Ids are assigned in order of first use, so they are the same in
+     * every run that draws textures in the same order.
+     */
+    public int sortId(){
+        if(sortId == 0) sortId = ++lastSortId;
+        return sortId;
+    }
+
     protected static void uploadImageData(int target, TextureData data){
         uploadImageData(target, data, 0);
     }
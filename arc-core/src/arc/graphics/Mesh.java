@@ -73,6 +73,29 @@ public class Mesh implements Disposable{
         }
     }
 
+    /**
+     * Replaces the vertex storage of this Mesh with a {@link StreamingVertexBufferObject}, which rotates through a ring of buffer segments
+     * so that frequent re-uploads do not stall on draws that are still in flight. Any existing vertex data is discarded.
+     * @param segments the number of segments in the ring
+     * @return the mesh for invocation chaining.
+     */
+    public Mesh setStreaming(int segments){
+        int max = vertices.max();
+        vertices.dispose();
+        vertices = new StreamingVertexBufferObject(segments, max, this);
+        return this;
+    }
+
+    /**
+     * Replaces the index storage of this Mesh, disposing the old one. Used to share indices between meshes, see {@link QuadIndexData}.
+     * @return the mesh for invocation chaining.
+     */
+    public Mesh setIndexData(IndexData indices){
+        this.indices.dispose();
+        this.indices = indices;
+        return this;
+    }
+
     /**
      * Sets the vertices of this Mesh. The attributes are assumed to be given in float format.
      * @param vertices the vertices.
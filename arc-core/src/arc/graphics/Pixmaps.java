@@ -343,6 +343,87 @@ public class Pixmaps{
         prev.dispose();
     }
 
+    /**
+     * Creates a signed distance field of the alpha channel of the input, as used by {@link DistanceFieldFont}. Pixels with an
+     * alpha of at least 0.5 are inside the shape. The result is larger by {@code spread} pixels on every side; its alpha is 0.5
+     * on the outline and reaches 0 or 1 at {@code spread} pixels outside or inside of it.
+     * @param color the color of the result; only RGB is used.
+     */
+    public static Pixmap distanceField(Pixmap input, int spread, int color){
+        int width = input.width + spread * 2, height = input.height + spread * 2, size = width * height;
+        double[] outside = new double[size], inside = new double[size];
+
+        //squared distances to the nearest pixel inside and outside the shape, computed with an exact euclidean distance transform
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                int sx = x - spread, sy = y - spread;
+                boolean in = sx >= 0 && sy >= 0 && sx < input.width && sy < input.height && input.getA(sx, sy) >= 128;
+                outside[x + y * width] = in ? 0 : Double.MAX_VALUE / 4;
+                inside[x + y * width] = in ? Double.MAX_VALUE / 4 : 0;
+            }
+        }
+
+        distanceTransform(outside, width, height);
+        distanceTransform(inside, width, height);
+
+        Pixmap out = new Pixmap(width, height);
+        int rgb = color & 0xffffff00;
+        float scale = 1f / (spread * 2f);
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                int i = x + y * width;
+                //the outline is half a pixel away from the centers of the pixels next to it
+                float dist = outside[i] > 0 ? (float)Math.sqrt(outside[i]) - 0.5f : 0.5f - (float)Math.sqrt(inside[i]);
+                out.setRaw(x, y, rgb | (int)(Mathf.clamp(0.5f - dist * scale) * 255f + 0.5f));
+            }
+        }
+        return out;
+    }
+
+    /** Turns a grid of 0 or infinity into squared distances to the nearest zero, one dimension at a time (Felzenszwalb and Huttenlocher). */
+    private static void distanceTransform(double[] grid, int width, int height){
+        int n = Math.max(width, height);
+        double[] f = new double[n], d = new double[n], z = new double[n + 1];
+        int[] v = new int[n];
+
+        for(int x = 0; x < width; x++){
+            for(int y = 0; y < height; y++) f[y] = grid[x + y * width];
+            distanceTransform(f, d, v, z, height);
+            for(int y = 0; y < height; y++) grid[x + y * width] = d[y];
+        }
+
+        for(int y = 0; y < height; y++){
+            System.arraycopy(grid, y * width, f, 0, width);
+            distanceTransform(f, d, v, z, width);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    private static void distanceTransform(double[] f, double[] d, int[] v, double[] z, int n){
+        int k = 0;
+        v[0] = 0;
+        z[0] = Double.NEGATIVE_INFINITY;
+        z[1] = Double.POSITIVE_INFINITY;
+
+        for(int q = 1; q < n; q++){
+            double s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while(s <= z[k]){
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = Double.POSITIVE_INFINITY;
+        }
+
+        k = 0;
+        for(int q = 0; q < n; q++){
+            while(z[k + 1] < q) k++;
+            d[q] = (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+
     /**
      * Applies alpha bleeding to the target pixmap.
      * @return the input pixmap with its pixels modified.
@@ -25,6 +25,16 @@ public abstract class Batch implements Disposable{
     protected float colorPacked = Color.whiteFloatBits;
     protected float mixColorPacked = Color.clearFloatBits;
 
+    /** Statistics of this batch; see {@link BatchStats}. */
+    public final BatchStats stats = new BatchStats();
+    /** Cause of the next flush, for {@link #stats}. Set right before calling {@link #flush()}; implementations reset it when flushing. */
+    protected int flushCause = BatchStats.flushExplicit;
+
+    /** Whether sprites outside the cull rectangle are rejected, and whether the rectangle follows the projection and transform. */
+    protected boolean cull, cullProjection;
+    protected float cullX, cullY, cullX2, cullY2;
+    private final Mat cullMatrix = new Mat();
+
     protected void z(float z){
         this.z = z;
     }
@@ -58,6 +68,33 @@ public abstract class Batch implements Disposable{
         request.run();
     }
 
+    /**
+     * Draws sprites from parallel arrays. Each sprite is centered on its position and rotated around its center,
+     * like {@link Draw#rect(TextureRegion, float, float, float, float, float)}.
+     * @param regions the regions that sprites pick from
+     * @param regionIndices the index into regions of each sprite, or null to use the first region for all of them
+     * @param rotation rotations in degrees, or null for unrotated sprites
+     * @param colors packed colors, or null to use the current color
+     * @param offset the index of the first sprite in the arrays
+     * @param count the number of sprites to draw
+     */
+    protected void draw(TextureRegion[] regions, @Nullable int[] regionIndices, float[] x, float[] y, float[] width, float[] height,
+                        @Nullable float[] rotation, @Nullable float[] colors, int offset, int count){
+        float color = colorPacked;
+        for(int i = offset, end = offset + count; i < end; i++){
+            TextureRegion region = regions[regionIndices == null ? 0 : regionIndices[i]];
+            float w = width[i], h = height[i];
+            if(colors != null) colorPacked = colors[i];
+            draw(region, x[i] - w / 2f, y[i] - h / 2f, w / 2f, h / 2f, w, h, rotation == null ? 0f : rotation[i]);
+        }
+        colorPacked = color;
+    }
+
+    /** Replays a recorded {@link DrawList}, scaling and then translating its vertices. */
+    protected void draw(DrawList list, float x, float y, float scaleX, float scaleY){
+        list.replay(this, x, y, scaleX, scaleY);
+    }
+
     protected abstract void flush();
 
     /** Discards any pending sprites. */
@@ -67,6 +104,7 @@ public abstract class Batch implements Disposable{
 
     protected void setBlending(Blending blending){
         if(this.blending != blending){
+            flushCause = BatchStats.flushBlending;
             flush();
         }
         this.blending = blending;
@@ -90,13 +128,98 @@ public abstract class Batch implements Disposable{
     }
 
     protected void setProjection(Mat projection){
+        flushCause = BatchStats.flushMatrix;
         flush();
         projectionMatrix.set(projection);
+        if(cullProjection) updateCull();
     }
 
     protected void setTransform(Mat transform){
+        flushCause = BatchStats.flushMatrix;
         flush();
         transformMatrix.set(transform);
+        if(cullProjection) updateCull();
+    }
+
+    /**
+     * Rejects sprites that are fully outside the specified rectangle, before their vertices are built.
+     * The rectangle is in the same coordinates as the sprites. Bulk submissions and replayed {@link DrawList}s are not culled.
+     */
+    protected void setCull(float x, float y, float width, float height){
+        cull = true;
+        cullProjection = false;
+        cullX = x;
+        cullY = y;
+        cullX2 = x + width;
+        cullY2 = y + height;
+    }
+
+    /** Culls sprites outside the area visible through the current projection and transform. The area is updated whenever they are set. */
+    protected void setCullProjection(){
+        cull = true;
+        cullProjection = true;
+        updateCull();
+    }
+
+    /** Disables culling. */
+    protected void disableCull(){
+        cull = cullProjection = false;
+    }
+
+    /** Recalculates the cull rectangle from the projection and transform, by unprojecting the corners of the screen. */
+    protected void updateCull(){
+        Mat mat = cullMatrix.set(projectionMatrix).mul(transformMatrix);
+        if(mat.det() == 0f){
+            cullX = cullY = Float.NEGATIVE_INFINITY;
+            cullX2 = cullY2 = Float.POSITIVE_INFINITY;
+            return;
+        }
+        float[] val = mat.inv().val;
+
+        cullX = cullY = Float.POSITIVE_INFINITY;
+        cullX2 = cullY2 = Float.NEGATIVE_INFINITY;
+        for(int i = 0; i < 4; i++){
+            float sx = (i & 1) == 0 ? -1f : 1f, sy = (i & 2) == 0 ? -1f : 1f;
+            float wx = val[Mat.M00] * sx + val[Mat.M01] * sy + val[Mat.M02];
+            float wy = val[Mat.M10] * sx + val[Mat.M11] * sy + val[Mat.M12];
+            cullX = Math.min(cullX, wx);
+            cullY = Math.min(cullY, wy);
+            cullX2 = Math.max(cullX2, wx);
+            cullY2 = Math.max(cullY2, wy);
+        }
+    }
+
+    /** @return whether a region drawn with these parameters is fully outside the cull rectangle. Rotated sprites use a conservative bound. */
+    protected boolean culled(float x, float y, float originX, float originY, float width, float height, float rotation){
+        float minX, minY, maxX, maxY;
+        if(rotation == 0f){
+            minX = Math.min(x, x + width);
+            maxX = Math.max(x, x + width);
+            minY = Math.min(y, y + height);
+            maxY = Math.max(y, y + height);
+        }else{
+            //every corner is within this distance of the origin, no matter the rotation
+            float cx = x + originX, cy = y + originY;
+            float radius = Math.max(Math.abs(originX), Math.abs(width - originX)) + Math.max(Math.abs(originY), Math.abs(height - originY));
+            minX = cx - radius;
+            maxX = cx + radius;
+            minY = cy - radius;
+            maxY = cy + radius;
+        }
+        return maxX < cullX || minX > cullX2 || maxY < cullY || minY > cullY2;
+    }
+
+    /** @return whether the bounds of the specified vertices, in {@link SpriteBatch} layout, are fully outside the cull rectangle. */
+    protected boolean culled(float[] vertices, int offset, int count){
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for(int i = offset, end = offset + count; i < end; i += SpriteBatch.VERTEX_SIZE){
+            float vx = vertices[i], vy = vertices[i + 1];
+            if(vx < minX) minX = vx;
+            if(vx > maxX) maxX = vx;
+            if(vy < minY) minY = vy;
+            if(vy > maxY) maxY = vy;
+        }
+        return maxX < cullX || minX > cullX2 || maxY < cullY || minY > cullY2;
     }
 
     protected void setupMatrices(){
@@ -105,6 +228,7 @@ public abstract class Batch implements Disposable{
     }
 
     protected void switchTexture(Texture texture){
+        flushCause = BatchStats.flushTexture;
         flush();
         lastTexture = texture;
     }
@@ -114,6 +238,7 @@ public abstract class Batch implements Disposable{
     }
 
     protected void setShader(Shader shader, boolean apply){
+        flushCause = BatchStats.flushShader;
         flush();
         customShader = shader;
         this.apply = apply;
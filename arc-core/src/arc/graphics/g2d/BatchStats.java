@@ -0,0 +1,73 @@
+package arc.graphics.g2d;
+
+/**
+ * Per-frame statistics of a {@link Batch}. Counting is a few integer increments per flush, so it is always enabled.
+ * Call {@link #reset()} once per frame, usually right after the values have been read.
+ */
+public class BatchStats{
+    /** Flush causes, used as indices into {@link #flushes}. */
+    public static final int
+    flushExplicit = 0,
+    flushTexture = 1,
+    flushBuffer = 2,
+    flushBlending = 3,
+    flushShader = 4,
+    flushRun = 5,
+    flushMatrix = 6,
+    flushCauses = 7;
+
+    public static final String[] causeNames = {"explicit", "texture", "buffer", "blending", "shader", "run", "matrix"};
+
+    /** Draw calls by the cause of the flush that issued them. */
+    public final int[] flushes = new int[flushCauses];
+    /** Total draw calls this frame. */
+    public int drawCalls;
+    /** Vertices sent to the GPU this frame. */
+    public int vertices;
+    /** Requests sorted this frame, for batches that sort. */
+    public int requestsSorted;
+    /** Time spent sorting requests this frame, in nanoseconds. */
+    public long sortNanos;
+    /** Peak number of floats in the request vertex array, and peak number of pending requests. */
+    public int peakRequestVerts, peakRequests;
+    /** Flushes caused by texture and blending changes that state sorting avoided this frame. */
+    public int stateSortSaved;
+    /** Sprites that passed the cull check, and sprites rejected by it this frame. Only counted while culling is enabled. */
+    public int spritesDrawn, spritesCulled;
+
+    /** Draw calls since the batch was created. Not cleared by {@link #reset()}. */
+    public long totalDrawCalls;
+
+    /** Records a draw call of the specified cause. */
+    public void flushed(int cause, int vertices){
+        flushes[cause]++;
+        drawCalls++;
+        totalDrawCalls++;
+        this.vertices += vertices;
+    }
+
+    /** Clears all per-frame values. */
+    public void reset(){
+        for(int i = 0; i < flushCauses; i++){
+            flushes[i] = 0;
+        }
+        drawCalls = vertices = requestsSorted = peakRequestVerts = peakRequests = stateSortSaved = spritesDrawn = spritesCulled = 0;
+        sortNanos = 0;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder out = new StringBuilder();
+        out.append("draw calls: ").append(drawCalls).append(" (");
+        for(int i = 0; i < flushCauses; i++){
+            if(i > 0) out.append(", ");
+            out.append(causeNames[i]).append(": ").append(flushes[i]);
+        }
+        out.append("), vertices: ").append(vertices)
+        .append(", sorted: ").append(requestsSorted).append(" in ").append(sortNanos / 1000).append("us")
+        .append(", peak requests: ").append(peakRequests).append(" (").append(peakRequestVerts).append(" floats)");
+        if(stateSortSaved > 0) out.append(", state sort saved: ").append(stateSortSaved).append(" flushes");
+        if(spritesCulled > 0) out.append(", culled: ").append(spritesCulled).append("/").append(spritesDrawn + spritesCulled);
+        return out.toString();
+    }
+}
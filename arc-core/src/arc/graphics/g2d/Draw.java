@@ -15,6 +15,7 @@ public class Draw{
 
     private static final Color[] carr = new Color[3];
     private static final float[] vertices = new float[SpriteBatch.SPRITE_SIZE];
+    private static final TextureRegion[] singleRegion = new TextureRegion[1];
     private static @Nullable FloatFloatf zTransformer;
     private static float actualZ;
     private static Color retColor = new Color(), retPackedColor = new Color();
@@ -422,6 +423,27 @@ public class Draw{
         rect(Core.atlas.find(region), x, y, rotation);
     }
 
+    /**
+     * Draws many copies of a region from parallel arrays, much faster than calling {@link #rect(TextureRegion, float, float, float, float, float)} for each.
+     * @param rotation rotations in degrees, or null for unrotated sprites
+     * @param colors packed colors, or null to use the current color
+     */
+    public static void rects(TextureRegion region, float[] x, float[] y, float[] w, float[] h, @Nullable float[] rotation, @Nullable float[] colors, int count){
+        singleRegion[0] = region;
+        Core.batch.draw(singleRegion, null, x, y, w, h, rotation, colors, 0, count);
+        singleRegion[0] = null;
+    }
+
+    /**
+     * Draws sprites from parallel arrays, much faster than calling {@link #rect(TextureRegion, float, float, float, float, float)} for each.
+     * @param regionIndices the index into regions of each sprite
+     * @param rotation rotations in degrees, or null for unrotated sprites
+     * @param colors packed colors, or null to use the current color
+     */
+    public static void rects(TextureRegion[] regions, int[] regionIndices, float[] x, float[] y, float[] w, float[] h, @Nullable float[] rotation, @Nullable float[] colors, int count){
+        Core.batch.draw(regions, regionIndices, x, y, w, h, rotation, colors, 0, count);
+    }
+
     public static void vert(Texture texture, float[] vertices, int offset, int length){
         Core.batch.draw(texture, vertices, offset, length);
     }
@@ -438,6 +460,7 @@ public class Draw{
     public static void proj(float x, float y, float w, float h){
         flush();
         batch.getProjection().setOrtho(x, y, w, h);
+        if(batch.cullProjection) batch.updateCull();
     }
 
     public static void proj(Camera proj){
@@ -452,6 +475,26 @@ public class Draw{
         return Core.batch.getProjection();
     }
 
+    /** Skips sprites that are fully outside the specified rectangle, in world coordinates, before their vertices are built. */
+    public static void cull(Rect rect){
+        Core.batch.setCull(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    /** Skips sprites that are fully outside the view of the camera. */
+    public static void cull(Camera camera){
+        cull(camera.bounds(Tmp.r1));
+    }
+
+    /** Skips sprites that are outside the current projection. The culled area follows any later {@link #proj} and {@link #trans} calls. */
+    public static void cull(){
+        Core.batch.setCullProjection();
+    }
+
+    /** Disables culling. */
+    public static void noCull(){
+        Core.batch.disableCull();
+    }
+
     public static void trans(Mat trans){
         Core.batch.setTransform(trans);
     }
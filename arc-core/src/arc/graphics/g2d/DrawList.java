@@ -0,0 +1,198 @@
+package arc.graphics.g2d;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.gl.*;
+import arc.util.*;
+
+import java.util.*;
+
+/**
+ * A retained list of draw calls. Unlike {@link CacheBatch}, it keeps z layers, blending and {@link Draw#draw(float, Runnable)} requests,
+ * so it can record anything that is drawn through {@link Draw}.
+ * <p>
+ * Record with {@link #begin()} and {@link #end()}; everything drawn in between goes into this list instead of {@link Core#batch}.
+ * Sprites are stored as finished vertices in one array, and each run of sprites with the same texture, blending and z is a single entry.
+ * Replaying into a sorting {@link SpriteBatch} copies the vertices into its request array in bulk, applying only a translation and scale.
+ * <p>
+ * Shaders, matrices and flushes are not recorded; set them inside a {@link Draw#draw(float, Runnable)} request instead.
+ */
+public class DrawList extends Batch{
+    /** Finished sprite vertices, in {@link SpriteBatch} layout. */
+    float[] vertices = new float[SpriteBatch.SPRITE_SIZE * 64];
+    int vertexCount;
+
+    /** Entries: a run of vertices, or a runnable when {@link #runs} is set. */
+    Texture[] textures = new Texture[16];
+    Blending[] blendings = new Blending[16];
+    Runnable[] runs = new Runnable[16];
+    float[] zs = new float[16];
+    int[] offsets = new int[16], lengths = new int[16];
+    int entries;
+
+    private @Nullable Batch lastBatch;
+    private float[] scratch = new float[SpriteBatch.SPRITE_SIZE];
+
+    /** Clears this list and starts recording into it, replacing {@link Core#batch} until {@link #end()} is called. */
+    public void begin(){
+        if(lastBatch != null) throw new IllegalStateException("DrawList.end must be called before begin.");
+        clear();
+        lastBatch = Core.batch;
+        Core.batch = this;
+    }
+
+    /** Stops recording and restores the previous {@link Core#batch}. */
+    public void end(){
+        if(lastBatch == null) throw new IllegalStateException("DrawList.begin must be called before end.");
+        Core.batch = lastBatch;
+        lastBatch = null;
+    }
+
+    /** Removes all recorded draw calls, and resets z, color and blending. */
+    public void clear(){
+        Arrays.fill(textures, 0, entries, null);
+        Arrays.fill(runs, 0, entries, null);
+        Arrays.fill(blendings, 0, entries, null);
+        entries = 0;
+        vertexCount = 0;
+        z = 0f;
+        colorPacked = Color.whiteFloatBits;
+        mixColorPacked = Color.clearFloatBits;
+        blending = Blending.normal;
+    }
+
+    /** @return the number of recorded entries; each is a run of sprites with the same state, or a runnable. */
+    public int size(){
+        return entries;
+    }
+
+    /** @return the number of recorded vertex floats. */
+    public int vertexSize(){
+        return vertexCount;
+    }
+
+    /** Replays this list into {@link Core#batch} at its recorded position. */
+    public void draw(){
+        draw(0f, 0f, 1f, 1f);
+    }
+
+    /** Replays this list into {@link Core#batch}, translated by the specified amount. */
+    public void draw(float x, float y){
+        draw(x, y, 1f, 1f);
+    }
+
+    /**
+     * Replays this list into {@link Core#batch}. Recorded positions are scaled, then translated.
+     * Runnables are replayed as-is, without the transform.
+     */
+    public void draw(float x, float y, float scaleX, float scaleY){
+        if(Core.batch == this) throw new IllegalStateException("A DrawList cannot be replayed into itself.");
+        Core.batch.draw(this, x, y, scaleX, scaleY);
+    }
+
+    /** Replays entries one by one through the regular draw methods of a batch. */
+    void replay(Batch batch, float x, float y, float scaleX, float scaleY){
+        float lastZ = batch.z;
+        Blending lastBlending = batch.getBlending();
+        boolean identity = x == 0f && y == 0f && scaleX == 1f && scaleY == 1f;
+
+        for(int i = 0; i < entries; i++){
+            batch.z(zs[i]);
+            batch.setBlending(blendings[i]);
+
+            if(runs[i] != null){
+                batch.draw(runs[i]);
+            }else if(identity){
+                batch.draw(textures[i], vertices, offsets[i], lengths[i]);
+            }else{
+                int length = lengths[i];
+                if(scratch.length < length) scratch = new float[length];
+                transform(vertices, offsets[i], scratch, 0, length, x, y, scaleX, scaleY);
+                batch.draw(textures[i], scratch, 0, length);
+            }
+        }
+
+        batch.z(lastZ);
+        batch.setBlending(lastBlending);
+    }
+
+    /** Copies sprite vertices, scaling and translating their positions. */
+    static void transform(float[] src, int srcOffset, float[] dest, int destOffset, int length, float x, float y, float scaleX, float scaleY){
+        System.arraycopy(src, srcOffset, dest, destOffset, length);
+        for(int i = destOffset, end = destOffset + length; i < end; i += SpriteBatch.VERTEX_SIZE){
+            dest[i] = dest[i] * scaleX + x;
+            dest[i + 1] = dest[i + 1] * scaleY + y;
+        }
+    }
+
+    /** Adds an entry, or extends the last one if it has the same state. */
+    private void add(Texture texture, float[] spriteVertices, int offset, int count){
+        int entry = entries - 1;
+        if(!(entry >= 0 && runs[entry] == null && textures[entry] == texture && blendings[entry] == blending && zs[entry] == z)){
+            entry = newEntry();
+            textures[entry] = texture;
+            offsets[entry] = vertexCount;
+        }
+
+        ensureVertices(count);
+        System.arraycopy(spriteVertices, offset, vertices, vertexCount, count);
+        vertexCount += count;
+        lengths[entry] += count;
+    }
+
+    private int newEntry(){
+        if(entries >= textures.length){
+            int size = entries * 7 / 4;
+            textures = Arrays.copyOf(textures, size);
+            blendings = Arrays.copyOf(blendings, size);
+            runs = Arrays.copyOf(runs, size);
+            zs = Arrays.copyOf(zs, size);
+            offsets = Arrays.copyOf(offsets, size);
+            lengths = Arrays.copyOf(lengths, size);
+        }
+        int entry = entries++;
+        textures[entry] = null;
+        runs[entry] = null;
+        blendings[entry] = blending;
+        zs[entry] = z;
+        offsets[entry] = lengths[entry] = 0;
+        return entry;
+    }
+
+    private void ensureVertices(int count){
+        while(vertexCount + count > vertices.length) vertices = Arrays.copyOf(vertices, vertices.length << 1);
+    }
+
+    @Override
+    protected void draw(Texture texture, float[] spriteVertices, int offset, int count){
+        add(texture, spriteVertices, offset, count);
+    }
+
+    @Override
+    protected void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        float[] tmp = scratch;
+        SpriteBatch.constructVertices(tmp, 0, region, x, y, originX, originY, width, height, rotation, colorPacked, mixColorPacked);
+        add(region.texture, tmp, 0, SpriteBatch.SPRITE_SIZE);
+    }
+
+    @Override
+    protected void draw(Runnable request){
+        runs[newEntry()] = request;
+    }
+
+    @Override
+    protected void setBlending(Blending blending){
+        //blending is recorded per entry
+        this.blending = blending;
+    }
+
+    @Override
+    protected void flush(){
+        //nothing to flush; everything is recorded
+    }
+
+    @Override
+    protected void setShader(Shader shader, boolean apply){
+        throw new IllegalArgumentException("Shaders cannot be recorded in a DrawList. Set shaders inside Draw.draw(z, Runnable) instead.");
+    }
+}
@@ -530,6 +530,11 @@ public class Font implements Disposable{
         public float cursorX;
         /** The glyph to display for characters not in the font. May be null. */
         public Glyph missingGlyph;
+        /**
+         * Incremented when glyphs that were drawn with a placeholder become available, e.g. after asynchronous rasterization.
+         * Text laid out with an older version should be laid out again.
+         */
+        public int glyphVersion;
 
         /** The width of the space character. */
         public float spaceXadvance;
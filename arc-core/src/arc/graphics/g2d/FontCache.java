@@ -29,6 +29,13 @@ public class FontCache{
     private float x, y;
     private float currentTint;
 
+    /** The layout cached by the last {@link #updateText(GlyphLayout, float, float)} call, its version and position. */
+    private GlyphLayout trackedLayout;
+    private int trackedVersion;
+    private float trackedX, trackedY;
+    /** Number of {@link #updateText(GlyphLayout, float, float)} calls that rebuilt the glyphs, and that only moved them. */
+    public int rebuilds, rebuildsSkipped;
+
     /** Vertex data per page. */
     private float[][] pageVertices;
     /** Number of vertex data entries per page. */
@@ -87,7 +94,10 @@ public class FontCache{
         }
         x += xAmount;
         y += yAmount;
+        shiftVertices(xAmount, yAmount);
+    }
 
+    private void shiftVertices(float xAmount, float yAmount){
         float[][] pageVertices = this.pageVertices;
         for(int i = 0, n = pageVertices.length; i < n; i++){
             float[] vertices = pageVertices[i];
@@ -289,6 +299,7 @@ public class FontCache{
     public void clear(){
         x = 0;
         y = 0;
+        trackedLayout = null;
         Pools.freeAll(pooledLayouts, true);
         pooledLayouts.clear();
         layouts.clear();
@@ -480,6 +491,34 @@ public class FontCache{
         addText(layout, x, y);
     }
 
+    /**
+     * Like {@link #setText(GlyphLayout, float, float)}, but skips rebuilding the glyphs if this cache only contains the same layout, and it
+     * has not been set again since (see {@link GlyphLayout#version}). In that case, the glyphs are only moved to the new position,
+     * relative to the current {@link #getX()} and {@link #getY()}, which stay the same.
+     * Layouts whose runs are changed directly must use {@link #setText(GlyphLayout, float, float)} instead.
+     */
+    public void updateText(GlyphLayout layout, float x, float y){
+        if(trackedLayout == layout && trackedVersion == layout.version && layouts.size == 1 && layouts.first() == layout){
+            float xAmount = x - trackedX, yAmount = y - trackedY;
+            if(integer){
+                xAmount = Math.round(xAmount);
+                yAmount = Math.round(yAmount);
+            }
+            if(xAmount != 0 || yAmount != 0) shiftVertices(xAmount, yAmount);
+            trackedX += xAmount;
+            trackedY += yAmount;
+            rebuildsSkipped++;
+            return;
+        }
+
+        setText(layout, x, y);
+        trackedLayout = layout;
+        trackedVersion = layout.version;
+        trackedX = x;
+        trackedY = y;
+        rebuilds++;
+    }
+
     /**
      * Adds glyphs for the specified text.
      * @see #addText(CharSequence, float, float, int, int, float, int, boolean, String)
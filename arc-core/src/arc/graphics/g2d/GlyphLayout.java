@@ -22,6 +22,10 @@ public class GlyphLayout implements Poolable{
     private final Seq<Color> colorStack = new Seq<>(4);
     public boolean ignoreMarkup = false;
     public float width, height;
+    /** Incremented every time this layout is set or reset, so caches can tell whether it changed. Direct changes to runs are not counted. */
+    public int version;
+    /** If true, {@link #setText} and {@link #reset()} throw an exception. Set for layouts that are shared by a {@link GlyphLayoutCache}. */
+    private boolean readOnly;
 
     /** Creates an empty GlyphLayout. */
     public GlyphLayout(){
@@ -73,7 +77,9 @@ public class GlyphLayout implements Poolable{
     public void setText(Font font, CharSequence str, int start, int end, Color color, float targetWidth, int halign,
                         boolean wrap, String truncate){
 
+        checkWritable();
         FontData fontData = font.data;
+        version++;
 
         if(truncate != null)
             wrap = true; // Causes truncate code to run, doesn't actually cause wrapping.
@@ -470,10 +476,25 @@ public class GlyphLayout implements Poolable{
         return -1; // Unclosed color tag.
     }
 
+    /** Makes this layout read-only. Its runs are still accessible, but must not be modified. */
+    public void setReadOnly(){
+        readOnly = true;
+    }
+
+    public boolean isReadOnly(){
+        return readOnly;
+    }
+
+    private void checkWritable(){
+        if(readOnly) throw new IllegalStateException("This layout is shared by a GlyphLayoutCache and must not be modified.");
+    }
+
     @Override
     public void reset(){
+        checkWritable();
         Pools.get(GlyphRun.class, GlyphRun::new).freeAll(runs);
         runs.clear();
+        version++;
 
         ignoreMarkup = false;
         width = 0;
@@ -0,0 +1,239 @@
+package arc.graphics.g2d;
+
+import arc.graphics.*;
+import arc.graphics.g2d.Font.*;
+import arc.graphics.g2d.GlyphLayout.*;
+import arc.struct.*;
+import arc.util.*;
+
+/**
+ * A bounded, least-recently-used cache of laid out text. Looking up a string that was laid out before with the same font, color, width,
+ * alignment, wrapping and truncation returns the previous {@link GlyphLayout} instead of running glyph lookup, kerning, wrapping and
+ * markup parsing again.
+ * <p>
+ * Returned layouts are shared and {@link GlyphLayout#isReadOnly() read-only}. Evicted layouts are left to the garbage collector
+ * instead of being pooled, so references that are still held elsewhere stay valid.
+ * <p>
+ * The font scale, markup setting and {@link FontData#glyphVersion} are part of the key, but other changes to a font's data are not
+ * tracked; call {@link #clear(Font)} after modifying a font.
+ */
+public class GlyphLayoutCache{
+    /** Maximum number of cached layouts. */
+    public int maxEntries;
+    /** Maximum estimated memory used by cached layouts, in bytes. */
+    public long maxBytes;
+
+    /** Lookup statistics, cleared by {@link #resetStats()}. */
+    public int hits, misses, evictions;
+
+    private final ObjectMap<Entry, Entry> entries = new ObjectMap<>();
+    private final Entry probe = new Entry();
+    /** Most and least recently used entries. */
+    private @Nullable Entry head, tail;
+    private long bytes;
+
+    /** Creates a cache of up to 8192 layouts or 8 megabytes. */
+    public GlyphLayoutCache(){
+        this(8192, 8L * 1024 * 1024);
+    }
+
+    public GlyphLayoutCache(int maxEntries, long maxBytes){
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /** @see #get(Font, CharSequence, Color, float, int, boolean, String) */
+    public GlyphLayout get(Font font, CharSequence text){
+        return get(font, text, font.getColor(), 0f, Align.left, false, null);
+    }
+
+    /** @see #get(Font, CharSequence, Color, float, int, boolean, String) */
+    public GlyphLayout get(Font font, CharSequence text, Color color, float targetWidth, int halign, boolean wrap){
+        return get(font, text, color, targetWidth, halign, wrap, null);
+    }
+
+    /**
+     * Returns the layout of the specified text, laying it out only if it is not cached yet.
+     * The parameters are the same as in {@link GlyphLayout#setText(Font, CharSequence, int, int, Color, float, int, boolean, String)}.
+     * @return a shared, read-only layout.
+     */
+    public GlyphLayout get(Font font, CharSequence text, Color color, float targetWidth, int halign, boolean wrap, @Nullable String truncate){
+        Entry probe = this.probe;
+        probe.set(font, text, color.rgba(), targetWidth, halign, wrap, truncate);
+
+        Entry entry = entries.get(probe);
+        probe.text = null;
+        probe.font = null;
+
+        if(entry != null){
+            hits++;
+            moveToFront(entry);
+            return entry.layout;
+        }
+
+        misses++;
+        entry = new Entry();
+        entry.set(font, text.toString(), probe.color, targetWidth, halign, wrap, truncate);
+        entry.layout = new GlyphLayout(font, text, 0, text.length(), color, targetWidth, halign, wrap, truncate);
+        entry.layout.setReadOnly();
+        entry.bytes = estimate(entry);
+
+        entries.put(entry, entry);
+        bytes += entry.bytes;
+        addFirst(entry);
+        trim();
+        return entry.layout;
+    }
+
+    /** Removes all cached layouts. */
+    public void clear(){
+        entries.clear();
+        head = tail = null;
+        bytes = 0;
+    }
+
+    /** Removes all cached layouts of the specified font. Call this after changing the font's data. */
+    public void clear(Font font){
+        for(Entry entry = head; entry != null; ){
+            Entry next = entry.next;
+            if(entry.font == font) remove(entry);
+            entry = next;
+        }
+    }
+
+    public void resetStats(){
+        hits = misses = evictions = 0;
+    }
+
+    /** @return the number of cached layouts. */
+    public int size(){
+        return entries.size;
+    }
+
+    /** @return the estimated memory used by cached layouts, in bytes. */
+    public long memory(){
+        return bytes;
+    }
+
+    private void trim(){
+        while(tail != null && tail != head && (entries.size > maxEntries || bytes > maxBytes)){
+            remove(tail);
+            evictions++;
+        }
+    }
+
+    private void remove(Entry entry){
+        entries.remove(entry);
+        bytes -= entry.bytes;
+        unlink(entry);
+    }
+
+    private void moveToFront(Entry entry){
+        if(entry == head) return;
+        unlink(entry);
+        addFirst(entry);
+    }
+
+    private void addFirst(Entry entry){
+        entry.prev = null;
+        entry.next = head;
+        if(head != null) head.prev = entry;
+        head = entry;
+        if(tail == null) tail = entry;
+    }
+
+    private void unlink(Entry entry){
+        if(entry.prev != null) entry.prev.next = entry.next;
+        else head = entry.next;
+        if(entry.next != null) entry.next.prev = entry.prev;
+        else tail = entry.prev;
+        entry.prev = entry.next = null;
+    }
+
+    /** Rough size of an entry: the key, the layout, its runs and their glyph and advance arrays. */
+    private static int estimate(Entry entry){
+        int bytes = 160 + entry.text.length() * 2;
+        Seq<GlyphRun> runs = entry.layout.runs;
+        for(int i = 0; i < runs.size; i++){
+            GlyphRun run = runs.get(i);
+            Object[] glyphs = run.glyphs.items;
+            bytes += 96 + glyphs.length * 4 + run.xAdvances.items.length * 4;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString(){
+        return "GlyphLayoutCache{" +
+        "size=" + entries.size +
+        ", bytes=" + bytes +
+        ", hits=" + hits +
+        ", misses=" + misses +
+        ", evictions=" + evictions +
+        '}';
+    }
+
+    static class Entry{
+        Font font;
+        CharSequence text;
+        int color, halign, glyphVersion, hash;
+        float targetWidth, scaleX, scaleY;
+        boolean wrap, markup;
+        String truncate;
+
+        GlyphLayout layout;
+        int bytes;
+        Entry prev, next;
+
+        void set(Font font, CharSequence text, int color, float targetWidth, int halign, boolean wrap, String truncate){
+            this.font = font;
+            this.text = text;
+            this.color = color;
+            this.targetWidth = targetWidth;
+            this.halign = halign;
+            this.wrap = wrap;
+            this.truncate = truncate;
+            this.scaleX = font.data.scaleX;
+            this.scaleY = font.data.scaleY;
+            this.markup = font.data.markupEnabled;
+            this.glyphVersion = font.data.glyphVersion;
+
+            int h = System.identityHashCode(font);
+            for(int i = 0, n = text.length(); i < n; i++){
+                h = 31 * h + text.charAt(i);
+            }
+            h = 31 * h + color;
+            h = 31 * h + Float.floatToIntBits(targetWidth);
+            h = 31 * h + halign;
+            h = 31 * h + (wrap ? 1 : 0);
+            h = 31 * h + (truncate == null ? 0 : truncate.hashCode());
+            h = 31 * h + Float.floatToIntBits(scaleX);
+            h = 31 * h + Float.floatToIntBits(scaleY);
+            h = 31 * h + glyphVersion;
+            hash = h;
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this == o) return true;
+            if(!(o instanceof Entry)) return false;
+            Entry e = (Entry)o;
+            if(hash != e.hash || font != e.font || color != e.color || halign != e.halign || wrap != e.wrap || markup != e.markup
+                || targetWidth != e.targetWidth || scaleX != e.scaleX || scaleY != e.scaleY || glyphVersion != e.glyphVersion) return false;
+            if(truncate == null ? e.truncate != null : !truncate.equals(e.truncate)) return false;
+
+            CharSequence a = text, b = e.text;
+            int n = a.length();
+            if(n != b.length()) return false;
+            for(int i = 0; i < n; i++){
+                if(a.charAt(i) != b.charAt(i)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package arc.graphics.g2d;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.gl.*;
+import arc.util.*;
+
+import java.nio.*;
+
+/**
+ * A {@link SpriteBatch} that draws texture regions with GL30 instancing. Instead of 4 vertices of {@link SpriteBatch#VERTEX_SIZE} floats,
+ * each sprite is uploaded as one record of {@link #RECORD_SIZE} floats: position, size, origin, rotation, UVs and packed colors.
+ * The vertex shader expands each record into a quad.
+ * <p>
+ * Only {@link #draw(TextureRegion, float, float, float, float, float, float, float)} with the default shader goes through the instanced path.
+ * When sorting, these sprites are stored as records in their requests as well, and are only expanded on the GPU.
+ * Pre-built vertices and custom shaders use the regular SpriteBatch path. Without GL30, this batch behaves exactly like a SpriteBatch.
+ */
+public class InstancedSpriteBatch extends SpriteBatch{
+    //x, y, width, height, originX, originY, rotation, u, v2, u2, v, color, mix_color
+    public static final int RECORD_SIZE = 13;
+
+    private static final int recordBytes = RECORD_SIZE * 4;
+
+    protected final boolean instanced;
+    protected Shader instanceShader;
+
+    protected float[] records;
+    protected int instances;
+    protected Texture instanceTexture;
+
+    private final TextureRegion expandRegion = new TextureRegion();
+    private ByteBuffer instanceBuffer;
+    private int vao = -1, quadHandle, instanceHandle;
+    private QuadIndexData quadIndices;
+
+    /** Constructs a batch of 4096 sprites. */
+    public InstancedSpriteBatch(){
+        this(4096);
+    }
+
+    /** @param size The max number of sprites in a single batch or instanced draw call. */
+    public InstancedSpriteBatch(int size){
+        super(size);
+
+        instanced = size > 0 && Core.gl30 != null && Core.vk == null;
+        if(instanced){
+            records = new float[size * RECORD_SIZE];
+            instanceBuffer = Buffers.newUnsafeByteBuffer(size * recordBytes);
+            instanceShader = createInstanceShader();
+        }
+    }
+
+    @Override
+    protected void flush(){
+        int cause = takeFlushCause();
+        flushCause = cause;
+        super.flush();
+        flushInstances(cause);
+    }
+
+    @Override
+    protected void discard(){
+        super.discard();
+        instances = 0;
+    }
+
+    @Override
+    protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+        if(instances > 0) flushInstances(BatchStats.flushExplicit);
+        super.drawSuper(texture, spriteVertices, offset, count);
+    }
+
+    @Override
+    protected void drawSuper(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        if(!instanced || customShader != null){
+            super.drawSuper(region, x, y, originX, originY, width, height, rotation);
+            return;
+        }
+
+        prepareInstances(region.texture, 1);
+        constructRecord(records, instances * RECORD_SIZE, region, x, y, originX, originY, width, height, rotation);
+        instances++;
+    }
+
+    @Override
+    protected void requestSprite(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        if(!instanced || customShader != null){
+            super.requestSprite(region, x, y, originX, originY, width, height, rotation);
+            return;
+        }
+
+        //store the record instead of 4 vertices; consecutive sprites of the same state share a request
+        int pos = requestVertOffset;
+        prepare(RECORD_SIZE);
+        constructRecord(requestVerts, pos, region, x, y, originX, originY, width, height, rotation);
+        requestVertOffset += RECORD_SIZE;
+
+        int num = numRequests;
+        if(num > 0){
+            DrawRequest last = requests[num - 1];
+            if(last.instanced && last.run == null && last.texture == region.texture && last.blending == blending && requestZ[num - 1] == intZ){
+                last.verticesLength += RECORD_SIZE;
+                return;
+            }
+        }
+        if(num >= requests.length) expandRequests();
+        DrawRequest req = requests[num];
+        req.verticesOffset = pos;
+        req.verticesLength = RECORD_SIZE;
+        requestZ[num] = req.z = intZ;
+        req.texture = region.texture;
+        req.blending = blending;
+        req.run = null;
+        req.instanced = true;
+        numRequests++;
+    }
+
+    @Override
+    protected void flushRequest(DrawRequest req, float[] vertices){
+        if(!req.instanced){
+            super.flushRequest(req, vertices);
+            return;
+        }
+
+        int offset = req.verticesOffset, remaining = req.verticesLength / RECORD_SIZE;
+        if(customShader != null){
+            //a shader set by an earlier request doesn't know about records, so they are expanded into vertices
+            TextureRegion region = expandRegion;
+            region.texture = req.texture;
+            for(int i = offset, end = offset + req.verticesLength; i < end; i += RECORD_SIZE){
+                region.u = vertices[i + 7];
+                region.v2 = vertices[i + 8];
+                region.u2 = vertices[i + 9];
+                region.v = vertices[i + 10];
+                colorPacked = vertices[i + 11];
+                mixColorPacked = vertices[i + 12];
+                super.drawSuper(region, vertices[i], vertices[i + 1], vertices[i + 4], vertices[i + 5], vertices[i + 2], vertices[i + 3], vertices[i + 6]);
+            }
+            return;
+        }
+
+        while(remaining > 0){
+            prepareInstances(req.texture, 1);
+            int count = Math.min(remaining, records.length / RECORD_SIZE - instances);
+            System.arraycopy(vertices, offset, records, instances * RECORD_SIZE, count * RECORD_SIZE);
+            instances += count;
+            offset += count * RECORD_SIZE;
+            remaining -= count;
+        }
+    }
+
+    /** Flushes pending vertices, and pending instances if the texture changes or fewer than the specified number of records fit. */
+    private void prepareInstances(Texture texture, int count){
+        //keep submission order between the two paths
+        if(idx > 0) flush();
+
+        if(texture != instanceTexture){
+            flushInstances(BatchStats.flushTexture);
+            instanceTexture = texture;
+        }else if((instances + count) * RECORD_SIZE > records.length){
+            flushInstances(BatchStats.flushBuffer);
+        }
+    }
+
+    /** Writes the instance record of a sprite, see {@link #RECORD_SIZE}. */
+    protected void constructRecord(float[] out, int i, TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        out[i] = x;
+        out[i + 1] = y;
+        out[i + 2] = width;
+        out[i + 3] = height;
+        out[i + 4] = originX;
+        out[i + 5] = originY;
+        out[i + 6] = rotation;
+        //bottom left and top right UVs
+        out[i + 7] = region.u;
+        out[i + 8] = region.v2;
+        out[i + 9] = region.u2;
+        out[i + 10] = region.v;
+        out[i + 11] = colorPacked;
+        out[i + 12] = mixColorPacked;
+    }
+
+    /**
+     * Draws all pending instances in one call.
+     * @param cause the flush cause to record in {@link #stats}
+     */
+    protected void flushInstances(int cause){
+        if(instances == 0) return;
+
+        if(vao == -1) createBuffers();
+
+        Shader shader = instanceShader;
+        shader.bind();
+        combinedMatrix.set(projectionMatrix).mul(transformMatrix);
+        shader.setUniformMatrix4("u_projTrans", combinedMatrix);
+        shader.setUniformi("u_texture", 0);
+
+        Gl.depthMask(false);
+        blending.apply();
+        instanceTexture.bind(0);
+
+        instanceBuffer.position(0);
+        Buffers.copy(records, 0, instanceBuffer, instances * RECORD_SIZE);
+
+        GL30 gl = Core.gl30;
+        gl.glBindVertexArray(vao);
+        Gl.bindBuffer(Gl.arrayBuffer, instanceHandle);
+        //orphan the previous storage so the driver does not wait for the last draw to finish
+        Gl.bufferData(Gl.arrayBuffer, instanceBuffer.capacity(), null, Gl.streamDraw);
+        Gl.bufferSubData(Gl.arrayBuffer, 0, instances * recordBytes, instanceBuffer);
+        gl.glDrawElementsInstanced(Gl.triangles, 6, Gl.unsignedShort, 0, instances);
+        gl.glBindVertexArray(0);
+
+        stats.flushed(cause, instances * 4);
+        instances = 0;
+    }
+
+    private void createBuffers(){
+        GL30 gl = Core.gl30;
+        IntBuffer tmp = Buffers.newIntBuffer(1);
+        gl.glGenVertexArrays(1, tmp);
+        vao = tmp.get(0);
+        gl.glBindVertexArray(vao);
+
+        //quad corners, in the same order as SpriteBatch vertices
+        FloatBuffer corners = Buffers.newFloatBuffer(8);
+        corners.put(new float[]{0f, 0f, 0f, 1f, 1f, 1f, 1f, 0f}).flip();
+        quadHandle = Gl.genBuffer();
+        Gl.bindBuffer(Gl.arrayBuffer, quadHandle);
+        Gl.bufferData(Gl.arrayBuffer, 8 * 4, corners, Gl.staticDraw);
+
+        Shader shader = instanceShader;
+        int corner = shader.getAttributeLocation("a_corner");
+        Gl.enableVertexAttribArray(corner);
+        Gl.vertexAttribPointer(corner, 2, Gl.floatV, false, 0, 0);
+
+        //the first quad of the shared indices; binding it while the VAO is bound stores it in the VAO
+        quadIndices = QuadIndexData.obtain(1, false, false);
+        quadIndices.bind();
+
+        instanceHandle = Gl.genBuffer();
+        Gl.bindBuffer(Gl.arrayBuffer, instanceHandle);
+        Gl.bufferData(Gl.arrayBuffer, instanceBuffer.capacity(), null, Gl.streamDraw);
+
+        instanceAttribute(shader.getAttributeLocation("a_rect"), 4, Gl.floatV, false, 0);
+        instanceAttribute(shader.getAttributeLocation("a_transform"), 3, Gl.floatV, false, 4 * 4);
+        instanceAttribute(shader.getAttributeLocation("a_uv"), 4, Gl.floatV, false, 7 * 4);
+        instanceAttribute(shader.getAttributeLocation(Shader.colorAttribute), 4, Gl.unsignedByte, true, 11 * 4);
+        instanceAttribute(shader.getAttributeLocation(Shader.mixColorAttribute), 4, Gl.unsignedByte, true, 12 * 4);
+
+        gl.glBindVertexArray(0);
+    }
+
+    private void instanceAttribute(int location, int components, int type, boolean normalized, int offset){
+        if(location < 0) return;
+        Gl.enableVertexAttribArray(location);
+        Gl.vertexAttribPointer(location, components, type, normalized, recordBytes, offset);
+        Core.gl30.glVertexAttribDivisor(location, 1);
+    }
+
+    @Override
+    public void dispose(){
+        super.dispose();
+        if(instanceShader != null) instanceShader.dispose();
+        if(instanceBuffer != null) Buffers.disposeUnsafeByteBuffer(instanceBuffer);
+        if(vao != -1){
+            IntBuffer tmp = Buffers.newIntBuffer(1);
+            tmp.put(vao).flip();
+            Core.gl30.glDeleteVertexArrays(1, tmp);
+            Gl.deleteBuffer(quadHandle);
+            quadIndices.dispose();
+            Gl.deleteBuffer(instanceHandle);
+            vao = -1;
+        }
+    }
+
+    public static Shader createInstanceShader(){
+        return new Shader(
+        "attribute vec2 a_corner;\n" +
+        "attribute vec4 a_rect;\n" +
+        "attribute vec3 a_transform;\n" +
+        "attribute vec4 a_uv;\n" +
+        "attribute vec4 a_color;\n" +
+        "attribute vec4 a_mix_color;\n" +
+        "uniform mat4 u_projTrans;\n" +
+        "varying vec4 v_color;\n" +
+        "varying vec4 v_mix_color;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "\n" +
+        "void main(){\n" +
+        "   vec2 local = a_corner * a_rect.zw - a_transform.xy;\n" +
+        "   float angle = radians(a_transform.z);\n" +
+        "   float c = cos(angle), s = sin(angle);\n" +
+        "   vec2 pos = a_rect.xy + a_transform.xy + vec2(c * local.x - s * local.y, s * local.x + c * local.y);\n" +
+        "   v_color = a_color;\n" +
+        "   v_color.a = v_color.a * (255.0/254.0);\n" +
+        "   v_mix_color = a_mix_color;\n" +
+        "   v_mix_color.a *= (255.0/254.0);\n" +
+        "   v_texCoords = mix(a_uv.xy, a_uv.zw, a_corner);\n" +
+        "   gl_Position = u_projTrans * vec4(pos, 0.0, 1.0);\n" +
+        "}",
+
+        "\n" +
+        "varying lowp vec4 v_color;\n" +
+        "varying lowp vec4 v_mix_color;\n" +
+        "varying highp vec2 v_texCoords;\n" +
+        "uniform highp sampler2D u_texture;\n" +
+        "\n" +
+        "void main(){\n" +
+        "  vec4 c = texture2D(u_texture, v_texCoords);\n" +
+        "  gl_FragColor = v_color * mix(c, vec4(v_mix_color.rgb, c.a), v_mix_color.a);\n" +
+        "}"
+        );
+    }
+}
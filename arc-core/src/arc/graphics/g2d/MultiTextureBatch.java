@@ -0,0 +1,272 @@
+package arc.graphics.g2d;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.gl.*;
+import arc.math.*;
+
+import java.util.*;
+
+/**
+ * A {@link SpriteBatch} that binds several textures at once, instead of flushing on every texture switch.
+ * Each vertex stores the index of its texture slot after the mix color; the batch only flushes once all slots are in use,
+ * or when the vertex buffer is full.
+ * <p>
+ * Custom shaders set with {@link #setShader(Shader)} only see texture unit 0, so while one is active this batch
+ * behaves like a regular SpriteBatch and uses a single slot.
+ * Compare {@link BatchStats#drawCalls} in {@link #stats} with a regular SpriteBatch to see the difference in draw calls.
+ */
+public class MultiTextureBatch extends SpriteBatch{
+    /** Maximum number of slots; limited by the texture state cached in {@link Gl}. */
+    public static final int maxSlots = 16;
+    //xy + color + uv + mix_color + texture_index
+    public static final int VERTEX_SIZE = SpriteBatch.VERTEX_SIZE + 1;
+    public static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
+
+    public static final VertexAttribute textureIndex = new VertexAttribute(1, "a_texture_index");
+
+    /** Sprites converted per chunk when copying pre-built vertices. */
+    private static final int chunkSprites = 128;
+
+    protected final Texture[] textures;
+    /** Scratch slots for counting flushes while state sorting. */
+    private final Texture[] sortTextures;
+    protected final int slots;
+    protected int usedSlots;
+
+    private int lastSlot;
+    private final float[] spriteVertices = new float[SpriteBatch.SPRITE_SIZE];
+    private final float[] converted = new float[chunkSprites * SPRITE_SIZE];
+
+    /** Constructs a batch of 4096 sprites that uses as many texture slots as the device supports. */
+    public MultiTextureBatch(){
+        this(4096, maxSlots);
+    }
+
+    /**
+     * @param size The max number of sprites in a single batch. Above 8191, 32-bit indices are used.
+     * @param textureSlots The max number of textures bound at once. Clamped to GL_MAX_TEXTURE_IMAGE_UNITS and {@link #maxSlots}.
+     */
+    public MultiTextureBatch(int size, int textureSlots){
+        this(size, textureSlots, supportedSlots(textureSlots));
+    }
+
+    private MultiTextureBatch(int size, int textureSlots, int slots){
+        super(size, size > 0 ? createShader(slots) : null,
+        VertexAttribute.position, VertexAttribute.color, VertexAttribute.texCoords, VertexAttribute.mixColor, textureIndex);
+        ownsShader = shader != null;
+        this.slots = slots;
+        this.textures = new Texture[slots];
+        this.sortTextures = new Texture[slots];
+    }
+
+    /** @return the number of textures that can be bound at once, given the requested amount. */
+    public static int supportedSlots(int requested){
+        int max = Core.gl == null ? 1 : Gl.getInt(Gl.maxTextureImageUnits);
+        return Mathf.clamp(Math.min(requested, max), 1, maxSlots);
+    }
+
+    public int getSlots(){
+        return slots;
+    }
+
+    @Override
+    protected void flush(){
+        super.flush();
+        usedSlots = 0;
+    }
+
+    @Override
+    protected void discard(){
+        super.discard();
+        usedSlots = 0;
+    }
+
+    @Override
+    protected boolean tryFlushVulkanFastPath(){
+        //the fast path expects the default vertex layout
+        return false;
+    }
+
+    @Override
+    protected void bindTextures(){
+        if(customShader != null){
+            lastTexture.bind();
+            return;
+        }
+
+        for(int i = usedSlots - 1; i >= 0; i--){
+            textures[i].bind(i);
+        }
+    }
+
+    @Override
+    protected void switchTexture(Texture texture){
+        slot(texture);
+    }
+
+    @Override
+    protected int stateFlushes(DrawRequest[] r, int from, int to){
+        int max = customShader == null ? slots : 1;
+        if(max == 1) return super.stateFlushes(r, from, to);
+
+        //a texture change only flushes once every slot is taken
+        Texture[] bound = sortTextures;
+        Blending blending = r[from].blending;
+        int used = 0, flushes = 0;
+        for(int i = from; i < to; i++){
+            DrawRequest req = r[i];
+            if(req.blending != blending){
+                blending = req.blending;
+                flushes++;
+                used = 0;
+            }
+            if(req.texture == null) continue;
+
+            boolean found = false;
+            for(int j = 0; j < used; j++){
+                if(bound[j] == req.texture){
+                    found = true;
+                    break;
+                }
+            }
+            if(!found){
+                if(used >= max){
+                    flushes++;
+                    used = 0;
+                }
+                bound[used++] = req.texture;
+            }
+        }
+        Arrays.fill(bound, null);
+        return flushes;
+    }
+
+    /** @return the slot of the specified texture, assigning a new one (and flushing if none are left) when needed. */
+    protected float slot(Texture texture){
+        if(texture == lastTexture && usedSlots > 0) return lastSlot;
+
+        int used = usedSlots;
+        Texture[] textures = this.textures;
+        for(int i = 0; i < used; i++){
+            if(textures[i] == texture){
+                lastTexture = texture;
+                return lastSlot = i;
+            }
+        }
+
+        if(used >= (customShader == null ? slots : 1)){
+            flushCause = BatchStats.flushTexture;
+            flush();
+            used = 0;
+        }
+        textures[used] = texture;
+        usedSlots = used + 1;
+        lastTexture = texture;
+        return lastSlot = used;
+    }
+
+    @Override
+    protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+        final int capacity = buffer.capacity(), srcVertex = SpriteBatch.VERTEX_SIZE;
+        final float[] converted = this.converted;
+
+        while(count > 0){
+            if(idx + SPRITE_SIZE > capacity){
+                flushCause = BatchStats.flushBuffer;
+                flush();
+            }
+            float slot = slot(texture);
+
+            int vertices = Math.min(Math.min(count / srcVertex, (capacity - idx) / VERTEX_SIZE), chunkSprites * 4);
+            if(vertices == 0) break;
+
+            for(int v = 0, s = offset, d = 0; v < vertices; v++, s += srcVertex, d += VERTEX_SIZE){
+                converted[d] = spriteVertices[s];
+                converted[d + 1] = spriteVertices[s + 1];
+                converted[d + 2] = spriteVertices[s + 2];
+                converted[d + 3] = spriteVertices[s + 3];
+                converted[d + 4] = spriteVertices[s + 4];
+                converted[d + 5] = spriteVertices[s + 5];
+                converted[d + 6] = slot;
+            }
+
+            int written = vertices * VERTEX_SIZE;
+            buffer.put(converted, 0, written);
+            idx += written;
+            offset += vertices * srcVertex;
+            count -= vertices * srcVertex;
+        }
+    }
+
+    @Override
+    protected void drawSuper(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        if(idx + SPRITE_SIZE > buffer.capacity()){
+            flushCause = BatchStats.flushBuffer;
+            flush();
+        }
+        float slot = slot(region.texture);
+
+        float[] src = spriteVertices, dst = converted;
+        constructVertices(src, 0, region, x, y, originX, originY, width, height, rotation);
+        for(int s = 0, d = 0; s < SpriteBatch.SPRITE_SIZE; s += SpriteBatch.VERTEX_SIZE, d += VERTEX_SIZE){
+            System.arraycopy(src, s, dst, d, SpriteBatch.VERTEX_SIZE);
+            dst[d + 6] = slot;
+        }
+
+        buffer.put(dst, 0, SPRITE_SIZE);
+        idx += SPRITE_SIZE;
+    }
+
+    public static Shader createShader(int slots){
+        StringBuilder sample = new StringBuilder();
+        for(int i = 0; i < slots; i++){
+            if(i > 0) sample.append("  else ");
+            else sample.append("  ");
+            if(i < slots - 1) sample.append("if(v_texture_index < ").append(i).append(".5) ");
+            sample.append("c = texture2D(u_textures[").append(i).append("], v_texCoords);\n");
+        }
+
+        Shader shader = new Shader(
+        "attribute vec4 a_position;\n" +
+        "attribute vec4 a_color;\n" +
+        "attribute vec2 a_texCoord0;\n" +
+        "attribute vec4 a_mix_color;\n" +
+        "attribute float a_texture_index;\n" +
+        "uniform mat4 u_projTrans;\n" +
+        "varying vec4 v_color;\n" +
+        "varying vec4 v_mix_color;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "varying float v_texture_index;\n" +
+        "\n" +
+        "void main(){\n" +
+        "   v_color = a_color;\n" +
+        "   v_color.a = v_color.a * (255.0/254.0);\n" +
+        "   v_mix_color = a_mix_color;\n" +
+        "   v_mix_color.a *= (255.0/254.0);\n" +
+        "   v_texCoords = a_texCoord0;\n" +
+        "   v_texture_index = a_texture_index;\n" +
+        "   gl_Position = u_projTrans * a_position;\n" +
+        "}",
+
+        "\n" +
+        "varying lowp vec4 v_color;\n" +
+        "varying lowp vec4 v_mix_color;\n" +
+        "varying highp vec2 v_texCoords;\n" +
+        "varying mediump float v_texture_index;\n" +
+        "uniform highp sampler2D u_textures[" + slots + "];\n" +
+        "\n" +
+        "void main(){\n" +
+        "  vec4 c;\n" +
+        sample +
+        "  gl_FragColor = v_color * mix(c, vec4(v_mix_color.rgb, c.a), v_mix_color.a);\n" +
+        "}"
+        );
+
+        shader.bind();
+        for(int i = 0; i < slots; i++){
+            shader.setUniformi("u_textures[" + i + "]", i);
+        }
+        return shader;
+    }
+}
@@ -18,6 +18,7 @@ public class ScissorStack{
     static final Rect viewport = new Rect();
     static Vec2 tmp = new Vec2();
     private static Seq<Rect> scissors = new Seq<>();
+    private static final Seq<Seq<Rect>> suspended = new Seq<>();
 
     /**
      * Pushes a new scissor {@link Rect} onto the stack, merging it with the current top of the stack. The minimal area of
@@ -77,6 +78,31 @@ public class ScissorStack{
         return old;
     }
 
+    /**
+     * Disables all scissors until {@link #resume()} is called, so that drawing into a frame buffer is not clipped by scissors
+     * that were calculated for the screen. Scissors pushed in between must be popped before resuming.
+     */
+    public static void suspend(){
+        if(scissors.size > 0){
+            Draw.flush();
+            Gl.disable(GL20.GL_SCISSOR_TEST);
+        }
+        suspended.add(scissors);
+        scissors = new Seq<>();
+    }
+
+    /** Restores the scissors disabled by the last call to {@link #suspend()}. */
+    public static void resume(){
+        if(scissors.size > 0) throw new IllegalStateException("Scissors were not popped before resuming.");
+        scissors = suspended.pop();
+        if(scissors.size > 0){
+            Draw.flush();
+            Gl.enable(GL20.GL_SCISSOR_TEST);
+            Rect scissor = scissors.peek();
+            HdpiUtils.glScissor((int)scissor.x, (int)scissor.y, (int)scissor.width, (int)scissor.height);
+        }
+    }
+
     public static boolean pushWorld(Rect scissorWorld){
         calculateScissors(Core.camera, Tmp.m1.idt(), Tmp.r1.set(scissorWorld), scissorWorld);
         return push(scissorWorld);
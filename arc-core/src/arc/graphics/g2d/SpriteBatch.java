@@ -25,6 +25,8 @@ public class SpriteBatch extends Batch{
     public static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
 
     private static final int initialSize = 10000;
+    /** Sprites per task when bulk submissions are split across threads. */
+    private static final int bulkTaskSize = 4096;
     private static final float[] emptyVertices = new float[0];
 
     static ForkJoinHolder commonPool;
@@ -32,24 +34,42 @@ public class SpriteBatch extends Batch{
 
     protected Mesh mesh;
     protected FloatBuffer buffer;
+    /** Number of floats per vertex in the mesh. */
+    protected final int vertexSize;
 
     final float[] tmpVertices = new float[SPRITE_SIZE];
+    /** Scratch vertices for bulk submissions while not sorting. */
+    float[] bulkVertices = emptyVertices;
 
     float[] requestVerts = new float[initialSize * SPRITE_SIZE];
     int requestVertOffset = 0;
 
     protected boolean sort, flushing;
+    /** Nesting depth of runnable requests being executed; flushes inside them are counted as {@link BatchStats#flushRun}. */
+    int runDepth;
+    /** If true, requests with the same z are also grouped by blending and texture. See {@link #setStateSort(boolean)}. */
+    protected boolean stateSort;
     protected DrawRequest[] requests = new DrawRequest[initialSize], copy = new DrawRequest[0];
     protected int[] requestZ = new int[initialSize];
     protected int numRequests = 0;
     protected int[] contiguous = new int[2048], contiguousCopy = new int[2048];
     protected int intZ = Float.floatToRawIntBits(z + 16f);
 
+    /** Scratch state of the counting sort; created on first use, owned by this batch only. */
+    CountingSort sorter;
+    /** Recorders whose requests are merged into this batch on flush. */
+    final Seq<Recorder> recorders = new Seq<>(Recorder.class);
+
+    long[] groupKeys = new long[64];
+    DrawRequest[] groupScratch = new DrawRequest[64];
+
     protected static class DrawRequest{
-        int verticesOffset, verticesLength;
+        int verticesOffset, verticesLength, z;
         Texture texture;
         Blending blending;
         Runnable run;
+        /** If true, the request holds instance records of an {@link InstancedSpriteBatch} instead of sprite vertices. */
+        boolean instanced;
     }
 
     /**
@@ -75,35 +95,28 @@ public class SpriteBatch extends Batch{
      * <p>
      * The defaultShader specifies the shader to use. Note that the names for uniforms for this default shader are different than
      * the ones expect for shaders set with {@link #setShader(Shader)}.
-     * @param size The max number of sprites in a single batch. Max of 8191.
+     * @param size The max number of sprites in a single batch. Above 8191, 32-bit indices are used.
      * @param defaultShader The default shader to use. This is not owned by the SpriteBatch and must be disposed separately.
      */
     public SpriteBatch(int size, Shader defaultShader){
-        // 32767 is max vertex index, so 32767 / 4 vertices per sprite = 8191 sprites max.
-        if(size > 8191) throw new IllegalArgumentException("Can't have more than 8191 sprites per batch: " + size);
+        this(size, defaultShader, VertexAttribute.position, VertexAttribute.color, VertexAttribute.texCoords, VertexAttribute.mixColor);
+    }
+
+    /**
+     * Constructs a SpriteBatch with a custom vertex layout. Subclasses that use this are responsible for
+     * writing vertices of the matching size in {@link #drawSuper}.
+     */
+    protected SpriteBatch(int size, Shader defaultShader, VertexAttribute... attributes){
+        int vertexBytes = 0;
+        for(VertexAttribute attribute : attributes) vertexBytes += attribute.size;
+        vertexSize = vertexBytes / 4;
 
         if(size > 0){
             projectionMatrix.setOrtho(0, 0, Core.graphics.getWidth(), Core.graphics.getHeight());
 
-            mesh = new Mesh(true, false, size * 4, size * 6,
-            VertexAttribute.position,
-            VertexAttribute.color,
-            VertexAttribute.texCoords,
-            VertexAttribute.mixColor
-            );
-
-            int len = size * 6;
-            short[] indices = new short[len];
-            short j = 0;
-            for(int i = 0; i < len; i += 6, j += 4){
-                indices[i] = j;
-                indices[i + 1] = (short)(j + 1);
-                indices[i + 2] = (short)(j + 2);
-                indices[i + 3] = (short)(j + 2);
-                indices[i + 4] = (short)(j + 3);
-                indices[i + 5] = j;
-            }
-            mesh.setIndices(indices);
+            //32-bit indices need buffer objects
+            mesh = new Mesh(size <= QuadIndexData.maxShortQuads, false, size * 4, 0, attributes);
+            mesh.setIndexData(QuadIndexData.obtain(size, mesh.vertices instanceof VertexArray));
             mesh.getVerticesBuffer().position(0);
             mesh.getVerticesBuffer().limit(mesh.getVerticesBuffer().capacity());
 
@@ -114,8 +127,6 @@ public class SpriteBatch extends Batch{
                 shader = defaultShader;
             }
 
-            //mark indices as dirty once for GL30
-            mesh.getIndicesBuffer();
             buffer = mesh.getVerticesBuffer();
         }else{
             shader = null;
@@ -142,6 +153,22 @@ public class SpriteBatch extends Batch{
         }
     }
 
+    /**
+     * Makes the mesh upload each flush into the next segment of a ring of GL buffer segments, instead of re-uploading into the same storage.
+     * This avoids waiting for the previous draw on drivers that do not orphan buffers by themselves. Flushes the batch.
+     * @param segments the number of segments in the ring; a few per frame's worth of flushes is usually enough.
+     * @see StreamingVertexBufferObject
+     */
+    public void setStreaming(int segments){
+        if(mesh == null) return;
+
+        flush();
+        mesh.setStreaming(segments);
+        buffer = mesh.getVerticesBuffer();
+        buffer.position(0);
+        buffer.limit(buffer.capacity());
+    }
+
     @Override
     protected void setSort(boolean sort){
         if(this.sort != sort){
@@ -150,6 +177,24 @@ public class SpriteBatch extends Batch{
         this.sort = sort;
     }
 
+    /**
+     * Enables or disables state sorting. When enabled, requests that share the same z are additionally grouped by blending and texture,
+     * which reduces the number of flushes when textures are interleaved within a layer. Requests are never moved across a
+     * {@link #draw(Runnable)} request, and their relative order within a group is kept. Flushes the batch.
+     * <p>
+     * Note that this changes the draw order of overlapping sprites with the same z; only enable it if that order does not matter.
+     */
+    public void setStateSort(boolean stateSort){
+        if(this.stateSort != stateSort){
+            flush();
+        }
+        this.stateSort = stateSort;
+    }
+
+    public boolean isStateSort(){
+        return stateSort;
+    }
+
     @Override
     protected void setShader(Shader shader, boolean apply){
         if(!flushing && sort){
@@ -179,11 +224,20 @@ public class SpriteBatch extends Batch{
 
     @Override
     protected void draw(Texture texture, float[] spriteVertices, int offset, int count){
+        //requests pointing into requestVerts have already passed culling
+        if(cull && spriteVertices != emptyVertices){
+            if(culled(spriteVertices, offset, count)){
+                stats.spritesCulled += count / SPRITE_SIZE;
+                return;
+            }
+            stats.spritesDrawn += count / SPRITE_SIZE;
+        }
+
         if(sort && !flushing){
             int num = numRequests;
             if(num > 0){
                 final DrawRequest last = requests[num - 1];
-                if(last.run == null && last.texture == texture && last.blending == blending && requestZ[num - 1] == intZ){
+                if(last.run == null && !last.instanced && last.texture == texture && last.blending == blending && requestZ[num - 1] == intZ){
                     if(spriteVertices != emptyVertices){
                         prepare(count);
                         System.arraycopy(spriteVertices, offset, requestVerts, requestVertOffset, count);
@@ -204,10 +258,11 @@ public class SpriteBatch extends Batch{
                 req.verticesOffset = offset;
             }
             req.verticesLength = count;
-            requestZ[num] = intZ;
+            requestZ[num] = req.z = intZ;
             req.texture = texture;
             req.blending = blending;
             req.run = null;
+            req.instanced = false;
             numRequests++;
         }else{
             drawSuper(texture, spriteVertices, offset, count);
@@ -216,10 +271,23 @@ public class SpriteBatch extends Batch{
 
     @Override
     protected void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        if(cull){
+            if(culled(x, y, originX, originY, width, height, rotation)){
+                stats.spritesCulled++;
+                return;
+            }
+            stats.spritesDrawn++;
+        }
+
         if(!sort || flushing){
             drawSuper(region, x, y, originX, originY, width, height, rotation);
             return;
         }
+        requestSprite(region, x, y, originX, originY, width, height, rotation);
+    }
+
+    /** Adds a sorted request for a sprite that passed culling. By default, its vertices are constructed right away. */
+    protected void requestSprite(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
         int pos = this.requestVertOffset;
         this.requestVertOffset += 24;
         prepare(24);
@@ -227,6 +295,136 @@ public class SpriteBatch extends Batch{
         draw(region.texture, emptyVertices, pos, SPRITE_SIZE);
     }
 
+    @Override
+    protected void draw(TextureRegion[] regions, @Nullable int[] regionIndices, float[] x, float[] y, float[] width, float[] height,
+                        @Nullable float[] rotation, @Nullable float[] colors, int offset, int count){
+        if(count <= 0) return;
+
+        boolean sorted = sort && !flushing;
+        float[] vertices;
+        int base;
+        if(sorted){
+            base = requestVertOffset;
+            prepare(count * SPRITE_SIZE);
+            requestVertOffset += count * SPRITE_SIZE;
+            vertices = requestVerts;
+        }else{
+            base = 0;
+            if(bulkVertices.length < count * SPRITE_SIZE) bulkVertices = new float[count * SPRITE_SIZE];
+            vertices = bulkVertices;
+        }
+
+        if(sorted && multithreaded && count > bulkTaskSize * 2){
+            commonPool.pool.invoke(new BulkTask(vertices, base, regions, regionIndices, x, y, width, height, rotation, colors, colorPacked, mixColorPacked, offset, offset + count));
+        }else{
+            constructBulk(vertices, base, regions, regionIndices, x, y, width, height, rotation, colors, colorPacked, mixColorPacked, offset, offset + count);
+        }
+
+        //submit one request (or draw call) per run of sprites with the same texture
+        int runStart = 0;
+        Texture runTexture = regions[regionIndices == null ? 0 : regionIndices[offset]].texture;
+        if(regionIndices != null){
+            for(int i = 1; i < count; i++){
+                Texture texture = regions[regionIndices[offset + i]].texture;
+                if(texture != runTexture){
+                    submitBulk(sorted, runTexture, vertices, base + runStart * SPRITE_SIZE, (i - runStart) * SPRITE_SIZE);
+                    runStart = i;
+                    runTexture = texture;
+                }
+            }
+        }
+        submitBulk(sorted, runTexture, vertices, base + runStart * SPRITE_SIZE, (count - runStart) * SPRITE_SIZE);
+    }
+
+    @Override
+    protected void draw(DrawList list, float x, float y, float scaleX, float scaleY){
+        if(!sort || flushing){
+            super.draw(list, x, y, scaleX, scaleY);
+            return;
+        }
+
+        //copy all vertices at once, then point requests into them
+        int base = requestVertOffset, length = list.vertexCount;
+        prepare(length);
+        if(x == 0f && y == 0f && scaleX == 1f && scaleY == 1f){
+            System.arraycopy(list.vertices, 0, requestVerts, base, length);
+        }else{
+            DrawList.transform(list.vertices, 0, requestVerts, base, length, x, y, scaleX, scaleY);
+        }
+        requestVertOffset += length;
+
+        float lastZ = z;
+        Blending lastBlending = blending;
+        for(int i = 0, n = list.entries; i < n; i++){
+            z(list.zs[i]);
+            blending = list.blendings[i];
+
+            if(list.runs[i] != null){
+                draw(list.runs[i]);
+            }else{
+                draw(list.textures[i], emptyVertices, base + list.offsets[i], list.lengths[i]);
+            }
+        }
+        z(lastZ);
+        blending = lastBlending;
+    }
+
+    void submitBulk(boolean sorted, Texture texture, float[] vertices, int offset, int length){
+        if(sorted){
+            draw(texture, emptyVertices, offset, length);
+        }else{
+            drawSuper(texture, vertices, offset, length);
+        }
+    }
+
+    /** Writes the vertices of sprites [from, to) from the bulk arrays, starting at sprite 'from' in the output. */
+    static void constructBulk(float[] vertices, int base, TextureRegion[] regions, @Nullable int[] regionIndices, float[] x, float[] y, float[] width, float[] height,
+                              @Nullable float[] rotation, @Nullable float[] colors, float color, float mixColor, int from, int to){
+        TextureRegion region = regions[0];
+        for(int i = from, idx = base; i < to; i++, idx += SPRITE_SIZE){
+            if(regionIndices != null) region = regions[regionIndices[i]];
+            float w = width[i], h = height[i];
+            float c = colors == null ? color : colors[i];
+            float rot = rotation == null ? 0f : rotation[i];
+
+            if(rot != 0f){
+                constructVertices(vertices, idx, region, x[i] - w / 2f, y[i] - h / 2f, w / 2f, h / 2f, w, h, rot, c, mixColor);
+                continue;
+            }
+
+            float u = region.u, v = region.v2, u2 = region.u2, v2 = region.v;
+            float x1 = x[i] - w / 2f, y1 = y[i] - h / 2f, x2 = x1 + w, y2 = y1 + h;
+
+            vertices[idx] = x1;
+            vertices[idx + 1] = y1;
+            vertices[idx + 2] = c;
+            vertices[idx + 3] = u;
+            vertices[idx + 4] = v;
+            vertices[idx + 5] = mixColor;
+
+            vertices[idx + 6] = x1;
+            vertices[idx + 7] = y2;
+            vertices[idx + 8] = c;
+            vertices[idx + 9] = u;
+            vertices[idx + 10] = v2;
+            vertices[idx + 11] = mixColor;
+
+            vertices[idx + 12] = x2;
+            vertices[idx + 13] = y2;
+            vertices[idx + 14] = c;
+            vertices[idx + 15] = u2;
+            vertices[idx + 16] = v2;
+            vertices[idx + 17] = mixColor;
+
+            vertices[idx + 18] = x2;
+            vertices[idx + 19] = y1;
+            vertices[idx + 20] = c;
+            vertices[idx + 21] = u2;
+            vertices[idx + 22] = v;
+            vertices[idx + 23] = mixColor;
+        }
+    }
+
     @Override
     protected void draw(Runnable request){
         if(sort && !flushing){
@@ -234,7 +432,7 @@ public class SpriteBatch extends Batch{
             final DrawRequest req = requests[numRequests];
             req.run = request;
             req.blending = blending;
-            requestZ[numRequests] = intZ;
+            requestZ[numRequests] = req.z = intZ;
             req.texture = null;
             numRequests++;
         }else{
@@ -243,7 +441,7 @@ public class SpriteBatch extends Batch{
     }
 
     protected void prepare(int i){
-        if(requestVertOffset + i >= requestVerts.length) requestVerts = Arrays.copyOf(requestVerts, requestVerts.length << 1);
+        while(requestVertOffset + i >= requestVerts.length) requestVerts = Arrays.copyOf(requestVerts, requestVerts.length << 1);
     }
 
     protected void expandRequests(){
@@ -257,6 +455,8 @@ public class SpriteBatch extends Batch{
 
     @Override
     protected void flush(){
+        int cause = takeFlushCause();
+
         if(!flushing){
             flushing = true;
             flushRequests();
@@ -264,6 +464,7 @@ public class SpriteBatch extends Batch{
         }
 
         if(idx == 0) return;
+        stats.flushed(cause, idx / vertexSize);
         if(tryFlushVulkanFastPath()) return;
 
         getShader().bind();
@@ -274,11 +475,11 @@ public class SpriteBatch extends Batch{
         }
 
         Gl.depthMask(false);
-        int count = idx / SPRITE_SIZE * 6;
+        int count = idx / (vertexSize * 4) * 6;
 
         blending.apply();
 
-        lastTexture.bind();
+        bindTextures();
         Mesh mesh = this.mesh;
         //calling buffer() marks it as dirty, so it gets reuploaded upon render
         mesh.getVerticesBuffer();
@@ -294,6 +495,18 @@ public class SpriteBatch extends Batch{
         idx = 0;
     }
 
+    /** @return the cause of the current flush, resetting it for the next one. */
+    int takeFlushCause(){
+        int cause = flushCause;
+        flushCause = BatchStats.flushExplicit;
+        return cause == BatchStats.flushExplicit && runDepth > 0 ? BatchStats.flushRun : cause;
+    }
+
+    /** Binds the textures used by the pending vertices before they are drawn. */
+    protected void bindTextures(){
+        lastTexture.bind();
+    }
+
     protected boolean tryFlushVulkanFastPath(){
         Vulkan vk = Core.vk;
         if(vk == null || !vk.supportsSpriteBatchFastPath()) return false;
@@ -337,8 +550,17 @@ public class SpriteBatch extends Batch{
     }
 
     protected void flushRequests(){
+        mergeRecorders();
         if(numRequests == 0) return;
+
+        BatchStats stats = this.stats;
+        stats.requestsSorted += numRequests;
+        stats.peakRequests = Math.max(stats.peakRequests, numRequests);
+        stats.peakRequestVerts = Math.max(stats.peakRequestVerts, requestVertOffset);
+        long sortStart = System.nanoTime();
         sortRequests();
+        if(stateSort) groupRequests();
+        stats.sortNanos += System.nanoTime() - sortStart;
         float preColor = colorPacked, preMixColor = mixColorPacked;
         Blending preBlending = blending;
 
@@ -351,10 +573,15 @@ public class SpriteBatch extends Batch{
             super.setBlending(req.blending);
 
             if(req.run != null){
-                req.run.run();
+                runDepth++;
+                try{
+                    req.run.run();
+                }finally{
+                    runDepth--;
+                }
                 req.run = null;
             }else if(req.texture != null){
-                drawSuper(req.texture, vertices, req.verticesOffset, req.verticesLength);
+                flushRequest(req, vertices);
             } // the request is invalid, but crashing wouldn't be very nice, so it is simply ignored
         }
 
@@ -366,6 +593,64 @@ public class SpriteBatch extends Batch{
         requestVertOffset = 0;
     }
 
+    /** Draws a sorted request with a texture, whose blending was already set. */
+    protected void flushRequest(DrawRequest req, float[] vertices){
+        drawSuper(req.texture, vertices, req.verticesOffset, req.verticesLength);
+    }
+
+    /**
+     * Creates a recorder that can collect draw requests on another thread. Recorders must be created and removed on the thread that owns this batch.
+     * @see Recorder
+     */
+    public Recorder createRecorder(){
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /** Stops merging the specified recorder into this batch. Any pending requests in it are discarded. */
+    public void removeRecorder(Recorder recorder){
+        recorders.remove(recorder, true);
+    }
+
+    /** Appends the requests of all submitted recorders to this batch, in the order the recorders were created. */
+    protected void mergeRecorders(){
+        Recorder[] items = recorders.items;
+        for(int i = 0, n = recorders.size; i < n; i++){
+            Recorder rec = items[i];
+            if(!rec.submitted) continue;
+
+            int num = rec.numRequests, vertBase = requestVertOffset;
+            if(rec.requestVertOffset > 0){
+                prepare(rec.requestVertOffset);
+                System.arraycopy(rec.requestVerts, 0, requestVerts, vertBase, rec.requestVertOffset);
+                requestVertOffset += rec.requestVertOffset;
+            }
+
+            while(numRequests + num > requests.length) expandRequests();
+            System.arraycopy(rec.requestZ, 0, requestZ, numRequests, num);
+            DrawRequest[] src = rec.requests;
+            for(int j = 0; j < num; j++){
+                DrawRequest from = src[j], to = requests[numRequests + j];
+                to.verticesOffset = from.verticesOffset + vertBase;
+                to.verticesLength = from.verticesLength;
+                to.z = rec.requestZ[j];
+                to.texture = from.texture;
+                to.blending = from.blending;
+                to.run = from.run;
+                to.instanced = false;
+                from.run = null;
+                from.texture = null;
+            }
+            numRequests += num;
+
+            rec.numRequests = 0;
+            rec.requestVertOffset = 0;
+            //volatile write: hands the recorder back to its thread
+            rec.submitted = false;
+        }
+    }
+
     protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
 
         int verticesLength = buffer.capacity();
@@ -375,6 +660,7 @@ public class SpriteBatch extends Batch{
         }else{
             remainingVertices -= idx;
             if(remainingVertices == 0){
+                flushCause = BatchStats.flushBuffer;
                 flush();
                 remainingVertices = verticesLength;
             }
@@ -387,6 +673,7 @@ public class SpriteBatch extends Batch{
         count -= copyCount;
         while(count > 0){
             offset += copyCount;
+            flushCause = BatchStats.flushBuffer;
             flush();
             copyCount = Math.min(verticesLength, count);
             buffer.put(spriteVertices, offset, copyCount);
@@ -401,6 +688,7 @@ public class SpriteBatch extends Batch{
         if(texture != lastTexture){
             switchTexture(texture);
         }else if(idx == buffer.capacity()){
+            flushCause = BatchStats.flushBuffer;
             flush();
         }
 
@@ -410,14 +698,15 @@ public class SpriteBatch extends Batch{
     }
 
     protected final void constructVertices(float[] vertices, int idx, TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+        constructVertices(vertices, idx, region, x, y, originX, originY, width, height, rotation, colorPacked, mixColorPacked);
+    }
+
+    static void constructVertices(float[] vertices, int idx, TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation, float color, float mixColor){
         float u = region.u;
         float v = region.v2;
         float u2 = region.u2;
         float v2 = region.v;
 
-        float color = this.colorPacked;
-        float mixColor = this.mixColorPacked;
-
         if(!Mathf.zero(rotation)){
             //bottom left and top right corner points relative to origin
             float worldOriginX = x + originX;
@@ -536,6 +825,11 @@ public class SpriteBatch extends Batch{
 
     //region request sorting
 
+    CountingSort sorter(){
+        if(sorter == null) sorter = new CountingSort();
+        return sorter;
+    }
+
     protected void sortRequests(){
         if(multithreaded){
             sortRequestsThreaded();
@@ -574,7 +868,7 @@ public class SpriteBatch extends Batch{
 
         if(contiguousCopy.length < contiguous.length) this.contiguousCopy = new int[contiguous.length];
 
-        final int[] sorted = CountingSort.countingSortMapMT(contiguous, contiguousCopy, L);
+        final int[] sorted = sorter().countingSortMapMT(commonPool.pool, contiguous, contiguousCopy, L);
 
 
         final int[] locs = contiguous;
@@ -584,11 +878,7 @@ public class SpriteBatch extends Batch{
             locs[i + 1] = ptr;
         }
         if(copy.length < requests.length) copy = new DrawRequest[requests.length];
-        PopulateTask.tasks = sorted;
-        PopulateTask.src = requests;
-        PopulateTask.dest = copy;
-        PopulateTask.locs = locs;
-        commonPool.pool.invoke(new PopulateTask(0, L));
+        commonPool.pool.invoke(new PopulateTask(0, L, sorted, requests, copy, locs));
     }
 
     protected void sortRequestsStandard(){ // Non-threaded implementation for weak devices
@@ -620,7 +910,7 @@ public class SpriteBatch extends Batch{
 
         if(contiguousCopy.length < contiguous.length) contiguousCopy = new int[contiguous.length];
 
-        final int[] sorted = CountingSort.countingSortMap(contiguous, contiguousCopy, L);
+        final int[] sorted = sorter().countingSortMap(contiguous, contiguousCopy, L);
 
         if(copy.length < numRequests) copy = new DrawRequest[numRequests + (numRequests >> 3)];
         int ptr = 0;
@@ -640,32 +930,34 @@ public class SpriteBatch extends Batch{
     static class CountingSort{
         private static final int processors = Runtime.getRuntime().availableProcessors() * 8;
 
-        static int[] locs = new int[100];
-        static final int[][] locses = new int[processors][100];
+        int[] locs = new int[100];
+        final int[][] locses = new int[processors][100];
 
-        static final IntIntMap[] countses = new IntIntMap[processors];
+        final IntIntMap[] countses = new IntIntMap[processors];
 
-        private static Point2[] entries = new Point2[100];
+        private Point2[] entries = new Point2[100];
 
-        private static int[] entries3 = new int[300], entries3a = new int[300];
-        private static Integer[] entriesBacking = new Integer[100];
+        private int[] entries3 = new int[300], entries3a = new int[300];
+        private Integer[] entriesBacking = new Integer[100];
 
-        private static final CountingSort.CountingSortTask[] tasks = new CountingSort.CountingSortTask[processors];
-        private static final CountingSort.CountingSortTask2[] task2s = new CountingSort.CountingSortTask2[processors];
-        private static final Future<?>[] futures = new Future<?>[processors];
+        private final CountingSortTask[] tasks = new CountingSortTask[processors];
+        private final CountingSortTask2[] task2s = new CountingSortTask2[processors];
+        private final Future<?>[] futures = new Future<?>[processors];
 
-        static{
+        /** Arrays shared by the tasks of the sort currently in progress. */
+        int[] src, dest;
+
+        CountingSort(){
             for(int i = 0; i < countses.length; i++) countses[i] = new IntIntMap();
             for(int i = 0; i < entries.length; i++) entries[i] = new Point2();
 
             for(int i = 0; i < processors; i++){
-                tasks[i] = new CountingSort.CountingSortTask();
-                task2s[i] = new CountingSort.CountingSortTask2();
+                tasks[i] = new CountingSortTask();
+                task2s[i] = new CountingSortTask2();
             }
         }
 
-        static class CountingSortTask implements Runnable{
-            static int[] arr;
+        class CountingSortTask implements Runnable{
             int start, end, id;
 
             public void set(int start, int end, int id){
@@ -678,7 +970,7 @@ public class SpriteBatch extends Batch{
             public void run(){
                 final int id = this.id, start = this.start, end = this.end;
                 int[] locs = locses[id];
-                final int[] arr = CountingSort.CountingSortTask.arr;
+                final int[] arr = src;
                 final IntIntMap counts = countses[id];
                 counts.clear();
                 int unique = 0;
@@ -698,8 +990,7 @@ public class SpriteBatch extends Batch{
             }
         }
 
-        static class CountingSortTask2 implements Runnable{
-            static int[] src, dest;
+        class CountingSortTask2 implements Runnable{
             int start, end, id;
 
             public void set(int start, int end, int id){
@@ -712,7 +1003,7 @@ public class SpriteBatch extends Batch{
             public void run(){
                 final int start = this.start, end = this.end;
                 final int[] locs = locses[id];
-                final int[] src = CountingSort.CountingSortTask2.src, dest = CountingSort.CountingSortTask2.dest;
+                final int[] src = CountingSort.this.src, dest = CountingSort.this.dest;
                 for(int i = end - 1, i3 = i * 3; i >= start; i--, i3 -= 3){
                     final int destPos = --locs[src[i3]] * 3;
                     dest[destPos] = src[i3];
@@ -722,23 +1013,23 @@ public class SpriteBatch extends Batch{
             }
         }
 
-        static int[] countingSortMapMT(final int[] arr, final int[] swap, final int end){
-            final IntIntMap[] countses = CountingSort.countses;
-            final int[][] locs = CountingSort.locses;
+        int[] countingSortMapMT(final ForkJoinPool pool, final int[] arr, final int[] swap, final int end){
+            final IntIntMap[] countses = this.countses;
+            final int[][] locs = this.locses;
             final int threads = Math.min(processors, (end + 4095) / 4096); // 4096 Point3s to process per thread
             final int thread_size = end / threads + 1;
-            final CountingSort.CountingSortTask[] tasks = CountingSort.tasks;
-            final CountingSort.CountingSortTask2[] task2s = CountingSort.task2s;
-            final Future<?>[] futures = CountingSort.futures;
-            CountingSort.CountingSortTask.arr = CountingSort.CountingSortTask2.src = arr;
-            CountingSort.CountingSortTask2.dest = swap;
+            final CountingSortTask[] tasks = this.tasks;
+            final CountingSortTask2[] task2s = this.task2s;
+            final Future<?>[] futures = this.futures;
+            this.src = arr;
+            this.dest = swap;
 
             for(int s = 0, thread = 0; thread < threads; thread++, s += thread_size){
-                CountingSort.CountingSortTask task = tasks[thread];
+                CountingSortTask task = tasks[thread];
                 final int stop = Math.min(s + thread_size, end);
                 task.set(s, stop, thread);
                 task2s[thread].set(s, stop, thread);
-                futures[thread] = commonPool.pool.submit(task);
+                futures[thread] = pool.submit(task);
             }
 
             int unique = 0;
@@ -746,7 +1037,7 @@ public class SpriteBatch extends Batch{
                 try{
                     futures[i].get();
                 }catch(ExecutionException | InterruptedException e){
-                    commonPool.pool.execute(tasks[i]);
+                    pool.execute(tasks[i]);
                 }
                 unique += countses[i].size;
             }
@@ -757,8 +1048,8 @@ public class SpriteBatch extends Batch{
                 entries3 = new int[L * 3 * 3 / 2];
                 entries3a = new int[L * 3 * 3 / 2];
             }
-            final int[] entries = CountingSort.entries3, entries3a = CountingSort.entries3a;
-            final Integer[] entriesBacking = CountingSort.entriesBacking;
+            final int[] entries = this.entries3, entries3a = this.entries3a;
+            final Integer[] entriesBacking = this.entriesBacking;
             int j = 0;
             for(int i = 0; i < threads; i++){
                 if(countses[i].size == 0) continue;
@@ -793,21 +1084,22 @@ public class SpriteBatch extends Batch{
             }
 
             for(int thread = 0; thread < threads; thread++){
-                futures[thread] = commonPool.pool.submit(task2s[thread]);
+                futures[thread] = pool.submit(task2s[thread]);
             }
             for(int i = 0; i < threads; i++){
                 try{
                     futures[i].get();
                 }catch(ExecutionException | InterruptedException e){
-                    commonPool.pool.execute(task2s[i]);
+                    pool.execute(task2s[i]);
                 }
             }
+            this.src = this.dest = null;
             return swap;
         }
 
-        static int[] countingSortMap(final int[] arr, final int[] swap, final int end){
-            int[] locs = CountingSort.locs;
-            final IntIntMap counts = CountingSort.countses[0];
+        int[] countingSortMap(final int[] arr, final int[] swap, final int end){
+            int[] locs = this.locs;
+            final IntIntMap counts = countses[0];
             counts.clear();
 
             int unique = 0;
@@ -824,15 +1116,15 @@ public class SpriteBatch extends Batch{
                     locs[loc]++;
                 }
             }
-            CountingSort.locs = locs;
+            this.locs = locs;
 
             if(entries.length < unique){
                 final int prevLength = entries.length;
                 entries = Arrays.copyOf(entries, unique * 3 / 2);
-                final Point2[] entries = CountingSort.entries;
+                final Point2[] entries = this.entries;
                 for(int i = prevLength; i < entries.length; i++) entries[i] = new Point2();
             }
-            final Point2[] entries = CountingSort.entries;
+            final Point2[] entries = this.entries;
 
             final IntIntMap.Entries countEntries = counts.entries();
             final IntIntMap.Entry entry = countEntries.next();
@@ -859,17 +1151,62 @@ public class SpriteBatch extends Batch{
         }
     }
 
+    static class BulkTask extends RecursiveAction{
+        final float[] vertices;
+        final int base;
+        final TextureRegion[] regions;
+        final int[] regionIndices;
+        final float[] x, y, width, height, rotation, colors;
+        final float color, mixColor;
+        final int from, to;
+
+        BulkTask(float[] vertices, int base, TextureRegion[] regions, int[] regionIndices, float[] x, float[] y, float[] width, float[] height,
+                 float[] rotation, float[] colors, float color, float mixColor, int from, int to){
+            this.vertices = vertices;
+            this.base = base;
+            this.regions = regions;
+            this.regionIndices = regionIndices;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.rotation = rotation;
+            this.colors = colors;
+            this.color = color;
+            this.mixColor = mixColor;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > bulkTaskSize){
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                new BulkTask(vertices, base, regions, regionIndices, x, y, width, height, rotation, colors, color, mixColor, from, mid),
+                new BulkTask(vertices, base + (mid - from) * SPRITE_SIZE, regions, regionIndices, x, y, width, height, rotation, colors, color, mixColor, mid, to)
+                );
+                return;
+            }
+            constructBulk(vertices, base, regions, regionIndices, x, y, width, height, rotation, colors, color, mixColor, from, to);
+        }
+    }
+
     static class PopulateTask extends RecursiveAction{
         int from, to;
-        static int[] tasks;
-        static DrawRequest[] src;
-        static DrawRequest[] dest;
-        static int[] locs;
+        int[] tasks;
+        DrawRequest[] src;
+        DrawRequest[] dest;
+        int[] locs;
 
         //private static final int threshold = 256;
-        PopulateTask(int from, int to){
+        PopulateTask(int from, int to, int[] tasks, DrawRequest[] src, DrawRequest[] dest, int[] locs){
             this.from = from;
             this.to = to;
+            this.tasks = tasks;
+            this.src = src;
+            this.dest = dest;
+            this.locs = locs;
         }
 
         public PopulateTask(){
@@ -877,18 +1214,18 @@ public class SpriteBatch extends Batch{
 
         @Override
         protected void compute(){
-            final int[] locs = PopulateTask.locs;
+            final int[] locs = this.locs;
             if(to - from > 1 && locs[to] - locs[from] > 2048){
                 final int half = (locs[to] + locs[from]) >> 1;
                 int mid = Arrays.binarySearch(locs, from, to, half);
                 if(mid < 0) mid = -mid - 1;
                 if(mid != from && mid != to){
-                    invokeAll(new PopulateTask(from, mid), new PopulateTask(mid, to));
+                    invokeAll(new PopulateTask(from, mid, tasks, src, dest, locs), new PopulateTask(mid, to, tasks, src, dest, locs));
                     return;
                 }
             }
-            final DrawRequest[] src = PopulateTask.src, dest = PopulateTask.dest;
-            final int[] tasks = PopulateTask.tasks;
+            final DrawRequest[] src = this.src, dest = this.dest;
+            final int[] tasks = this.tasks;
             for(int i = from; i < to; i++){
                 final int point = i * 3, pos = tasks[point + 1], length = tasks[point + 2];
                 if(length < 10){
@@ -903,5 +1240,206 @@ public class SpriteBatch extends Batch{
         }
     }
 
+    /** Groups the z-sorted requests by blending and texture, within each run of equal z that contains no runnable requests. */
+    protected void groupRequests(){
+        final DrawRequest[] r = copy;
+        final int num = numRequests;
+        int start = 0;
+        for(int i = 0; i < num; i++){
+            DrawRequest req = r[i];
+            if(req.run != null){
+                groupRange(r, start, i);
+                start = i + 1;
+            }else if(req.z != r[start].z){
+                groupRange(r, start, i);
+                start = i;
+            }
+        }
+        groupRange(r, start, num);
+    }
+
+    /**
+     * Stably sorts requests in [from, to) by a 64-bit key of blending, texture and original position. The blending and texture
+     * parts are their {@link Blending#sortId()} and {@link Texture#sortId()}, so the order doesn't change between runs.
+     */
+    void groupRange(DrawRequest[] r, int from, int to){
+        final int n = to - from;
+        if(n < 3) return;
+
+        int before = stateFlushes(r, from, to);
+        if(before == 0) return;
+
+        if(groupKeys.length < n){
+            groupKeys = new long[n + (n >> 1)];
+            groupScratch = new DrawRequest[groupKeys.length];
+        }
+        final long[] keys = groupKeys;
+        final DrawRequest[] scratch = groupScratch;
+
+        for(int i = 0; i < n; i++){
+            DrawRequest req = r[from + i];
+            //ids only collide past 2047 blendings or a million textures, which merely groups less
+            keys[i] = ((long)(req.blending.sortId() & 0x7ff) << 52) | ((long)(req.texture == null ? 0 : req.texture.sortId() & 0xfffff) << 32) | i;
+        }
+        Arrays.sort(keys, 0, n);
+
+        for(int i = 0; i < n; i++){
+            scratch[i] = r[from + (int)keys[i]];
+        }
+        System.arraycopy(scratch, 0, r, from, n);
+        Arrays.fill(scratch, 0, n, null);
+
+        stats.stateSortSaved += before - stateFlushes(r, from, to);
+    }
+
+    /** @return the number of flushes caused by texture and blending changes when drawing requests [from, to) in order. */
+    protected int stateFlushes(DrawRequest[] r, int from, int to){
+        int flushes = 0;
+        for(int i = from + 1; i < to; i++){
+            if(r[i].texture != r[i - 1].texture || r[i].blending != r[i - 1].blending) flushes++;
+        }
+        return flushes;
+    }
+
     //endregion
+
+    /**
+     * Collects draw requests for a {@link SpriteBatch} on a thread other than the one that owns it.
+     * Each recorder has its own request and vertex arrays, as well as its own color, blending and z state.
+     * <p>
+     * A recorder is owned by one thread at a time. The recording thread calls {@link #begin()}, draws, then calls {@link #end()}.
+     * After that, the next {@link SpriteBatch#flush()} on the batch's thread appends the recorded requests and hands the recorder back.
+     * Requests are merged after the batch's own requests, so within the same z layer they are drawn on top of them.
+     * Runnables passed to {@link #draw(Runnable)} are executed on the batch's thread.
+     */
+    public class Recorder{
+        float[] requestVerts = new float[256 * SPRITE_SIZE];
+        int requestVertOffset;
+        DrawRequest[] requests = new DrawRequest[256];
+        int[] requestZ = new int[256];
+        int numRequests;
+        volatile boolean submitted;
+
+        float color = Color.whiteFloatBits, mixColor = Color.clearFloatBits;
+        Blending blending = Blending.normal;
+        float z;
+        int intZ = Float.floatToRawIntBits(16f);
+
+        Recorder(){
+            for(int i = 0; i < requests.length; i++){
+                requests[i] = new DrawRequest();
+            }
+        }
+
+        /** @return whether the recorded requests are waiting to be merged by the batch. */
+        public boolean isSubmitted(){
+            return submitted;
+        }
+
+        /** Starts recording. Throws if the previous submission has not been merged yet. */
+        public void begin(){
+            if(submitted) throw new IllegalStateException("Recorder has not been flushed by its batch yet.");
+            color = Color.whiteFloatBits;
+            mixColor = Color.clearFloatBits;
+            blending = Blending.normal;
+            z(0f);
+        }
+
+        /** Submits everything recorded since {@link #begin()} to be merged on the next flush of the batch. */
+        public void end(){
+            submitted = true;
+        }
+
+        public void z(float z){
+            this.z = z;
+            intZ = Float.floatToRawIntBits(z + 16f);
+        }
+
+        public float z(){
+            return z;
+        }
+
+        public void color(float packedColor){
+            color = packedColor;
+        }
+
+        public void color(Color color){
+            this.color = color.toFloatBits();
+        }
+
+        public void mixColor(float packedColor){
+            mixColor = packedColor;
+        }
+
+        public void mixColor(Color color){
+            mixColor = color.toFloatBits();
+        }
+
+        public void blend(Blending blending){
+            this.blending = blending;
+        }
+
+        public void draw(TextureRegion region, float x, float y, float width, float height){
+            draw(region, x, y, 0f, 0f, width, height, 0f);
+        }
+
+        public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+            int pos = requestVertOffset;
+            prepare(SPRITE_SIZE);
+            constructVertices(requestVerts, pos, region, x, y, originX, originY, width, height, rotation, color, mixColor);
+            requestVertOffset += SPRITE_SIZE;
+            add(region.texture, pos, SPRITE_SIZE);
+        }
+
+        public void draw(Texture texture, float[] spriteVertices, int offset, int count){
+            int pos = requestVertOffset;
+            prepare(count);
+            System.arraycopy(spriteVertices, offset, requestVerts, pos, count);
+            requestVertOffset += count;
+            add(texture, pos, count);
+        }
+
+        public void draw(Runnable request){
+            if(numRequests >= requests.length) expand();
+            DrawRequest req = requests[numRequests];
+            req.run = request;
+            req.texture = null;
+            req.blending = blending;
+            requestZ[numRequests] = intZ;
+            numRequests++;
+        }
+
+        void add(Texture texture, int offset, int count){
+            int num = numRequests;
+            if(num > 0){
+                DrawRequest last = requests[num - 1];
+                if(last.run == null && last.texture == texture && last.blending == blending && requestZ[num - 1] == intZ){
+                    last.verticesLength += count;
+                    return;
+                }
+            }
+            if(num >= requests.length) expand();
+            DrawRequest req = requests[num];
+            req.verticesOffset = offset;
+            req.verticesLength = count;
+            req.texture = texture;
+            req.blending = blending;
+            req.run = null;
+            requestZ[num] = intZ;
+            numRequests++;
+        }
+
+        void prepare(int i){
+            while(requestVertOffset + i >= requestVerts.length) requestVerts = Arrays.copyOf(requestVerts, requestVerts.length << 1);
+        }
+
+        void expand(){
+            DrawRequest[] newRequests = Arrays.copyOf(requests, requests.length * 7 / 4);
+            for(int i = requests.length; i < newRequests.length; i++){
+                newRequests[i] = new DrawRequest();
+            }
+            requests = newRequests;
+            requestZ = Arrays.copyOf(requestZ, newRequests.length);
+        }
+    }
 }
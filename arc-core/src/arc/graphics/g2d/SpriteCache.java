@@ -71,7 +71,6 @@ public class SpriteCache implements Disposable{
     /**
      * Creates a cache with the specified size, using a default shader.
      * @param size The maximum number of images this cache can hold. The memory required to hold the images is allocated up front.
-     * Max of 8191 if indices are used.
      * @param useIndices If true, indexed geometry will be used.
      */
     public SpriteCache(int size, boolean useIndices){
@@ -85,16 +84,13 @@ public class SpriteCache implements Disposable{
     /**
      * Creates a cache with the specified size and OpenGL ES 2.0 shader.
      * @param size The maximum number of images this cache can hold. The memory required to hold the images is allocated up front.
-     * Max of 8191 if indices are used.
+     * Above 8191, indexed geometry uses 32-bit indices.
      * @param useIndices If true, indexed geometry will be used.
      */
     public SpriteCache(int size, int cacheSize, Shader shader, boolean useIndices){
         this.shader = shader;
 
-        if(useIndices && size > 8191)
-            throw new IllegalArgumentException("Can't have more than 8191 sprites per batch: " + size);
-
-        mesh = new Mesh(true, size * (useIndices ? 4 : 6), useIndices ? size * 6 : 0,
+        mesh = new Mesh(true, size * (useIndices ? 4 : 6), 0,
         VertexAttribute.position,
         VertexAttribute.color,
         VertexAttribute.texCoords
@@ -103,18 +99,7 @@ public class SpriteCache implements Disposable{
         caches = new Seq<>(cacheSize);
 
         if(useIndices){
-            int length = size * 6;
-            short[] indices = new short[length];
-            short j = 0;
-            for(int i = 0; i < length; i += 6, j += 4){
-                indices[i] = j;
-                indices[i + 1] = (short)(j + 1);
-                indices[i + 2] = (short)(j + 2);
-                indices[i + 3] = (short)(j + 2);
-                indices[i + 4] = (short)(j + 3);
-                indices[i + 5] = j;
-            }
-            mesh.setIndices(indices);
+            mesh.setIndexData(QuadIndexData.obtain(size, false));
         }
 
         projectionMatrix.setOrtho(0, 0, Core.graphics.getWidth(), Core.graphics.getHeight());
@@ -32,6 +32,10 @@ public class HdpiUtils{
         HdpiUtils.mode = mode;
     }
 
+    public static HdpiMode getMode(){
+        return mode;
+    }
+
     /**
      * Calls {@link GL20#glScissor(int, int, int, int)}, expecting the coordinates and sizes given in logical coordinates and
      * automatically converts them to backbuffer coordinates, which may be bigger on HDPI screens.
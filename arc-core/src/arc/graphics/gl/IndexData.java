@@ -1,5 +1,6 @@
 package arc.graphics.gl;
 
+import arc.graphics.GL20;
 import arc.util.Disposable;
 
 import java.nio.ShortBuffer;
@@ -9,6 +10,11 @@ import java.nio.ShortBuffer;
  * @author mzechner
  */
 public interface IndexData extends Disposable{
+    /** @return the GL type of the indices; {@link GL20#GL_UNSIGNED_SHORT} unless overridden. */
+    default int type(){
+        return GL20.GL_UNSIGNED_SHORT;
+    }
+
     /** @return the number of indices currently stored in this buffer */
     int size();
 
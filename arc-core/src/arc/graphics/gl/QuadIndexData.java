@@ -0,0 +1,198 @@
+package arc.graphics.gl;
+
+import arc.*;
+import arc.graphics.*;
+import arc.util.*;
+
+import java.nio.*;
+
+/**
+ * Shared, read-only indices for quads drawn as two triangles each, in the order used by {@link arc.graphics.g2d.SpriteBatch}:
+ * {@code 0, 1, 2, 2, 3, 0}. Instead of every batch and cache building its own copy, they {@link #obtain(int, boolean)} a shared instance,
+ * which grows to the largest number of quads requested so far.
+ * <p>
+ * Instances are reference counted. Every {@link #dispose()} releases one reference, and the memory and GL buffer are freed when
+ * the last one is released. There is one instance per index type and storage mode: 16-bit indices for up to {@link #maxShortQuads} quads,
+ * 32-bit indices beyond that, kept in either a GL buffer object or a client-side array for {@link VertexArray} meshes.
+ * 32-bit indices are only available as buffer objects, and need GL 3.0 or OES_element_index_uint on GLES 2.0.
+ * </p>
+ */
+public class QuadIndexData implements IndexData{
+    /** The maximum number of quads that 16-bit indices can address. */
+    public static final int maxShortQuads = 8191;
+
+    /** Shared instances, indexed by {@link #slot(boolean, boolean)}. */
+    private static final QuadIndexData[] shared = new QuadIndexData[4];
+
+    final boolean wide, clientSide;
+    int quads, references;
+
+    ByteBuffer byteBuffer;
+    ShortBuffer shortBuffer;
+    int bufferHandle;
+    boolean dirty = true, created;
+
+    private QuadIndexData(boolean wide, boolean clientSide){
+        this.wide = wide;
+        this.clientSide = clientSide;
+    }
+
+    /**
+     * Obtains shared quad indices, using 32-bit indices only if needed. Call {@link #dispose()} to release the reference.
+     * @param quads the number of quads that need to be drawn
+     * @param clientSide whether the indices are used with client-side {@link VertexArray}s instead of buffer objects
+     */
+    public static QuadIndexData obtain(int quads, boolean clientSide){
+        return obtain(quads, quads > maxShortQuads, clientSide);
+    }
+
+    /**
+     * Obtains shared quad indices. Call {@link #dispose()} to release the reference.
+     * @param quads the number of quads that need to be drawn
+     * @param wide whether to use 32-bit indices
+     * @param clientSide whether the indices are used with client-side {@link VertexArray}s instead of buffer objects
+     */
+    public static QuadIndexData obtain(int quads, boolean wide, boolean clientSide){
+        if(!wide && quads > maxShortQuads) throw new IllegalArgumentException("Can't have more than " + maxShortQuads + " quads with 16-bit indices: " + quads);
+        if(wide && clientSide) throw new IllegalArgumentException("32-bit quad indices are only supported with buffer objects.");
+        if(wide && !wideSupported()){
+            throw new ArcRuntimeException("Drawing " + quads + " quads needs 32-bit indices, which require GL 3.0 or OES_element_index_uint. " +
+            "Use at most " + maxShortQuads + " quads per batch.");
+        }
+
+        int slot = slot(wide, clientSide);
+        QuadIndexData data = shared[slot];
+        if(data == null){
+            shared[slot] = data = new QuadIndexData(wide, clientSide);
+        }
+        data.references++;
+        data.ensureCapacity(quads);
+        return data;
+    }
+
+    /** @return whether 32-bit indices can be drawn: with GL 3.0, desktop OpenGL, or GLES 2.0 with OES_element_index_uint. */
+    public static boolean wideSupported(){
+        if(Core.gl30 != null) return true;
+        if(Core.app != null && (Core.app.isDesktop() || Core.app.isHeadless())) return true;
+        return Core.graphics != null && Core.graphics.supportsExtension("GL_OES_element_index_uint");
+    }
+
+    private static int slot(boolean wide, boolean clientSide){
+        return (wide ? 2 : 0) + (clientSide ? 1 : 0);
+    }
+
+    /** @return the number of quads these indices currently cover. */
+    public int quads(){
+        return quads;
+    }
+
+    /** @return the number of live references to this instance. */
+    public int references(){
+        return references;
+    }
+
+    private void ensureCapacity(int quads){
+        if(quads <= this.quads) return;
+
+        ByteBuffer next = Buffers.newUnsafeByteBuffer(Math.max(quads, 1) * 6 * (wide ? 4 : 2));
+        if(wide){
+            IntBuffer ints = next.asIntBuffer();
+            for(int i = 0, j = 0; i < quads; i++, j += 4){
+                ints.put(j).put(j + 1).put(j + 2).put(j + 2).put(j + 3).put(j);
+            }
+        }else{
+            ShortBuffer shorts = next.asShortBuffer();
+            for(int i = 0, j = 0; i < quads; i++, j += 4){
+                shorts.put((short)j).put((short)(j + 1)).put((short)(j + 2)).put((short)(j + 2)).put((short)(j + 3)).put((short)j);
+            }
+        }
+
+        if(byteBuffer != null) Buffers.disposeUnsafeByteBuffer(byteBuffer);
+        byteBuffer = next;
+        shortBuffer = wide ? null : next.asShortBuffer();
+        this.quads = quads;
+        dirty = true;
+    }
+
+    @Override
+    public int type(){
+        return wide ? GL20.GL_UNSIGNED_INT : GL20.GL_UNSIGNED_SHORT;
+    }
+
+    @Override
+    public int size(){
+        return quads * 6;
+    }
+
+    @Override
+    public int max(){
+        return quads * 6;
+    }
+
+    @Override
+    public void set(short[] indices, int offset, int count){
+        throw new UnsupportedOperationException("Shared quad indices cannot be modified.");
+    }
+
+    @Override
+    public void set(ShortBuffer indices){
+        throw new UnsupportedOperationException("Shared quad indices cannot be modified.");
+    }
+
+    @Override
+    public void update(int targetOffset, short[] indices, int offset, int count){
+        throw new UnsupportedOperationException("Shared quad indices cannot be modified.");
+    }
+
+    /** @return the indices as a short buffer. Not available for 32-bit indices. */
+    @Override
+    public ShortBuffer buffer(){
+        if(wide) throw new UnsupportedOperationException("32-bit quad indices cannot be accessed as a short buffer.");
+        return shortBuffer;
+    }
+
+    @Override
+    public void bind(){
+        if(clientSide) return;
+
+        if(!created){
+            bufferHandle = Gl.genBuffer();
+            created = true;
+        }
+
+        Gl.bindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, bufferHandle);
+        if(dirty){
+            byteBuffer.position(0);
+            byteBuffer.limit(size() * (wide ? 4 : 2));
+            Gl.bufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, byteBuffer.limit(), byteBuffer, GL20.GL_STATIC_DRAW);
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void unbind(){
+        if(clientSide) return;
+        Gl.bindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /** Releases one reference. The indices are freed once no references are left. */
+    @Override
+    public void dispose(){
+        if(references <= 0) return;
+        if(--references > 0) return;
+
+        if(created){
+            Gl.bindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+            Gl.deleteBuffer(bufferHandle);
+            bufferHandle = 0;
+            created = false;
+        }
+        Buffers.disposeUnsafeByteBuffer(byteBuffer);
+        byteBuffer = null;
+        shortBuffer = null;
+        quads = 0;
+
+        int slot = slot(wide, clientSide);
+        if(shared[slot] == this) shared[slot] = null;
+    }
+}
@@ -0,0 +1,185 @@
+package arc.graphics.gl;
+
+import arc.*;
+import arc.graphics.*;
+import arc.util.*;
+
+import java.nio.*;
+
+/**
+ * A {@link VertexData} implementation for vertices that are re-uploaded many times per frame.
+ * <p>
+ * The GL buffer is split into a ring of segments, each large enough to hold all vertices. Every upload goes into the next segment,
+ * and the attribute pointers are offset to it, so a new upload never overwrites data that a previous draw call may still be reading.
+ * When the ring wraps around, the whole buffer is orphaned with a null {@code glBufferData} call, letting the driver hand out fresh storage
+ * instead of waiting for the GPU.
+ * </p>
+ * <p>
+ * Use {@link Mesh#setStreaming(int)} to switch a mesh to this implementation.
+ * </p>
+ */
+public class StreamingVertexBufferObject implements VertexData{
+    final static IntBuffer tmpHandle = Buffers.newIntBuffer(1);
+
+    final Mesh mesh;
+    final FloatBuffer buffer;
+    final ByteBuffer byteBuffer;
+    final int segments, segmentBytes;
+
+    int bufferHandle, vaoHandle = -1;
+    int segment = -1;
+    boolean dirty, bound, created;
+    Shader boundShader;
+
+    /**
+     * @param segments the number of segments in the ring, at least 1
+     * @param numVertices the maximum number of vertices per upload
+     */
+    public StreamingVertexBufferObject(int segments, int numVertices, Mesh mesh){
+        if(segments < 1) throw new IllegalArgumentException("segments must be at least 1: " + segments);
+
+        this.mesh = mesh;
+        this.segments = segments;
+        this.segmentBytes = mesh.vertexSize * numVertices;
+
+        byteBuffer = Buffers.newUnsafeByteBuffer(segmentBytes);
+        buffer = byteBuffer.asFloatBuffer();
+        buffer.flip();
+        byteBuffer.flip();
+    }
+
+    /** @return the segment that the last upload went into, or -1 if nothing was uploaded yet. */
+    public int segment(){
+        return segment;
+    }
+
+    /** @return the number of segments in the ring. */
+    public int segments(){
+        return segments;
+    }
+
+    /** @return the byte offset of the current segment in the GL buffer. */
+    public int segmentOffset(){
+        return Math.max(segment, 0) * segmentBytes;
+    }
+
+    @Override
+    public int size(){
+        return buffer.limit() * 4 / mesh.vertexSize;
+    }
+
+    @Override
+    public int max(){
+        return segmentBytes / mesh.vertexSize;
+    }
+
+    @Override
+    public FloatBuffer buffer(){
+        dirty = true;
+        return buffer;
+    }
+
+    @Override
+    public void set(float[] vertices, int offset, int count){
+        dirty = true;
+        Buffers.copy(vertices, byteBuffer, count, offset);
+        buffer.position(0);
+        buffer.limit(count);
+        bufferChanged();
+    }
+
+    @Override
+    public void update(int targetOffset, float[] vertices, int sourceOffset, int count){
+        dirty = true;
+        final int pos = byteBuffer.position();
+        byteBuffer.position(targetOffset * 4);
+        Buffers.copy(vertices, sourceOffset, count, byteBuffer);
+        byteBuffer.position(pos);
+        buffer.position(0);
+        bufferChanged();
+    }
+
+    private void bufferChanged(){
+        if(bound){
+            upload();
+            bindAttributes(boundShader);
+        }
+    }
+
+    /** Uploads the client-side vertices into the next segment of the ring. */
+    private void upload(){
+        segment = (segment + 1) % segments;
+        if(segment == 0){
+            //orphan the old storage; draws still reading from it keep their copy
+            Gl.bufferData(Gl.arrayBuffer, segments * segmentBytes, null, Gl.streamDraw);
+        }
+
+        byteBuffer.position(0);
+        byteBuffer.limit(buffer.limit() * 4);
+        Gl.bufferSubData(Gl.arrayBuffer, segmentOffset(), byteBuffer.limit(), byteBuffer);
+        dirty = false;
+    }
+
+    @Override
+    public void bind(Shader shader){
+        if(!created){
+            bufferHandle = Gl.genBuffer();
+            if(Core.gl30 != null){
+                tmpHandle.clear();
+                Core.gl30.glGenVertexArrays(1, tmpHandle);
+                vaoHandle = tmpHandle.get();
+            }
+            created = true;
+        }
+
+        if(vaoHandle != -1) Core.gl30.glBindVertexArray(vaoHandle);
+        Gl.bindBuffer(Gl.arrayBuffer, bufferHandle);
+
+        if(dirty || segment == -1){
+            upload();
+        }
+
+        bindAttributes(shader);
+        boundShader = shader;
+        bound = true;
+    }
+
+    private void bindAttributes(Shader shader){
+        int offset = segmentOffset();
+        for(VertexAttribute attribute : mesh.attributes){
+            int location = shader.getAttributeLocation(attribute.alias);
+            int aoffset = offset;
+            offset += attribute.size;
+            if(location < 0) continue;
+
+            Gl.enableVertexAttribArray(location);
+            Gl.vertexAttribPointer(location, attribute.components, attribute.type, attribute.normalized, mesh.vertexSize, aoffset);
+        }
+    }
+
+    @Override
+    public void unbind(Shader shader){
+        for(VertexAttribute attribute : mesh.attributes){
+            shader.disableVertexAttribute(attribute.alias);
+        }
+        if(vaoHandle != -1) Core.gl30.glBindVertexArray(0);
+        Gl.bindBuffer(Gl.arrayBuffer, 0);
+        boundShader = null;
+        bound = false;
+    }
+
+    @Override
+    public void dispose(){
+        Gl.bindBuffer(Gl.arrayBuffer, 0);
+        Gl.deleteBuffer(bufferHandle);
+        bufferHandle = 0;
+        Buffers.disposeUnsafeByteBuffer(byteBuffer);
+        if(vaoHandle != -1){
+            tmpHandle.clear();
+            tmpHandle.put(vaoHandle);
+            tmpHandle.flip();
+            Core.gl30.glDeleteVertexArrays(1, tmpHandle);
+            vaoHandle = -1;
+        }
+    }
+}
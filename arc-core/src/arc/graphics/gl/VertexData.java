@@ -19,7 +19,8 @@ public interface VertexData extends Disposable{
                 + count + ", offset: " + offset + ", max: " + indices.max() + ")");
             }
 
-            Gl.drawElements(primitiveType, count, GL20.GL_UNSIGNED_SHORT, offset * 2);
+            int type = indices.type();
+            Gl.drawElements(primitiveType, count, type, offset * (type == GL20.GL_UNSIGNED_INT ? 4 : 2));
         }else{
             Gl.drawArrays(primitiveType, offset, count);
         }
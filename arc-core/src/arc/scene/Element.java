@@ -46,10 +46,17 @@ public class Element{
     private boolean layoutEnabled = true;
     private Runnable update;
 
+    /** Classes that override {@link #act(float)}, and so always have to act. */
+    private static final ObjectMap<Class<?>, Boolean> actOverrides = new ObjectMap<>();
+    private final boolean overridesAct;
+    /** Whether this element has to act, see {@link #updateActing()}. */
+    boolean acting;
+
     public Element(){
         if(Core.app != null && !Core.app.isOnMainThread()){
             Log.err(new RuntimeException("UI should be created in main Thread"));
         }
+        acting = overridesAct = overridesAct(getClass());
     }
 
     /** Draws the element. Does nothing by default. */
@@ -83,10 +90,60 @@ public class Element{
 
         if(touchablility != null) this.touchable = touchablility.get();
         if(update != null) update.run();
+
+        //actions usually change how the element looks
+        if(actions.size > 0) invalidateCache();
+        //finished actions, or providers that were cleared directly
+        else if(!overridesAct) updateActing();
+    }
+
+    /**
+     * Recomputes whether this element has to act: if it has actions, an {@link #update(Runnable)} runnable, a visibility or touchability
+     * provider, or overrides {@link #act(float)}. Idle subtrees are skipped by {@link Group#act(float)} if {@link Scene#skipIdle} is
+     * enabled. This is called automatically, except after {@link #visibility} or {@link #touchablility} are assigned directly.
+     */
+    public void updateActing(){
+        boolean acting = overridesAct || actions.size > 0 || update != null || visibility != null || touchablility != null;
+        if(acting != this.acting){
+            this.acting = acting;
+            if(parent != null) parent.actingChanged(acting ? 1 : -1);
+        }
+    }
+
+    /** @return the number of elements that have to act in this subtree, including this element. */
+    int actingCount(){
+        return acting ? 1 : 0;
+    }
+
+    private static boolean overridesAct(Class<?> type){
+        Boolean result = actOverrides.get(type);
+        if(result == null){
+            result = false;
+            for(Class<?> c = type; c != null && c != Element.class && c != Group.class; c = c.getSuperclass()){
+                try{
+                    c.getDeclaredMethod("act", float.class);
+                    result = true;
+                    break;
+                }catch(NoSuchMethodException ignored){
+                }catch(Throwable e){
+                    //without reflection, assume that the element has to act
+                    result = true;
+                    break;
+                }
+            }
+            actOverrides.put(type, result);
+        }
+        return result;
     }
 
     public void updateVisibility(){
-        if(visibility != null) this.visible = visibility.get();
+        if(visibility != null){
+            boolean visible = visibility.get();
+            if(visible != this.visible){
+                this.visible = visible;
+                invalidateCache();
+            }
+        }
     }
 
     public boolean hasMouse(){
@@ -289,6 +346,7 @@ public class Element{
     public void addAction(Action action){
         action.setActor(this);
         actions.add(action);
+        updateActing();
 
         if(stage != null && stage.getActionsRequestRendering()) Core.graphics.requestRendering();
     }
@@ -299,6 +357,7 @@ public class Element{
 
     public void removeAction(Action action){
         if(actions.remove(action, true)) action.setActor(null);
+        updateActing();
     }
 
     public Seq<Action> getActions(){
@@ -315,6 +374,7 @@ public class Element{
         for(int i = actions.size - 1; i >= 0; i--)
             actions.get(i).setActor(null);
         actions.clear();
+        updateActing();
     }
 
     /** Removes all listeners on this actor. */
@@ -407,6 +467,7 @@ public class Element{
         if(this.x != x || this.y != y){
             this.x = x;
             this.y = y;
+            boundsChanged();
         }
     }
 
@@ -428,6 +489,7 @@ public class Element{
         if(this.x != x || this.y != y){
             this.x = x;
             this.y = y;
+            boundsChanged();
         }
     }
 
@@ -436,6 +498,7 @@ public class Element{
         if(x != 0 || y != 0){
             this.x += x;
             this.y += y;
+            boundsChanged();
         }
     }
 
@@ -446,6 +509,7 @@ public class Element{
     public void setWidth(float width){
         if(this.width != width){
             this.width = width;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -457,6 +521,7 @@ public class Element{
     public void setHeight(float height){
         if(this.height != height){
             this.height = height;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -476,6 +541,12 @@ public class Element{
         invalidate();
     }
 
+    /** Updates the parent's {@link HitGrid} and invalidates cached ancestors after the position, size or transform of this element changed. */
+    void boundsChanged(){
+        if(parent != null && parent.hitGrid != null) parent.hitGrid.moved(this);
+        invalidateCache();
+    }
+
     /** Called when the actor's rotation has been changed. */
     protected void rotationChanged(){
     }
@@ -489,6 +560,7 @@ public class Element{
         if(this.width != width || this.height != height){
             this.width = width;
             this.height = height;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -498,6 +570,7 @@ public class Element{
         if(size != 0){
             width += size;
             height += size;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -507,6 +580,7 @@ public class Element{
         if(width != 0 || height != 0){
             this.width += width;
             this.height += height;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -516,10 +590,12 @@ public class Element{
         if(this.x != x || this.y != y){
             this.x = x;
             this.y = y;
+            boundsChanged();
         }
         if(this.width != width || this.height != height){
             this.width = width;
             this.height = height;
+            boundsChanged();
             sizeChanged();
         }
     }
@@ -528,6 +604,7 @@ public class Element{
     public void setOrigin(float originX, float originY){
         this.originX = originX;
         this.originY = originY;
+        boundsChanged();
     }
 
     /** Sets the origin position to the specified {@link Align alignment}. */
@@ -545,30 +622,35 @@ public class Element{
             originY = height;
         else
             originY = height / 2;
+        boundsChanged();
     }
 
     /** Sets the scale for both X and Y */
     public void setScale(float scaleXY){
         this.scaleX = scaleXY;
         this.scaleY = scaleXY;
+        boundsChanged();
     }
 
     /** Sets the scale X and scale Y. */
     public void setScale(float scaleX, float scaleY){
         this.scaleX = scaleX;
         this.scaleY = scaleY;
+        boundsChanged();
     }
 
     /** Adds the specified scale to the current scale. */
     public void scaleBy(float scale){
         scaleX += scale;
         scaleY += scale;
+        boundsChanged();
     }
 
     /** Adds the specified scale to the current scale. */
     public void scaleBy(float scaleX, float scaleY){
         this.scaleX += scaleX;
         this.scaleY += scaleY;
+        boundsChanged();
     }
 
     public float getRotation(){
@@ -578,6 +660,7 @@ public class Element{
     public void setRotation(float degrees){
         if(this.rotation != degrees){
             this.rotation = degrees;
+            boundsChanged();
             rotationChanged();
         }
     }
@@ -586,6 +669,7 @@ public class Element{
         setOrigin(align);
         if(this.rotation != degrees){
             this.rotation = degrees;
+            boundsChanged();
             rotationChanged();
         }
     }
@@ -594,16 +678,19 @@ public class Element{
     public void rotateBy(float amountInDegrees){
         if(amountInDegrees != 0){
             rotation += amountInDegrees;
+            boundsChanged();
             rotationChanged();
         }
     }
 
     public void setColor(float r, float g, float b, float a){
         color.set(r, g, b, a);
+        invalidateCache();
     }
 
     public void setColor(Color color){
         this.color.set(color);
+        invalidateCache();
     }
 
     /** Changes the z-order for this actor so it is in front of all siblings. */
@@ -641,6 +728,7 @@ public class Element{
         if(children.get(index) == this) return;
         if(!children.remove(this, true)) return;
         children.insert(index, this);
+        parent.childrenOrderChanged();
     }
 
     /** Calls {@link #clipBegin(float, float, float, float)} to clip this actor's bounds. */
@@ -809,7 +897,7 @@ public class Element{
 
         if(!needsLayout) return;
         needsLayout = false;
-        layout();
+        LayoutStats.layout(this);
     }
 
     /** Returns true if the widget's layout has been {@link #invalidate() invalidated}. */
@@ -822,6 +910,15 @@ public class Element{
      * maximum, or actual size of the actor (meaning it does not affect the parent actor's layout). */
     public void invalidate(){
         needsLayout = true;
+        invalidateCache();
+    }
+
+    /** Marks the bitmaps of all ancestors that are {@link Group#setCacheAsBitmap(boolean) cached as bitmaps} as outdated. */
+    public void invalidateCache(){
+        if(Group.bitmapCaches == 0) return;
+        for(Group group = parent; group != null; group = group.parent){
+            if(group.cacheAsBitmap) group.cacheChanged();
+        }
     }
 
     /** Invalidates this actor and its ascendants, calling {@link #invalidate()} on each. This method should be called when state
@@ -831,7 +928,7 @@ public class Element{
         if(!layoutEnabled) return;
         invalidate();
         Group parent = this.parent;
-        if(parent != null) parent.invalidateHierarchy();
+        if(parent != null) parent.childInvalidated(this);
     }
 
     /** Sizes this actor to its preferred width and height, then calls {@link #validate()}.
@@ -875,6 +972,7 @@ public class Element{
     public void setTranslation(float x, float y){
         translation.x = x;
         translation.y = y;
+        boundsChanged();
     }
 
     public void keyDown(KeyCode key, Runnable l){
@@ -998,16 +1096,19 @@ public class Element{
 
     public Element update(Runnable r){
         update = r;
+        updateActing();
         return this;
     }
 
     public Element visible(Boolp vis){
         visibility = vis;
+        updateActing();
         return this;
     }
 
     public void touchable(Prov<Touchable> touch){
         this.touchablility = touch;
+        updateActing();
     }
 
     @Override
@@ -1,6 +1,10 @@
 package arc.scene;
 
+import arc.*;
+import arc.graphics.*;
 import arc.graphics.g2d.*;
+import arc.graphics.gl.*;
+import arc.math.*;
 import arc.math.geom.*;
 import arc.struct.Seq;
 import arc.struct.SnapshotSeq;
@@ -13,6 +17,7 @@ import arc.scene.style.*;
 import arc.scene.ui.layout.Table;
 import arc.scene.ui.layout.Table.DrawRect;
 import arc.scene.utils.Cullable;
+import arc.util.*;
 
 /**
  * 2D scene graph node that may contain other actors.
@@ -32,19 +37,75 @@ public abstract class Group extends Element implements Cullable{
     protected boolean transform = false;
     protected Rect cullingArea;
 
+    /** Free bitmap cache buffers, shared by all groups. */
+    private static final Seq<FrameBuffer> cachePool = new Seq<>();
+    private static final Blending premultiplied = new Blending(Gl.one, Gl.oneMinusSrcAlpha);
+    /** Number of groups with {@link #cacheAsBitmap} enabled, so invalidation doesn't walk the hierarchy if there are none. */
+    static int bitmapCaches;
+    private static long cacheBytes;
+    /** Maximum number of unused bitmap cache buffers that are kept for reuse. */
+    public static int maxPooledCaches = 4;
+
+    boolean cacheAsBitmap;
+    /**
+     * If true, a group {@link #setCacheAsBitmap(boolean) cached as a bitmap} also hashes the visibility, color, bounds and transform
+     * of every descendant before each draw, so changes made by writing those fields directly are caught as well. This is slow for
+     * large subtrees; prefer the setters or {@link Element#invalidateCache()}.
+     */
+    public boolean paranoid;
+    /** Number of times the cached bitmap was invalidated because something in the subtree changed. */
+    public int cacheInvalidations;
+    /** Draw calls it took to render the subtree into the cache the last time. */
+    public int cachedDrawCalls;
+    /** Draw calls avoided by drawing the cached bitmap instead of the subtree. */
+    public long drawCallsSaved;
+    private @Nullable FrameBuffer cacheBuffer;
+    private final TextureRegion cacheRegion = new TextureRegion();
+    private final Mat cacheProj = new Mat(), cacheTrans = new Mat();
+    private boolean cacheDirty = true, drawingCache;
+    /** The group whose cached bitmap is being rendered, if any. */
+    static @Nullable Group cacheTarget;
+    private int cacheWidth, cacheHeight;
+    private long cacheState;
+
+    @Nullable HitGrid hitGrid;
+    /** Number of descendants that have to act. */
+    int actingDescendants;
+
     @Override
     public void act(float delta){
         super.act(delta);
+        Scene scene = getScene();
+        boolean skipIdle = scene != null && scene.skipIdle;
         Element[] actors = children.begin();
         for(int i = 0, n = children.size; i < n; i++){
-            actors[i].updateVisibility();
-            if(actors[i].visible){
-                actors[i].act(delta);
+            Element child = actors[i];
+            if(skipIdle && child.actingCount() == 0){
+                scene.skippedElements++;
+                continue;
+            }
+            child.updateVisibility();
+            if(child.visible){
+                child.act(delta);
+                if(scene != null) scene.actedElements++;
             }
         }
         children.end();
     }
 
+    @Override
+    int actingCount(){
+        return (acting ? 1 : 0) + actingDescendants;
+    }
+
+    /** Adds to the number of acting descendants of this group and its ancestors. */
+    void actingChanged(int amount){
+        if(amount == 0) return;
+        for(Group group = this; group != null; group = group.parent){
+            group.actingDescendants += amount;
+        }
+    }
+
     @Override
     public void draw(){
         if(transform) applyTransform(computeTransform());
@@ -53,7 +114,13 @@ public abstract class Group extends Element implements Cullable{
     }
 
     protected void drawChildren(){
-        parentAlpha *= this.color.a;
+        if(cacheAsBitmap && !drawingCache){
+            drawCache();
+            return;
+        }
+
+        //the alpha of a cached subtree is applied when the bitmap is drawn
+        parentAlpha = drawingCache ? 1f : parentAlpha * this.color.a;
         SnapshotSeq<Element> children = this.children;
         Element[] actors = children.begin();
         Rect cullingArea = this.cullingArea;
@@ -133,6 +200,196 @@ public abstract class Group extends Element implements Cullable{
         children.end();
     }
 
+    /** Draws the children from the cached bitmap, rendering them into it first if anything changed. */
+    private void drawCache(){
+        float alpha = parentAlpha * color.a;
+        float bx = transform ? 0 : x, by = transform ? 0 : y;
+
+        //render at the resolution of the screen
+        Mat proj = Draw.proj();
+        int width = Math.max(Mathf.ceil(this.width * Math.abs(proj.val[Mat.M00]) * Core.graphics.getBackBufferWidth() / 2f), 1);
+        int height = Math.max(Mathf.ceil(this.height * Math.abs(proj.val[Mat.M11]) * Core.graphics.getBackBufferHeight() / 2f), 1);
+
+        if(cacheBuffer == null || cacheBuffer.getWidth() < width || cacheBuffer.getHeight() < height){
+            if(cacheBuffer != null) freeCache(cacheBuffer);
+            cacheBuffer = obtainCache(width, height);
+            cacheDirty = true;
+        }
+
+        if(width != cacheWidth || height != cacheHeight){
+            cacheWidth = width;
+            cacheHeight = height;
+            cacheDirty = true;
+        }
+
+        //direct writes to visibility, color and bounds don't invalidate anything, so they are detected by comparing the state of the subtree
+        if(paranoid){
+            long state = cacheState(this, 17);
+            if(state != cacheState){
+                cacheState = state;
+                if(!cacheDirty) cacheInvalidations++;
+                cacheDirty = true;
+            }
+        }
+
+        FrameBuffer buffer = cacheBuffer;
+        if(cacheDirty){
+            cacheProj.set(Draw.proj());
+            cacheTrans.set(Draw.trans());
+
+            //scissors of the screen don't apply to the buffer, and those of clipping children are in its pixels
+            ScissorStack.suspend();
+            HdpiMode lastMode = HdpiUtils.getMode();
+            HdpiUtils.setMode(HdpiMode.pixels);
+            buffer.begin(Color.clear);
+            int calls = Core.batch.stats.drawCalls;
+            Draw.proj(bx, by, this.width * buffer.getWidth() / width, this.height * buffer.getHeight() / height);
+            Draw.trans(Tmp.m1.idt());
+
+            float lastAlpha = parentAlpha;
+            Group lastTarget = cacheTarget;
+            cacheTarget = this;
+            drawingCache = true;
+            drawChildren();
+            drawingCache = false;
+            cacheTarget = lastTarget;
+            parentAlpha = lastAlpha;
+
+            Draw.flush();
+            cachedDrawCalls = Core.batch.stats.drawCalls - calls;
+            buffer.end();
+            HdpiUtils.setMode(lastMode);
+            ScissorStack.resume();
+
+            Draw.proj(cacheProj);
+            Draw.trans(cacheTrans);
+            cacheDirty = false;
+        }else{
+            drawCallsSaved += cachedDrawCalls;
+        }
+
+        //frame buffers are upside down
+        Texture texture = buffer.getTexture();
+        cacheRegion.set(texture);
+        cacheRegion.set(0f, (float)height / texture.height, (float)width / texture.width, 0f);
+
+        //the cache holds premultiplied colors
+        Blending lastBlend = Draw.getBlend();
+        float lastColor = Draw.getColorPacked();
+        Draw.blend(premultiplied);
+        Draw.color(alpha, alpha, alpha, alpha);
+        Draw.rect(cacheRegion, bx + this.width / 2f, by + this.height / 2f, this.width, this.height);
+        Draw.blend(lastBlend);
+        Draw.color(lastColor);
+    }
+
+    /** Calculates scissors in the pixels of the cache buffer while it is rendered, see {@link Scene#calculateScissors(Rect, Rect)}. */
+    void calculateCacheScissors(Mat transform, Rect area, Rect scissor){
+        Mat proj = Draw.proj();
+        int width = cacheBuffer.getWidth(), height = cacheBuffer.getHeight();
+        tmp.set(area.x, area.y).mul(transform).mul(proj);
+        scissor.x = (tmp.x + 1f) / 2f * width;
+        scissor.y = (tmp.y + 1f) / 2f * height;
+
+        tmp.set(area.x + area.width, area.y + area.height).mul(transform).mul(proj);
+        scissor.width = (tmp.x + 1f) / 2f * width - scissor.x;
+        scissor.height = (tmp.y + 1f) / 2f * height - scissor.y;
+    }
+
+    /** @return a hash of everything in the subtree that changes how it looks without invalidating it. */
+    private static long cacheState(Group group, long hash){
+        Element[] items = group.children.items;
+        for(int i = 0, n = group.children.size; i < n; i++){
+            Element child = items[i];
+            hash = hash * 31 + (child.visible ? 1 : 0);
+            if(!child.visible) continue;
+            hash = hash * 31 + Float.floatToIntBits(child.x);
+            hash = hash * 31 + Float.floatToIntBits(child.y);
+            hash = hash * 31 + Float.floatToIntBits(child.width);
+            hash = hash * 31 + Float.floatToIntBits(child.height);
+            hash = hash * 31 + Float.floatToIntBits(child.translation.x);
+            hash = hash * 31 + Float.floatToIntBits(child.translation.y);
+            hash = hash * 31 + Float.floatToIntBits(child.rotation);
+            hash = hash * 31 + Float.floatToIntBits(child.scaleX);
+            hash = hash * 31 + Float.floatToIntBits(child.scaleY);
+            hash = hash * 31 + child.color.rgba();
+            if(child instanceof Group) hash = cacheState((Group)child, hash);
+        }
+        return hash;
+    }
+
+    /** Called when something in the subtree changed while the group is cached as a bitmap. */
+    void cacheChanged(){
+        //elements are laid out while the cache is drawn; that doesn't make it outdated
+        if(drawingCache || cacheDirty) return;
+        cacheDirty = true;
+        cacheInvalidations++;
+    }
+
+    /**
+     * If true, the children are rendered into a frame buffer once and then drawn as a single image, until the group is
+     * invalidated by a descendant calling {@link #invalidate()}, running actions, or changing its visibility through
+     * {@link Element#visible(arc.func.Boolp)}, or its color, bounds or transform through setters. Writing those fields directly does not
+     * invalidate the cache; call {@link Element#invalidateCache()} afterwards or enable {@link #paranoid}. This is meant for large subtrees that rarely change. Children outside of the bounds of the group are cut off, and
+     * {@link Element#draw()} is not called on the children while the cache is valid.
+     */
+    public void setCacheAsBitmap(boolean cacheAsBitmap){
+        if(this.cacheAsBitmap == cacheAsBitmap) return;
+        this.cacheAsBitmap = cacheAsBitmap;
+        bitmapCaches += cacheAsBitmap ? 1 : -1;
+        releaseCache();
+    }
+
+    public boolean isCacheAsBitmap(){
+        return cacheAsBitmap;
+    }
+
+    /** Renders the cached bitmap again the next time the group is drawn. */
+    public void clearCache(){
+        cacheChanged();
+    }
+
+    /** Returns the frame buffer of the cache to the pool. */
+    private void releaseCache(){
+        if(cacheBuffer != null){
+            freeCache(cacheBuffer);
+            cacheBuffer = null;
+        }
+        cacheDirty = true;
+    }
+
+    /** @return the memory used by the frame buffers of all cached groups, including unused buffers in the pool, in bytes. */
+    public static long cacheMemory(){
+        return cacheBytes;
+    }
+
+    private static FrameBuffer obtainCache(int width, int height){
+        FrameBuffer best = null;
+        for(FrameBuffer buffer : cachePool){
+            if(buffer.getWidth() >= width && buffer.getHeight() >= height && (best == null || buffer.getWidth() * buffer.getHeight() < best.getWidth() * best.getHeight())){
+                best = buffer;
+            }
+        }
+        if(best != null){
+            cachePool.remove(best, true);
+            return best;
+        }
+
+        //sizes are rounded up, so buffers fit other groups of a similar size
+        FrameBuffer buffer = new FrameBuffer(Mathf.ceil(width / 64f) * 64, Mathf.ceil(height / 64f) * 64);
+        cacheBytes += (long)buffer.getWidth() * buffer.getHeight() * 4;
+        return buffer;
+    }
+
+    private static void freeCache(FrameBuffer buffer){
+        cachePool.add(buffer);
+        while(cachePool.size > maxPooledCaches){
+            FrameBuffer removed = cachePool.remove(0);
+            cacheBytes -= (long)removed.getWidth() * removed.getHeight() * 4;
+            removed.dispose();
+        }
+    }
+
     /** Returns the transform for this group's coordinate system. */
     protected Mat computeTransform(){
         Affine2 worldTransform = this.worldTransform;
@@ -190,6 +447,10 @@ public abstract class Group extends Element implements Cullable{
     @Override
     public Element hit(float x, float y, boolean touchable){
         if(touchable && this.touchable == Touchable.disabled) return null;
+        if(hitGrid != null){
+            Element hit = hitGrid.hit(x, y, touchable);
+            return hit != null ? hit : super.hit(x, y, touchable);
+        }
         Vec2 point = tmp;
         Element[] childrenArray = children.items;
         for(int i = children.size - 1; i >= 0; i--){
@@ -203,6 +464,32 @@ public abstract class Group extends Element implements Cullable{
         return super.hit(x, y, touchable);
     }
 
+    /**
+     * Enables a {@link HitGrid} that {@link #hit(float, float, boolean)} uses to only test the children under the point.
+     * Worth it for groups with thousands of children; see {@link HitGrid} for restrictions.
+     * @param cellSize the size of a grid cell, ideally close to the size of a child. Zero or less disables the grid.
+     */
+    public void setHitGrid(float cellSize){
+        hitGrid = cellSize > 0 ? new HitGrid(this, cellSize) : null;
+    }
+
+    public @Nullable HitGrid getHitGrid(){
+        return hitGrid;
+    }
+
+    /** Called when children are added, removed or reordered. */
+    void childrenOrderChanged(){
+        if(hitGrid != null) hitGrid.invalidate();
+    }
+
+    /**
+     * Called by {@link Element#invalidateHierarchy()} when a child's minimum, preferred or maximum size may have changed.
+     * Invalidates the hierarchy of this group by default.
+     */
+    public void childInvalidated(Element child){
+        invalidateHierarchy();
+    }
+
     /** Called when actors are added to or removed from the group. */
     protected void childrenChanged(){
     }
@@ -256,6 +543,8 @@ public abstract class Group extends Element implements Cullable{
         children.add(actor);
         actor.parent = this;
         actor.setScene(getScene());
+        actingChanged(actor.actingCount());
+        childrenOrderChanged();
         childrenChanged();
     }
 
@@ -275,6 +564,8 @@ public abstract class Group extends Element implements Cullable{
             children.insert(index, actor);
         actor.parent = this;
         actor.setScene(getScene());
+        actingChanged(actor.actingCount());
+        childrenOrderChanged();
         childrenChanged();
     }
 
@@ -291,6 +582,8 @@ public abstract class Group extends Element implements Cullable{
         children.insert(index, actor);
         actor.parent = this;
         actor.setScene(getScene());
+        actingChanged(actor.actingCount());
+        childrenOrderChanged();
         childrenChanged();
     }
 
@@ -310,6 +603,8 @@ public abstract class Group extends Element implements Cullable{
             children.insert(index + 1, actor);
         actor.parent = this;
         actor.setScene(getScene());
+        actingChanged(actor.actingCount());
+        childrenOrderChanged();
         childrenChanged();
     }
 
@@ -333,6 +628,8 @@ public abstract class Group extends Element implements Cullable{
         }
         actor.parent = null;
         actor.setScene(null);
+        actingChanged(-actor.actingCount());
+        childrenOrderChanged();
         childrenChanged();
         return true;
     }
@@ -349,6 +646,8 @@ public abstract class Group extends Element implements Cullable{
         }
         children.end();
         children.clear();
+        actingChanged(-actingDescendants);
+        childrenOrderChanged();
         childrenChanged();
     }
 
@@ -414,6 +713,7 @@ public abstract class Group extends Element implements Cullable{
     @Override
     protected void setScene(Scene stage){
         super.setScene(stage);
+        if(stage == null) releaseCache();
         Element[] childrenArray = children.items;
         for(int i = 0, n = children.size; i < n; i++)
             childrenArray[i].setScene(stage); // StackOverflowError here means the group is its own ancestor.
@@ -425,6 +725,7 @@ public abstract class Group extends Element implements Cullable{
         if(first < 0 || first >= maxIndex) return false;
         if(second < 0 || second >= maxIndex) return false;
         children.swap(first, second);
+        childrenOrderChanged();
         return true;
     }
 
@@ -434,6 +735,7 @@ public abstract class Group extends Element implements Cullable{
         int secondIndex = children.indexOf(second, true);
         if(firstIndex == -1 || secondIndex == -1) return false;
         children.swap(firstIndex, secondIndex);
+        childrenOrderChanged();
         return true;
     }
 
@@ -0,0 +1,192 @@
+package arc.scene;
+
+import arc.math.geom.*;
+import arc.struct.*;
+import arc.util.*;
+
+import java.util.*;
+
+/**
+ * A uniform grid over the bounds of a group's children, used by {@link Group#hit(float, float, boolean)} to only test the children
+ * under the point instead of every child. Enabled with {@link Group#setHitGrid(float)}.
+ * <p>
+ * The grid is updated when children are added, removed or reordered, and when their position, size, origin, scale, rotation
+ * or translation is changed through {@link Element} setters. Assigning {@link Element#x} or {@link Element#y} directly bypasses this;
+ * call {@link #invalidate()} afterwards.
+ * <p>
+ * Children are only found inside their own (transformed) bounds. Groups with children that are hit outside their bounds, such as
+ * child groups with overflowing content, should not use a grid.
+ */
+public class HitGrid{
+    private static final Vec2 tmp = new Vec2();
+    private static final Comparator<Entry> zorder = (a, b) -> Integer.compare(b.index, a.index);
+
+    /** Size of a grid cell, in the group's coordinates. */
+    public final float cellSize;
+    /** Number of full rebuilds, and of children moved to different cells. */
+    public int rebuilds, moves;
+
+    private final Group group;
+    private final LongMap<Seq<Entry>> cells = new LongMap<>();
+    private final ObjectMap<Element, Entry> entries = new ObjectMap<>();
+    private final Seq<Entry> candidates = new Seq<>(false, 16, Entry.class);
+    private final Seq<Seq<Entry>> cellPool = new Seq<>();
+    private boolean dirty = true;
+
+    HitGrid(Group group, float cellSize){
+        if(cellSize <= 0) throw new IllegalArgumentException("cellSize must be > 0: " + cellSize);
+        this.group = group;
+        this.cellSize = cellSize;
+    }
+
+    /** Rebuilds the grid before the next query. */
+    public void invalidate(){
+        dirty = true;
+    }
+
+    /** @return the number of non-empty cells. */
+    public int cells(){
+        if(dirty) rebuild();
+        return cells.size;
+    }
+
+    /** Tests the children under the point, front to back. @return the hit element, or null. */
+    @Nullable Element hit(float x, float y, boolean touchable){
+        if(dirty) rebuild();
+
+        Seq<Entry> cell = cells.get(key(cell(x), cell(y)));
+        if(cell == null) return null;
+
+        Seq<Entry> candidates = this.candidates;
+        candidates.clear();
+        candidates.addAll(cell);
+        if(candidates.size > 1) candidates.sort(zorder);
+
+        Rect cullingArea = group.cullingArea;
+        Vec2 point = tmp;
+        Entry[] items = candidates.items;
+        Element result = null;
+        for(int i = 0, n = candidates.size; i < n; i++){
+            Element child = items[i].element;
+            if(!child.visible || (child.cullable && cullingArea != null && !cullingArea.overlaps(child.x + child.translation.x, child.y + child.translation.y, child.width, child.height))) continue;
+            child.parentToLocalCoordinates(point.set(x, y));
+            Element hit = child.hit(point.x, point.y, touchable);
+            if(hit != null){
+                result = hit;
+                break;
+            }
+        }
+        candidates.clear();
+        return result;
+    }
+
+    /** Called when a child's bounds may have changed. */
+    void moved(Element element){
+        if(dirty) return;
+        Entry entry = entries.get(element);
+        if(entry == null) return;
+
+        int x0 = entry.x0, y0 = entry.y0, x1 = entry.x1, y1 = entry.y1;
+        bounds(entry);
+        if(x0 == entry.x0 && y0 == entry.y0 && x1 == entry.x1 && y1 == entry.y1) return;
+
+        for(int cx = x0; cx <= x1; cx++){
+            for(int cy = y0; cy <= y1; cy++){
+                long key = key(cx, cy);
+                Seq<Entry> cell = cells.get(key);
+                if(cell == null) continue;
+                cell.remove(entry, true);
+                if(cell.isEmpty()){
+                    cells.remove(key);
+                    cellPool.add(cell);
+                }
+            }
+        }
+        insert(entry);
+        moves++;
+    }
+
+    void rebuild(){
+        for(Seq<Entry> cell : cells.values()){
+            cell.clear();
+            cellPool.add(cell);
+        }
+        cells.clear();
+        entries.clear();
+
+        Element[] children = group.children.items;
+        for(int i = 0, n = group.children.size; i < n; i++){
+            Entry entry = new Entry();
+            entry.element = children[i];
+            entry.index = i;
+            bounds(entry);
+            insert(entry);
+            entries.put(entry.element, entry);
+        }
+        dirty = false;
+        rebuilds++;
+    }
+
+    private void insert(Entry entry){
+        for(int cx = entry.x0; cx <= entry.x1; cx++){
+            for(int cy = entry.y0; cy <= entry.y1; cy++){
+                long key = key(cx, cy);
+                Seq<Entry> cell = cells.get(key);
+                if(cell == null){
+                    cell = cellPool.isEmpty() ? new Seq<>(false, 4, Entry.class) : cellPool.pop();
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /** Computes the cells covered by the axis aligned bounds of a child in the group's coordinates. */
+    private void bounds(Entry entry){
+        Element e = entry.element;
+        float minX, minY, maxX, maxY;
+        if(e.rotation == 0 && e.scaleX == 1 && e.scaleY == 1){
+            minX = e.x + e.translation.x;
+            minY = e.y + e.translation.y;
+            maxX = minX + e.width;
+            maxY = minY + e.height;
+        }else{
+            minX = minY = Float.POSITIVE_INFINITY;
+            maxX = maxY = Float.NEGATIVE_INFINITY;
+            for(int i = 0; i < 4; i++){
+                e.localToParentCoordinates(tmp.set(i % 2 == 0 ? 0 : e.width, i < 2 ? 0 : e.height));
+                minX = Math.min(minX, tmp.x);
+                minY = Math.min(minY, tmp.y);
+                maxX = Math.max(maxX, tmp.x);
+                maxY = Math.max(maxY, tmp.y);
+            }
+        }
+
+        //Element#hit tests against bounds offset by the translation again, in local coordinates
+        if(!e.translation.isZero()){
+            float offset = e.translation.len() * Math.max(Math.abs(e.scaleX), Math.abs(e.scaleY));
+            minX -= offset;
+            minY -= offset;
+            maxX += offset;
+            maxY += offset;
+        }
+
+        entry.x0 = cell(minX);
+        entry.y0 = cell(minY);
+        entry.x1 = cell(maxX);
+        entry.y1 = cell(maxY);
+    }
+
+    private int cell(float value){
+        return (int)Math.floor(value / cellSize);
+    }
+
+    private static long key(int x, int y){
+        return (long)x << 32 | (y & 0xffffffffL);
+    }
+
+    static class Entry{
+        Element element;
+        int index, x0, y0, x1, y1;
+    }
+}
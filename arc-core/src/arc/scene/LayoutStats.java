@@ -0,0 +1,125 @@
+package arc.scene;
+
+import arc.*;
+import arc.struct.*;
+import arc.util.*;
+
+import java.util.*;
+
+/**
+ * Counts {@link Element#layout()} calls and the time spent in them, grouped by element class, to find elements that are laid out
+ * too often. Statistics are collected per frame while {@link #enabled} is true; {@link #lastFrame()} returns the totals of the
+ * previous frame.
+ * <p>
+ * Times are exclusive: the time spent laying out children is only counted for the children.
+ */
+public class LayoutStats{
+    /** Whether layouts are counted. Adds two {@link Time#nanos()} calls to every layout. */
+    public static boolean enabled;
+
+    private static ObjectMap<Class<?>, ClassStats> current = new ObjectMap<>(), last = new ObjectMap<>();
+    private static final Seq<ClassStats> sorted = new Seq<>();
+    private static int currentMeasures, lastMeasures;
+    private static long frame = -1;
+    private static long[] childTime = new long[16];
+    private static int depth;
+
+    /** Calls {@link Element#layout()}, counting it if enabled. */
+    public static void layout(Element element){
+        if(!enabled){
+            element.layout();
+            return;
+        }
+
+        checkFrame();
+        if(++depth >= childTime.length) childTime = Arrays.copyOf(childTime, depth * 2);
+        childTime[depth] = 0;
+        long start = Time.nanos();
+
+        element.layout();
+
+        long time = Time.nanos() - start;
+        long self = time - childTime[depth];
+        depth--;
+        childTime[depth] += time;
+
+        ClassStats stats = current.get(element.getClass());
+        if(stats == null) current.put(element.getClass(), stats = new ClassStats(element.getClass()));
+        stats.layouts++;
+        stats.nanos += self;
+    }
+
+    /** Called when a table queries the sizes of a cell's element instead of using cached sizes. */
+    public static void measured(){
+        if(!enabled) return;
+        checkFrame();
+        currentMeasures++;
+    }
+
+    /** @return the layouts of the last frame, sorted by time spent, most expensive first. Do not modify. */
+    public static Seq<ClassStats> lastFrame(){
+        checkFrame();
+        sorted.clear();
+        for(ClassStats stats : last.values()) sorted.add(stats);
+        sorted.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return sorted;
+    }
+
+    /** @return the total number of layouts in the last frame. */
+    public static int lastFrameLayouts(){
+        checkFrame();
+        int total = 0;
+        for(ClassStats stats : last.values()) total += stats.layouts;
+        return total;
+    }
+
+    /** @return the total time spent in layouts in the last frame, in nanoseconds. */
+    public static long lastFrameNanos(){
+        checkFrame();
+        long total = 0;
+        for(ClassStats stats : last.values()) total += stats.nanos;
+        return total;
+    }
+
+    /** @return the number of cell element sizes that were queried instead of cached in the last frame. */
+    public static int lastFrameMeasures(){
+        checkFrame();
+        return lastMeasures;
+    }
+
+    /** Ends the current frame. Called automatically when the frame ID changes. */
+    public static void nextFrame(){
+        ObjectMap<Class<?>, ClassStats> swap = last;
+        last = current;
+        current = swap;
+        current.clear();
+        lastMeasures = currentMeasures;
+        currentMeasures = 0;
+    }
+
+    /** Logs the layouts of the last frame. */
+    public static void log(){
+        Log.info("[Layout] @ layouts, @ms, @ cell measures", lastFrameLayouts(), lastFrameNanos() / 1000000f, lastFrameMeasures());
+        for(ClassStats stats : lastFrame()){
+            Log.info("[Layout] @: @ layouts, @ms", stats.type.getName(), stats.layouts, stats.nanos / 1000000f);
+        }
+    }
+
+    private static void checkFrame(){
+        long id = Core.graphics == null ? 0 : Core.graphics.getFrameId();
+        if(id != frame){
+            if(frame != -1) nextFrame();
+            frame = id;
+        }
+    }
+
+    public static class ClassStats{
+        public final Class<?> type;
+        public int layouts;
+        public long nanos;
+
+        ClassStats(Class<?> type){
+            this.type = type;
+        }
+    }
+}
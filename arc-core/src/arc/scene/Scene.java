@@ -39,6 +39,18 @@ public class Scene implements InputProcessor{
     private Element mouseOverElement;
     private Element keyboardFocus, scrollFocus;
     private boolean actionsRequestRendering = true;
+    /**
+     * If true, {@link Group#act(float)} skips children whose subtrees have no actions, update runnables or providers, see
+     * {@link Element#updateActing()}.
+     */
+    public boolean skipIdle;
+    /** Number of elements that acted, and of idle children that were skipped with their subtrees, in the last {@link #act(float)}. */
+    public int actedElements, skippedElements;
+    /**
+     * If set, labels in this scene share laid out text through this cache, see {@link Label#layoutCache}. The layouts are
+     * read-only, so {@link Label#getGlyphLayout()} must not be modified. Null by default.
+     */
+    public @Nullable GlyphLayoutCache layoutCache;
 
     public Scene(){
         this.viewport = new ScreenViewport(){
@@ -153,6 +165,7 @@ public class Scene implements InputProcessor{
      * @param delta Time in seconds since the last frame.
      */
     public void act(float delta){
+        actedElements = skippedElements = 0;
         root.y = marginBottom;
         root.x = marginLeft;
         root.height = getHeight() - marginBottom - marginTop;
@@ -797,6 +810,11 @@ public class Scene implements InputProcessor{
     /** Calculates window scissor coordinates from local coordinates using the batch's current transformation matrix. */
     public void calculateScissors(Rect localRect, Rect scissorRect){
         Mat transformMatrix = Draw.trans();
+        //groups cached as bitmaps are drawn into their own buffer, with a different projection
+        if(Group.cacheTarget != null){
+            Group.cacheTarget.calculateCacheScissors(transformMatrix, localRect, scissorRect);
+            return;
+        }
         viewport.calculateScissors(transformMatrix, localRect, scissorRect);
     }
 
@@ -4,14 +4,18 @@ import arc.Core;
 import arc.func.Prov;
 import arc.graphics.Color;
 import arc.graphics.g2d.Font;
+import arc.graphics.g2d.Font.FontData;
 import arc.graphics.g2d.FontCache;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.GlyphLayout;
+import arc.graphics.g2d.GlyphLayoutCache;
 import arc.math.geom.Vec2;
 import arc.scene.Element;
+import arc.scene.Scene;
 import arc.scene.style.Drawable;
 import arc.scene.style.Style;
 import arc.util.Align;
+import arc.util.Nullable;
 
 import static arc.Core.bundle;
 import static arc.Core.scene;
@@ -27,6 +31,18 @@ public class Label extends Element{
     protected static final GlyphLayout prefSizeLayout = new GlyphLayout();
 
     protected final GlyphLayout layout = new GlyphLayout();
+    /**
+     * Optional cache of laid out text shared with other labels. If null, the {@link Scene#layoutCache} of the label's scene is
+     * used, if any. Cached layouts are read-only.
+     */
+    public @Nullable GlyphLayoutCache layoutCache;
+    /** Whether this label may use a layout cache. Subclasses that modify the result of {@link #getGlyphLayout()} must disable this. */
+    protected boolean useLayoutCache = true;
+    /** The layout last given to the font cache; either {@link #layout} or a shared cached one. */
+    private GlyphLayout currentLayout = layout;
+    /** What {@link #layout} and the measured text size were last computed from, so unchanged text is not laid out again. */
+    private final LayoutInputs layoutInputs = new LayoutInputs(), measureInputs = new LayoutInputs();
+    private float measuredWidth, measuredHeight;
     protected final Vec2 prefSize = new Vec2();
     protected final StringBuilder text = new StringBuilder();
     protected LabelStyle style;
@@ -40,6 +56,8 @@ public class Label extends Element{
     protected float fontScaleX = 1, fontScaleY = 1;
     protected boolean fontScaleChanged = false;
     protected String ellipsis;
+    /** The {@link arc.graphics.g2d.Font.FontData#glyphVersion} of the font when the text was last laid out. */
+    private int glyphVersion;
 
     public Label(Prov<CharSequence> sup){
         this("", new LabelStyle(scene.getStyle(LabelStyle.class)));
@@ -79,6 +97,7 @@ public class Label extends Element{
         if(style.font == null) throw new IllegalArgumentException("Missing LabelStyle font.");
         this.style = style;
         cache = style.font.newFontCache();
+        glyphVersion = style.font.getData().glyphVersion;
         invalidateHierarchy();
     }
 
@@ -143,12 +162,30 @@ public class Label extends Element{
         if(wrap && ellipsis == null){
             float width = getWidth();
             if(style.background != null) width -= style.background.getLeftWidth() + style.background.getRightWidth();
-            prefSizeLayout.setText(cache.getFont(), text, Color.white, width, Align.left, true);
+            prefSizeLayout = layoutText(prefSizeLayout, cache.getFont(), width, Align.left, true, null);
         }else
-            prefSizeLayout.setText(cache.getFont(), text, 0, text.length(), Color.white, width, lineAlign, wrap, ellipsis);
+            prefSizeLayout = layoutText(prefSizeLayout, cache.getFont(), width, lineAlign, wrap, ellipsis);
         prefSize.set(prefSizeLayout.width, prefSizeLayout.height);
     }
 
+    /** @return the layout cache this label uses: its own {@link #layoutCache}, or else its scene's. Null if it does not use one. */
+    public @Nullable GlyphLayoutCache getLayoutCache(){
+        if(!useLayoutCache) return null;
+        if(layoutCache != null) return layoutCache;
+        Scene scene = getScene();
+        return scene == null ? null : scene.layoutCache;
+    }
+
+    /** Lays out the text into the specified layout, or returns a shared read-only layout from {@link #getLayoutCache()}. */
+    private GlyphLayout layoutText(GlyphLayout into, Font font, float width, int align, boolean wrap, String ellipsis){
+        GlyphLayoutCache layoutCache = getLayoutCache();
+        if(layoutCache != null){
+            return layoutCache.get(font, text, Color.white, width, align, wrap, ellipsis);
+        }
+        into.setText(font, text, 0, text.length(), Color.white, width, align, wrap, ellipsis);
+        return into;
+    }
+
     @Override
     public void layout(){
         if(cache == null) return;
@@ -176,13 +213,18 @@ public class Label extends Element{
             height -= background.getBottomHeight() + background.getTopHeight();
         }
 
-        GlyphLayout layout = this.layout;
+        GlyphLayout layout;
         float textWidth, textHeight;
         if(wrap || text.indexOf("\n") != -1){
             // If the text can span multiple lines, determine the text's actual size so it can be aligned within the label.
-            layout.setText(font, text, 0, text.length(), Color.white, width, lineAlign, wrap, ellipsis);
-            textWidth = layout.width;
-            textHeight = layout.height;
+            if(!measureInputs.matches(text, font, width, lineAlign, wrap, ellipsis)){
+                layout = layoutText(prefSizeLayout, font, width, lineAlign, wrap, ellipsis);
+                measureInputs.set(text, font, width, lineAlign, wrap, ellipsis);
+                measuredWidth = layout.width;
+                measuredHeight = layout.height;
+            }
+            textWidth = measuredWidth;
+            textHeight = measuredHeight;
 
             if((labelAlign & Align.left) == 0){
                 if((labelAlign & Align.right) != 0)
@@ -206,14 +248,39 @@ public class Label extends Element{
         }
         if(!cache.getFont().isFlipped()) y += textHeight;
 
-        layout.setText(font, text, 0, text.length(), Color.white, textWidth, lineAlign, wrap, ellipsis);
-        cache.setText(layout, x, y);
+        if(getLayoutCache() != null){
+            layout = layoutText(this.layout, font, textWidth, lineAlign, wrap, ellipsis);
+        }else{
+            layout = this.layout;
+            if(!layoutInputs.matches(text, font, textWidth, lineAlign, wrap, ellipsis)){
+                layout.setText(font, text, 0, text.length(), Color.white, textWidth, lineAlign, wrap, ellipsis);
+                layoutInputs.set(text, font, textWidth, lineAlign, wrap, ellipsis);
+            }
+        }
+        currentLayout = layout;
+        //only moves the glyphs if the layout is the same as last time
+        cache.updateText(layout, x, y);
 
         if(fontScaleChanged) font.getData().setScale(oldScaleX, oldScaleY);
     }
 
+    /**
+     * Lays the text out again if glyphs that were drawn with a placeholder were added to the font since. Only invalidates the
+     * parents if that changed the preferred size.
+     */
+    protected void checkGlyphs(){
+        int version = style.font.getData().glyphVersion;
+        if(version == glyphVersion) return;
+        glyphVersion = version;
+
+        float prefWidth = getPrefWidth(), prefHeight = getPrefHeight();
+        invalidate();
+        if(prefWidth != getPrefWidth() || prefHeight != getPrefHeight()) invalidateHierarchy();
+    }
+
     @Override
     public void draw(){
+        checkGlyphs();
         validate();
         Color color = tempColor.set(this.color);
         color.a *= parentAlpha;
@@ -250,8 +317,12 @@ public class Label extends Element{
         return height;
     }
 
+    /**
+     * @return the current layout of the text. If a layout cache is used, this is shared with other labels and
+     * {@link GlyphLayout#isReadOnly() read-only}. Otherwise, it is only set again when the text or its layout parameters change.
+     */
     public GlyphLayout getGlyphLayout(){
-        return layout;
+        return currentLayout;
     }
 
     /**
@@ -358,6 +429,45 @@ public class Label extends Element{
         return super.toString() + ": " + text;
     }
 
+    /** The text and parameters a layout was computed from. */
+    static class LayoutInputs{
+        final StringBuilder text = new StringBuilder();
+        @Nullable Font font;
+        float width, scaleX, scaleY;
+        int align, glyphVersion;
+        boolean wrap, markup;
+        @Nullable String ellipsis;
+
+        boolean matches(CharSequence text, Font font, float width, int align, boolean wrap, @Nullable String ellipsis){
+            FontData data = font.getData();
+            if(font != this.font || width != this.width || align != this.align || wrap != this.wrap || data.scaleX != scaleX
+                || data.scaleY != scaleY || data.markupEnabled != markup || data.glyphVersion != glyphVersion
+                || (ellipsis == null ? this.ellipsis != null : !ellipsis.equals(this.ellipsis))) return false;
+
+            int length = text.length();
+            if(length != this.text.length()) return false;
+            for(int i = 0; i < length; i++){
+                if(text.charAt(i) != this.text.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        void set(CharSequence text, Font font, float width, int align, boolean wrap, @Nullable String ellipsis){
+            FontData data = font.getData();
+            this.text.setLength(0);
+            this.text.append(text);
+            this.font = font;
+            this.width = width;
+            this.align = align;
+            this.wrap = wrap;
+            this.ellipsis = ellipsis;
+            scaleX = data.scaleX;
+            scaleY = data.scaleY;
+            markup = data.markupEnabled;
+            glyphVersion = data.glyphVersion;
+        }
+    }
+
     /**
      * The style for a label, see {@link Label}.
      * @author Nathan Sweet
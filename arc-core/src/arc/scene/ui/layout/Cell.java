@@ -42,6 +42,13 @@ public class Cell<T extends Element> implements Poolable{
     float computedPadTop, computedPadLeft, computedPadBottom, computedPadRight;
     private Table table;
 
+    /** The element whose sizes are cached, or null if they need to be queried again. */
+    private @Nullable Element measured;
+    private int measuredGeneration;
+    private float elementPrefWidth, elementPrefHeight, elementMinWidth, elementMinHeight, elementMaxWidth, elementMaxHeight;
+    /** Size of the element when it was measured. */
+    private float measuredWidth, measuredHeight;
+
     public Cell(){
         reset();
     }
@@ -115,27 +122,69 @@ public class Cell<T extends Element> implements Poolable{
     }
 
     public float prefWidth(){
-        return element == null ? 0f : element.getPrefWidth();
+        if(element == null) return 0f;
+        measure();
+        return elementPrefWidth;
     }
 
     public float prefHeight(){
-        return element == null ? 0f : element.getPrefHeight();
+        if(element == null) return 0f;
+        measure();
+        return elementPrefHeight;
     }
 
     public float maxWidth(){
-        return maxWidth == unset ? element == null ? 0 : element.getMaxWidth() : maxWidth;
+        if(maxWidth != unset) return maxWidth;
+        if(element == null) return 0;
+        measure();
+        return elementMaxWidth;
     }
 
     public float maxHeight(){
-        return maxHeight == unset ? element == null ? 0 : element.getMaxHeight() : maxHeight;
+        if(maxHeight != unset) return maxHeight;
+        if(element == null) return 0;
+        measure();
+        return elementMaxHeight;
     }
 
     public float minWidth(){
-        return minWidth == unset ? element == null ? 0 : element.getMinWidth() : minWidth;
+        if(minWidth != unset) return minWidth;
+        if(element == null) return 0;
+        measure();
+        return elementMinWidth;
     }
 
     public float minHeight(){
-        return minHeight == unset ? element == null ? 0 : element.getMinHeight() : minHeight;
+        if(minHeight != unset) return minHeight;
+        if(element == null) return 0;
+        measure();
+        return elementMinHeight;
+    }
+
+    /**
+     * Queries the sizes of the element, unless they were cached and neither the element nor the table were invalidated since.
+     * The sizes are also queried again once the element itself was resized, as its preferred size may depend on its size,
+     * like that of a wrapped label, which doesn't invalidate the table when its width changes.
+     */
+    private void measure(){
+        int generation = table == null ? 0 : table.sizeGeneration;
+        if(measured == element && measuredGeneration == generation && measuredWidth == element.getWidth() && measuredHeight == element.getHeight()) return;
+        measured = element;
+        measuredGeneration = generation;
+        measuredWidth = element.getWidth();
+        measuredHeight = element.getHeight();
+        elementPrefWidth = element.getPrefWidth();
+        elementPrefHeight = element.getPrefHeight();
+        elementMinWidth = element.getMinWidth();
+        elementMinHeight = element.getMinHeight();
+        elementMaxWidth = element.getMaxWidth();
+        elementMaxHeight = element.getMaxHeight();
+        LayoutStats.measured();
+    }
+
+    /** Clears the cached sizes of the element, so they are queried again on the next layout. */
+    public void invalidateSize(){
+        measured = null;
     }
 
     public Cell<T> tooltip(String text){
@@ -671,6 +720,7 @@ public class Cell<T extends Element> implements Poolable{
     @Override
     public void reset(){
         element = null;
+        measured = null;
         table = null;
         endRow = false;
         cellAboveIndex = -1;
@@ -43,7 +43,10 @@ public class Table extends WidgetGroup{
     private int columns, rows;
     private boolean implicitEndRow;
     private Cell rowDefaults;
-    private boolean sizeInvalid = true;
+    private boolean sizeInvalid = true, keepCellSizes, cellLookupInvalid = true;
+    /** Incremented when the cached sizes of all cells are outdated. */
+    int sizeGeneration;
+    private final ObjectMap<Element, Cell> cellLookup = new ObjectMap<>();
     private float[] columnMinWidth, rowMinHeight;
     private float[] columnPrefWidth, rowPrefHeight;
     private float tableMinWidth, tableMinHeight;
@@ -172,10 +175,51 @@ public class Table extends WidgetGroup{
 
     @Override
     public void invalidate(){
+        //the cached sizes of the cells are only kept when a single child changed or the table was resized
+        if(!keepCellSizes){
+            sizeGeneration++;
+            cellLookupInvalid = true;
+        }
         sizeInvalid = true;
         super.invalidate();
     }
 
+    @Override
+    public void childInvalidated(Element child){
+        Cell cell = findCell(child);
+        if(cell == null){
+            invalidateHierarchy();
+            return;
+        }
+
+        cell.invalidateSize();
+        keepCellSizes = true;
+        invalidateHierarchy();
+        keepCellSizes = false;
+    }
+
+    @Override
+    protected void sizeChanged(){
+        keepCellSizes = true;
+        super.sizeChanged();
+        keepCellSizes = false;
+    }
+
+    /** Like {@link #getCell(Element)}, but uses a map for large tables. */
+    private @Nullable Cell findCell(Element element){
+        if(cells.size < 32) return getCell(element);
+
+        if(cellLookupInvalid){
+            cellLookup.clear();
+            for(int i = 0, n = cells.size; i < n; i++){
+                Cell c = cells.get(i);
+                if(c.element != null) cellLookup.put(c.element, c);
+            }
+            cellLookupInvalid = false;
+        }
+        return cellLookup.get(element);
+    }
+
     /** Adds a new cell to the table with the specified element. */
     public <T extends Element> Cell<T> add(T element){
         Cell<T> cell = obtainCell();
@@ -0,0 +1,239 @@
+package arc.scene.ui.layout;
+
+import arc.func.*;
+import arc.math.*;
+import arc.math.geom.*;
+import arc.scene.*;
+import arc.scene.ui.*;
+import arc.scene.utils.*;
+import arc.struct.*;
+import arc.util.*;
+
+/**
+ * A vertical list that only creates elements for the rows inside its culling area, for use as the widget of a {@link ScrollPane}.
+ * Rows are created with a factory, filled in by a {@link RowBinder} and recycled for other indices as the list is scrolled, so the
+ * number of elements depends on the visible area instead of the number of items.
+ * <p>
+ * The preferred height is computed from the row heights without laying out any rows. Lists with a fixed row height use constant
+ * memory; lists with a height provider store one float per item to look up rows by position.
+ * <p>
+ * Call {@link #refresh()} after the data changes, and {@link #setCount(int)} or {@link #heightsChanged()} after items are added,
+ * removed or resized.
+ */
+public class VirtualList<T extends Element> extends WidgetGroup implements Cullable{
+    private final Prov<T> factory;
+    private final RowBinder<T> binder;
+    private final float rowHeight;
+    private final @Nullable IntFloatf heights;
+    /** Distance from the top of the list to the top of each row, and the total height at the end. Only used with a height provider. */
+    private final FloatSeq offsets = new FloatSeq();
+
+    private int count;
+    /** Rows bound to the items from first to last, inclusive. */
+    private Seq<T> bound = new Seq<>(), lastBound = new Seq<>();
+    private final Seq<T> free = new Seq<>();
+    private int first, last = -1;
+    private boolean rebind;
+
+    /** Preferred width of the list. The rows are always as wide as the list. */
+    public float prefWidth;
+    /** Number of row elements created, and number of times a row was bound to an item. */
+    public int rowsCreated, binds;
+
+    /** Creates a list with rows of a fixed height. */
+    public VirtualList(int count, float rowHeight, Prov<T> factory, RowBinder<T> binder){
+        this(count, rowHeight, null, factory, binder);
+    }
+
+    /** Creates a list that asks for the height of each row. */
+    public VirtualList(int count, IntFloatf heights, Prov<T> factory, RowBinder<T> binder){
+        this(count, 0f, heights, factory, binder);
+    }
+
+    private VirtualList(int count, float rowHeight, @Nullable IntFloatf heights, Prov<T> factory, RowBinder<T> binder){
+        this.rowHeight = rowHeight;
+        this.heights = heights;
+        this.factory = factory;
+        this.binder = binder;
+        setCount(count);
+    }
+
+    /** Sets the number of items, rebinding all visible rows. */
+    public void setCount(int count){
+        if(count < 0) throw new IllegalArgumentException("count cannot be < 0: " + count);
+        this.count = count;
+        heightsChanged();
+    }
+
+    public int getCount(){
+        return count;
+    }
+
+    /** Recomputes the row positions after row heights changed, and rebinds all visible rows. */
+    public void heightsChanged(){
+        if(heights != null){
+            offsets.clear();
+            offsets.ensureCapacity(count + 1);
+            float y = 0f;
+            for(int i = 0; i < count; i++){
+                offsets.add(y);
+                y += heights.get(i);
+            }
+            offsets.add(y);
+        }
+        refresh();
+        invalidateHierarchy();
+    }
+
+    /** Rebinds all visible rows to their items. */
+    public void refresh(){
+        rebind = true;
+        invalidate();
+    }
+
+    /** Rebinds the row of an item, if it is visible. */
+    public void refresh(int index){
+        T row = getRow(index);
+        if(row != null){
+            binder.bind(row, index);
+            binds++;
+        }
+    }
+
+    /** @return the row that is currently bound to an item, or null if the item is not visible. */
+    public @Nullable T getRow(int index){
+        return index >= first && index <= last ? bound.get(index - first) : null;
+    }
+
+    /** @return the index of the item at a distance from the top of the list, clamped to the item range. */
+    public int indexAt(float fromTop){
+        if(count == 0) return 0;
+        if(heights == null) return Mathf.clamp((int)(fromTop / rowHeight), 0, count - 1);
+
+        //the last row whose top is above the position
+        float[] items = offsets.items;
+        int low = 0, high = count - 1;
+        while(low < high){
+            int mid = (low + high + 1) >>> 1;
+            if(items[mid] <= fromTop){
+                low = mid;
+            }else{
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** @return the distance from the top of the list to the top of an item. */
+    public float rowTop(int index){
+        return heights == null ? index * rowHeight : offsets.get(index);
+    }
+
+    /** @return the height of an item. */
+    public float rowHeight(int index){
+        return heights == null ? rowHeight : offsets.get(index + 1) - offsets.get(index);
+    }
+
+    /** @return the height of all rows. */
+    public float totalHeight(){
+        return heights == null ? count * rowHeight : offsets.peek();
+    }
+
+    /** Scrolls the parent {@link ScrollPane} so an item is visible. */
+    public void scrollTo(int index){
+        if(!(parent instanceof ScrollPane) || index < 0 || index >= count) return;
+        float height = rowHeight(index);
+        ((ScrollPane)parent).scrollTo(0f, getHeight() - rowTop(index) - height, getWidth(), height);
+    }
+
+    @Override
+    public void setCullingArea(Rect cullingArea){
+        super.setCullingArea(cullingArea);
+        //the scroll pane moves the culling area while scrolling, without invalidating the list
+        updateRows();
+    }
+
+    @Override
+    public void layout(){
+        updateRows();
+    }
+
+    @Override
+    protected void childrenChanged(){
+        //rows don't affect the size of the list
+    }
+
+    @Override
+    public float getPrefWidth(){
+        return prefWidth;
+    }
+
+    @Override
+    public float getPrefHeight(){
+        return totalHeight();
+    }
+
+    /** Binds the rows in the culling area, recycling rows that scrolled out of it. */
+    void updateRows(){
+        int newFirst = 0, newLast = -1;
+        if(count > 0){
+            float height = getHeight();
+            float bottom = cullingArea == null ? 0f : cullingArea.y, top = cullingArea == null ? height : cullingArea.y + cullingArea.height;
+            if(top > 0f && bottom < height && top > bottom){
+                newFirst = indexAt(height - top);
+                newLast = indexAt(height - bottom);
+            }
+        }
+
+        if(newFirst != first || newLast != last || rebind){
+            Seq<T> old = bound, rows = lastBound;
+            rows.clear();
+
+            //rows that stay visible keep their binding
+            for(int i = first; i <= last; i++){
+                if(rebind || i < newFirst || i > newLast){
+                    T row = old.get(i - first);
+                    row.visible = false;
+                    free.add(row);
+                }
+            }
+            for(int i = newFirst; i <= newLast; i++){
+                T row;
+                if(!rebind && i >= first && i <= last){
+                    row = old.get(i - first);
+                }else{
+                    row = obtain();
+                    row.visible = true;
+                    binder.bind(row, i);
+                    binds++;
+                }
+                rows.add(row);
+            }
+
+            lastBound = old;
+            bound = rows;
+            first = newFirst;
+            last = newLast;
+            rebind = false;
+        }
+
+        float width = getWidth(), height = getHeight();
+        for(int i = first; i <= last; i++){
+            float rowHeight = rowHeight(i);
+            bound.get(i - first).setBounds(0f, height - rowTop(i) - rowHeight, width, rowHeight);
+        }
+    }
+
+    private T obtain(){
+        if(free.any()) return free.pop();
+        T row = factory.get();
+        addChild(row);
+        rowsCreated++;
+        return row;
+    }
+
+    public interface RowBinder<T>{
+        /** Fills in a row with the data of an item. */
+        void bind(T row, int index);
+    }
+}
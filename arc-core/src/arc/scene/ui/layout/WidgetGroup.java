@@ -80,7 +80,7 @@ public class WidgetGroup extends Group{
 
         if(!needsLayout) return;
         needsLayout = false;
-        layout();
+        LayoutStats.layout(this);
     }
 
     /** Returns true if the widget's layout has been {@link #invalidate() invalidated}. */
@@ -98,7 +98,7 @@ public class WidgetGroup extends Group{
     public void invalidateHierarchy(){
         invalidate();
         Group parent = this.parent;
-        if(parent != null) parent.invalidateHierarchy();
+        if(parent != null) parent.childInvalidated(this);
     }
 
     @Override
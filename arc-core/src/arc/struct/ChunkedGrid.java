@@ -0,0 +1,214 @@
+package arc.struct;
+
+import arc.util.ArcRuntimeException;
+
+/**
+ * A 2-dimensional grid of objects, stored in square chunks that are allocated when a cell in them is set, and freed when all their
+ * cells are removed. Chunks are found through a dense directory array, so access is two array lookups with no hashing. The
+ * directory grows to cover every chunk that was used, which makes this a good fit for dense worlds; use {@link GridMap} for a few
+ * cells with far apart coordinates. <br>
+ * <br>
+ * Null values are not allowed: putting null removes the cell.
+ */
+@SuppressWarnings("unchecked")
+public class ChunkedGrid<T>{
+    /** The maximum number of chunks the directory can address. */
+    static final int maxDirectorySize = 1 << 22;
+
+    final int shift, chunkSize, mask;
+
+    /** The directory covers chunk coordinates from originX, originY to originX + directoryWidth, originY + directoryHeight. */
+    Chunk<T>[] chunks = new Chunk[0];
+    int originX, originY, directoryWidth, directoryHeight;
+    int size, chunkCount;
+
+    /** Creates a grid with chunks of 32x32 cells. */
+    public ChunkedGrid(){
+        this(32);
+    }
+
+    /** @param chunkSize The width and height of chunks. Must be a power of two. */
+    public ChunkedGrid(int chunkSize){
+        if(chunkSize < 1 || chunkSize > 1024 || (chunkSize & chunkSize - 1) != 0)
+            throw new IllegalArgumentException("chunkSize must be a power of two between 1 and 1024: " + chunkSize);
+        this.chunkSize = chunkSize;
+        shift = Integer.numberOfTrailingZeros(chunkSize);
+        mask = chunkSize - 1;
+    }
+
+    /** Returns the chunk containing the cell, or null. */
+    Chunk<T> chunk(int x, int y){
+        int cx = (x >> shift) - originX, cy = (y >> shift) - originY;
+        if(cx < 0 || cy < 0 || cx >= directoryWidth || cy >= directoryHeight) return null;
+        return chunks[cx + cy * directoryWidth];
+    }
+
+    int cell(int x, int y){
+        return (x & mask) + ((y & mask) << shift);
+    }
+
+    public T get(int x, int y){
+        Chunk<T> chunk = chunk(x, y);
+        return chunk == null ? null : (T)chunk.items[cell(x, y)];
+    }
+
+    public T get(int x, int y, T defaultValue){
+        T value = get(x, y);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(int x, int y){
+        return get(x, y) != null;
+    }
+
+    /** Returns the previous value of the cell, or null. */
+    public T put(int x, int y, T value){
+        if(value == null) return remove(x, y);
+
+        Chunk<T> chunk = chunk(x, y);
+        if(chunk == null){
+            int index = ensureDirectory(x >> shift, y >> shift);
+            chunks[index] = chunk = new Chunk<>(chunkSize * chunkSize);
+            chunkCount++;
+        }
+        int cell = cell(x, y);
+        T old = (T)chunk.items[cell];
+        chunk.items[cell] = value;
+        if(old == null){
+            chunk.count++;
+            size++;
+        }
+        return old;
+    }
+
+    /** Returns the removed value, or null. Frees the chunk if this was its last cell. */
+    public T remove(int x, int y){
+        int cx = (x >> shift) - originX, cy = (y >> shift) - originY;
+        if(cx < 0 || cy < 0 || cx >= directoryWidth || cy >= directoryHeight) return null;
+        int index = cx + cy * directoryWidth;
+        Chunk<T> chunk = chunks[index];
+        if(chunk == null) return null;
+
+        int cell = cell(x, y);
+        T old = (T)chunk.items[cell];
+        if(old == null) return null;
+        chunk.items[cell] = null;
+        size--;
+        if(--chunk.count == 0){
+            chunks[index] = null;
+            chunkCount--;
+        }
+        return old;
+    }
+
+    /** Calls the consumer for every cell, chunk by chunk. The grid must not be modified while iterating. */
+    public void each(CellCons<T> cons){
+        for(int cy = 0; cy < directoryHeight; cy++){
+            for(int cx = 0; cx < directoryWidth; cx++){
+                Chunk<T> chunk = chunks[cx + cy * directoryWidth];
+                if(chunk == null) continue;
+                int baseX = (cx + originX) << shift, baseY = (cy + originY) << shift;
+                Object[] items = chunk.items;
+                for(int i = 0; i < items.length; i++){
+                    if(items[i] != null) cons.get(baseX + (i & mask), baseY + (i >> shift), (T)items[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for every cell in the rectangle, chunk by chunk. Chunks that are not allocated are skipped without
+     * visiting their cells. The grid must not be modified while iterating.
+     */
+    public void each(int x, int y, int width, int height, CellCons<T> cons){
+        if(width <= 0 || height <= 0) return;
+        int x2 = x + width - 1, y2 = y + height - 1;
+        int fromX = Math.max(x >> shift, originX), toX = Math.min(x2 >> shift, originX + directoryWidth - 1);
+        int fromY = Math.max(y >> shift, originY), toY = Math.min(y2 >> shift, originY + directoryHeight - 1);
+
+        for(int cy = fromY; cy <= toY; cy++){
+            for(int cx = fromX; cx <= toX; cx++){
+                Chunk<T> chunk = chunks[(cx - originX) + (cy - originY) * directoryWidth];
+                if(chunk == null) continue;
+                int baseX = cx << shift, baseY = cy << shift;
+                int startX = Math.max(x, baseX), endX = Math.min(x2, baseX + mask);
+                int startY = Math.max(y, baseY), endY = Math.min(y2, baseY + mask);
+                Object[] items = chunk.items;
+                for(int cellY = startY; cellY <= endY; cellY++){
+                    int row = (cellY - baseY) << shift;
+                    for(int cellX = startX; cellX <= endX; cellX++){
+                        Object item = items[row + cellX - baseX];
+                        if(item != null) cons.get(cellX, cellY, (T)item);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Removes every cell and frees all chunks and the directory. */
+    public void clear(){
+        chunks = new Chunk[0];
+        originX = originY = directoryWidth = directoryHeight = 0;
+        size = chunkCount = 0;
+    }
+
+    /** Returns the number of cells that are set. */
+    public int size(){
+        return size;
+    }
+
+    /** Returns the number of allocated chunks. */
+    public int chunks(){
+        return chunkCount;
+    }
+
+    /**
+     * Grows the directory so it covers the chunk coordinates, doubling its size on the side that grew so that walking outwards
+     * does not copy it every time. Returns the directory index of the chunk.
+     */
+    int ensureDirectory(int cx, int cy){
+        if(directoryWidth == 0){
+            chunks = new Chunk[1];
+            originX = cx;
+            originY = cy;
+            directoryWidth = directoryHeight = 1;
+            return 0;
+        }
+
+        int minX = originX, minY = originY, maxX = originX + directoryWidth, maxY = originY + directoryHeight;
+        if(cx < minX) minX = Math.min(cx, maxX - directoryWidth * 2);
+        else if(cx >= maxX) maxX = Math.max(cx + 1, minX + directoryWidth * 2);
+        if(cy < minY) minY = Math.min(cy, maxY - directoryHeight * 2);
+        else if(cy >= maxY) maxY = Math.max(cy + 1, minY + directoryHeight * 2);
+
+        int width = maxX - minX, height = maxY - minY;
+        if(width != directoryWidth || height != directoryHeight){
+            if((long)width * height > maxDirectorySize)
+                throw new ArcRuntimeException("Grid spans too many chunks (" + width + "x" + height + "), use GridMap for sparse coordinates.");
+
+            Chunk<T>[] resized = new Chunk[width * height];
+            for(int y = 0; y < directoryHeight; y++){
+                System.arraycopy(chunks, y * directoryWidth, resized, (originX - minX) + (y + originY - minY) * width, directoryWidth);
+            }
+            chunks = resized;
+            originX = minX;
+            originY = minY;
+            directoryWidth = width;
+            directoryHeight = height;
+        }
+        return (cx - originX) + (cy - originY) * directoryWidth;
+    }
+
+    static class Chunk<T>{
+        final Object[] items;
+        int count;
+
+        Chunk(int cells){
+            items = new Object[cells];
+        }
+    }
+
+    public interface CellCons<T>{
+        void get(int x, int y, T value);
+    }
+}
@@ -0,0 +1,529 @@
+package arc.struct;
+
+import arc.func.IntIntf;
+import arc.math.Mathf;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread safe unordered map where the keys and values are ints. The map is split into segments by the hash of the key, and each
+ * segment is an open addressing table like {@link IntIntMap}, guarded by its own {@link StampedLock}. Writes to different
+ * segments never block each other, and reads do not lock at all unless a write to the same segment happens at the same time. <br>
+ * <br>
+ * Iterators are weakly consistent: they copy one segment at a time, so they never throw, but may or may not see changes made while
+ * iterating.
+ */
+public class ConcurrentIntIntMap implements Iterable<ConcurrentIntIntMap.Entry>{
+    private static final int EMPTY = 0;
+
+    final Segment[] segments;
+    final int segmentMask;
+
+    /** Creates a new map with an initial capacity of 64, a load factor of 0.75 and 16 segments. */
+    public ConcurrentIntIntMap(){
+        this(64, 0.75f, 16);
+    }
+
+    /** Creates a new map with a load factor of 0.75 and 16 segments. */
+    public ConcurrentIntIntMap(int initialCapacity){
+        this(initialCapacity, 0.75f, 16);
+    }
+
+    /**
+     * @param initialCapacity The number of entries the map can hold before any segment grows, if keys are spread evenly.
+     * @param concurrencyLevel The number of segments, which is the number of threads that can write at the same time. If not a
+     * power of two, it is increased to the next nearest power of two.
+     */
+    public ConcurrentIntIntMap(int initialCapacity, float loadFactor, int concurrencyLevel){
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
+        if(concurrencyLevel <= 0 || concurrencyLevel > 1 << 16)
+            throw new IllegalArgumentException("concurrencyLevel must be > 0 and <= 65536: " + concurrencyLevel);
+        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
+
+        int count = Mathf.nextPowerOfTwo(concurrencyLevel);
+        segments = new Segment[count];
+        segmentMask = count - 1;
+        int perSegment = (initialCapacity + count - 1) / count;
+        for(int i = 0; i < count; i++){
+            segments[i] = new Segment(perSegment, loadFactor);
+        }
+    }
+
+    /** Multiplies the key by the golden ratio. Slots are taken from the top bits of the result, and segments from the middle. */
+    static long hash(int key){
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    Segment segment(long hash){
+        return segments[(int)(hash >>> 32) & segmentMask];
+    }
+
+    public int get(int key){
+        return get(key, 0);
+    }
+
+    /** @param defaultValue Returned if the key is not in the map. */
+    public int get(int key, int defaultValue){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.tryOptimisticRead();
+        int value = segment.find(key, hash, defaultValue);
+        if(!segment.validate(stamp)){
+            stamp = segment.readLock();
+            try{
+                value = segment.find(key, hash, defaultValue);
+            }finally{
+                segment.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(int key){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.tryOptimisticRead();
+        boolean contains = segment.contains(key, hash);
+        if(!segment.validate(stamp)){
+            stamp = segment.readLock();
+            try{
+                contains = segment.contains(key, hash);
+            }finally{
+                segment.unlockRead(stamp);
+            }
+        }
+        return contains;
+    }
+
+    public void put(int key, int value){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            segment.put(key, hash, value);
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically inserts the value if the key is not in the map.
+     * @return The associated value if key is present in the map, else {@code value}.
+     */
+    public int getOrPut(int key, int value){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            if(segment.contains(key, hash)) return segment.find(key, hash, value);
+            segment.put(key, hash, value);
+            return value;
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public int increment(int key){
+        return increment(key, 0, 1);
+    }
+
+    public int increment(int key, int amount){
+        return increment(key, 0, amount);
+    }
+
+    /**
+     * Atomically increments the stored value, and returns the value from before. If the key is not in the map, defaultValue +
+     * increment is put into the map.
+     */
+    public int increment(int key, int defaultValue, int increment){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            int value = segment.find(key, hash, defaultValue);
+            segment.put(key, hash, value + increment);
+            return value;
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically replaces the value associated with the key with the result of the function, which receives the current value or
+     * defaultValue if the key is not in the map. The key's segment is locked while the function runs, so it should be short and
+     * must not use this map.
+     * @return The new value.
+     */
+    public int compute(int key, int defaultValue, IntIntf remapping){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            int value = remapping.get(segment.find(key, hash, defaultValue));
+            segment.put(key, hash, value);
+            return value;
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public int remove(int key){
+        return remove(key, 0);
+    }
+
+    /** @return the value that was removed, or defaultValue. */
+    public int remove(int key, int defaultValue){
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            return segment.remove(key, hash, defaultValue);
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /** Returns the number of entries. This is only a snapshot if other threads are writing. */
+    public int size(){
+        int size = 0;
+        for(Segment segment : segments){
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty(){
+        for(Segment segment : segments){
+            if(segment.size != 0) return false;
+        }
+        return true;
+    }
+
+    /** Removes all entries. Segments are cleared one at a time, so entries put concurrently may remain. */
+    public void clear(){
+        for(Segment segment : segments){
+            long stamp = segment.writeLock();
+            try{
+                segment.clear();
+            }finally{
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public Entries iterator(){
+        return entries();
+    }
+
+    /** Returns a new weakly consistent iterator for the entries in the map. Remove is supported. */
+    public Entries entries(){
+        return new Entries(this);
+    }
+
+    /** Returns a new weakly consistent iterator for the values in the map. Remove is supported. */
+    public Values values(){
+        return new Values(this);
+    }
+
+    /** Returns a new weakly consistent iterator for the keys in the map. Remove is supported. */
+    public Keys keys(){
+        return new Keys(this);
+    }
+
+    public String toString(){
+        StringBuilder buffer = new StringBuilder(32);
+        buffer.append('{');
+        for(Entry entry : this){
+            if(buffer.length() > 1) buffer.append(", ");
+            buffer.append(entry.key);
+            buffer.append('=');
+            buffer.append(entry.value);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    /** An open addressing table with linear probing and backward shift deletion, see {@link IntIntMap}. */
+    static final class Segment extends StampedLock{
+        int[] keyTable, valueTable;
+        int zeroValue;
+        boolean hasZeroValue;
+        volatile int size;
+
+        final float loadFactor;
+        int shift, mask, threshold;
+
+        Segment(int initialCapacity, float loadFactor){
+            this.loadFactor = loadFactor;
+            int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+            keyTable = new int[tableSize];
+            valueTable = new int[tableSize];
+            setTableSize(tableSize);
+        }
+
+        /**
+         * Returns the value for the key, or defaultValue. This may run without a lock: the tables are read once, and bad results
+         * from a concurrent write are discarded when the caller validates its stamp.
+         */
+        int find(int key, long hash, int defaultValue){
+            if(key == 0) return hasZeroValue ? zeroValue : defaultValue;
+            int[] keyTable = this.keyTable, valueTable = this.valueTable;
+            //only possible while resizing, which fails validation
+            if(keyTable.length != valueTable.length) return defaultValue;
+            int mask = keyTable.length - 1;
+            for(int i = (int)(hash >>> Long.numberOfLeadingZeros(mask)), checked = 0; checked <= mask; i = i + 1 & mask, checked++){
+                int other = keyTable[i];
+                if(other == EMPTY) return defaultValue;
+                if(other == key) return valueTable[i];
+            }
+            return defaultValue;
+        }
+
+        /** Returns whether the key is in the segment. Like {@link #find(int, long, int)}, this may run without a lock. */
+        boolean contains(int key, long hash){
+            if(key == 0) return hasZeroValue;
+            int[] keyTable = this.keyTable;
+            int mask = keyTable.length - 1;
+            for(int i = (int)(hash >>> Long.numberOfLeadingZeros(mask)), checked = 0; checked <= mask; i = i + 1 & mask, checked++){
+                int other = keyTable[i];
+                if(other == EMPTY) return false;
+                if(other == key) return true;
+            }
+            return false;
+        }
+
+        int locateKey(int key, long hash){
+            int[] keyTable = this.keyTable;
+            for(int i = (int)(hash >>> shift); ; i = i + 1 & mask){
+                int other = keyTable[i];
+                if(other == EMPTY) return -(i + 1);
+                if(other == key) return i;
+            }
+        }
+
+        void put(int key, long hash, int value){
+            if(key == 0){
+                zeroValue = value;
+                if(!hasZeroValue){
+                    hasZeroValue = true;
+                    size++;
+                }
+                return;
+            }
+
+            int i = locateKey(key, hash);
+            if(i >= 0){
+                valueTable[i] = value;
+                return;
+            }
+            i = -(i + 1);
+            keyTable[i] = key;
+            valueTable[i] = value;
+            if(size++ >= threshold) resize(keyTable.length << 1);
+        }
+
+        int remove(int key, long hash, int defaultValue){
+            if(key == 0){
+                if(!hasZeroValue) return defaultValue;
+                hasZeroValue = false;
+                size--;
+                return zeroValue;
+            }
+
+            int i = locateKey(key, hash);
+            if(i < 0) return defaultValue;
+            int[] keyTable = this.keyTable, valueTable = this.valueTable;
+            int oldValue = valueTable[i];
+            int mask = this.mask, next = i + 1 & mask;
+            while((key = keyTable[next]) != EMPTY){
+                int placement = (int)(hash(key) >>> shift);
+                if((next - placement & mask) > (i - placement & mask)){
+                    keyTable[i] = key;
+                    valueTable[i] = valueTable[next];
+                    i = next;
+                }
+                next = next + 1 & mask;
+            }
+            keyTable[i] = EMPTY;
+            size--;
+            return oldValue;
+        }
+
+        void clear(){
+            if(size == 0) return;
+            Arrays.fill(keyTable, EMPTY);
+            hasZeroValue = false;
+            size = 0;
+        }
+
+        void setTableSize(int tableSize){
+            threshold = (int)(tableSize * loadFactor);
+            mask = tableSize - 1;
+            shift = Long.numberOfLeadingZeros(mask);
+        }
+
+        void resize(int newSize){
+            int[] oldKeyTable = keyTable, oldValueTable = valueTable;
+
+            int[] keyTable = new int[newSize], valueTable = new int[newSize];
+            setTableSize(newSize);
+
+            for(int i = 0; i < oldKeyTable.length; i++){
+                int key = oldKeyTable[i];
+                if(key == EMPTY) continue;
+                for(int j = (int)(hash(key) >>> shift); ; j = j + 1 & mask){
+                    if(keyTable[j] == EMPTY){
+                        keyTable[j] = key;
+                        valueTable[j] = oldValueTable[i];
+                        break;
+                    }
+                }
+            }
+
+            this.keyTable = keyTable;
+            this.valueTable = valueTable;
+        }
+
+        /** Copies the entries into the arrays, which must be large enough. Returns the number of entries copied. */
+        int copy(int[] keys, int[] values){
+            int count = 0;
+            if(hasZeroValue){
+                keys[count] = 0;
+                values[count++] = zeroValue;
+            }
+            int[] keyTable = this.keyTable, valueTable = this.valueTable;
+            for(int i = 0; i < keyTable.length; i++){
+                if(keyTable[i] != EMPTY){
+                    keys[count] = keyTable[i];
+                    values[count++] = valueTable[i];
+                }
+            }
+            return count;
+        }
+    }
+
+    public static class Entry{
+        public int key;
+        public int value;
+
+        public String toString(){
+            return key + "=" + value;
+        }
+    }
+
+    private static class MapIterator{
+        final ConcurrentIntIntMap map;
+        public boolean hasNext;
+        /** The entries of the current segment, copied under its read lock. */
+        int[] keys = new int[16], values = new int[16];
+        int segment = -1, count, index;
+        int currentKey;
+        boolean removable;
+
+        public MapIterator(ConcurrentIntIntMap map){
+            this.map = map;
+            advance();
+        }
+
+        void advance(){
+            while(index >= count && ++segment < map.segments.length){
+                Segment next = map.segments[segment];
+                long stamp = next.readLock();
+                try{
+                    if(keys.length < next.size){
+                        keys = new int[next.size];
+                        values = new int[next.size];
+                    }
+                    count = next.copy(keys, values);
+                }finally{
+                    next.unlockRead(stamp);
+                }
+                index = 0;
+            }
+            hasNext = index < count;
+        }
+
+        /** Returns the index of the next entry in the copied arrays. */
+        int take(){
+            if(!hasNext) throw new NoSuchElementException();
+            currentKey = keys[index];
+            removable = true;
+            return index++;
+        }
+
+        public boolean hasNext(){
+            return hasNext;
+        }
+
+        /** Removes the last returned key from the map, even if it was put again with another value since. */
+        public void remove(){
+            if(!removable) throw new IllegalStateException("next must be called before remove.");
+            map.remove(currentKey);
+            removable = false;
+        }
+    }
+
+    public static class Entries extends MapIterator implements Iterable<Entry>, Iterator<Entry>{
+        private Entry entry = new Entry();
+
+        public Entries(ConcurrentIntIntMap map){
+            super(map);
+        }
+
+        /** Note the same entry instance is returned each time this method is called. */
+        public Entry next(){
+            int i = take();
+            entry.key = keys[i];
+            entry.value = values[i];
+            advance();
+            return entry;
+        }
+
+        public Entries iterator(){
+            return this;
+        }
+    }
+
+    public static class Values extends MapIterator{
+        public Values(ConcurrentIntIntMap map){
+            super(map);
+        }
+
+        public int next(){
+            int value = values[take()];
+            advance();
+            return value;
+        }
+
+        /** Returns a new array containing the remaining values. */
+        public IntSeq toArray(){
+            IntSeq array = new IntSeq(true, map.size());
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+
+    public static class Keys extends MapIterator{
+        public Keys(ConcurrentIntIntMap map){
+            super(map);
+        }
+
+        public int next(){
+            int key = keys[take()];
+            advance();
+            return key;
+        }
+
+        /** Returns a new array containing the remaining keys. */
+        public IntSeq toArray(){
+            IntSeq array = new IntSeq(true, map.size());
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from ConcurrentPrimitiveMap.java.template.
+package arc.struct;
+
+import arc.func.Func;
+import arc.func.Prov;
+import arc.math.Mathf;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread safe unordered map that uses int keys. The map is split into segments by the hash of the key, and each segment is an
+ * open addressing table like {@link IntMap}, guarded by its own {@link StampedLock}. Writes to different segments never block
+ * each other, and reads do not lock at all unless a write to the same segment happens at the same time. <br>
+ * <br>
+ * Null values are not allowed, so a null result always means that the key is not in the map. Iterators are weakly consistent: they
+ * copy one segment at a time, so they never throw, but may or may not see changes made while iterating.
+ */
+@SuppressWarnings("unchecked")
+public class ConcurrentIntMap<V> implements Iterable<ConcurrentIntMap.Entry<V>>{
+    private static final int EMPTY = 0;
+
+    final Segment<V>[] segments;
+    final int segmentMask;
+
+    /** Creates a new map with an initial capacity of 64, a load factor of 0.75 and 16 segments. */
+    public ConcurrentIntMap(){
+        this(64, 0.75f, 16);
+    }
+
+    /** Creates a new map with a load factor of 0.75 and 16 segments. */
+    public ConcurrentIntMap(int initialCapacity){
+        this(initialCapacity, 0.75f, 16);
+    }
+
+    /**
+     * @param initialCapacity The number of entries the map can hold before any segment grows, if keys are spread evenly.
+     * @param concurrencyLevel The number of segments, which is the number of threads that can write at the same time. If not a
+     * power of two, it is increased to the next nearest power of two.
+     */
+    public ConcurrentIntMap(int initialCapacity, float loadFactor, int concurrencyLevel){
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
+        if(concurrencyLevel <= 0 || concurrencyLevel > 1 << 16)
+            throw new IllegalArgumentException("concurrencyLevel must be > 0 and <= 65536: " + concurrencyLevel);
+        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
+
+        int count = Mathf.nextPowerOfTwo(concurrencyLevel);
+        segments = new Segment[count];
+        segmentMask = count - 1;
+        int perSegment = (initialCapacity + count - 1) / count;
+        for(int i = 0; i < count; i++){
+            segments[i] = new Segment<>(perSegment, loadFactor);
+        }
+    }
+
+    /** Multiplies the key by the golden ratio. Slots are taken from the top bits of the result, and segments from the middle. */
+    static long hash(int key){
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    Segment<V> segment(long hash){
+        return segments[(int)(hash >>> 32) & segmentMask];
+    }
+
+    /** Returns the value for the key, or null if the key is not in the map. */
+    public V get(int key){
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        long stamp = segment.tryOptimisticRead();
+        V value = segment.find(key, hash);
+        if(!segment.validate(stamp)){
+            stamp = segment.readLock();
+            try{
+                value = segment.find(key, hash);
+            }finally{
+                segment.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    /** @param defaultValue Returned if the key is not in the map. */
+    public V get(int key, V defaultValue){
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(int key){
+        return get(key) != null;
+    }
+
+    /** Returns the old value associated with the key, or null. */
+    public V put(int key, V value){
+        if(value == null) throw new IllegalArgumentException("value cannot be null.");
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            return segment.put(key, hash, value);
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the value associated with the key. If there is none, the supplier is called and its result is put into the map. This
+     * is atomic: the supplier is called at most once per key, while the key's segment is locked, so it should be short and must not
+     * use this map.
+     */
+    public V getOrPut(int key, Prov<V> supplier){
+        V value = get(key);
+        if(value != null) return value;
+
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            value = segment.find(key, hash);
+            if(value == null){
+                value = supplier.get();
+                if(value == null) throw new IllegalArgumentException("supplier cannot return null.");
+                segment.put(key, hash, value);
+            }
+            return value;
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically replaces the value associated with the key with the result of the function, which receives the current value or
+     * null. If the function returns null, the key is removed. The key's segment is locked while the function runs, so it should be
+     * short and must not use this map.
+     * @return The new value, or null if the key is no longer in the map.
+     */
+    public V compute(int key, Func<V, V> remapping){
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            V value = remapping.get(segment.find(key, hash));
+            if(value == null){
+                segment.remove(key, hash);
+            }else{
+                segment.put(key, hash, value);
+            }
+            return value;
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /** Returns the value that was removed, or null. */
+    public V remove(int key){
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        long stamp = segment.writeLock();
+        try{
+            return segment.remove(key, hash);
+        }finally{
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /** Returns the number of entries. This is only a snapshot if other threads are writing. */
+    public int size(){
+        int size = 0;
+        for(Segment<V> segment : segments){
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty(){
+        for(Segment<V> segment : segments){
+            if(segment.size != 0) return false;
+        }
+        return true;
+    }
+
+    /** Removes all entries. Segments are cleared one at a time, so entries put concurrently may remain. */
+    public void clear(){
+        for(Segment<V> segment : segments){
+            long stamp = segment.writeLock();
+            try{
+                segment.clear();
+            }finally{
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public Entries<V> iterator(){
+        return entries();
+    }
+
+    /** Returns a new weakly consistent iterator for the entries in the map. Remove is supported. */
+    public Entries<V> entries(){
+        return new Entries<>(this);
+    }
+
+    /** Returns a new weakly consistent iterator for the values in the map. Remove is supported. */
+    public Values<V> values(){
+        return new Values<>(this);
+    }
+
+    /** Returns a new weakly consistent iterator for the keys in the map. Remove is supported. */
+    public Keys keys(){
+        return new Keys(this);
+    }
+
+    public String toString(){
+        StringBuilder buffer = new StringBuilder(32);
+        buffer.append('{');
+        for(Entry<V> entry : this){
+            if(buffer.length() > 1) buffer.append(", ");
+            buffer.append(entry.key);
+            buffer.append('=');
+            buffer.append(entry.value);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    /** An open addressing table with linear probing and backward shift deletion, see {@link IntMap}. */
+    static final class Segment<V> extends StampedLock{
+        int[] keyTable;
+        V[] valueTable;
+        V zeroValue;
+        boolean hasZeroValue;
+        volatile int size;
+
+        final float loadFactor;
+        int shift, mask, threshold;
+
+        Segment(int initialCapacity, float loadFactor){
+            this.loadFactor = loadFactor;
+            int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+            keyTable = new int[tableSize];
+            valueTable = (V[])new Object[tableSize];
+            setTableSize(tableSize);
+        }
+
+        /**
+         * Returns the value for the key, or null. This may run without a lock: the tables are read once, and bad results from a
+         * concurrent write are discarded when the caller validates its stamp.
+         */
+        V find(int key, long hash){
+            if(key == 0) return hasZeroValue ? zeroValue : null;
+            int[] keyTable = this.keyTable;
+            V[] valueTable = this.valueTable;
+            //only possible while resizing, which fails validation
+            if(keyTable.length != valueTable.length) return null;
+            int mask = keyTable.length - 1;
+            for(int i = (int)(hash >>> Long.numberOfLeadingZeros(mask)), checked = 0; checked <= mask; i = i + 1 & mask, checked++){
+                int other = keyTable[i];
+                if(other == EMPTY) return null;
+                if(other == key) return valueTable[i];
+            }
+            return null;
+        }
+
+        int locateKey(int key, long hash){
+            int[] keyTable = this.keyTable;
+            for(int i = (int)(hash >>> shift); ; i = i + 1 & mask){
+                int other = keyTable[i];
+                if(other == EMPTY) return -(i + 1);
+                if(other == key) return i;
+            }
+        }
+
+        V put(int key, long hash, V value){
+            if(key == 0){
+                V oldValue = zeroValue;
+                zeroValue = value;
+                if(!hasZeroValue){
+                    hasZeroValue = true;
+                    size++;
+                    return null;
+                }
+                return oldValue;
+            }
+
+            int i = locateKey(key, hash);
+            if(i >= 0){
+                V oldValue = valueTable[i];
+                valueTable[i] = value;
+                return oldValue;
+            }
+            i = -(i + 1);
+            keyTable[i] = key;
+            valueTable[i] = value;
+            if(size++ >= threshold) resize(keyTable.length << 1);
+            return null;
+        }
+
+        V remove(int key, long hash){
+            if(key == 0){
+                if(!hasZeroValue) return null;
+                V oldValue = zeroValue;
+                zeroValue = null;
+                hasZeroValue = false;
+                size--;
+                return oldValue;
+            }
+
+            int i = locateKey(key, hash);
+            if(i < 0) return null;
+            int[] keyTable = this.keyTable;
+            V[] valueTable = this.valueTable;
+            V oldValue = valueTable[i];
+            int mask = this.mask, next = i + 1 & mask;
+            while((key = keyTable[next]) != EMPTY){
+                int placement = (int)(hash(key) >>> shift);
+                if((next - placement & mask) > (i - placement & mask)){
+                    keyTable[i] = key;
+                    valueTable[i] = valueTable[next];
+                    i = next;
+                }
+                next = next + 1 & mask;
+            }
+            keyTable[i] = EMPTY;
+            valueTable[i] = null;
+            size--;
+            return oldValue;
+        }
+
+        void clear(){
+            if(size == 0) return;
+            Arrays.fill(keyTable, EMPTY);
+            Arrays.fill(valueTable, null);
+            zeroValue = null;
+            hasZeroValue = false;
+            size = 0;
+        }
+
+        void setTableSize(int tableSize){
+            threshold = (int)(tableSize * loadFactor);
+            mask = tableSize - 1;
+            shift = Long.numberOfLeadingZeros(mask);
+        }
+
+        void resize(int newSize){
+            int[] oldKeyTable = keyTable;
+            V[] oldValueTable = valueTable;
+
+            int[] keyTable = new int[newSize];
+            V[] valueTable = (V[])new Object[newSize];
+            setTableSize(newSize);
+
+            for(int i = 0; i < oldKeyTable.length; i++){
+                int key = oldKeyTable[i];
+                if(key == EMPTY) continue;
+                for(int j = (int)(hash(key) >>> shift); ; j = j + 1 & mask){
+                    if(keyTable[j] == EMPTY){
+                        keyTable[j] = key;
+                        valueTable[j] = oldValueTable[i];
+                        break;
+                    }
+                }
+            }
+
+            this.keyTable = keyTable;
+            this.valueTable = valueTable;
+        }
+
+        /** Copies the entries into the arrays, which must be large enough. Returns the number of entries copied. */
+        int copy(int[] keys, Object[] values){
+            int count = 0;
+            if(hasZeroValue){
+                keys[count] = 0;
+                values[count++] = zeroValue;
+            }
+            int[] keyTable = this.keyTable;
+            V[] valueTable = this.valueTable;
+            for(int i = 0; i < keyTable.length; i++){
+                if(keyTable[i] != EMPTY){
+                    keys[count] = keyTable[i];
+                    values[count++] = valueTable[i];
+                }
+            }
+            return count;
+        }
+    }
+
+    public static class Entry<V>{
+        public int key;
+        public V value;
+
+        public String toString(){
+            return key + "=" + value;
+        }
+    }
+
+    private static class MapIterator<V>{
+        final ConcurrentIntMap<V> map;
+        public boolean hasNext;
+        /** The entries of the current segment, copied under its read lock. */
+        int[] keys = new int[16];
+        Object[] values = new Object[16];
+        int segment = -1, count, index;
+        int currentKey;
+        boolean removable;
+
+        public MapIterator(ConcurrentIntMap<V> map){
+            this.map = map;
+            advance();
+        }
+
+        void advance(){
+            while(index >= count && ++segment < map.segments.length){
+                Segment<V> next = map.segments[segment];
+                long stamp = next.readLock();
+                try{
+                    if(keys.length < next.size){
+                        keys = new int[next.size];
+                        values = new Object[next.size];
+                    }
+                    count = next.copy(keys, values);
+                }finally{
+                    next.unlockRead(stamp);
+                }
+                index = 0;
+            }
+            hasNext = index < count;
+        }
+
+        /** Returns the index of the next entry in the copied arrays. */
+        int take(){
+            if(!hasNext) throw new NoSuchElementException();
+            currentKey = keys[index];
+            removable = true;
+            return index++;
+        }
+
+        public boolean hasNext(){
+            return hasNext;
+        }
+
+        /** Removes the last returned key from the map, even if it was put again with another value since. */
+        public void remove(){
+            if(!removable) throw new IllegalStateException("next must be called before remove.");
+            map.remove(currentKey);
+            removable = false;
+        }
+    }
+
+    public static class Entries<V> extends MapIterator<V> implements Iterable<Entry<V>>, Iterator<Entry<V>>{
+        private Entry<V> entry = new Entry<>();
+
+        public Entries(ConcurrentIntMap<V> map){
+            super(map);
+        }
+
+        /** Note the same entry instance is returned each time this method is called. */
+        public Entry<V> next(){
+            int i = take();
+            entry.key = keys[i];
+            entry.value = (V)values[i];
+            values[i] = null;
+            advance();
+            return entry;
+        }
+
+        public Entries<V> iterator(){
+            return this;
+        }
+    }
+
+    public static class Values<V> extends MapIterator<V> implements Iterable<V>, Iterator<V>{
+        public Values(ConcurrentIntMap<V> map){
+            super(map);
+        }
+
+        public V next(){
+            int i = take();
+            V value = (V)values[i];
+            values[i] = null;
+            advance();
+            return value;
+        }
+
+        public Values<V> iterator(){
+            return this;
+        }
+
+        /** Returns a new array containing the remaining values. */
+        public Seq<V> toArray(){
+            Seq<V> array = new Seq<>(true, map.size());
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+
+    public static class Keys extends MapIterator<Object>{
+        public Keys(ConcurrentIntMap<?> map){
+            super((ConcurrentIntMap<Object>)map);
+        }
+
+        public int next(){
+            int key = keys[take()];
+            advance();
+            return key;
+        }
+
+        /** Returns a new array containing the remaining keys. */
+        public IntSeq toArray(){
+            IntSeq array = new IntSeq(true, map.size());
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from PrimitiveChunkedGrid.java.template.
+package arc.struct;
+
+import arc.util.ArcRuntimeException;
+
+/**
+ * A 2-dimensional grid of ints, stored like {@link ChunkedGrid}: in square chunks that are allocated when a cell in them is set,
+ * and freed when all their cells are removed. Each chunk keeps a bit per cell to tell set cells from cells that were never set.
+ */
+public class IntChunkedGrid{
+    final int shift, chunkSize, mask;
+
+    /** The directory covers chunk coordinates from originX, originY to originX + directoryWidth, originY + directoryHeight. */
+    Chunk[] chunks = new Chunk[0];
+    int originX, originY, directoryWidth, directoryHeight;
+    int size, chunkCount;
+
+    /** Creates a grid with chunks of 32x32 cells. */
+    public IntChunkedGrid(){
+        this(32);
+    }
+
+    /** @param chunkSize The width and height of chunks. Must be a power of two. */
+    public IntChunkedGrid(int chunkSize){
+        if(chunkSize < 1 || chunkSize > 1024 || (chunkSize & chunkSize - 1) != 0)
+            throw new IllegalArgumentException("chunkSize must be a power of two between 1 and 1024: " + chunkSize);
+        this.chunkSize = chunkSize;
+        shift = Integer.numberOfTrailingZeros(chunkSize);
+        mask = chunkSize - 1;
+    }
+
+    /** Returns the chunk containing the cell, or null. */
+    Chunk chunk(int x, int y){
+        int cx = (x >> shift) - originX, cy = (y >> shift) - originY;
+        if(cx < 0 || cy < 0 || cx >= directoryWidth || cy >= directoryHeight) return null;
+        return chunks[cx + cy * directoryWidth];
+    }
+
+    int cell(int x, int y){
+        return (x & mask) + ((y & mask) << shift);
+    }
+
+    public int get(int x, int y){
+        return get(x, y, 0);
+    }
+
+    /** @param defaultValue Returned if the cell is not set. */
+    public int get(int x, int y, int defaultValue){
+        Chunk chunk = chunk(x, y);
+        if(chunk == null) return defaultValue;
+        int cell = cell(x, y);
+        return chunk.has(cell) ? chunk.values[cell] : defaultValue;
+    }
+
+    public boolean containsKey(int x, int y){
+        Chunk chunk = chunk(x, y);
+        return chunk != null && chunk.has(cell(x, y));
+    }
+
+    public void put(int x, int y, int value){
+        Chunk chunk = chunk(x, y);
+        if(chunk == null){
+            int index = ensureDirectory(x >> shift, y >> shift);
+            chunks[index] = chunk = new Chunk(chunkSize * chunkSize);
+            chunkCount++;
+        }
+        int cell = cell(x, y);
+        chunk.values[cell] = value;
+        if(!chunk.has(cell)){
+            chunk.set[cell >>> 6] |= 1L << cell;
+            chunk.count++;
+            size++;
+        }
+    }
+
+    /**
+     * Returns the cell's current value and increments the stored value. If the cell is not set, defaultValue + increment is put
+     * into it.
+     */
+    public int increment(int x, int y, int defaultValue, int increment){
+        int value = get(x, y, defaultValue);
+        put(x, y, value + increment);
+        return value;
+    }
+
+    public int remove(int x, int y){
+        return remove(x, y, 0);
+    }
+
+    /** Returns the removed value, or defaultValue. Frees the chunk if this was its last cell. */
+    public int remove(int x, int y, int defaultValue){
+        int cx = (x >> shift) - originX, cy = (y >> shift) - originY;
+        if(cx < 0 || cy < 0 || cx >= directoryWidth || cy >= directoryHeight) return defaultValue;
+        int index = cx + cy * directoryWidth;
+        Chunk chunk = chunks[index];
+        if(chunk == null) return defaultValue;
+
+        int cell = cell(x, y);
+        if(!chunk.has(cell)) return defaultValue;
+        chunk.set[cell >>> 6] &= ~(1L << cell);
+        size--;
+        if(--chunk.count == 0){
+            chunks[index] = null;
+            chunkCount--;
+        }
+        return chunk.values[cell];
+    }
+
+    /** Calls the consumer for every cell, chunk by chunk. The grid must not be modified while iterating. */
+    public void each(IntCellCons cons){
+        for(int cy = 0; cy < directoryHeight; cy++){
+            for(int cx = 0; cx < directoryWidth; cx++){
+                Chunk chunk = chunks[cx + cy * directoryWidth];
+                if(chunk == null) continue;
+                int baseX = (cx + originX) << shift, baseY = (cy + originY) << shift;
+                long[] set = chunk.set;
+                int[] values = chunk.values;
+                for(int word = 0; word < set.length; word++){
+                    //only visits the set bits of each word
+                    for(long bits = set[word]; bits != 0; bits &= bits - 1){
+                        int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                        cons.get(baseX + (i & mask), baseY + (i >> shift), values[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for every cell in the rectangle, chunk by chunk. Chunks that are not allocated are skipped without
+     * visiting their cells. The grid must not be modified while iterating.
+     */
+    public void each(int x, int y, int width, int height, IntCellCons cons){
+        if(width <= 0 || height <= 0) return;
+        int x2 = x + width - 1, y2 = y + height - 1;
+        int fromX = Math.max(x >> shift, originX), toX = Math.min(x2 >> shift, originX + directoryWidth - 1);
+        int fromY = Math.max(y >> shift, originY), toY = Math.min(y2 >> shift, originY + directoryHeight - 1);
+
+        for(int cy = fromY; cy <= toY; cy++){
+            for(int cx = fromX; cx <= toX; cx++){
+                Chunk chunk = chunks[(cx - originX) + (cy - originY) * directoryWidth];
+                if(chunk == null) continue;
+                int baseX = cx << shift, baseY = cy << shift;
+                int startX = Math.max(x, baseX), endX = Math.min(x2, baseX + mask);
+                int startY = Math.max(y, baseY), endY = Math.min(y2, baseY + mask);
+                for(int cellY = startY; cellY <= endY; cellY++){
+                    int row = (cellY - baseY) << shift;
+                    for(int cellX = startX; cellX <= endX; cellX++){
+                        int cell = row + cellX - baseX;
+                        if(chunk.has(cell)) cons.get(cellX, cellY, chunk.values[cell]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Removes every cell and frees all chunks and the directory. */
+    public void clear(){
+        chunks = new Chunk[0];
+        originX = originY = directoryWidth = directoryHeight = 0;
+        size = chunkCount = 0;
+    }
+
+    /** Returns the number of cells that are set. */
+    public int size(){
+        return size;
+    }
+
+    /** Returns the number of allocated chunks. */
+    public int chunks(){
+        return chunkCount;
+    }
+
+    /**
+     * Grows the directory so it covers the chunk coordinates, doubling its size on the side that grew so that walking outwards
+     * does not copy it every time. Returns the directory index of the chunk.
+     */
+    int ensureDirectory(int cx, int cy){
+        if(directoryWidth == 0){
+            chunks = new Chunk[1];
+            originX = cx;
+            originY = cy;
+            directoryWidth = directoryHeight = 1;
+            return 0;
+        }
+
+        int minX = originX, minY = originY, maxX = originX + directoryWidth, maxY = originY + directoryHeight;
+        if(cx < minX) minX = Math.min(cx, maxX - directoryWidth * 2);
+        else if(cx >= maxX) maxX = Math.max(cx + 1, minX + directoryWidth * 2);
+        if(cy < minY) minY = Math.min(cy, maxY - directoryHeight * 2);
+        else if(cy >= maxY) maxY = Math.max(cy + 1, minY + directoryHeight * 2);
+
+        int width = maxX - minX, height = maxY - minY;
+        if(width != directoryWidth || height != directoryHeight){
+            if((long)width * height > ChunkedGrid.maxDirectorySize)
+                throw new ArcRuntimeException("Grid spans too many chunks (" + width + "x" + height + "), use GridMap for sparse coordinates.");
+
+            Chunk[] resized = new Chunk[width * height];
+            for(int y = 0; y < directoryHeight; y++){
+                System.arraycopy(chunks, y * directoryWidth, resized, (originX - minX) + (y + originY - minY) * width, directoryWidth);
+            }
+            chunks = resized;
+            originX = minX;
+            originY = minY;
+            directoryWidth = width;
+            directoryHeight = height;
+        }
+        return (cx - originX) + (cy - originY) * directoryWidth;
+    }
+
+    static class Chunk{
+        final int[] values;
+        /** A bit for each cell that is set. */
+        final long[] set;
+        int count;
+
+        Chunk(int cells){
+            values = new int[cells];
+            set = new long[(cells + 63) >>> 6];
+        }
+
+        boolean has(int cell){
+            return (set[cell >>> 6] & 1L << cell) != 0;
+        }
+    }
+
+    public interface IntCellCons{
+        void get(int x, int y, int value);
+    }
+}
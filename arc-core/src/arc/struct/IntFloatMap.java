@@ -1,39 +1,35 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from PrimitiveMap.java.template.
 package arc.struct;
 
-import arc.math.Mathf;
+import arc.func.Cons;
 import arc.util.ArcRuntimeException;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
- * An unordered map where the keys are ints and values are floats. This implementation is a cuckoo hash map using 3 hashes, random
- * walking, and a small stash for problematic keys. Null keys are not allowed. No allocation is done except when growing the table
- * size. <br>
+ * An unordered map where the keys are ints and the values are floats. This implementation uses open addressing with linear
+ * probing and backward shift deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, so
+ * keys that only differ in their high bits do not collide. No allocation is done except when growing the table size. <br>
  * <br>
- * This map performs very fast get, containsKey, and remove (typically O(1), worst case O(log(n))). Put may be a bit slower,
- * depending on hash collisions. Load factors greater than 0.91 greatly increase the chances the map will have to rehash to the
- * next higher POT size.
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.
  * @author Nathan Sweet
  */
 public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
     private static final int EMPTY = 0;
 
     public int size;
 
     int[] keyTable;
     float[] valueTable;
-    int capacity, stashSize;
+    int capacity;
     float zeroValue;
     boolean hasZeroValue;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     private Entries entries1, entries2;
     private Values values1, values2;
@@ -58,36 +54,48 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public IntFloatMap(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 1 << 30)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = new int[capacity + stashCapacity];
-        valueTable = new float[keyTable.length];
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = new int[tableSize];
+        valueTable = new float[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new map identical to the specified map. */
     public IntFloatMap(IntFloatMap map){
-        this((int)Math.floor(map.capacity * map.loadFactor), map.loadFactor);
-        stashSize = map.stashSize;
-        System.arraycopy(map.keyTable, 0, keyTable, 0, map.keyTable.length);
-        System.arraycopy(map.valueTable, 0, valueTable, 0, map.valueTable.length);
+        this.loadFactor = map.loadFactor;
+        keyTable = map.keyTable.clone();
+        valueTable = map.valueTable.clone();
+        setTableSize(keyTable.length);
         size = map.size;
         zeroValue = map.zeroValue;
         hasZeroValue = map.hasZeroValue;
     }
 
+    /** Calls the consumer for every entry. Note the same entry instance is passed each time. */
+    public void each(Cons<Entry> cons){
+        for(Entry e : this){
+            cons.get(e);
+        }
+    }
+
+    /** Returns the index of the first slot to check for a key, taken from the top bits of the key multiplied by the golden ratio. */
+    int place(int key){
+        return (int)(key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of a key that is not zero, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(int key){
+        int[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            int other = keyTable[i];
+            if(other == EMPTY) return -(i + 1);
+            if(other == key) return i;
+        }
+    }
+
     public void put(int key, float value){
         if(key == 0){
             zeroValue = value;
@@ -98,189 +106,47 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
             return;
         }
 
-        int[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int index1 = key & mask;
-        int key1 = keyTable[index1];
-        if(key == key1){
-            valueTable[index1] = value;
-            return;
-        }
-
-        int index2 = hash2(key);
-        int key2 = keyTable[index2];
-        if(key == key2){
-            valueTable[index2] = value;
-            return;
-        }
-
-        int index3 = hash3(key);
-        int key3 = keyTable[index3];
-        if(key == key3){
-            valueTable[index3] = value;
-            return;
-        }
-
-        // Update key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key == keyTable[i]){
-                valueTable[i] = value;
-                return;
-            }
-        }
-
-        // Check for empty buckets.
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
+        int i = locateKey(key);
+        if(i >= 0){
+            valueTable[i] = value;
             return;
         }
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+    }
 
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
+    public void putAll(IntFloatMap map){
+        ensureCapacity(map.size);
+        if(map.hasZeroValue) put(0, map.zeroValue);
+        int[] keyTable = map.keyTable;
+        float[] valueTable = map.valueTable;
+        for(int i = 0, n = map.capacity; i < n; i++){
+            int key = keyTable[i];
+            if(key != EMPTY) put(key, valueTable[i]);
         }
+    }
 
-        push(key, value, index1, key1, index2, key2, index3, key3);
+    public IntFloatMap copy(){
+        return new IntFloatMap(this);
     }
 
-    public void putAll(IntFloatMap map){
-        for(Entry entry : map.entries())
-            put(entry.key, entry.value);
+    public void set(IntFloatMap value){
+        clear();
+        putAll(value);
     }
 
     /** Skips checks for existing keys. */
     private void putResize(int key, float value){
-        if(key == 0){
-            zeroValue = value;
-            hasZeroValue = true;
-            return;
-        }
-
-        // Check for empty buckets.
-        int index1 = key & mask;
-        int key1 = keyTable[index1];
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(key);
-        int key2 = keyTable[index2];
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(key);
-        int key3 = keyTable[index3];
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(int insertKey, float insertValue, int index1, int key1, int index2, int key2, int index3, int key3){
         int[] keyTable = this.keyTable;
-        float[] valueTable = this.valueTable;
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        int evictedKey;
-        float evictedValue;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    evictedValue = valueTable[index1];
-                    keyTable[index1] = insertKey;
-                    valueTable[index1] = insertValue;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    evictedValue = valueTable[index2];
-                    keyTable[index2] = insertKey;
-                    valueTable[index2] = insertValue;
-                    break;
-                default:
-                    evictedKey = key3;
-                    evictedValue = valueTable[index3];
-                    keyTable[index3] = insertKey;
-                    valueTable[index3] = insertValue;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            index1 = evictedKey & mask;
-            key1 = keyTable[index1];
-            if(key1 == EMPTY){
-                keyTable[index1] = evictedKey;
-                valueTable[index1] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index2 = hash2(evictedKey);
-            key2 = keyTable[index2];
-            if(key2 == EMPTY){
-                keyTable[index2] = evictedKey;
-                valueTable[index2] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index3 = hash3(evictedKey);
-            key3 = keyTable[index3];
-            if(key3 == EMPTY){
-                keyTable[index3] = evictedKey;
-                valueTable[index3] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == EMPTY){
+                keyTable[i] = key;
+                valueTable[i] = value;
                 return;
             }
-
-            if(++i == pushIterations) break;
-
-            insertKey = evictedKey;
-            insertValue = evictedValue;
-        }while(true);
-
-        putStash(evictedKey, evictedValue);
-    }
-
-    private void putStash(int key, float value){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            putResize(key, value);
-            return;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        valueTable[index] = value;
-        stashSize++;
-        size++;
     }
 
     public float get(int key){
@@ -293,26 +159,40 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
             if(!hasZeroValue) return defaultValue;
             return zeroValue;
         }
-        int index = key & mask;
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return getStash(key, defaultValue);
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
+    }
+
+    /** Only inserts into the map if value is not present.
+     * @param key The key.
+     * @param value The value.
+     * @return The associated value if key is present in the map, else {@code value}.
+     * */
+    public float getOrPut(int key, float value){
+        if(key == 0){
+            if(!hasZeroValue){
+                zeroValue = value;
+                hasZeroValue = true;
+                size++;
             }
+            return zeroValue;
         }
-        return valueTable[index];
+
+        int i = locateKey(key);
+        if(i >= 0) return valueTable[i];
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+        return value;
     }
 
-    private float getStash(int key, float defaultValue){
-        int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key == keyTable[i]) return valueTable[i];
-        return defaultValue;
+    public float increment(int key){
+        return increment(key, 0, 1);
     }
 
-    public float increment(int key, float increment){
-        return increment(key, 0, increment);
+    public float increment(int key, float amount){
+        return increment(key, 0, amount);
     }
 
     /**
@@ -332,31 +212,24 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
                 return defaultValue;
             }
         }
-        int index = key & mask;
-        if(key != keyTable[index]){
-            index = hash2(key);
-            if(key != keyTable[index]){
-                index = hash3(key);
-                if(key != keyTable[index]) return getAndIncrementStash(key, defaultValue, increment);
-            }
+        int i = locateKey(key);
+        if(i >= 0){
+            float value = valueTable[i];
+            valueTable[i] = value + increment;
+            return value;
         }
-        float value = valueTable[index];
-        valueTable[index] = value + increment;
-        return value;
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = defaultValue + increment;
+        if(size++ >= threshold) resize(capacity << 1);
+        return defaultValue;
     }
 
-    private float getAndIncrementStash(int key, float defaultValue, float increment){
-        int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key == keyTable[i]){
-                float value = valueTable[i];
-                valueTable[i] = value + increment;
-                return value;
-            }
-        put(key, defaultValue + increment);
-        return defaultValue;
+    public float remove(int key){
+        return remove(key, 0);
     }
 
+    /** @return the value that was removed, or defaultValue. */
     public float remove(int key, float defaultValue){
         if(key == 0){
             if(!hasZeroValue) return defaultValue;
@@ -365,54 +238,33 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
             return zeroValue;
         }
 
-        int index = key & mask;
-        if(key == keyTable[index]){
-            keyTable[index] = EMPTY;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        index = hash2(key);
-        if(key == keyTable[index]){
-            keyTable[index] = EMPTY;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        index = hash3(key);
-        if(key == keyTable[index]){
-            keyTable[index] = EMPTY;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        return removeStash(key, defaultValue);
+        int i = locateKey(key);
+        if(i < 0) return defaultValue;
+        float oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
     }
 
-    float removeStash(int key, float defaultValue){
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
         int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key == keyTable[i]){
-                float oldValue = valueTable[i];
-                removeStashIndex(i);
-                size--;
-                return oldValue;
+        float[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        int key;
+        while((key = keyTable[next]) != EMPTY){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return defaultValue;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex){
-            keyTable[index] = keyTable[lastIndex];
-            valueTable[index] = valueTable[lastIndex];
-        }
+        keyTable[i] = EMPTY;
+        size--;
     }
 
     /** Returns true if the map is empty. */
@@ -426,31 +278,27 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /** Clears the map and reduces the size of the backing arrays to be the specified capacity if they are larger. */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         hasZeroValue = false;
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     public void clear(){
         if(size == 0) return;
-        int[] keyTable = this.keyTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            keyTable[i] = EMPTY;
-        hasZeroValue = false;
+        Arrays.fill(keyTable, EMPTY);
         size = 0;
-        stashSize = 0;
+        hasZeroValue = false;
     }
 
     /**
@@ -461,53 +309,39 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         if(hasZeroValue && zeroValue == value) return true;
         int[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            if(keyTable[i] != 0 && valueTable[i] == value) return true;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != EMPTY && valueTable[i] == value) return true;
         return false;
     }
 
     /**
-     * Returns true if the specified value is in the map. Note this traverses the entire map and compares every value, which may be
-     * an expensive operation.
+     * Returns true if a value within epsilon of the specified value is in the map. Note this traverses the entire map and compares
+     * every value, which may be an expensive operation.
      */
     public boolean containsValue(float value, float epsilon){
         if(hasZeroValue && Math.abs(zeroValue - value) <= epsilon) return true;
+        int[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            if(Math.abs(valueTable[i] - value) <= epsilon) return true;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != EMPTY && Math.abs(valueTable[i] - value) <= epsilon) return true;
         return false;
     }
 
     public boolean containsKey(int key){
         if(key == 0) return hasZeroValue;
-        int index = key & mask;
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return containsKeyStash(key);
-            }
-        }
-        return true;
-    }
-
-    private boolean containsKeyStash(int key){
-        int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key == keyTable[i]) return true;
-        return false;
+        return locateKey(key) >= 0;
     }
 
     /**
-     * Returns the key for the specified value, or null if it is not in the map. Note this traverses the entire map and compares
+     * Returns the key for the specified value, or notFound if it is not in the map. Note this traverses the entire map and compares
      * every value, which may be an expensive operation.
      */
     public int findKey(float value, int notFound){
         if(hasZeroValue && zeroValue == value) return 0;
         int[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            if(keyTable[i] != 0 && valueTable[i] == value) return keyTable[i];
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != EMPTY && valueTable[i] == value) return keyTable[i];
         return notFound;
     }
 
@@ -519,60 +353,57 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         int[] oldKeyTable = keyTable;
         float[] oldValueTable = valueTable;
 
-        keyTable = new int[newSize + stashCapacity];
-        valueTable = new float[newSize + stashCapacity];
+        keyTable = new int[newSize];
+        valueTable = new float[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = hasZeroValue ? 1 : 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > (hasZeroValue ? 1 : 0)){
+            for(int i = 0; i < oldCapacity; i++){
                 int key = oldKeyTable[i];
                 if(key != EMPTY) putResize(key, oldValueTable[i]);
             }
         }
     }
 
-    private int hash2(int h){
-        h *= PRIME2;
-        return (h ^ h >>> hashShift) & mask;
-    }
-
-    private int hash3(int h){
-        h *= PRIME3;
-        return (h ^ h >>> hashShift) & mask;
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        int[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == EMPTY) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
         int h = 0;
         if(hasZeroValue){
-            h += Float.floatToIntBits(zeroValue);
+            h += Float.hashCode(zeroValue);
         }
         int[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             int key = keyTable[i];
             if(key != EMPTY){
-                h += key * 31;
-
-                float value = valueTable[i];
-                h += Float.floatToIntBits(value);
+                h += Integer.hashCode(key) * 31;
+                h += Float.hashCode(valueTable[i]);
             }
         }
         return h;
@@ -584,18 +415,14 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         IntFloatMap other = (IntFloatMap)obj;
         if(other.size != size) return false;
         if(other.hasZeroValue != hasZeroValue) return false;
-        if(hasZeroValue && other.zeroValue != zeroValue){
-            return false;
-        }
+        if(hasZeroValue && other.zeroValue != zeroValue) return false;
         int[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             int key = keyTable[i];
             if(key != EMPTY){
-                float otherValue = other.get(key, 0f);
-                if(otherValue == 0f && !other.containsKey(key)) return false;
-                float value = valueTable[i];
-                if(otherValue != value) return false;
+                int index = other.locateKey(key);
+                if(index < 0 || other.valueTable[index] != valueTable[i]) return false;
             }
         }
         return true;
@@ -633,7 +460,7 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         return buffer.toString();
     }
 
-    public Iterator<Entry> iterator(){
+    public Entries iterator(){
         return entries();
     }
 
@@ -660,7 +487,7 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
 
     /**
      * Returns an iterator for the values in the map. Remove is supported. Note that the same iterator instance is returned each
-     * time this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     * time this method is called. Use the {@link Values} constructor for nested or multithreaded iteration.
      */
     public Values values(){
         if(values1 == null){
@@ -681,7 +508,7 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
 
     /**
      * Returns an iterator for the keys in the map. Remove is supported. Note that the same iterator instance is returned each time
-     * this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     * this method is called. Use the {@link Keys} constructor for nested or multithreaded iteration.
      */
     public Keys keys(){
         if(keys1 == null){
@@ -715,6 +542,8 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         final IntFloatMap map;
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean valid = true;
 
         public MapIterator(IntFloatMap map){
@@ -725,6 +554,8 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         public void reset(){
             currentIndex = INDEX_ILLEGAL;
             nextIndex = INDEX_ZERO;
+            start = map.iterationStart();
+            checked = -1;
             if(map.hasZeroValue)
                 hasNext = true;
             else
@@ -734,7 +565,8 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         void findNextIndex(){
             hasNext = false;
             int[] keyTable = map.keyTable;
-            for(int n = map.capacity + map.stashSize; ++nextIndex < n; ){
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != EMPTY){
                     hasNext = true;
                     break;
@@ -743,19 +575,21 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         }
 
         public void remove(){
-            if(currentIndex == INDEX_ZERO && map.hasZeroValue){
+            int i = currentIndex;
+            if(i == INDEX_ZERO && map.hasZeroValue){
                 map.hasZeroValue = false;
-            }else if(currentIndex < 0){
+                map.size--;
+            }else if(i < 0){
                 throw new IllegalStateException("next must be called before remove.");
-            }else if(currentIndex >= map.capacity){
-                map.removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
-                findNextIndex();
             }else{
-                map.keyTable[currentIndex] = EMPTY;
+                map.removeSlot(i);
+                if(map.keyTable[i] != EMPTY){
+                    //an entry that was not visited yet was moved into the slot
+                    checked = (i - start & map.mask) - 1;
+                    findNextIndex();
+                }
             }
             currentIndex = INDEX_ILLEGAL;
-            map.size--;
         }
     }
 
@@ -770,12 +604,11 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         public Entry next(){
             if(!hasNext) throw new NoSuchElementException();
             if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
-            int[] keyTable = map.keyTable;
             if(nextIndex == INDEX_ZERO){
                 entry.key = 0;
                 entry.value = map.zeroValue;
             }else{
-                entry.key = keyTable[nextIndex];
+                entry.key = map.keyTable[nextIndex];
                 entry.value = map.valueTable[nextIndex];
             }
             currentIndex = nextIndex;
@@ -788,7 +621,7 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
             return hasNext;
         }
 
-        public Iterator<Entry> iterator(){
+        public Entries iterator(){
             return this;
         }
 
@@ -810,11 +643,7 @@ public class IntFloatMap implements Iterable<IntFloatMap.Entry>{
         public float next(){
             if(!hasNext) throw new NoSuchElementException();
             if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
-            float value;
-            if(nextIndex == INDEX_ZERO)
-                value = map.zeroValue;
-            else
-                value = map.valueTable[nextIndex];
+            float value = nextIndex == INDEX_ZERO ? map.zeroValue : map.valueTable[nextIndex];
             currentIndex = nextIndex;
             findNextIndex();
             return value;
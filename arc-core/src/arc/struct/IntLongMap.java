@@ -0,0 +1,675 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from PrimitiveMap.java.template.
+package arc.struct;
+
+import arc.func.Cons;
+import arc.util.ArcRuntimeException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An unordered map where the keys are ints and the values are longs. This implementation uses open addressing with linear
+ * probing and backward shift deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, so
+ * keys that only differ in their high bits do not collide. No allocation is done except when growing the table size. <br>
+ * <br>
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.
+ * @author Nathan Sweet
+ */
+public class IntLongMap implements Iterable<IntLongMap.Entry>{
+    private static final int EMPTY = 0;
+
+    public int size;
+
+    int[] keyTable;
+    long[] valueTable;
+    int capacity;
+    long zeroValue;
+    boolean hasZeroValue;
+
+    private float loadFactor;
+    private int shift, mask, threshold;
+
+    private Entries entries1, entries2;
+    private Values values1, values2;
+    private Keys keys1, keys2;
+
+    /** Creates a new map with an initial capacity of 51 and a load factor of 0.8. */
+    public IntLongMap(){
+        this(51, 0.8f);
+    }
+
+    /**
+     * Creates a new map with a load factor of 0.8.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public IntLongMap(int initialCapacity){
+        this(initialCapacity, 0.8f);
+    }
+
+    /**
+     * Creates a new map with the specified initial capacity and load factor. This map will hold initialCapacity items before
+     * growing the backing table.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public IntLongMap(int initialCapacity, float loadFactor){
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
+        this.loadFactor = loadFactor;
+
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = new int[tableSize];
+        valueTable = new long[tableSize];
+        setTableSize(tableSize);
+    }
+
+    /** Creates a new map identical to the specified map. */
+    public IntLongMap(IntLongMap map){
+        this.loadFactor = map.loadFactor;
+        keyTable = map.keyTable.clone();
+        valueTable = map.valueTable.clone();
+        setTableSize(keyTable.length);
+        size = map.size;
+        zeroValue = map.zeroValue;
+        hasZeroValue = map.hasZeroValue;
+    }
+
+    /** Calls the consumer for every entry. Note the same entry instance is passed each time. */
+    public void each(Cons<Entry> cons){
+        for(Entry e : this){
+            cons.get(e);
+        }
+    }
+
+    /** Returns the index of the first slot to check for a key, taken from the top bits of the key multiplied by the golden ratio. */
+    int place(int key){
+        return (int)(key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of a key that is not zero, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(int key){
+        int[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            int other = keyTable[i];
+            if(other == EMPTY) return -(i + 1);
+            if(other == key) return i;
+        }
+    }
+
+    public void put(int key, long value){
+        if(key == 0){
+            zeroValue = value;
+            if(!hasZeroValue){
+                hasZeroValue = true;
+                size++;
+            }
+            return;
+        }
+
+        int i = locateKey(key);
+        if(i >= 0){
+            valueTable[i] = value;
+            return;
+        }
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+    }
+
+    public void putAll(IntLongMap map){
+        ensureCapacity(map.size);
+        if(map.hasZeroValue) put(0, map.zeroValue);
+        int[] keyTable = map.keyTable;
+        long[] valueTable = map.valueTable;
+        for(int i = 0, n = map.capacity; i < n; i++){
+            int key = keyTable[i];
+            if(key != EMPTY) put(key, valueTable[i]);
+        }
+    }
+
+    public IntLongMap copy(){
+        return new IntLongMap(this);
+    }
+
+    public void set(IntLongMap value){
+        clear();
+        putAll(value);
+    }
+
+    /** Skips checks for existing keys. */
+    private void putResize(int key, long value){
+        int[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == EMPTY){
+                keyTable[i] = key;
+                valueTable[i] = value;
+                return;
+            }
+        }
+    }
+
+    public long get(int key){
+        return get(key, 0);
+    }
+
+    /** @param defaultValue Returned if the key was not associated with a value. */
+    public long get(int key, long defaultValue){
+        if(key == 0){
+            if(!hasZeroValue) return defaultValue;
+            return zeroValue;
+        }
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
+    }
+
+    /** Only inserts into the map if value is not present.
+     * @param key The key.
+     * @param value The value.
+     * @return The associated value if key is present in the map, else {@code value}.
+     * */
+    public long getOrPut(int key, long value){
+        if(key == 0){
+            if(!hasZeroValue){
+                zeroValue = value;
+                hasZeroValue = true;
+                size++;
+            }
+            return zeroValue;
+        }
+
+        int i = locateKey(key);
+        if(i >= 0) return valueTable[i];
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+        return value;
+    }
+
+    public long increment(int key){
+        return increment(key, 0, 1);
+    }
+
+    public long increment(int key, long amount){
+        return increment(key, 0, amount);
+    }
+
+    /**
+     * Returns the key's current value and increments the stored value. If the key is not in the map, defaultValue + increment is
+     * put into the map.
+     */
+    public long increment(int key, long defaultValue, long increment){
+        if(key == 0){
+            if(hasZeroValue){
+                long value = zeroValue;
+                zeroValue += increment;
+                return value;
+            }else{
+                hasZeroValue = true;
+                zeroValue = defaultValue + increment;
+                ++size;
+                return defaultValue;
+            }
+        }
+        int i = locateKey(key);
+        if(i >= 0){
+            long value = valueTable[i];
+            valueTable[i] = value + increment;
+            return value;
+        }
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = defaultValue + increment;
+        if(size++ >= threshold) resize(capacity << 1);
+        return defaultValue;
+    }
+
+    public long remove(int key){
+        return remove(key, 0);
+    }
+
+    /** @return the value that was removed, or defaultValue. */
+    public long remove(int key, long defaultValue){
+        if(key == 0){
+            if(!hasZeroValue) return defaultValue;
+            hasZeroValue = false;
+            size--;
+            return zeroValue;
+        }
+
+        int i = locateKey(key);
+        if(i < 0) return defaultValue;
+        long oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        int key;
+        while((key = keyTable[next]) != EMPTY){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
+            }
+            next = next + 1 & mask;
+        }
+        keyTable[i] = EMPTY;
+        size--;
+    }
+
+    /** Returns true if the map is empty. */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Reduces the size of the backing arrays to be the specified capacity or less. If the capacity is already less, nothing is
+     * done. If the map contains more items than the specified capacity, the next highest power of two capacity is used instead.
+     */
+    public void shrink(int maximumCapacity){
+        if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
+    }
+
+    /** Clears the map and reduces the size of the backing arrays to be the specified capacity if they are larger. */
+    public void clear(int maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
+            clear();
+            return;
+        }
+        hasZeroValue = false;
+        size = 0;
+        resize(tableSize);
+    }
+
+    public void clear(){
+        if(size == 0) return;
+        Arrays.fill(keyTable, EMPTY);
+        size = 0;
+        hasZeroValue = false;
+    }
+
+    /**
+     * Returns true if the specified value is in the map. Note this traverses the entire map and compares every value, which may be
+     * an expensive operation.
+     */
+    public boolean containsValue(long value){
+        if(hasZeroValue && zeroValue == value) return true;
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != EMPTY && valueTable[i] == value) return true;
+        return false;
+    }
+
+    public boolean containsKey(int key){
+        if(key == 0) return hasZeroValue;
+        return locateKey(key) >= 0;
+    }
+
+    /**
+     * Returns the key for the specified value, or notFound if it is not in the map. Note this traverses the entire map and compares
+     * every value, which may be an expensive operation.
+     */
+    public int findKey(long value, int notFound){
+        if(hasZeroValue && zeroValue == value) return 0;
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != EMPTY && valueTable[i] == value) return keyTable[i];
+        return notFound;
+    }
+
+    /**
+     * Increases the size of the backing array to accommodate the specified number of additional items. Useful before adding many
+     * items to avoid multiple backing array resizes.
+     */
+    public void ensureCapacity(int additionalCapacity){
+        if(additionalCapacity < 0)
+            throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
+        int sizeNeeded = size + additionalCapacity;
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
+    }
+
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    private void resize(int newSize){
+        int oldCapacity = capacity;
+        int[] oldKeyTable = keyTable;
+        long[] oldValueTable = valueTable;
+
+        keyTable = new int[newSize];
+        valueTable = new long[newSize];
+        setTableSize(newSize);
+
+        if(size > (hasZeroValue ? 1 : 0)){
+            for(int i = 0; i < oldCapacity; i++){
+                int key = oldKeyTable[i];
+                if(key != EMPTY) putResize(key, oldValueTable[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        int[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == EMPTY) return i + 1 & mask;
+        }
+        return 0;
+    }
+
+    public int hashCode(){
+        int h = 0;
+        if(hasZeroValue){
+            h += Long.hashCode(zeroValue);
+        }
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = 0, n = capacity; i < n; i++){
+            int key = keyTable[i];
+            if(key != EMPTY){
+                h += Integer.hashCode(key) * 31;
+                h += Long.hashCode(valueTable[i]);
+            }
+        }
+        return h;
+    }
+
+    public boolean equals(Object obj){
+        if(obj == this) return true;
+        if(!(obj instanceof IntLongMap)) return false;
+        IntLongMap other = (IntLongMap)obj;
+        if(other.size != size) return false;
+        if(other.hasZeroValue != hasZeroValue) return false;
+        if(hasZeroValue && other.zeroValue != zeroValue) return false;
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = 0, n = capacity; i < n; i++){
+            int key = keyTable[i];
+            if(key != EMPTY){
+                int index = other.locateKey(key);
+                if(index < 0 || other.valueTable[index] != valueTable[i]) return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString(){
+        if(size == 0) return "{}";
+        StringBuilder buffer = new StringBuilder(32);
+        buffer.append('{');
+        int[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        int i = keyTable.length;
+        if(hasZeroValue){
+            buffer.append("0=");
+            buffer.append(zeroValue);
+        }else{
+            while(i-- > 0){
+                int key = keyTable[i];
+                if(key == EMPTY) continue;
+                buffer.append(key);
+                buffer.append('=');
+                buffer.append(valueTable[i]);
+                break;
+            }
+        }
+        while(i-- > 0){
+            int key = keyTable[i];
+            if(key == EMPTY) continue;
+            buffer.append(", ");
+            buffer.append(key);
+            buffer.append('=');
+            buffer.append(valueTable[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    public Entries iterator(){
+        return entries();
+    }
+
+    /**
+     * Returns an iterator for the entries in the map. Remove is supported. Note that the same iterator instance is returned each
+     * time this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     */
+    public Entries entries(){
+        if(entries1 == null){
+            entries1 = new Entries(this);
+            entries2 = new Entries(this);
+        }
+        if(!entries1.valid){
+            entries1.reset();
+            entries1.valid = true;
+            entries2.valid = false;
+            return entries1;
+        }
+        entries2.reset();
+        entries2.valid = true;
+        entries1.valid = false;
+        return entries2;
+    }
+
+    /**
+     * Returns an iterator for the values in the map. Remove is supported. Note that the same iterator instance is returned each
+     * time this method is called. Use the {@link Values} constructor for nested or multithreaded iteration.
+     */
+    public Values values(){
+        if(values1 == null){
+            values1 = new Values(this);
+            values2 = new Values(this);
+        }
+        if(!values1.valid){
+            values1.reset();
+            values1.valid = true;
+            values2.valid = false;
+            return values1;
+        }
+        values2.reset();
+        values2.valid = true;
+        values1.valid = false;
+        return values2;
+    }
+
+    /**
+     * Returns an iterator for the keys in the map. Remove is supported. Note that the same iterator instance is returned each time
+     * this method is called. Use the {@link Keys} constructor for nested or multithreaded iteration.
+     */
+    public Keys keys(){
+        if(keys1 == null){
+            keys1 = new Keys(this);
+            keys2 = new Keys(this);
+        }
+        if(!keys1.valid){
+            keys1.reset();
+            keys1.valid = true;
+            keys2.valid = false;
+            return keys1;
+        }
+        keys2.reset();
+        keys2.valid = true;
+        keys1.valid = false;
+        return keys2;
+    }
+
+    public static class Entry{
+        public int key;
+        public long value;
+
+        public String toString(){
+            return key + "=" + value;
+        }
+    }
+
+    private static class MapIterator{
+        static final int INDEX_ILLEGAL = -2;
+        static final int INDEX_ZERO = -1;
+        final IntLongMap map;
+        public boolean hasNext;
+        int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
+        boolean valid = true;
+
+        public MapIterator(IntLongMap map){
+            this.map = map;
+            reset();
+        }
+
+        public void reset(){
+            currentIndex = INDEX_ILLEGAL;
+            nextIndex = INDEX_ZERO;
+            start = map.iterationStart();
+            checked = -1;
+            if(map.hasZeroValue)
+                hasNext = true;
+            else
+                findNextIndex();
+        }
+
+        void findNextIndex(){
+            hasNext = false;
+            int[] keyTable = map.keyTable;
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
+                if(keyTable[nextIndex] != EMPTY){
+                    hasNext = true;
+                    break;
+                }
+            }
+        }
+
+        public void remove(){
+            int i = currentIndex;
+            if(i == INDEX_ZERO && map.hasZeroValue){
+                map.hasZeroValue = false;
+                map.size--;
+            }else if(i < 0){
+                throw new IllegalStateException("next must be called before remove.");
+            }else{
+                map.removeSlot(i);
+                if(map.keyTable[i] != EMPTY){
+                    //an entry that was not visited yet was moved into the slot
+                    checked = (i - start & map.mask) - 1;
+                    findNextIndex();
+                }
+            }
+            currentIndex = INDEX_ILLEGAL;
+        }
+    }
+
+    public static class Entries extends MapIterator implements Iterable<Entry>, Iterator<Entry>{
+        private Entry entry = new Entry();
+
+        public Entries(IntLongMap map){
+            super(map);
+        }
+
+        /** Note the same entry instance is returned each time this method is called. */
+        public Entry next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            if(nextIndex == INDEX_ZERO){
+                entry.key = 0;
+                entry.value = map.zeroValue;
+            }else{
+                entry.key = map.keyTable[nextIndex];
+                entry.value = map.valueTable[nextIndex];
+            }
+            currentIndex = nextIndex;
+            findNextIndex();
+            return entry;
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public Entries iterator(){
+            return this;
+        }
+
+        public void remove(){
+            super.remove();
+        }
+    }
+
+    public static class Values extends MapIterator{
+        public Values(IntLongMap map){
+            super(map);
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public long next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            long value = nextIndex == INDEX_ZERO ? map.zeroValue : map.valueTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return value;
+        }
+
+        /** Returns a new array containing the remaining values. */
+        public LongSeq toArray(){
+            LongSeq array = new LongSeq(true, map.size);
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+
+    public static class Keys extends MapIterator{
+        public Keys(IntLongMap map){
+            super(map);
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public int next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            int key = nextIndex == INDEX_ZERO ? 0 : map.keyTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return key;
+        }
+
+        /** Returns a new array containing the remaining keys. */
+        public IntSeq toArray(){
+            IntSeq array = new IntSeq(true, map.size);
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+}
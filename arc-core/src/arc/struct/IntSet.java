@@ -1,36 +1,32 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from PrimitiveSet.java.template.
 package arc.struct;
 
 import arc.func.Intc;
-import arc.math.Mathf;
 import arc.util.ArcRuntimeException;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 /**
- * An unordered set that uses int keys. This implementation uses cuckoo hashing using 3 hashes, random walking, and a small stash
- * for problematic keys. No allocation is done except when growing the table size. <br>
+ * An unordered set that uses int keys. This implementation uses open addressing with linear probing and backward shift deletion,
+ * so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, so keys that only differ in their high
+ * bits do not collide. No allocation is done except when growing the table size. <br>
  * <br>
- * This set performs very fast contains and remove (typically O(1), worst case O(log(n))). Add may be a bit slower, depending on
- * hash collisions. Load factors greater than 0.91 greatly increase the chances the set will have to rehash to the next higher POT
- * size.
+ * This set performs very fast contains, add and remove (typically O(1), degrading with the load factor as probe sequences get
+ * longer). The load factor must be less than 1.
  * @author Nathan Sweet
  */
 public class IntSet{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
     private static final int EMPTY = 0;
 
     public int size;
 
     int[] keyTable;
-    int capacity, stashSize;
+    int capacity;
     boolean hasZeroValue;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     private IntSetIterator iterator1, iterator2;
 
@@ -53,29 +49,19 @@ public class IntSet{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public IntSet(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 1 << 30)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = new int[capacity + stashCapacity];
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = new int[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new set identical to the specified set. */
     public IntSet(IntSet set){
-        this((int)Math.floor(set.capacity * set.loadFactor), set.loadFactor);
-        stashSize = set.stashSize;
-        System.arraycopy(set.keyTable, 0, keyTable, 0, set.keyTable.length);
+        this.loadFactor = set.loadFactor;
+        keyTable = set.keyTable.clone();
+        setTableSize(keyTable.length);
         size = set.size;
         hasZeroValue = set.hasZeroValue;
     }
@@ -93,6 +79,21 @@ public class IntSet{
         }
     }
 
+    /** Returns the index of the first slot to check for a key, taken from the top bits of the key multiplied by the golden ratio. */
+    int place(int key){
+        return (int)(key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of a key that is not zero, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(int key){
+        int[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            int other = keyTable[i];
+            if(other == EMPTY) return -(i + 1);
+            if(other == key) return i;
+        }
+    }
+
     /** Returns true if the key was not already in the set. */
     public boolean add(int key){
         if(key == 0){
@@ -102,45 +103,10 @@ public class IntSet{
             return true;
         }
 
-        int[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int index1 = key & mask;
-        int key1 = keyTable[index1];
-        if(key1 == key) return false;
-
-        int index2 = hash2(key);
-        int key2 = keyTable[index2];
-        if(key2 == key) return false;
-
-        int index3 = hash3(key);
-        int key3 = keyTable[index3];
-        if(key3 == key) return false;
-
-        // Find key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(keyTable[i] == key) return false;
-
-        // Check for empty buckets.
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        push(key, index1, key1, index2, key2, index3, key3);
+        int i = locateKey(key);
+        if(i >= 0) return false;
+        keyTable[-(i + 1)] = key;
+        if(size++ >= threshold) resize(capacity << 1);
         return true;
     }
 
@@ -173,109 +139,13 @@ public class IntSet{
 
     /** Skips checks for existing keys. */
     private void addResize(int key){
-        if(key == 0){
-            hasZeroValue = true;
-            return;
-        }
-
-        // Check for empty buckets.
-        int index1 = key & mask;
-        int key1 = keyTable[index1];
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(key);
-        int key2 = keyTable[index2];
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(key);
-        int key3 = keyTable[index3];
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(int insertKey, int index1, int key1, int index2, int key2, int index3, int key3){
         int[] keyTable = this.keyTable;
-
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        int evictedKey;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    keyTable[index1] = insertKey;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    keyTable[index2] = insertKey;
-                    break;
-                default:
-                    evictedKey = key3;
-                    keyTable[index3] = insertKey;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            index1 = evictedKey & mask;
-            key1 = keyTable[index1];
-            if(key1 == EMPTY){
-                keyTable[index1] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == EMPTY){
+                keyTable[i] = key;
                 return;
             }
-
-            index2 = hash2(evictedKey);
-            key2 = keyTable[index2];
-            if(key2 == EMPTY){
-                keyTable[index2] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index3 = hash3(evictedKey);
-            key3 = keyTable[index3];
-            if(key3 == EMPTY){
-                keyTable[index3] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            if(++i == pushIterations) break;
-
-            insertKey = evictedKey;
-        }while(true);
-
-        addStash(evictedKey);
-    }
-
-    private void addStash(int key){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            addResize(key);
-            return;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        stashSize++;
-        size++;
     }
 
     /** Returns true if the key was removed. */
@@ -287,47 +157,30 @@ public class IntSet{
             return true;
         }
 
-        int index = key & mask;
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            size--;
-            return true;
-        }
-
-        index = hash2(key);
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            size--;
-            return true;
-        }
-
-        index = hash3(key);
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            size--;
-            return true;
-        }
-
-        return removeStash(key);
+        int i = locateKey(key);
+        if(i < 0) return false;
+        removeSlot(i);
+        return true;
     }
 
-    boolean removeStash(int key){
+    /**
+     * Removes the key in a slot. Following keys of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed keys.
+     */
+    void removeSlot(int i){
         int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(keyTable[i] == key){
-                removeStashIndex(i);
-                size--;
-                return true;
+        int mask = this.mask, next = i + 1 & mask;
+        int key;
+        while((key = keyTable[next]) != EMPTY){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return false;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex) keyTable[index] = keyTable[lastIndex];
+        keyTable[i] = EMPTY;
+        size--;
     }
 
     /** Returns true if the set is empty. */
@@ -341,57 +194,38 @@ public class IntSet{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /** Clears the set and reduces the size of the backing arrays to be the specified capacity if they are larger. */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         hasZeroValue = false;
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     public void clear(){
         if(size == 0) return;
-        int[] keyTable = this.keyTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            keyTable[i] = EMPTY;
+        Arrays.fill(keyTable, EMPTY);
         size = 0;
-        stashSize = 0;
         hasZeroValue = false;
     }
 
     public boolean contains(int key){
         if(key == 0) return hasZeroValue;
-        int index = key & mask;
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return containsKeyStash(key);
-            }
-        }
-        return true;
-    }
-
-    private boolean containsKeyStash(int key){
-        int[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(keyTable[i] == key) return true;
-        return false;
+        return locateKey(key) >= 0;
     }
 
     public int first(){
         if(hasZeroValue) return 0;
         int[] keyTable = this.keyTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
+        for(int i = 0, n = capacity; i < n; i++)
             if(keyTable[i] != EMPTY) return keyTable[i];
         throw new IllegalStateException("IntSet is empty.");
     }
@@ -404,48 +238,47 @@ public class IntSet{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         int[] oldKeyTable = keyTable;
 
-        keyTable = new int[newSize + stashCapacity];
+        keyTable = new int[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = hasZeroValue ? 1 : 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > (hasZeroValue ? 1 : 0)){
+            for(int i = 0; i < oldCapacity; i++){
                 int key = oldKeyTable[i];
                 if(key != EMPTY) addResize(key);
             }
         }
     }
 
-    private int hash2(int h){
-        h *= PRIME2;
-        return (h ^ h >>> hashShift) & mask;
-    }
-
-    private int hash3(int h){
-        h *= PRIME3;
-        return (h ^ h >>> hashShift) & mask;
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an key
+     * during iteration only moves keys that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        int[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == EMPTY) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
         int h = 0;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
-            if(keyTable[i] != EMPTY) h += keyTable[i];
+        for(int i = 0, n = capacity; i < n; i++)
+            if(keyTable[i] != EMPTY) h += Integer.hashCode(keyTable[i]);
         return h;
     }
 
@@ -454,7 +287,7 @@ public class IntSet{
         IntSet other = (IntSet)obj;
         if(other.size != size) return false;
         if(other.hasZeroValue != hasZeroValue) return false;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
+        for(int i = 0, n = capacity; i < n; i++)
             if(keyTable[i] != EMPTY && !other.contains(keyTable[i])) return false;
         return true;
     }
@@ -512,6 +345,8 @@ public class IntSet{
         final IntSet set;
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean valid = true;
 
         public IntSetIterator(IntSet set){
@@ -522,6 +357,8 @@ public class IntSet{
         public void reset(){
             currentIndex = INDEX_ILLEGAL;
             nextIndex = INDEX_ZERO;
+            start = set.iterationStart();
+            checked = -1;
             if(set.hasZeroValue)
                 hasNext = true;
             else
@@ -531,7 +368,8 @@ public class IntSet{
         void findNextIndex(){
             hasNext = false;
             int[] keyTable = set.keyTable;
-            for(int n = set.capacity + set.stashSize; ++nextIndex < n; ){
+            for(int n = set.capacity, mask = set.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != EMPTY){
                     hasNext = true;
                     break;
@@ -540,19 +378,21 @@ public class IntSet{
         }
 
         public void remove(){
-            if(currentIndex == INDEX_ZERO && set.hasZeroValue){
+            int i = currentIndex;
+            if(i == INDEX_ZERO && set.hasZeroValue){
                 set.hasZeroValue = false;
-            }else if(currentIndex < 0){
+                set.size--;
+            }else if(i < 0){
                 throw new IllegalStateException("next must be called before remove.");
-            }else if(currentIndex >= set.capacity){
-                set.removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
-                findNextIndex();
             }else{
-                set.keyTable[currentIndex] = EMPTY;
+                set.removeSlot(i);
+                if(set.keyTable[i] != EMPTY){
+                    //a key that was not visited yet was moved into the slot
+                    checked = (i - start & set.mask) - 1;
+                    findNextIndex();
+                }
             }
             currentIndex = INDEX_ILLEGAL;
-            set.size--;
         }
 
         public int next(){
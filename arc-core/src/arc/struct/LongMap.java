@@ -1,39 +1,33 @@
 package arc.struct;
 
 import arc.func.*;
-import arc.math.*;
 import arc.util.*;
 
 import java.util.*;
 
 /**
- * An unordered map that uses long keys. This implementation is a cuckoo hash map using 3 hashes, random walking, and a small
- * stash for problematic keys. Null values are allowed. No allocation is done except when growing the table size. <br>
+ * An unordered map that uses long keys. This implementation uses open addressing with linear probing and backward shift
+ * deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, so keys that only differ in
+ * their high bits do not collide. Null values are allowed. No allocation is done except when growing the table size. <br>
  * <br>
- * This map performs very fast get, containsKey, and remove (typically O(1), worst case O(log(n))). Put may be a bit slower,
- * depending on hash collisions. Load factors greater than 0.91 greatly increase the chances the map will have to rehash to the
- * next higher POT size.
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.
  * @author Nathan Sweet
  */
 @SuppressWarnings("unchecked")
 public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
     private static final int EMPTY = 0;
 
     public int size;
 
     long[] keyTable;
     V[] valueTable;
-    int capacity, stashSize;
+    int capacity;
     V zeroValue;
     boolean hasZeroValue;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     private Entries entries1, entries2;
     private Values values1, values2;
@@ -58,36 +52,41 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public LongMap(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 1 << 30)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 63 - Long.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = new long[capacity + stashCapacity];
-        valueTable = (V[])new Object[keyTable.length];
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = new long[tableSize];
+        valueTable = (V[])new Object[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new map identical to the specified map. */
     public LongMap(LongMap<? extends V> map){
-        this((int)Math.floor(map.capacity * map.loadFactor), map.loadFactor);
-        stashSize = map.stashSize;
-        System.arraycopy(map.keyTable, 0, keyTable, 0, map.keyTable.length);
-        System.arraycopy(map.valueTable, 0, valueTable, 0, map.valueTable.length);
+        this.loadFactor = map.loadFactor;
+        keyTable = map.keyTable.clone();
+        valueTable = (V[])map.valueTable.clone();
+        setTableSize(keyTable.length);
         size = map.size;
         zeroValue = map.zeroValue;
         hasZeroValue = map.hasZeroValue;
     }
 
+    /** Returns the index of the first slot to check for a key, taken from the top bits of the key multiplied by the golden ratio. */
+    int place(long key){
+        return (int)(key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of a key that is not zero, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(long key){
+        long[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            long other = keyTable[i];
+            if(other == EMPTY) return -(i + 1);
+            if(other == key) return i;
+        }
+    }
+
     public V put(long key, V value){
         if(key == 0){
             V oldValue = zeroValue;
@@ -99,65 +98,16 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
             return oldValue;
         }
 
-        long[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int index1 = (int)(key & mask);
-        long key1 = keyTable[index1];
-        if(key1 == key){
-            V oldValue = valueTable[index1];
-            valueTable[index1] = value;
-            return oldValue;
-        }
-
-        int index2 = hash2(key);
-        long key2 = keyTable[index2];
-        if(key2 == key){
-            V oldValue = valueTable[index2];
-            valueTable[index2] = value;
-            return oldValue;
-        }
-
-        int index3 = hash3(key);
-        long key3 = keyTable[index3];
-        if(key3 == key){
-            V oldValue = valueTable[index3];
-            valueTable[index3] = value;
+        int i = locateKey(key);
+        if(i >= 0){
+            V oldValue = valueTable[i];
+            valueTable[i] = value;
             return oldValue;
         }
-
-        // Update key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(keyTable[i] == key){
-                V oldValue = valueTable[i];
-                valueTable[i] = value;
-                return oldValue;
-            }
-        }
-
-        // Check for empty buckets.
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
         return null;
     }
 
@@ -168,125 +118,14 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
 
     /** Skips checks for existing keys. */
     private void putResize(long key, V value){
-        if(key == 0){
-            zeroValue = value;
-            hasZeroValue = true;
-            return;
-        }
-
-        // Check for empty buckets.
-        int index1 = (int)(key & mask);
-        long key1 = keyTable[index1];
-        if(key1 == EMPTY){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(key);
-        long key2 = keyTable[index2];
-        if(key2 == EMPTY){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(key);
-        long key3 = keyTable[index3];
-        if(key3 == EMPTY){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(long insertKey, V insertValue, int index1, long key1, int index2, long key2, int index3, long key3){
         long[] keyTable = this.keyTable;
-        V[] valueTable = this.valueTable;
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        long evictedKey;
-        V evictedValue;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    evictedValue = valueTable[index1];
-                    keyTable[index1] = insertKey;
-                    valueTable[index1] = insertValue;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    evictedValue = valueTable[index2];
-                    keyTable[index2] = insertKey;
-                    valueTable[index2] = insertValue;
-                    break;
-                default:
-                    evictedKey = key3;
-                    evictedValue = valueTable[index3];
-                    keyTable[index3] = insertKey;
-                    valueTable[index3] = insertValue;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            index1 = (int)(evictedKey & mask);
-            key1 = keyTable[index1];
-            if(key1 == EMPTY){
-                keyTable[index1] = evictedKey;
-                valueTable[index1] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index2 = hash2(evictedKey);
-            key2 = keyTable[index2];
-            if(key2 == EMPTY){
-                keyTable[index2] = evictedKey;
-                valueTable[index2] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index3 = hash3(evictedKey);
-            key3 = keyTable[index3];
-            if(key3 == EMPTY){
-                keyTable[index3] = evictedKey;
-                valueTable[index3] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == EMPTY){
+                keyTable[i] = key;
+                valueTable[i] = value;
                 return;
             }
-
-            if(++i == pushIterations) break;
-
-            insertKey = evictedKey;
-            insertValue = evictedValue;
-        }while(true);
-
-        putStash(evictedKey, evictedValue);
-    }
-
-    private void putStash(long key, V value){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            putResize(key, value);
-            return;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        valueTable[index] = value;
-        stashSize++;
-        size++;
     }
 
     public V get(long key){
@@ -294,15 +133,8 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
             if(!hasZeroValue) return null;
             return zeroValue;
         }
-        int index = (int)(key & mask);
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return getStash(key, null);
-            }
-        }
-        return valueTable[index];
+        int i = locateKey(key);
+        return i < 0 ? null : valueTable[i];
     }
 
     public V get(long key, V defaultValue){
@@ -310,22 +142,8 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
             if(!hasZeroValue) return defaultValue;
             return zeroValue;
         }
-        int index = (int)(key & mask);
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return getStash(key, defaultValue);
-            }
-        }
-        return valueTable[index];
-    }
-
-    private V getStash(long key, V defaultValue){
-        long[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(keyTable[i] == key) return valueTable[i];
-        return defaultValue;
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
     }
 
     public V remove(long key){
@@ -338,59 +156,34 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
             return oldValue;
         }
 
-        int index = (int)(key & mask);
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        index = hash2(key);
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        index = hash3(key);
-        if(keyTable[index] == key){
-            keyTable[index] = EMPTY;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        return removeStash(key);
+        int i = locateKey(key);
+        if(i < 0) return null;
+        V oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
     }
 
-    V removeStash(long key){
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
         long[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(keyTable[i] == key){
-                V oldValue = valueTable[i];
-                removeStashIndex(i);
-                size--;
-                return oldValue;
+        V[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        long key;
+        while((key = keyTable[next]) != EMPTY){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return null;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex){
-            keyTable[index] = keyTable[lastIndex];
-            valueTable[index] = valueTable[lastIndex];
-            valueTable[lastIndex] = null;
-        }else
-            valueTable[index] = null;
+        keyTable[i] = EMPTY;
+        valueTable[i] = null;
+        size--;
     }
 
     /** Returns true if the map is empty. */
@@ -404,34 +197,28 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /** Clears the map and reduces the size of the backing arrays to be the specified capacity if they are larger. */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         zeroValue = null;
         hasZeroValue = false;
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     public void clear(){
         if(size == 0) return;
-        long[] keyTable = this.keyTable;
-        V[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; ){
-            keyTable[i] = EMPTY;
-            valueTable[i] = null;
-        }
+        Arrays.fill(keyTable, EMPTY);
+        Arrays.fill(valueTable, null);
         size = 0;
-        stashSize = 0;
         zeroValue = null;
         hasZeroValue = false;
     }
@@ -445,15 +232,15 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         if(value == null){
             if(hasZeroValue && zeroValue == null) return true;
             long[] keyTable = this.keyTable;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(keyTable[i] != EMPTY && valueTable[i] == null) return true;
         }else if(identity){
             if(value == zeroValue) return true;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(valueTable[i] == value) return true;
         }else{
             if(hasZeroValue && value.equals(zeroValue)) return true;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(value.equals(valueTable[i])) return true;
         }
         return false;
@@ -461,22 +248,7 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
 
     public boolean containsKey(long key){
         if(key == 0) return hasZeroValue;
-        int index = (int)(key & mask);
-        if(keyTable[index] != key){
-            index = hash2(key);
-            if(keyTable[index] != key){
-                index = hash3(key);
-                if(keyTable[index] != key) return containsKeyStash(key);
-            }
-        }
-        return true;
-    }
-
-    private boolean containsKeyStash(long key){
-        long[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(keyTable[i] == key) return true;
-        return false;
+        return locateKey(key) >= 0;
     }
 
     /**
@@ -490,15 +262,15 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         if(value == null){
             if(hasZeroValue && zeroValue == null) return 0;
             long[] keyTable = this.keyTable;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(keyTable[i] != EMPTY && valueTable[i] == null) return keyTable[i];
         }else if(identity){
             if(value == zeroValue) return 0;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(valueTable[i] == value) return keyTable[i];
         }else{
             if(hasZeroValue && value.equals(zeroValue)) return 0;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(value.equals(valueTable[i])) return keyTable[i];
         }
         return notFound;
@@ -512,44 +284,43 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 63 - Long.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         long[] oldKeyTable = keyTable;
         V[] oldValueTable = valueTable;
 
-        keyTable = new long[newSize + stashCapacity];
-        valueTable = (V[])new Object[newSize + stashCapacity];
+        keyTable = new long[newSize];
+        valueTable = (V[])new Object[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = hasZeroValue ? 1 : 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > (hasZeroValue ? 1 : 0)){
+            for(int i = 0; i < oldCapacity; i++){
                 long key = oldKeyTable[i];
                 if(key != EMPTY) putResize(key, oldValueTable[i]);
             }
         }
     }
 
-    private int hash2(long h){
-        h *= PRIME2;
-        return (int)((h ^ h >>> hashShift) & mask);
-    }
-
-    private int hash3(long h){
-        h *= PRIME3;
-        return (int)((h ^ h >>> hashShift) & mask);
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        long[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == EMPTY) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
@@ -559,7 +330,7 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         }
         long[] keyTable = this.keyTable;
         V[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             long key = keyTable[i];
             if(key != EMPTY){
                 h += (int)(key ^ (key >>> 32)) * 31;
@@ -588,7 +359,7 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         }
         long[] keyTable = this.keyTable;
         V[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             long key = keyTable[i];
             if(key != EMPTY){
                 V value = valueTable[i];
@@ -686,7 +457,7 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         if(hasZeroValue){
             hasNext = true;
         }else{
-            for(int n = capacity + stashSize; ++nextIndex < n; ){
+            for(int n = capacity; ++nextIndex < n; ){
                 if(keyTable[nextIndex] != EMPTY){
                     hasNext = true;
                     break;
@@ -698,7 +469,7 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
             cons.get(nextIndex == INDEX_ZERO ? zeroValue : valueTable[nextIndex]);
 
             hasNext = false;
-            for(int n = capacity + stashSize; ++nextIndex < n;){
+            for(int n = capacity; ++nextIndex < n;){
                 if(keyTable[nextIndex] != EMPTY){
                     hasNext = true;
                     break;
@@ -743,6 +514,8 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         final LongMap<V> map;
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean valid = true;
 
         public MapIterator(LongMap<V> map){
@@ -753,6 +526,8 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         public void reset(){
             currentIndex = INDEX_ILLEGAL;
             nextIndex = INDEX_ZERO;
+            start = map.iterationStart();
+            checked = -1;
             if(map.hasZeroValue)
                 hasNext = true;
             else
@@ -762,7 +537,8 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         void findNextIndex(){
             hasNext = false;
             long[] keyTable = map.keyTable;
-            for(int n = map.capacity + map.stashSize; ++nextIndex < n; ){
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != EMPTY){
                     hasNext = true;
                     break;
@@ -771,21 +547,22 @@ public class LongMap<V> implements Iterable<LongMap.Entry<V>>{
         }
 
         public void remove(){
-            if(currentIndex == INDEX_ZERO && map.hasZeroValue){
+            int i = currentIndex;
+            if(i == INDEX_ZERO && map.hasZeroValue){
                 map.zeroValue = null;
                 map.hasZeroValue = false;
-            }else if(currentIndex < 0){
+                map.size--;
+            }else if(i < 0){
                 throw new IllegalStateException("next must be called before remove.");
-            }else if(currentIndex >= map.capacity){
-                map.removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
-                findNextIndex();
             }else{
-                map.keyTable[currentIndex] = EMPTY;
-                map.valueTable[currentIndex] = null;
+                map.removeSlot(i);
+                if(map.keyTable[i] != EMPTY){
+                    //an entry that was not visited yet was moved into the slot
+                    checked = (i - start & map.mask) - 1;
+                    findNextIndex();
+                }
             }
             currentIndex = INDEX_ILLEGAL;
-            map.size--;
         }
     }
 
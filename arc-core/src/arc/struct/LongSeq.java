@@ -1,5 +1,8 @@
 package arc.struct;
 
+import arc.func.LongBoolf;
+import arc.func.LongLongf;
+import arc.func.Longc;
 import arc.math.Mathf;
 
 import java.util.Arrays;
@@ -321,6 +324,78 @@ public class LongSeq{
         Arrays.sort(items, 0, size);
     }
 
+    /**
+     * Sorts the array on {@link Parallel#pool}: chunks are sorted in parallel, then merged in index order. The result is the same
+     * as {@link #sort()}. Small arrays are sorted on this thread.
+     */
+    public void parallelSort(){
+        if(Parallel.chunks(size) == 1){
+            sort();
+            return;
+        }
+        Parallel.sort(items, size);
+    }
+
+    /**
+     * Calls the consumer for every item on {@link Parallel#pool}. The order of the calls is undefined, so the consumer must be
+     * thread safe. The array must not be modified until this returns.
+     */
+    public void parallelEach(Longc consumer){
+        long[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        Parallel.run(chunks, chunk -> {
+            for(int i = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1); i < end; i++){
+                consumer.get(items[i]);
+            }
+        });
+    }
+
+    /**
+     * Allocates a new array with all items that match the predicate, tested on {@link Parallel#pool}. Items stay in the same
+     * order. The predicate must be thread safe.
+     */
+    public LongSeq parallelSelect(LongBoolf predicate){
+        long[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        long[][] parts = new long[chunks][];
+        int[] counts = new int[chunks];
+        Parallel.run(chunks, chunk -> {
+            int start = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1), count = 0;
+            long[] part = new long[end - start];
+            for(int i = start; i < end; i++){
+                if(predicate.get(items[i])){
+                    part[count++] = items[i];
+                }
+            }
+            parts[chunk] = part;
+            counts[chunk] = count;
+        });
+
+        int total = 0;
+        for(int count : counts) total += count;
+        LongSeq arr = new LongSeq(Math.max(total, 1));
+        for(int i = 0; i < chunks; i++){
+            System.arraycopy(parts[i], 0, arr.items, arr.size, counts[i]);
+            arr.size += counts[i];
+        }
+        return arr;
+    }
+
+    /** Returns a new array with the mapped values, computed on {@link Parallel#pool}. The mapper must be thread safe. */
+    public LongSeq parallelMap(LongLongf mapper){
+        long[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        LongSeq arr = new LongSeq(Math.max(size, 1));
+        long[] out = arr.items;
+        Parallel.run(chunks, chunk -> {
+            for(int i = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1); i < end; i++){
+                out[i] = mapper.get(items[i]);
+            }
+        });
+        arr.size = size;
+        return arr;
+    }
+
     public void reverse(){
         long[] items = this.items;
         for(int i = 0, lastIndex = size - 1, n = size / 2; i < n; i++){
@@ -0,0 +1,415 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from PrimitiveSet.java.template.
+package arc.struct;
+
+import arc.func.Longc;
+import arc.util.ArcRuntimeException;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An unordered set that uses long keys. This implementation uses open addressing with linear probing and backward shift deletion,
+ * so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, so keys that only differ in their high
+ * bits do not collide. No allocation is done except when growing the table size. <br>
+ * <br>
+ * This set performs very fast contains, add and remove (typically O(1), degrading with the load factor as probe sequences get
+ * longer). The load factor must be less than 1.
+ * @author Nathan Sweet
+ */
+public class LongSet{
+    private static final long EMPTY = 0;
+
+    public int size;
+
+    long[] keyTable;
+    int capacity;
+    boolean hasZeroValue;
+
+    private float loadFactor;
+    private int shift, mask, threshold;
+
+    private LongSetIterator iterator1, iterator2;
+
+    /** Creates a new set with an initial capacity of 51 and a load factor of 0.8. */
+    public LongSet(){
+        this(51, 0.8f);
+    }
+
+    /**
+     * Creates a new set with a load factor of 0.8.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public LongSet(int initialCapacity){
+        this(initialCapacity, 0.8f);
+    }
+
+    /**
+     * Creates a new set with the specified initial capacity and load factor. This set will hold initialCapacity items before
+     * growing the backing table.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public LongSet(int initialCapacity, float loadFactor){
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
+        this.loadFactor = loadFactor;
+
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = new long[tableSize];
+        setTableSize(tableSize);
+    }
+
+    /** Creates a new set identical to the specified set. */
+    public LongSet(LongSet set){
+        this.loadFactor = set.loadFactor;
+        keyTable = set.keyTable.clone();
+        setTableSize(keyTable.length);
+        size = set.size;
+        hasZeroValue = set.hasZeroValue;
+    }
+
+    public static LongSet with(long... array){
+        LongSet set = new LongSet();
+        set.addAll(array);
+        return set;
+    }
+
+    public void each(Longc cons){
+        LongSetIterator iter = iterator();
+        while(iter.hasNext){
+            cons.get(iter.next());
+        }
+    }
+
+    /** Returns the index of the first slot to check for a key, taken from the top bits of the key multiplied by the golden ratio. */
+    int place(long key){
+        return (int)(key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of a key that is not zero, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(long key){
+        long[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            long other = keyTable[i];
+            if(other == EMPTY) return -(i + 1);
+            if(other == key) return i;
+        }
+    }
+
+    /** Returns true if the key was not already in the set. */
+    public boolean add(long key){
+        if(key == 0){
+            if(hasZeroValue) return false;
+            hasZeroValue = true;
+            size++;
+            return true;
+        }
+
+        int i = locateKey(key);
+        if(i >= 0) return false;
+        keyTable[-(i + 1)] = key;
+        if(size++ >= threshold) resize(capacity << 1);
+        return true;
+    }
+
+    public void addAll(LongSeq array){
+        addAll(array.items, 0, array.size);
+    }
+
+    public void addAll(LongSeq array, int offset, int length){
+        if(offset + length > array.size)
+            throw new IllegalArgumentException("offset + length must be <= size: " + offset + " + " + length + " <= " + array.size);
+        addAll(array.items, offset, length);
+    }
+
+    public void addAll(long... array){
+        addAll(array, 0, array.length);
+    }
+
+    public void addAll(long[] array, int offset, int length){
+        ensureCapacity(length);
+        for(int i = offset, n = i + length; i < n; i++)
+            add(array[i]);
+    }
+
+    public void addAll(LongSet set){
+        ensureCapacity(set.size);
+        LongSetIterator iterator = set.iterator();
+        while(iterator.hasNext)
+            add(iterator.next());
+    }
+
+    /** Skips checks for existing keys. */
+    private void addResize(long key){
+        long[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == EMPTY){
+                keyTable[i] = key;
+                return;
+            }
+        }
+    }
+
+    /** Returns true if the key was removed. */
+    public boolean remove(long key){
+        if(key == 0){
+            if(!hasZeroValue) return false;
+            hasZeroValue = false;
+            size--;
+            return true;
+        }
+
+        int i = locateKey(key);
+        if(i < 0) return false;
+        removeSlot(i);
+        return true;
+    }
+
+    /**
+     * Removes the key in a slot. Following keys of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed keys.
+     */
+    void removeSlot(int i){
+        long[] keyTable = this.keyTable;
+        int mask = this.mask, next = i + 1 & mask;
+        long key;
+        while((key = keyTable[next]) != EMPTY){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                i = next;
+            }
+            next = next + 1 & mask;
+        }
+        keyTable[i] = EMPTY;
+        size--;
+    }
+
+    /** Returns true if the set is empty. */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Reduces the size of the backing arrays to be the specified capacity or less. If the capacity is already less, nothing is
+     * done. If the set contains more items than the specified capacity, the next highest power of two capacity is used instead.
+     */
+    public void shrink(int maximumCapacity){
+        if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
+    }
+
+    /** Clears the set and reduces the size of the backing arrays to be the specified capacity if they are larger. */
+    public void clear(int maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
+            clear();
+            return;
+        }
+        hasZeroValue = false;
+        size = 0;
+        resize(tableSize);
+    }
+
+    public void clear(){
+        if(size == 0) return;
+        Arrays.fill(keyTable, EMPTY);
+        size = 0;
+        hasZeroValue = false;
+    }
+
+    public boolean contains(long key){
+        if(key == 0) return hasZeroValue;
+        return locateKey(key) >= 0;
+    }
+
+    public long first(){
+        if(hasZeroValue) return 0;
+        long[] keyTable = this.keyTable;
+        for(int i = 0, n = capacity; i < n; i++)
+            if(keyTable[i] != EMPTY) return keyTable[i];
+        throw new IllegalStateException("LongSet is empty.");
+    }
+
+    /**
+     * Increases the size of the backing array to accommodate the specified number of additional items. Useful before adding many
+     * items to avoid multiple backing array resizes.
+     */
+    public void ensureCapacity(int additionalCapacity){
+        if(additionalCapacity < 0)
+            throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
+        int sizeNeeded = size + additionalCapacity;
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
+    }
+
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    private void resize(int newSize){
+        int oldCapacity = capacity;
+        long[] oldKeyTable = keyTable;
+
+        keyTable = new long[newSize];
+        setTableSize(newSize);
+
+        if(size > (hasZeroValue ? 1 : 0)){
+            for(int i = 0; i < oldCapacity; i++){
+                long key = oldKeyTable[i];
+                if(key != EMPTY) addResize(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an key
+     * during iteration only moves keys that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        long[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == EMPTY) return i + 1 & mask;
+        }
+        return 0;
+    }
+
+    public int hashCode(){
+        int h = 0;
+        for(int i = 0, n = capacity; i < n; i++)
+            if(keyTable[i] != EMPTY) h += Long.hashCode(keyTable[i]);
+        return h;
+    }
+
+    public boolean equals(Object obj){
+        if(!(obj instanceof LongSet)) return false;
+        LongSet other = (LongSet)obj;
+        if(other.size != size) return false;
+        if(other.hasZeroValue != hasZeroValue) return false;
+        for(int i = 0, n = capacity; i < n; i++)
+            if(keyTable[i] != EMPTY && !other.contains(keyTable[i])) return false;
+        return true;
+    }
+
+    public String toString(){
+        if(size == 0) return "[]";
+        StringBuilder buffer = new StringBuilder(32);
+        buffer.append('[');
+        long[] keyTable = this.keyTable;
+        int i = keyTable.length;
+        if(hasZeroValue)
+            buffer.append("0");
+        else{
+            while(i-- > 0){
+                long key = keyTable[i];
+                if(key == EMPTY) continue;
+                buffer.append(key);
+                break;
+            }
+        }
+        while(i-- > 0){
+            long key = keyTable[i];
+            if(key == EMPTY) continue;
+            buffer.append(", ");
+            buffer.append(key);
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+
+    /**
+     * Returns an iterator for the keys in the set. Remove is supported. Note that the same iterator instance is returned each time
+     * this method is called. Use the {@link LongSetIterator} constructor for nested or multithreaded iteration.
+     */
+    public LongSetIterator iterator(){
+        if(iterator1 == null){
+            iterator1 = new LongSetIterator(this);
+            iterator2 = new LongSetIterator(this);
+        }
+        if(!iterator1.valid){
+            iterator1.reset();
+            iterator1.valid = true;
+            iterator2.valid = false;
+            return iterator1;
+        }
+        iterator2.reset();
+        iterator2.valid = true;
+        iterator1.valid = false;
+        return iterator2;
+    }
+
+    public static class LongSetIterator{
+        static final int INDEX_ILLEGAL = -2;
+        static final int INDEX_ZERO = -1;
+        final LongSet set;
+        public boolean hasNext;
+        int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
+        boolean valid = true;
+
+        public LongSetIterator(LongSet set){
+            this.set = set;
+            reset();
+        }
+
+        public void reset(){
+            currentIndex = INDEX_ILLEGAL;
+            nextIndex = INDEX_ZERO;
+            start = set.iterationStart();
+            checked = -1;
+            if(set.hasZeroValue)
+                hasNext = true;
+            else
+                findNextIndex();
+        }
+
+        void findNextIndex(){
+            hasNext = false;
+            long[] keyTable = set.keyTable;
+            for(int n = set.capacity, mask = set.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
+                if(keyTable[nextIndex] != EMPTY){
+                    hasNext = true;
+                    break;
+                }
+            }
+        }
+
+        public void remove(){
+            int i = currentIndex;
+            if(i == INDEX_ZERO && set.hasZeroValue){
+                set.hasZeroValue = false;
+                set.size--;
+            }else if(i < 0){
+                throw new IllegalStateException("next must be called before remove.");
+            }else{
+                set.removeSlot(i);
+                if(set.keyTable[i] != EMPTY){
+                    //a key that was not visited yet was moved into the slot
+                    checked = (i - start & set.mask) - 1;
+                    findNextIndex();
+                }
+            }
+            currentIndex = INDEX_ILLEGAL;
+        }
+
+        public long next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            long key = nextIndex == INDEX_ZERO ? 0 : set.keyTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return key;
+        }
+
+        /** Returns a new array containing the remaining keys. */
+        public LongSeq toArray(){
+            LongSeq array = new LongSeq(true, set.size);
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+}
@@ -1,36 +1,32 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from ObjectPrimitiveMap.java.template.
 package arc.struct;
 
-import arc.func.*;
-import arc.math.*;
-import arc.util.*;
+import arc.func.Cons;
+import arc.util.ArcRuntimeException;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
- * An unordered map where the values are floats. This implementation is a cuckoo hash map using 3 hashes, random walking, and a
- * small stash for problematic keys. Null keys are not allowed. No allocation is done except when growing the table size. <br>
+ * An unordered map where the values are floats. This implementation uses open addressing with linear probing and backward shift
+ * deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, which spreads out hash codes
+ * that only differ in their high bits. Null keys are not allowed. No allocation is done except when growing the table size. <br>
  * <br>
- * This map performs very fast get, containsKey, and remove (typically O(1), worst case O(log(n))). Put may be a bit slower,
- * depending on hash collisions. Load factors greater than 0.91 greatly increase the chances the map will have to rehash to the
- * next higher POT size.
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.
  * @author Nathan Sweet
  */
 @SuppressWarnings("unchecked")
 public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
-
     public int size;
 
     K[] keyTable;
     float[] valueTable;
-    int capacity, stashSize;
+    int capacity;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     private Entries entries1, entries2;
     private Values values1, values2;
@@ -55,98 +51,60 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public ObjectFloatMap(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 1 << 30)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = (K[])new Object[capacity + stashCapacity];
-        valueTable = new float[keyTable.length];
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = (K[])new Object[tableSize];
+        valueTable = new float[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new map identical to the specified map. */
     public ObjectFloatMap(ObjectFloatMap<? extends K> map){
-        this((int)Math.floor(map.capacity * map.loadFactor), map.loadFactor);
-        stashSize = map.stashSize;
-        System.arraycopy(map.keyTable, 0, keyTable, 0, map.keyTable.length);
-        System.arraycopy(map.valueTable, 0, valueTable, 0, map.valueTable.length);
+        this.loadFactor = map.loadFactor;
+        keyTable = (K[])map.keyTable.clone();
+        valueTable = map.valueTable.clone();
+        setTableSize(keyTable.length);
         size = map.size;
     }
 
+    /** Calls the consumer for every entry. Note the same entry instance is passed each time. */
     public void each(Cons<Entry<K>> cons){
         for(Entry<K> e : this){
             cons.get(e);
         }
     }
 
-    public void put(K key, float value){
-        if(key == null) throw new IllegalArgumentException("key cannot be null.");
-        K[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        K key1 = keyTable[index1];
-        if(key.equals(key1)){
-            valueTable[index1] = value;
-            return;
-        }
-
-        int index2 = hash2(hashCode);
-        K key2 = keyTable[index2];
-        if(key.equals(key2)){
-            valueTable[index2] = value;
-            return;
-        }
-
-        int index3 = hash3(hashCode);
-        K key3 = keyTable[index3];
-        if(key.equals(key3)){
-            valueTable[index3] = value;
-            return;
-        }
-
-        // Update key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key.equals(keyTable[i])){
-                valueTable[i] = value;
-                return;
-            }
-        }
-
-        // Check for empty buckets.
-        if(key1 == null){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
+    /**
+     * Returns the index of the first slot to check for a key. The hash code is multiplied by the golden ratio, and the top bits
+     * of the product are used as the index.
+     */
+    int place(K key){
+        return (int)(key.hashCode() * 0x9E3779B97F4A7C15L >>> shift);
+    }
 
-        if(key2 == null){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
+    /** Returns the index of the key, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(K key){
+        K[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            K other = keyTable[i];
+            if(other == null) return -(i + 1);
+            if(key.equals(other)) return i;
         }
+    }
 
-        if(key3 == null){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
+    public void put(K key, float value){
+        if(key == null) throw new IllegalArgumentException("key cannot be null.");
+        int i = locateKey(key);
+        if(i >= 0){
+            valueTable[i] = value;
             return;
         }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
     }
 
     public void putAll(ObjectFloatMap<? extends K> map){
@@ -165,143 +123,58 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
 
     /** Skips checks for existing keys. */
     private void putResize(K key, float value){
-        // Check for empty buckets.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        K key1 = keyTable[index1];
-        if(key1 == null){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(hashCode);
-        K key2 = keyTable[index2];
-        if(key2 == null){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(hashCode);
-        K key3 = keyTable[index3];
-        if(key3 == null){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(K insertKey, float insertValue, int index1, K key1, int index2, K key2, int index3, K key3){
         K[] keyTable = this.keyTable;
-        float[] valueTable = this.valueTable;
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        K evictedKey;
-        float evictedValue;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    evictedValue = valueTable[index1];
-                    keyTable[index1] = insertKey;
-                    valueTable[index1] = insertValue;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    evictedValue = valueTable[index2];
-                    keyTable[index2] = insertKey;
-                    valueTable[index2] = insertValue;
-                    break;
-                default:
-                    evictedKey = key3;
-                    evictedValue = valueTable[index3];
-                    keyTable[index3] = insertKey;
-                    valueTable[index3] = insertValue;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            int hashCode = evictedKey.hashCode();
-            index1 = hashCode & mask;
-            key1 = keyTable[index1];
-            if(key1 == null){
-                keyTable[index1] = evictedKey;
-                valueTable[index1] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index2 = hash2(hashCode);
-            key2 = keyTable[index2];
-            if(key2 == null){
-                keyTable[index2] = evictedKey;
-                valueTable[index2] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index3 = hash3(hashCode);
-            key3 = keyTable[index3];
-            if(key3 == null){
-                keyTable[index3] = evictedKey;
-                valueTable[index3] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == null){
+                keyTable[i] = key;
+                valueTable[i] = value;
                 return;
             }
+        }
+    }
 
-            if(++i == pushIterations) break;
+    public float get(K key){
+        return get(key, 0);
+    }
 
-            insertKey = evictedKey;
-            insertValue = evictedValue;
-        }while(true);
+    /** @param defaultValue Returned if the key is null or was not associated with a value. */
+    public float get(K key, float defaultValue){
+        if(key == null) return defaultValue;
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
+    }
 
-        putStash(evictedKey, evictedValue);
+    /** Only inserts into the map if value is not present.
+     * @param key The key.
+     * @param value The value.
+     * @return The associated value if key is present in the map, else {@code value}.
+     * */
+    public float getOrPut(K key, float value){
+        if(key == null) throw new IllegalArgumentException("key cannot be null.");
+        int i = locateKey(key);
+        if(i >= 0) return valueTable[i];
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+        return value;
     }
 
-    private void putStash(K key, float value){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            putResize(key, value);
-            return;
+    /** @return the sum of all entry values. */
+    public float sum(){
+        float sum = 0;
+        for(Entry<K> entry : entries()){
+            sum += entry.value;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        valueTable[index] = value;
-        stashSize++;
-        size++;
+        return sum;
     }
 
-    /** @param defaultValue Returned if the key was not associated with a value. */
-    public float get(K key, float defaultValue){
-        if(key == null) return defaultValue;
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return getStash(key, defaultValue);
-            }
-        }
-        return valueTable[index];
+    public float increment(K key){
+        return increment(key, 0, 1);
     }
 
-    private float getStash(K key, float defaultValue){
-        K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return valueTable[i];
-        return defaultValue;
+    public float increment(K key, float amount){
+        return increment(key, 0, amount);
     }
 
     /**
@@ -309,83 +182,53 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
      * put into the map.
      */
     public float increment(K key, float defaultValue, float increment){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return getAndIncrementStash(key, defaultValue, increment);
-            }
+        int i = locateKey(key);
+        if(i >= 0){
+            float value = valueTable[i];
+            valueTable[i] = value + increment;
+            return value;
         }
-        float value = valueTable[index];
-        valueTable[index] = value + increment;
-        return value;
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = defaultValue + increment;
+        if(size++ >= threshold) resize(capacity << 1);
+        return defaultValue;
     }
 
-    private float getAndIncrementStash(K key, float defaultValue, float increment){
-        K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])){
-                float value = valueTable[i];
-                valueTable[i] = value + increment;
-                return value;
-            }
-        put(key, defaultValue + increment);
-        return defaultValue;
+    /** @return 0 as default value. */
+    public float remove(K key){
+        return remove(key, 0);
     }
 
+    /** @return the value that was removed, or defaultValue. */
     public float remove(K key, float defaultValue){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        index = hash2(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        index = hash3(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            float oldValue = valueTable[index];
-            size--;
-            return oldValue;
-        }
-
-        return removeStash(key, defaultValue);
+        int i = locateKey(key);
+        if(i < 0) return defaultValue;
+        float oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
     }
 
-    float removeStash(K key, float defaultValue){
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
         K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key.equals(keyTable[i])){
-                float oldValue = valueTable[i];
-                removeStashIndex(i);
-                size--;
-                return oldValue;
+        float[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        K key;
+        while((key = keyTable[next]) != null){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return defaultValue;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex){
-            keyTable[index] = keyTable[lastIndex];
-            valueTable[index] = valueTable[lastIndex];
-            keyTable[lastIndex] = null;
-        }
+        keyTable[i] = null;
+        size--;
     }
 
     /** Returns true if the map is empty. */
@@ -399,29 +242,25 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /** Clears the map and reduces the size of the backing arrays to be the specified capacity if they are larger. */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     public void clear(){
         if(size == 0) return;
-        K[] keyTable = this.keyTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            keyTable[i] = null;
+        Arrays.fill(keyTable, null);
         size = 0;
-        stashSize = 0;
     }
 
     /**
@@ -431,31 +270,27 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
     public boolean containsValue(float value){
         K[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; )
+        for(int i = capacity; i-- > 0; )
             if(keyTable[i] != null && valueTable[i] == value) return true;
         return false;
     }
 
-    public boolean containsKey(K key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return containsKeyStash(key);
-            }
-        }
-        return true;
-    }
-
-    private boolean containsKeyStash(K key){
+    /**
+     * Returns true if a value within epsilon of the specified value is in the map. Note this traverses the entire map and compares
+     * every value, which may be an expensive operation.
+     */
+    public boolean containsValue(float value, float epsilon){
         K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return true;
+        float[] valueTable = this.valueTable;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != null && Math.abs(valueTable[i] - value) <= epsilon) return true;
         return false;
     }
 
+    public boolean containsKey(K key){
+        return locateKey(key) >= 0;
+    }
+
     /**
      * Returns the key for the specified value, or null if it is not in the map. Note this traverses the entire map and compares
      * every value, which may be an expensive operation.
@@ -463,7 +298,7 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
     public K findKey(float value){
         K[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; )
+        for(int i = capacity; i-- > 0; )
             if(keyTable[i] != null && valueTable[i] == value) return keyTable[i];
         return null;
     }
@@ -476,57 +311,54 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         K[] oldKeyTable = keyTable;
         float[] oldValueTable = valueTable;
 
-        keyTable = (K[])new Object[newSize + stashCapacity];
-        valueTable = new float[newSize + stashCapacity];
+        keyTable = (K[])new Object[newSize];
+        valueTable = new float[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > 0){
+            for(int i = 0; i < oldCapacity; i++){
                 K key = oldKeyTable[i];
                 if(key != null) putResize(key, oldValueTable[i]);
             }
         }
     }
 
-    private int hash2(int h){
-        h *= PRIME2;
-        return (h ^ h >>> hashShift) & mask;
-    }
-
-    private int hash3(int h){
-        h *= PRIME3;
-        return (h ^ h >>> hashShift) & mask;
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        K[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == null) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
         int h = 0;
         K[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             K key = keyTable[i];
             if(key != null){
                 h += key.hashCode() * 31;
-
-                float value = valueTable[i];
-                h += Float.floatToIntBits(value);
+                h += Float.hashCode(valueTable[i]);
             }
         }
         return h;
@@ -539,13 +371,11 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
         if(other.size != size) return false;
         K[] keyTable = this.keyTable;
         float[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             K key = keyTable[i];
             if(key != null){
-                float otherValue = other.get(key, 0f);
-                if(otherValue == 0f && !other.containsKey(key)) return false;
-                float value = valueTable[i];
-                if(otherValue != value) return false;
+                int index = other.locateKey(key);
+                if(index < 0 || other.valueTable[index] != valueTable[i]) return false;
             }
         }
         return true;
@@ -658,6 +488,8 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
         final ObjectFloatMap<K> map;
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean valid = true;
 
         public MapIterator(ObjectFloatMap<K> map){
@@ -668,13 +500,16 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
         public void reset(){
             currentIndex = -1;
             nextIndex = -1;
+            start = map.iterationStart();
+            checked = -1;
             findNextIndex();
         }
 
         void findNextIndex(){
             hasNext = false;
             K[] keyTable = map.keyTable;
-            for(int n = map.capacity + map.stashSize; ++nextIndex < n; ){
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != null){
                     hasNext = true;
                     break;
@@ -683,16 +518,15 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
         }
 
         public void remove(){
-            if(currentIndex < 0) throw new IllegalStateException("next must be called before remove.");
-            if(currentIndex >= map.capacity){
-                map.removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
+            int i = currentIndex;
+            if(i < 0) throw new IllegalStateException("next must be called before remove.");
+            map.removeSlot(i);
+            if(map.keyTable[i] != null){
+                //an entry that was not visited yet was moved into the slot
+                checked = (i - start & map.mask) - 1;
                 findNextIndex();
-            }else{
-                map.keyTable[currentIndex] = null;
             }
             currentIndex = -1;
-            map.size--;
         }
     }
 
@@ -703,6 +537,17 @@ public class ObjectFloatMap<K> implements Iterable<ObjectFloatMap.Entry<K>>{
             super(map);
         }
 
+        public Seq<Entry<K>> toArray(){
+            Seq<Entry<K>> out = new Seq<>();
+            for(Entry<K> entry : this){
+                Entry<K> e = new Entry<>();
+                e.key = entry.key;
+                e.value = entry.value;
+                out.add(e);
+            }
+            return out;
+        }
+
         /** Note the same entry instance is returned each time this method is called. */
         public Entry<K> next(){
             if(!hasNext) throw new NoSuchElementException();
@@ -0,0 +1,635 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from ObjectPrimitiveMap.java.template.
+package arc.struct;
+
+import arc.func.Cons;
+import arc.util.ArcRuntimeException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An unordered map where the values are longs. This implementation uses open addressing with linear probing and backward shift
+ * deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, which spreads out hash codes
+ * that only differ in their high bits. Null keys are not allowed. No allocation is done except when growing the table size. <br>
+ * <br>
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.
+ * @author Nathan Sweet
+ */
+@SuppressWarnings("unchecked")
+public class ObjectLongMap<K> implements Iterable<ObjectLongMap.Entry<K>>{
+    public int size;
+
+    K[] keyTable;
+    long[] valueTable;
+    int capacity;
+
+    private float loadFactor;
+    private int shift, mask, threshold;
+
+    private Entries entries1, entries2;
+    private Values values1, values2;
+    private Keys keys1, keys2;
+
+    /** Creates a new map with an initial capacity of 51 and a load factor of 0.8. */
+    public ObjectLongMap(){
+        this(51, 0.8f);
+    }
+
+    /**
+     * Creates a new map with a load factor of 0.8.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public ObjectLongMap(int initialCapacity){
+        this(initialCapacity, 0.8f);
+    }
+
+    /**
+     * Creates a new map with the specified initial capacity and load factor. This map will hold initialCapacity items before
+     * growing the backing table.
+     * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
+     */
+    public ObjectLongMap(int initialCapacity, float loadFactor){
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
+        this.loadFactor = loadFactor;
+
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = (K[])new Object[tableSize];
+        valueTable = new long[tableSize];
+        setTableSize(tableSize);
+    }
+
+    /** Creates a new map identical to the specified map. */
+    public ObjectLongMap(ObjectLongMap<? extends K> map){
+        this.loadFactor = map.loadFactor;
+        keyTable = (K[])map.keyTable.clone();
+        valueTable = map.valueTable.clone();
+        setTableSize(keyTable.length);
+        size = map.size;
+    }
+
+    /** Calls the consumer for every entry. Note the same entry instance is passed each time. */
+    public void each(Cons<Entry<K>> cons){
+        for(Entry<K> e : this){
+            cons.get(e);
+        }
+    }
+
+    /**
+     * Returns the index of the first slot to check for a key. The hash code is multiplied by the golden ratio, and the top bits
+     * of the product are used as the index.
+     */
+    int place(K key){
+        return (int)(key.hashCode() * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of the key, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(K key){
+        K[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            K other = keyTable[i];
+            if(other == null) return -(i + 1);
+            if(key.equals(other)) return i;
+        }
+    }
+
+    public void put(K key, long value){
+        if(key == null) throw new IllegalArgumentException("key cannot be null.");
+        int i = locateKey(key);
+        if(i >= 0){
+            valueTable[i] = value;
+            return;
+        }
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+    }
+
+    public void putAll(ObjectLongMap<? extends K> map){
+        for(Entry<? extends K> entry : map.entries())
+            put(entry.key, entry.value);
+    }
+
+    public ObjectLongMap<K> copy(){
+        return new ObjectLongMap<>(this);
+    }
+
+    public void set(ObjectLongMap<K> value){
+        clear();
+        putAll(value);
+    }
+
+    /** Skips checks for existing keys. */
+    private void putResize(K key, long value){
+        K[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == null){
+                keyTable[i] = key;
+                valueTable[i] = value;
+                return;
+            }
+        }
+    }
+
+    public long get(K key){
+        return get(key, 0);
+    }
+
+    /** @param defaultValue Returned if the key is null or was not associated with a value. */
+    public long get(K key, long defaultValue){
+        if(key == null) return defaultValue;
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
+    }
+
+    /** Only inserts into the map if value is not present.
+     * @param key The key.
+     * @param value The value.
+     * @return The associated value if key is present in the map, else {@code value}.
+     * */
+    public long getOrPut(K key, long value){
+        if(key == null) throw new IllegalArgumentException("key cannot be null.");
+        int i = locateKey(key);
+        if(i >= 0) return valueTable[i];
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
+        return value;
+    }
+
+    /** @return the sum of all entry values. */
+    public long sum(){
+        long sum = 0;
+        for(Entry<K> entry : entries()){
+            sum += entry.value;
+        }
+        return sum;
+    }
+
+    public long increment(K key){
+        return increment(key, 0, 1);
+    }
+
+    public long increment(K key, long amount){
+        return increment(key, 0, amount);
+    }
+
+    /**
+     * Returns the key's current value and increments the stored value. If the key is not in the map, defaultValue + increment is
+     * put into the map.
+     */
+    public long increment(K key, long defaultValue, long increment){
+        int i = locateKey(key);
+        if(i >= 0){
+            long value = valueTable[i];
+            valueTable[i] = value + increment;
+            return value;
+        }
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = defaultValue + increment;
+        if(size++ >= threshold) resize(capacity << 1);
+        return defaultValue;
+    }
+
+    /** @return 0 as default value. */
+    public long remove(K key){
+        return remove(key, 0);
+    }
+
+    /** @return the value that was removed, or defaultValue. */
+    public long remove(K key, long defaultValue){
+        int i = locateKey(key);
+        if(i < 0) return defaultValue;
+        long oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        K key;
+        while((key = keyTable[next]) != null){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
+            }
+            next = next + 1 & mask;
+        }
+        keyTable[i] = null;
+        size--;
+    }
+
+    /** Returns true if the map is empty. */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Reduces the size of the backing arrays to be the specified capacity or less. If the capacity is already less, nothing is
+     * done. If the map contains more items than the specified capacity, the next highest power of two capacity is used instead.
+     */
+    public void shrink(int maximumCapacity){
+        if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
+    }
+
+    /** Clears the map and reduces the size of the backing arrays to be the specified capacity if they are larger. */
+    public void clear(int maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
+            clear();
+            return;
+        }
+        size = 0;
+        resize(tableSize);
+    }
+
+    public void clear(){
+        if(size == 0) return;
+        Arrays.fill(keyTable, null);
+        size = 0;
+    }
+
+    /**
+     * Returns true if the specified value is in the map. Note this traverses the entire map and compares every value, which may be
+     * an expensive operation.
+     */
+    public boolean containsValue(long value){
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != null && valueTable[i] == value) return true;
+        return false;
+    }
+
+    public boolean containsKey(K key){
+        return locateKey(key) >= 0;
+    }
+
+    /**
+     * Returns the key for the specified value, or null if it is not in the map. Note this traverses the entire map and compares
+     * every value, which may be an expensive operation.
+     */
+    public K findKey(long value){
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = capacity; i-- > 0; )
+            if(keyTable[i] != null && valueTable[i] == value) return keyTable[i];
+        return null;
+    }
+
+    /**
+     * Increases the size of the backing array to accommodate the specified number of additional items. Useful before adding many
+     * items to avoid multiple backing array resizes.
+     */
+    public void ensureCapacity(int additionalCapacity){
+        if(additionalCapacity < 0)
+            throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
+        int sizeNeeded = size + additionalCapacity;
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
+    }
+
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    private void resize(int newSize){
+        int oldCapacity = capacity;
+        K[] oldKeyTable = keyTable;
+        long[] oldValueTable = valueTable;
+
+        keyTable = (K[])new Object[newSize];
+        valueTable = new long[newSize];
+        setTableSize(newSize);
+
+        if(size > 0){
+            for(int i = 0; i < oldCapacity; i++){
+                K key = oldKeyTable[i];
+                if(key != null) putResize(key, oldValueTable[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        K[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == null) return i + 1 & mask;
+        }
+        return 0;
+    }
+
+    public int hashCode(){
+        int h = 0;
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = 0, n = capacity; i < n; i++){
+            K key = keyTable[i];
+            if(key != null){
+                h += key.hashCode() * 31;
+                h += Long.hashCode(valueTable[i]);
+            }
+        }
+        return h;
+    }
+
+    public boolean equals(Object obj){
+        if(obj == this) return true;
+        if(!(obj instanceof ObjectLongMap)) return false;
+        ObjectLongMap<K> other = (ObjectLongMap)obj;
+        if(other.size != size) return false;
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        for(int i = 0, n = capacity; i < n; i++){
+            K key = keyTable[i];
+            if(key != null){
+                int index = other.locateKey(key);
+                if(index < 0 || other.valueTable[index] != valueTable[i]) return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString(){
+        if(size == 0) return "{}";
+        StringBuilder buffer = new StringBuilder(32);
+        buffer.append('{');
+        K[] keyTable = this.keyTable;
+        long[] valueTable = this.valueTable;
+        int i = keyTable.length;
+        while(i-- > 0){
+            K key = keyTable[i];
+            if(key == null) continue;
+            buffer.append(key);
+            buffer.append('=');
+            buffer.append(valueTable[i]);
+            break;
+        }
+        while(i-- > 0){
+            K key = keyTable[i];
+            if(key == null) continue;
+            buffer.append(", ");
+            buffer.append(key);
+            buffer.append('=');
+            buffer.append(valueTable[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    public Entries<K> iterator(){
+        return entries();
+    }
+
+    /**
+     * Returns an iterator for the entries in the map. Remove is supported. Note that the same iterator instance is returned each
+     * time this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     */
+    public Entries<K> entries(){
+        if(entries1 == null){
+            entries1 = new Entries(this);
+            entries2 = new Entries(this);
+        }
+        if(!entries1.valid){
+            entries1.reset();
+            entries1.valid = true;
+            entries2.valid = false;
+            return entries1;
+        }
+        entries2.reset();
+        entries2.valid = true;
+        entries1.valid = false;
+        return entries2;
+    }
+
+    /**
+     * Returns an iterator for the values in the map. Remove is supported. Note that the same iterator instance is returned each
+     * time this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     */
+    public Values values(){
+        if(values1 == null){
+            values1 = new Values(this);
+            values2 = new Values(this);
+        }
+        if(!values1.valid){
+            values1.reset();
+            values1.valid = true;
+            values2.valid = false;
+            return values1;
+        }
+        values2.reset();
+        values2.valid = true;
+        values1.valid = false;
+        return values2;
+    }
+
+    /**
+     * Returns an iterator for the keys in the map. Remove is supported. Note that the same iterator instance is returned each time
+     * this method is called. Use the {@link Entries} constructor for nested or multithreaded iteration.
+     */
+    public Keys<K> keys(){
+        if(keys1 == null){
+            keys1 = new Keys(this);
+            keys2 = new Keys(this);
+        }
+        if(!keys1.valid){
+            keys1.reset();
+            keys1.valid = true;
+            keys2.valid = false;
+            return keys1;
+        }
+        keys2.reset();
+        keys2.valid = true;
+        keys1.valid = false;
+        return keys2;
+    }
+
+    public static class Entry<K>{
+        public K key;
+        public long value;
+
+        public String toString(){
+            return key + "=" + value;
+        }
+    }
+
+    private static class MapIterator<K>{
+        final ObjectLongMap<K> map;
+        public boolean hasNext;
+        int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
+        boolean valid = true;
+
+        public MapIterator(ObjectLongMap<K> map){
+            this.map = map;
+            reset();
+        }
+
+        public void reset(){
+            currentIndex = -1;
+            nextIndex = -1;
+            start = map.iterationStart();
+            checked = -1;
+            findNextIndex();
+        }
+
+        void findNextIndex(){
+            hasNext = false;
+            K[] keyTable = map.keyTable;
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
+                if(keyTable[nextIndex] != null){
+                    hasNext = true;
+                    break;
+                }
+            }
+        }
+
+        public void remove(){
+            int i = currentIndex;
+            if(i < 0) throw new IllegalStateException("next must be called before remove.");
+            map.removeSlot(i);
+            if(map.keyTable[i] != null){
+                //an entry that was not visited yet was moved into the slot
+                checked = (i - start & map.mask) - 1;
+                findNextIndex();
+            }
+            currentIndex = -1;
+        }
+    }
+
+    public static class Entries<K> extends MapIterator<K> implements Iterable<Entry<K>>, Iterator<Entry<K>>{
+        private Entry<K> entry = new Entry();
+
+        public Entries(ObjectLongMap<K> map){
+            super(map);
+        }
+
+        public Seq<Entry<K>> toArray(){
+            Seq<Entry<K>> out = new Seq<>();
+            for(Entry<K> entry : this){
+                Entry<K> e = new Entry<>();
+                e.key = entry.key;
+                e.value = entry.value;
+                out.add(e);
+            }
+            return out;
+        }
+
+        /** Note the same entry instance is returned each time this method is called. */
+        public Entry<K> next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            K[] keyTable = map.keyTable;
+            entry.key = keyTable[nextIndex];
+            entry.value = map.valueTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return entry;
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public Entries<K> iterator(){
+            return this;
+        }
+
+        public void remove(){
+            super.remove();
+        }
+    }
+
+    public static class Values extends MapIterator<Object>{
+        public Values(ObjectLongMap<?> map){
+            super((ObjectLongMap<Object>)map);
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public long next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            long value = map.valueTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return value;
+        }
+
+        /** Returns a new array containing the remaining values. */
+        public LongSeq toArray(){
+            LongSeq array = new LongSeq(true, map.size);
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+    }
+
+    public static class Keys<K> extends MapIterator<K> implements Iterable<K>, Iterator<K>{
+        public Keys(ObjectLongMap<K> map){
+            super(map);
+        }
+
+        public boolean hasNext(){
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            return hasNext;
+        }
+
+        public K next(){
+            if(!hasNext) throw new NoSuchElementException();
+            if(!valid) throw new ArcRuntimeException("#iterator() cannot be used nested.");
+            K key = map.keyTable[nextIndex];
+            currentIndex = nextIndex;
+            findNextIndex();
+            return key;
+        }
+
+        public Keys<K> iterator(){
+            return this;
+        }
+
+        /** Returns a new array containing the remaining keys. */
+        public Seq<K> toArray(){
+            Seq array = new Seq(true, map.size);
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+
+        /** Adds the remaining keys to the array. */
+        public Seq<K> toArray(Seq<K> array){
+            while(hasNext)
+                array.add(next());
+            return array;
+        }
+
+        public void remove(){
+            super.remove();
+        }
+    }
+}
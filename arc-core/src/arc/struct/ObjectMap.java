@@ -2,19 +2,19 @@ package arc.struct;
 
 import arc.func.Cons2;
 import arc.func.Prov;
-import arc.math.Mathf;
 import arc.util.ArcRuntimeException;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
- * An unordered map. This implementation is a cuckoo hash map using 3 hashes, random walking, and a small stash for problematic
- * keys. Null keys are not allowed. Null values are allowed. No allocation is done except when growing the table size. <br>
+ * An unordered map. This implementation uses open addressing with linear probing and backward shift deletion, so no tombstones
+ * are left behind by removals. Keys are placed with Fibonacci hashing, which spreads out hash codes that only differ in their
+ * high bits. Null keys are not allowed. Null values are allowed. No allocation is done except when growing the table size. <br>
  * <br>
- * This map performs very fast get, containsKey, and remove (typically O(1), worst case O(log(n))). Put may be a bit slower,
- * depending on hash collisions. Load factors greater than 0.91 greatly increase the chances the map will have to rehash to the
- * next higher POT size.<br>
+ * This map performs very fast get, containsKey, put and remove (typically O(1), degrading with the load factor as probe
+ * sequences get longer). The load factor must be less than 1.<br>
  * <br>
  * Iteration can be very slow for a map with a large capacity. {@link #clear(int)} and {@link #shrink(int)} can be used to reduce
  * the capacity. {@link OrderedMap} provides much faster iteration.
@@ -22,20 +22,14 @@ import java.util.NoSuchElementException;
  */
 @SuppressWarnings("unchecked")
 public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
-
     public int size;
 
     K[] keyTable;
     V[] valueTable;
-    int capacity, stashSize;
+    int capacity;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     Entries entries1, entries2;
     Values values1, values2;
@@ -70,31 +64,21 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public ObjectMap(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 0x40000000)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = (K[])new Object[capacity + stashCapacity];
-        valueTable = (V[])new Object[keyTable.length];
+        int tableSize = ObjectSet.tableSize(initialCapacity, loadFactor);
+        keyTable = (K[])new Object[tableSize];
+        valueTable = (V[])new Object[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new map identical to the specified map. */
     public ObjectMap(ObjectMap<? extends K, ? extends V> map){
-        this((int)Math.floor(map.capacity * map.loadFactor), map.loadFactor);
-        stashSize = map.stashSize;
-        System.arraycopy(map.keyTable, 0, keyTable, 0, map.keyTable.length);
-        System.arraycopy(map.valueTable, 0, valueTable, 0, map.valueTable.length);
+        this.loadFactor = map.loadFactor;
+        keyTable = (K[])map.keyTable.clone();
+        valueTable = (V[])map.valueTable.clone();
+        setTableSize(keyTable.length);
         size = map.size;
     }
 
@@ -114,69 +98,37 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         putAll(value);
     }
 
-    /** Returns the old value associated with the specified key, or null. */
-    public V put(K key, V value){
-        if(key == null) throw new IllegalArgumentException("key cannot be null.");
-        K[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        K key1 = keyTable[index1];
-        if(key.equals(key1)){
-            V oldValue = valueTable[index1];
-            valueTable[index1] = value;
-            return oldValue;
-        }
+    /**
+     * Returns the index of the first slot to check for a key. The hash code is multiplied by the golden ratio, and the top bits
+     * of the product are used as the index.
+     */
+    int place(K key){
+        return (int)(key.hashCode() * 0x9E3779B97F4A7C15L >>> shift);
+    }
 
-        int index2 = hash2(hashCode);
-        K key2 = keyTable[index2];
-        if(key.equals(key2)){
-            V oldValue = valueTable[index2];
-            valueTable[index2] = value;
-            return oldValue;
+    /** Returns the index of the key, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(K key){
+        K[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            K other = keyTable[i];
+            if(other == null) return -(i + 1);
+            if(key.equals(other)) return i;
         }
+    }
 
-        int index3 = hash3(hashCode);
-        K key3 = keyTable[index3];
-        if(key.equals(key3)){
-            V oldValue = valueTable[index3];
-            valueTable[index3] = value;
+    /** Returns the old value associated with the specified key, or null. */
+    public V put(K key, V value){
+        if(key == null) throw new IllegalArgumentException("key cannot be null.");
+        int i = locateKey(key);
+        if(i >= 0){
+            V oldValue = valueTable[i];
+            valueTable[i] = value;
             return oldValue;
         }
-
-        // Update key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key.equals(keyTable[i])){
-                V oldValue = valueTable[i];
-                valueTable[i] = value;
-                return oldValue;
-            }
-        }
-
-        // Check for empty buckets.
-        if(key1 == null){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        if(key2 == null){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        if(key3 == null){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return null;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
+        i = -(i + 1);
+        keyTable[i] = key;
+        valueTable[i] = value;
+        if(size++ >= threshold) resize(capacity << 1);
         return null;
     }
 
@@ -200,121 +152,14 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
 
     /** Skips checks for existing keys. */
     private void putResize(K key, V value){
-        // Check for empty buckets.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        K key1 = keyTable[index1];
-        if(key1 == null){
-            keyTable[index1] = key;
-            valueTable[index1] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(hashCode);
-        K key2 = keyTable[index2];
-        if(key2 == null){
-            keyTable[index2] = key;
-            valueTable[index2] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(hashCode);
-        K key3 = keyTable[index3];
-        if(key3 == null){
-            keyTable[index3] = key;
-            valueTable[index3] = value;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, value, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(K insertKey, V insertValue, int index1, K key1, int index2, K key2, int index3, K key3){
         K[] keyTable = this.keyTable;
-        V[] valueTable = this.valueTable;
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        K evictedKey;
-        V evictedValue;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    evictedValue = valueTable[index1];
-                    keyTable[index1] = insertKey;
-                    valueTable[index1] = insertValue;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    evictedValue = valueTable[index2];
-                    keyTable[index2] = insertKey;
-                    valueTable[index2] = insertValue;
-                    break;
-                default:
-                    evictedKey = key3;
-                    evictedValue = valueTable[index3];
-                    keyTable[index3] = insertKey;
-                    valueTable[index3] = insertValue;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            int hashCode = evictedKey.hashCode();
-            index1 = hashCode & mask;
-            key1 = keyTable[index1];
-            if(key1 == null){
-                keyTable[index1] = evictedKey;
-                valueTable[index1] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index2 = hash2(hashCode);
-            key2 = keyTable[index2];
-            if(key2 == null){
-                keyTable[index2] = evictedKey;
-                valueTable[index2] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index3 = hash3(hashCode);
-            key3 = keyTable[index3];
-            if(key3 == null){
-                keyTable[index3] = evictedKey;
-                valueTable[index3] = evictedValue;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == null){
+                keyTable[i] = key;
+                valueTable[i] = value;
                 return;
             }
-
-            if(++i == pushIterations) break;
-
-            insertKey = evictedKey;
-            insertValue = evictedValue;
-        }while(true);
-
-        putStash(evictedKey, evictedValue);
-    }
-
-    private void putStash(K key, V value){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            putResize(key, value);
-            return;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        valueTable[index] = value;
-        stashSize++;
-        size++;
     }
 
     public V getThrow(K key, Prov<? extends RuntimeException> error){
@@ -340,98 +185,46 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
 
     /** Returns the value for the specified key, or null if the key is not in the map. */
     public V get(K key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return getStash(key, null);
-            }
-        }
-        return valueTable[index];
+        int i = locateKey(key);
+        return i < 0 ? null : valueTable[i];
     }
 
     /** Returns the value for the specified key, or the default value if the key is not in the map. */
     public V get(K key, V defaultValue){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return getStash(key, defaultValue);
-            }
-        }
-        return valueTable[index];
-    }
-
-    private V getStash(K key, V defaultValue){
-        K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return valueTable[i];
-        return defaultValue;
+        int i = locateKey(key);
+        return i < 0 ? defaultValue : valueTable[i];
     }
 
     /** Returns the value associated with the key, or null. */
     public V remove(K key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        index = hash2(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        index = hash3(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            V oldValue = valueTable[index];
-            valueTable[index] = null;
-            size--;
-            return oldValue;
-        }
-
-        return removeStash(key);
+        int i = locateKey(key);
+        if(i < 0) return null;
+        V oldValue = valueTable[i];
+        removeSlot(i);
+        return oldValue;
     }
 
-    V removeStash(K key){
+    /**
+     * Removes the entry in a slot. Following entries of the same cluster that may be placed in the slot are moved back, so
+     * lookups never have to skip over removed entries.
+     */
+    void removeSlot(int i){
         K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key.equals(keyTable[i])){
-                V oldValue = valueTable[i];
-                removeStashIndex(i);
-                size--;
-                return oldValue;
+        V[] valueTable = this.valueTable;
+        int mask = this.mask, next = i + 1 & mask;
+        K key;
+        while((key = keyTable[next]) != null){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                valueTable[i] = valueTable[next];
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return null;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex){
-            keyTable[index] = keyTable[lastIndex];
-            valueTable[index] = valueTable[lastIndex];
-            keyTable[lastIndex] = null;
-            valueTable[lastIndex] = null;
-        }else{
-            keyTable[index] = null;
-            valueTable[index] = null;
-        }
+        keyTable[i] = null;
+        valueTable[i] = null;
+        size--;
     }
 
     /** Returns true if the map is empty. */
@@ -445,10 +238,8 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = ObjectSet.tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /**
@@ -456,12 +247,13 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
      * is done by allocating new arrays, though for large arrays this can be faster than clearing the existing array.
      */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = ObjectSet.tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     /**
@@ -470,14 +262,9 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
      */
     public void clear(){
         if(size == 0) return;
-        K[] keyTable = this.keyTable;
-        V[] valueTable = this.valueTable;
-        for(int i = capacity + stashSize; i-- > 0; ){
-            keyTable[i] = null;
-            valueTable[i] = null;
-        }
+        Arrays.fill(keyTable, null);
+        Arrays.fill(valueTable, null);
         size = 0;
-        stashSize = 0;
     }
 
     /**
@@ -490,36 +277,20 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         V[] valueTable = this.valueTable;
         if(value == null){
             K[] keyTable = this.keyTable;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(keyTable[i] != null && valueTable[i] == null) return true;
         }else if(identity){
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(valueTable[i] == value) return true;
         }else{
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(value.equals(valueTable[i])) return true;
         }
         return false;
     }
 
     public boolean containsKey(K key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return containsKeyStash(key);
-            }
-        }
-        return true;
-    }
-
-    private boolean containsKeyStash(K key){
-        K[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return true;
-        return false;
+        return locateKey(key) >= 0;
     }
 
     /**
@@ -532,13 +303,13 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         V[] valueTable = this.valueTable;
         if(value == null){
             K[] keyTable = this.keyTable;
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(keyTable[i] != null && valueTable[i] == null) return keyTable[i];
         }else if(identity){
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(valueTable[i] == value) return keyTable[i];
         }else{
-            for(int i = capacity + stashSize; i-- > 0; )
+            for(int i = capacity; i-- > 0; )
                 if(value.equals(valueTable[i])) return keyTable[i];
         }
         return null;
@@ -552,51 +323,50 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(ObjectSet.tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         K[] oldKeyTable = keyTable;
         V[] oldValueTable = valueTable;
 
-        keyTable = (K[])new Object[newSize + stashCapacity];
-        valueTable = (V[])new Object[newSize + stashCapacity];
+        keyTable = (K[])new Object[newSize];
+        valueTable = (V[])new Object[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > 0){
+            for(int i = 0; i < oldCapacity; i++){
                 K key = oldKeyTable[i];
                 if(key != null) putResize(key, oldValueTable[i]);
             }
         }
     }
 
-    private int hash2(int h){
-        h *= PRIME2;
-        return (h ^ h >>> hashShift) & mask;
-    }
-
-    private int hash3(int h){
-        h *= PRIME3;
-        return (h ^ h >>> hashShift) & mask;
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing an entry
+     * during iteration only moves entries that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        K[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == null) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
         int h = 0;
         K[] keyTable = this.keyTable;
         V[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             K key = keyTable[i];
             if(key != null){
                 h += key.hashCode() * 31;
@@ -617,7 +387,7 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         if(other.size != size) return false;
         K[] keyTable = this.keyTable;
         V[] valueTable = this.valueTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++){
+        for(int i = 0, n = capacity; i < n; i++){
             K key = keyTable[i];
             if(key != null){
                 V value = valueTable[i];
@@ -746,6 +516,8 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         final ObjectMap<K, V> map;
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean valid = true;
 
         public MapIterator(ObjectMap<K, V> map){
@@ -756,13 +528,16 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         public void reset(){
             currentIndex = -1;
             nextIndex = -1;
+            start = map.iterationStart();
+            checked = -1;
             findNextIndex();
         }
 
         void findNextIndex(){
             hasNext = false;
             K[] keyTable = map.keyTable;
-            for(int n = map.capacity + map.stashSize; ++nextIndex < n; ){
+            for(int n = map.capacity, mask = map.mask; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != null){
                     hasNext = true;
                     break;
@@ -771,17 +546,15 @@ public class ObjectMap<K, V> implements Iterable<ObjectMap.Entry<K, V>>{
         }
 
         public void remove(){
-            if(currentIndex < 0) throw new IllegalStateException("next must be called before remove.");
-            if(currentIndex >= map.capacity){
-                map.removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
+            int i = currentIndex;
+            if(i < 0) throw new IllegalStateException("next must be called before remove.");
+            map.removeSlot(i);
+            if(map.keyTable[i] != null){
+                //an entry that was not visited yet was moved into the slot
+                checked = (i - start & map.mask) - 1;
                 findNextIndex();
-            }else{
-                map.keyTable[currentIndex] = null;
-                map.valueTable[currentIndex] = null;
             }
             currentIndex = -1;
-            map.size--;
         }
     }
 
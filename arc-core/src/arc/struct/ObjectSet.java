@@ -7,12 +7,12 @@ import arc.util.*;
 import java.util.*;
 
 /**
- * An unordered set where the keys are objects. This implementation uses cuckoo hashing using 3 hashes, random walking, and a
- * small stash for problematic keys. Null keys are not allowed. No allocation is done except when growing the table size. <br>
+ * An unordered set where the keys are objects. This implementation uses open addressing with linear probing and backward shift
+ * deletion, so no tombstones are left behind by removals. Keys are placed with Fibonacci hashing, which spreads out hash codes
+ * that only differ in their high bits. Null keys are not allowed. No allocation is done except when growing the table size. <br>
  * <br>
- * This set performs very fast contains and remove (typically O(1), worst case O(log(n))). Add may be a bit slower, depending on
- * hash collisions. Load factors greater than 0.91 greatly increase the chances the set will have to rehash to the next higher POT
- * size.<br>
+ * This set performs very fast contains, add and remove (typically O(1), degrading with the load factor as probe sequences get
+ * longer). The load factor must be less than 1.<br>
  * <br>
  * Iteration can be very slow for a set with a large capacity. {@link #clear(int)} and {@link #shrink(int)} can be used to reduce
  * the capacity. {@link OrderedSet} provides much faster iteration.
@@ -20,19 +20,13 @@ import java.util.*;
  */
 @SuppressWarnings("unchecked")
 public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
-    private static final int PRIME1 = 0xbe1f14b1;
-    private static final int PRIME2 = 0xb4b82e39;
-    private static final int PRIME3 = 0xced1c241;
-
     public int size;
 
     T[] keyTable;
-    int capacity, stashSize;
+    int capacity;
 
     private float loadFactor;
-    private int hashShift, mask, threshold;
-    private int stashCapacity;
-    private int pushIterations;
+    private int shift, mask, threshold;
 
     private @Nullable ObjectSetIterator iterator1, iterator2;
 
@@ -55,32 +49,33 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
      * @param initialCapacity If not a power of two, it is increased to the next nearest power of two.
      */
     public ObjectSet(int initialCapacity, float loadFactor){
-        if(initialCapacity < 0) throw new IllegalArgumentException("initialCapacity must be >= 0: " + initialCapacity);
-        initialCapacity = Mathf.nextPowerOfTwo((int)Math.ceil(initialCapacity / loadFactor));
-        if(initialCapacity > 1 << 30)
-            throw new IllegalArgumentException("initialCapacity is too large: " + initialCapacity);
-        capacity = initialCapacity;
-
-        if(loadFactor <= 0) throw new IllegalArgumentException("loadFactor must be > 0: " + loadFactor);
+        if(loadFactor <= 0f || loadFactor >= 1f) throw new IllegalArgumentException("loadFactor must be > 0 and < 1: " + loadFactor);
         this.loadFactor = loadFactor;
 
-        threshold = (int)(capacity * loadFactor);
-        mask = capacity - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(capacity);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(capacity)) * 2);
-        pushIterations = Math.max(Math.min(capacity, 8), (int)Math.sqrt(capacity) / 8);
-
-        keyTable = (T[])new Object[capacity + stashCapacity];
+        int tableSize = tableSize(initialCapacity, loadFactor);
+        keyTable = (T[])new Object[tableSize];
+        setTableSize(tableSize);
     }
 
     /** Creates a new set identical to the specified set. */
     public ObjectSet(ObjectSet set){
-        this((int)Math.floor(set.capacity * set.loadFactor), set.loadFactor);
-        stashSize = set.stashSize;
-        System.arraycopy(set.keyTable, 0, keyTable, 0, set.keyTable.length);
+        this.loadFactor = set.loadFactor;
+        keyTable = (T[])set.keyTable.clone();
+        setTableSize(keyTable.length);
         size = set.size;
     }
 
+    /**
+     * Returns the power of two table size needed to hold a number of items with a load factor. Shared by all open addressing
+     * maps and sets.
+     */
+    static int tableSize(int capacity, float loadFactor){
+        if(capacity < 0) throw new IllegalArgumentException("capacity must be >= 0: " + capacity);
+        int tableSize = Mathf.nextPowerOfTwo(Math.max(2, (int)Math.ceil(capacity / loadFactor)));
+        if(tableSize > 1 << 30) throw new IllegalArgumentException("The required capacity is too large: " + capacity);
+        return tableSize;
+    }
+
     public static <T> ObjectSet<T> with(T... array){
         ObjectSet<T> set = new ObjectSet<>();
         set.addAll(array);
@@ -128,52 +123,34 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
         return null;
     }
 
+    /**
+     * Returns the index of the first slot to check for a key. The hash code is multiplied by the golden ratio, and the top bits
+     * of the product are used as the index.
+     */
+    int place(T key){
+        return (int)(key.hashCode() * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /** Returns the index of the key, or -(index + 1) of the empty slot where it would be inserted. */
+    int locateKey(T key){
+        T[] keyTable = this.keyTable;
+        for(int i = place(key); ; i = i + 1 & mask){
+            T other = keyTable[i];
+            if(other == null) return -(i + 1);
+            if(key.equals(other)) return i;
+        }
+    }
+
     /**
      * Returns true if the key was not already in the set. If this set already contains the key, the call leaves the set unchanged
      * and returns false.
      */
     public boolean add(T key){
         if(key == null) return false;
-        T[] keyTable = this.keyTable;
-
-        // Check for existing keys.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        T key1 = keyTable[index1];
-        if(key.equals(key1)) return false;
-
-        int index2 = hash2(hashCode);
-        T key2 = keyTable[index2];
-        if(key.equals(key2)) return false;
-
-        int index3 = hash3(hashCode);
-        T key3 = keyTable[index3];
-        if(key.equals(key3)) return false;
-
-        // Find key in the stash.
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return false;
-
-        // Check for empty buckets.
-        if(key1 == null){
-            keyTable[index1] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        if(key2 == null){
-            keyTable[index2] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        if(key3 == null){
-            keyTable[index3] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return true;
-        }
-
-        push(key, index1, key1, index2, key2, index3, key3);
+        int i = locateKey(key);
+        if(i >= 0) return false;
+        keyTable[-(i + 1)] = key;
+        if(size++ >= threshold) resize(capacity << 1);
         return true;
     }
 
@@ -220,154 +197,41 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
 
     /** Skips checks for existing keys. */
     private void addResize(T key){
-        // Check for empty buckets.
-        int hashCode = key.hashCode();
-        int index1 = hashCode & mask;
-        T key1 = keyTable[index1];
-        if(key1 == null){
-            keyTable[index1] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index2 = hash2(hashCode);
-        T key2 = keyTable[index2];
-        if(key2 == null){
-            keyTable[index2] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        int index3 = hash3(hashCode);
-        T key3 = keyTable[index3];
-        if(key3 == null){
-            keyTable[index3] = key;
-            if(size++ >= threshold) resize(capacity << 1);
-            return;
-        }
-
-        push(key, index1, key1, index2, key2, index3, key3);
-    }
-
-    private void push(T insertKey, int index1, T key1, int index2, T key2, int index3, T key3){
         T[] keyTable = this.keyTable;
-        int mask = this.mask;
-
-        // Push keys until an empty bucket is found.
-        T evictedKey;
-        int i = 0, pushIterations = this.pushIterations;
-        do{
-            // Replace the key and value for one of the hashes.
-            switch(Mathf.random(2)){
-                case 0:
-                    evictedKey = key1;
-                    keyTable[index1] = insertKey;
-                    break;
-                case 1:
-                    evictedKey = key2;
-                    keyTable[index2] = insertKey;
-                    break;
-                default:
-                    evictedKey = key3;
-                    keyTable[index3] = insertKey;
-                    break;
-            }
-
-            // If the evicted key hashes to an empty bucket, put it there and stop.
-            int hashCode = evictedKey.hashCode();
-            index1 = hashCode & mask;
-            key1 = keyTable[index1];
-            if(key1 == null){
-                keyTable[index1] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            index2 = hash2(hashCode);
-            key2 = keyTable[index2];
-            if(key2 == null){
-                keyTable[index2] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
+        for(int i = place(key); ; i = i + 1 & mask){
+            if(keyTable[i] == null){
+                keyTable[i] = key;
                 return;
             }
-
-            index3 = hash3(hashCode);
-            key3 = keyTable[index3];
-            if(key3 == null){
-                keyTable[index3] = evictedKey;
-                if(size++ >= threshold) resize(capacity << 1);
-                return;
-            }
-
-            if(++i == pushIterations) break;
-
-            insertKey = evictedKey;
-        }while(true);
-
-        addStash(evictedKey);
-    }
-
-    private void addStash(T key){
-        if(stashSize == stashCapacity){
-            // Too many pushes occurred and the stash is full, increase the table size.
-            resize(capacity << 1);
-            addResize(key);
-            return;
         }
-        // Store key in the stash.
-        int index = capacity + stashSize;
-        keyTable[index] = key;
-        stashSize++;
-        size++;
     }
 
     /** Returns true if the key was removed. */
     public boolean remove(T key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            size--;
-            return true;
-        }
-
-        index = hash2(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            size--;
-            return true;
-        }
-
-        index = hash3(hashCode);
-        if(key.equals(keyTable[index])){
-            keyTable[index] = null;
-            size--;
-            return true;
-        }
-
-        return removeStash(key);
+        int i = locateKey(key);
+        if(i < 0) return false;
+        removeSlot(i);
+        return true;
     }
 
-    boolean removeStash(T key){
+    /**
+     * Removes the key in a slot. Following keys of the same cluster that may be placed in the slot are moved back, so lookups
+     * never have to skip over removed keys.
+     */
+    void removeSlot(int i){
         T[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++){
-            if(key.equals(keyTable[i])){
-                removeStashIndex(i);
-                size--;
-                return true;
+        int mask = this.mask, next = i + 1 & mask;
+        T key;
+        while((key = keyTable[next]) != null){
+            int placement = place(key);
+            if((next - placement & mask) > (i - placement & mask)){
+                keyTable[i] = key;
+                i = next;
             }
+            next = next + 1 & mask;
         }
-        return false;
-    }
-
-    void removeStashIndex(int index){
-        // If the removed location was not last, move the last tuple to the removed location.
-        stashSize--;
-        int lastIndex = capacity + stashSize;
-        if(index < lastIndex){
-            keyTable[index] = keyTable[lastIndex];
-            keyTable[lastIndex] = null;
-        }
+        keyTable[i] = null;
+        size--;
     }
 
     /** Returns true if the set is empty. */
@@ -381,10 +245,8 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
      */
     public void shrink(int maximumCapacity){
         if(maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
-        if(size > maximumCapacity) maximumCapacity = size;
-        if(capacity <= maximumCapacity) return;
-        maximumCapacity = Mathf.nextPowerOfTwo(maximumCapacity);
-        resize(maximumCapacity);
+        int tableSize = tableSize(Math.max(size, maximumCapacity), loadFactor);
+        if(capacity > tableSize) resize(tableSize);
     }
 
     /**
@@ -392,12 +254,13 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
      * is done by allocating new arrays, though for large arrays this can be faster than clearing the existing array.
      */
     public void clear(int maximumCapacity){
-        if(capacity <= maximumCapacity){
+        int tableSize = tableSize(maximumCapacity, loadFactor);
+        if(capacity <= tableSize){
             clear();
             return;
         }
         size = 0;
-        resize(maximumCapacity);
+        resize(tableSize);
     }
 
     /**
@@ -406,54 +269,24 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
      */
     public void clear(){
         if(size == 0) return;
-        T[] keyTable = this.keyTable;
-        for(int i = capacity + stashSize; i-- > 0; )
-            keyTable[i] = null;
+        Arrays.fill(keyTable, null);
         size = 0;
-        stashSize = 0;
     }
 
     public boolean contains(T key){
         if(size == 0) return false;
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        if(!key.equals(keyTable[index])){
-            index = hash2(hashCode);
-            if(!key.equals(keyTable[index])){
-                index = hash3(hashCode);
-                if(!key.equals(keyTable[index])) return getKeyStash(key) != null;
-            }
-        }
-        return true;
+        return locateKey(key) >= 0;
     }
 
     /** @return May be null. */
     public T get(T key){
-        int hashCode = key.hashCode();
-        int index = hashCode & mask;
-        T found = keyTable[index];
-        if(!key.equals(found)){
-            index = hash2(hashCode);
-            found = keyTable[index];
-            if(!key.equals(found)){
-                index = hash3(hashCode);
-                found = keyTable[index];
-                if(!key.equals(found)) return getKeyStash(key);
-            }
-        }
-        return found;
-    }
-
-    private T getKeyStash(T key){
-        T[] keyTable = this.keyTable;
-        for(int i = capacity, n = i + stashSize; i < n; i++)
-            if(key.equals(keyTable[i])) return keyTable[i];
-        return null;
+        int i = locateKey(key);
+        return i < 0 ? null : keyTable[i];
     }
 
     public T first(){
         T[] keyTable = this.keyTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
+        for(int i = 0, n = capacity; i < n; i++)
             if(keyTable[i] != null) return keyTable[i];
         throw new IllegalStateException("ObjectSet is empty.");
     }
@@ -466,47 +299,46 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
         if(additionalCapacity < 0)
             throw new IllegalArgumentException("additionalCapacity must be >= 0: " + additionalCapacity);
         int sizeNeeded = size + additionalCapacity;
-        if(sizeNeeded >= threshold) resize(Mathf.nextPowerOfTwo((int)Math.ceil(sizeNeeded / loadFactor)));
+        if(sizeNeeded >= threshold) resize(tableSize(sizeNeeded, loadFactor));
     }
 
-    private void resize(int newSize){
-        int oldEndIndex = capacity + stashSize;
-
-        capacity = newSize;
-        threshold = (int)(newSize * loadFactor);
-        mask = newSize - 1;
-        hashShift = 31 - Integer.numberOfTrailingZeros(newSize);
-        stashCapacity = Math.max(3, (int)Math.ceil(Math.log(newSize)) * 2);
-        pushIterations = Math.max(Math.min(newSize, 8), (int)Math.sqrt(newSize) / 8);
+    private void setTableSize(int tableSize){
+        capacity = tableSize;
+        threshold = (int)(tableSize * loadFactor);
+        mask = tableSize - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
 
+    private void resize(int newSize){
+        int oldCapacity = capacity;
         T[] oldKeyTable = keyTable;
 
-        keyTable = (T[])new Object[newSize + stashCapacity];
+        keyTable = (T[])new Object[newSize];
+        setTableSize(newSize);
 
-        int oldSize = size;
-        size = 0;
-        stashSize = 0;
-        if(oldSize > 0){
-            for(int i = 0; i < oldEndIndex; i++){
+        if(size > 0){
+            for(int i = 0; i < oldCapacity; i++){
                 T key = oldKeyTable[i];
                 if(key != null) addResize(key);
             }
         }
     }
 
-    private int hash2(int h){
-        h *= PRIME2;
-        return (h ^ h >>> hashShift) & mask;
-    }
-
-    private int hash3(int h){
-        h *= PRIME3;
-        return (h ^ h >>> hashShift) & mask;
+    /**
+     * Returns the slot after the first empty one. Iterators start there: no cluster wraps around the start, so removing a key
+     * during iteration only moves keys that have not been visited yet, and never past the iterator.
+     */
+    int iterationStart(){
+        T[] keyTable = this.keyTable;
+        for(int i = 0; i < keyTable.length; i++){
+            if(keyTable[i] == null) return i + 1 & mask;
+        }
+        return 0;
     }
 
     public int hashCode(){
         int h = 0;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
+        for(int i = 0, n = capacity; i < n; i++)
             if(keyTable[i] != null) h += keyTable[i].hashCode();
         return h;
     }
@@ -516,7 +348,7 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
         ObjectSet other = (ObjectSet)obj;
         if(other.size != size) return false;
         T[] keyTable = this.keyTable;
-        for(int i = 0, n = capacity + stashSize; i < n; i++)
+        for(int i = 0, n = capacity; i < n; i++)
             if(keyTable[i] != null && !other.contains(keyTable[i])) return false;
         return true;
     }
@@ -571,6 +403,8 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
     public class ObjectSetIterator implements Iterable<T>, Iterator<T>{
         public boolean hasNext;
         int nextIndex, currentIndex;
+        /** The slot iteration started at, and the number of slots after it that were checked. */
+        int start, checked;
         boolean done;
 
         public ObjectSetIterator(){
@@ -581,13 +415,16 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
         public void reset(){
             currentIndex = -1;
             nextIndex = -1;
+            start = iterationStart();
+            checked = -1;
             findNextIndex();
             done = false;
         }
 
         private void findNextIndex(){
             hasNext = false;
-            for(int n = capacity + stashSize; ++nextIndex < n; ){
+            for(int n = capacity; ++checked < n; ){
+                nextIndex = start + checked & mask;
                 if(keyTable[nextIndex] != null){
                     hasNext = true;
                     break;
@@ -597,16 +434,15 @@ public class ObjectSet<T> implements Iterable<T>, Eachable<T>{
 
         @Override
         public void remove(){
-            if(currentIndex < 0) throw new IllegalStateException("next must be called before remove.");
-            if(currentIndex >= capacity){
-                removeStashIndex(currentIndex);
-                nextIndex = currentIndex - 1;
+            int i = currentIndex;
+            if(i < 0) throw new IllegalStateException("next must be called before remove.");
+            removeSlot(i);
+            if(keyTable[i] != null){
+                //a key that was not visited yet was moved into the slot
+                checked = (i - start & mask) - 1;
                 findNextIndex();
-            }else{
-                keyTable[currentIndex] = null;
             }
             currentIndex = -1;
-            size--;
         }
 
         @Override
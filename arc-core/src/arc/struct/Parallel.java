@@ -0,0 +1,140 @@
+package arc.struct;
+
+import arc.func.Intc;
+import arc.func.Intc2;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The pool and settings used by the parallel operations of {@link Seq}, {@link IntSeq}, {@link FloatSeq} and {@link LongSeq}.
+ * Work is split into contiguous chunks of indices, and results are always assembled in index order, so the output of
+ * parallelSelect, parallelMap and parallelSort does not depend on the number of threads.
+ */
+@SuppressWarnings("unchecked")
+public class Parallel{
+    /** The pool that parallel operations run on. */
+    public static ForkJoinPool pool = ForkJoinPool.commonPool();
+    /** Arrays with fewer items than this are processed on the calling thread, as splitting them costs more than it saves. */
+    public static int threshold = 8192;
+    /** The smallest number of items a chunk is split into. */
+    public static int minChunkSize = 1024;
+
+    /** Returns the number of chunks to split an array of the specified size into, or 1 if it should not be split. */
+    static int chunks(int size){
+        if(size < threshold || pool.getParallelism() <= 1) return 1;
+        return Math.max(1, Math.min(pool.getParallelism() * 4, size / minChunkSize));
+    }
+
+    /** Returns the first index of a chunk. The last index is the start of the next chunk, exclusive. */
+    static int start(int size, int chunks, int chunk){
+        return (int)((long)size * chunk / chunks);
+    }
+
+    /** Calls the consumer with the index of every chunk. If there is more than one chunk, they run on the pool. */
+    static void run(int chunks, Intc chunk){
+        if(chunks <= 1){
+            chunk.get(0);
+        }else{
+            pool.invoke(new ChunkTask(chunk, 0, chunks));
+        }
+    }
+
+    /** Stable sort of the first size items: chunks are sorted on the pool, then merged pairwise in index order. */
+    static <T> void sort(T[] items, int size, Comparator<? super T> comparator){
+        mergeSort(items, Arrays.copyOf(items, size), size, (from, to) -> Arrays.sort(items, from, to, comparator), (src, dst, from, mid, to) -> {
+            T[] a = (T[])src, b = (T[])dst;
+            int i = from, j = mid, k = from;
+            while(i < mid && j < to) b[k++] = comparator.compare(a[j], a[i]) < 0 ? a[j++] : a[i++];
+            System.arraycopy(a, i, b, k, mid - i);
+            System.arraycopy(a, j, b, k + mid - i, to - j);
+        });
+    }
+
+    static void sort(int[] items, int size){
+        mergeSort(items, new int[size], size, (from, to) -> Arrays.sort(items, from, to), (src, dst, from, mid, to) -> {
+            int[] a = (int[])src, b = (int[])dst;
+            int i = from, j = mid, k = from;
+            while(i < mid && j < to) b[k++] = a[j] < a[i] ? a[j++] : a[i++];
+            System.arraycopy(a, i, b, k, mid - i);
+            System.arraycopy(a, j, b, k + mid - i, to - j);
+        });
+    }
+
+    /** Uses the same ordering as {@link Arrays#sort(float[])}: -0 before 0, and NaN last. */
+    static void sort(float[] items, int size){
+        mergeSort(items, new float[size], size, (from, to) -> Arrays.sort(items, from, to), (src, dst, from, mid, to) -> {
+            float[] a = (float[])src, b = (float[])dst;
+            int i = from, j = mid, k = from;
+            while(i < mid && j < to) b[k++] = Float.compare(a[j], a[i]) < 0 ? a[j++] : a[i++];
+            System.arraycopy(a, i, b, k, mid - i);
+            System.arraycopy(a, j, b, k + mid - i, to - j);
+        });
+    }
+
+    static void sort(long[] items, int size){
+        mergeSort(items, new long[size], size, (from, to) -> Arrays.sort(items, from, to), (src, dst, from, mid, to) -> {
+            long[] a = (long[])src, b = (long[])dst;
+            int i = from, j = mid, k = from;
+            while(i < mid && j < to) b[k++] = a[j] < a[i] ? a[j++] : a[i++];
+            System.arraycopy(a, i, b, k, mid - i);
+            System.arraycopy(a, j, b, k + mid - i, to - j);
+        });
+    }
+
+    /**
+     * Sorts every chunk of items with sortRange, then merges neighbouring runs level by level, alternating between items and buffer.
+     * The merges of one level run in parallel. Ties are taken from the left run, so the result is stable.
+     */
+    static void mergeSort(Object items, Object buffer, int size, Intc2 sortRange, RangeMerge merge){
+        int chunks = chunks(size);
+        run(chunks, chunk -> sortRange.get(start(size, chunks, chunk), start(size, chunks, chunk + 1)));
+
+        Object src = items, dst = buffer;
+        for(int width = 1; width < chunks; width *= 2){
+            int runWidth = width, pairs = (chunks + width * 2 - 1) / (width * 2);
+            Object from = src, to = dst;
+            run(pairs, pair -> {
+                int lo = pair * runWidth * 2;
+                int start = start(size, chunks, lo), mid = start(size, chunks, Math.min(lo + runWidth, chunks)), end = start(size, chunks, Math.min(lo + runWidth * 2, chunks));
+                if(mid == end){
+                    System.arraycopy(from, start, to, start, end - start);
+                }else{
+                    merge.get(from, to, start, mid, end);
+                }
+            });
+            src = to;
+            dst = from;
+        }
+        if(src != items){
+            System.arraycopy(src, 0, items, 0, size);
+        }
+    }
+
+    interface RangeMerge{
+        /** Merges the sorted runs src[from, mid) and src[mid, to) into dst[from, to). */
+        void get(Object src, Object dst, int from, int mid, int to);
+    }
+
+    static class ChunkTask extends RecursiveAction{
+        final Intc chunk;
+        final int from, to;
+
+        ChunkTask(Intc chunk, int from, int to){
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from == 1){
+                chunk.get(from);
+            }else{
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(chunk, from, mid), new ChunkTask(chunk, mid, to));
+            }
+        }
+    }
+}
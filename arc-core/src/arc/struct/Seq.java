@@ -893,6 +893,88 @@ public class Seq<T> implements Iterable<T>, Eachable<T>{
         return arr;
     }
 
+    /**
+     * Sorts the array on {@link Parallel#pool}. The sort is stable, so the result is the same as {@link #sort()}.
+     * Small arrays are sorted on this thread.
+     */
+    public Seq<T> parallelSort(){
+        return parallelSort((a, b) -> ((Comparable<Object>)a).compareTo(b));
+    }
+
+    /**
+     * Sorts the array on {@link Parallel#pool}: chunks are sorted in parallel, then merged in index order. The sort is stable, so
+     * the result is the same as {@link #sort(Comparator)}. The comparator must be thread safe.
+     */
+    public Seq<T> parallelSort(Comparator<? super T> comparator){
+        if(Parallel.chunks(size) == 1){
+            return sort(comparator);
+        }
+        Parallel.sort(items, size, comparator);
+        return this;
+    }
+
+    /**
+     * Calls the consumer for every item on {@link Parallel#pool}. The order of the calls is undefined, so the consumer must be
+     * thread safe. The array must not be modified until this returns.
+     */
+    public void parallelEach(Cons<? super T> consumer){
+        T[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        Parallel.run(chunks, chunk -> {
+            for(int i = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1); i < end; i++){
+                consumer.get(items[i]);
+            }
+        });
+    }
+
+    /**
+     * Allocates a new array with all elements that match the predicate, tested on {@link Parallel#pool}. Items stay in the same
+     * order as with {@link #select(Boolf)}. The predicate must be thread safe.
+     */
+    public Seq<T> parallelSelect(Boolf<T> predicate){
+        T[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        Object[][] parts = new Object[chunks][];
+        int[] counts = new int[chunks];
+        Parallel.run(chunks, chunk -> {
+            int start = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1), count = 0;
+            Object[] part = new Object[end - start];
+            for(int i = start; i < end; i++){
+                if(predicate.get(items[i])){
+                    part[count++] = items[i];
+                }
+            }
+            parts[chunk] = part;
+            counts[chunk] = count;
+        });
+
+        int total = 0;
+        for(int count : counts) total += count;
+        Seq<T> arr = new Seq<>(Math.max(total, 1));
+        for(int i = 0; i < chunks; i++){
+            System.arraycopy(parts[i], 0, arr.items, arr.size, counts[i]);
+            arr.size += counts[i];
+        }
+        return arr;
+    }
+
+    /**
+     * Returns a new array with the mapped values, computed on {@link Parallel#pool}. The mapper must be thread safe.
+     */
+    public <R> Seq<R> parallelMap(Func<T, R> mapper){
+        T[] items = this.items;
+        int size = this.size, chunks = Parallel.chunks(size);
+        Seq<R> arr = new Seq<>(Math.max(size, 1));
+        R[] out = arr.items;
+        Parallel.run(chunks, chunk -> {
+            for(int i = Parallel.start(size, chunks, chunk), end = Parallel.start(size, chunks, chunk + 1); i < end; i++){
+                out[i] = mapper.get(items[i]);
+            }
+        });
+        arr.size = size;
+        return arr;
+    }
+
     /** Removes everything that does not match this predicate. */
     public Seq<T> retainAll(Boolf<T> predicate){
         return removeAll(e -> !predicate.get(e));
@@ -0,0 +1,140 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Generates the primitive maps, sets, concurrent maps and chunked grids of arc.struct from the templates in this folder, along with
+ * their tests. Run through the generateStructs task, or with "java StructGenerator.java [arc-core directory]" from this folder.
+ * <p>
+ * Templates are plain Java sources where $Name$ tokens are replaced for each specialization:
+ * <ul>
+ * <li>$Map$, $Set$, $Grid$: the generated class name</li>
+ * <li>$key$, $Key$, $KeyBox$: the primitive key type, its capitalized name and its boxed type (int, Int, Integer)</li>
+ * <li>$value$, $Value$, $ValueBox$: the same for values</li>
+ * <li>$randomKey$: an expression for a random key, used by the test templates</li>
+ * </ul>
+ * Lines between "//#if name=a|b ..." and "//#end" are only kept for specializations where every listed token, named without the
+ * dollar signs, has one of the listed values. This is used for methods that only some classes have, like IntIntMap.of or
+ * containsValue(value, epsilon) in maps with float values.
+ */
+public class StructGenerator{
+    static final String[] keys = {"int", "long"};
+    static final String[] values = {"int", "long", "float"};
+    static final String[] gridValues = {"int", "float"};
+    static final Pattern sectionStart = Pattern.compile("^\\s*//#if (.+)$"), sectionEnd = Pattern.compile("^\\s*//#end\\s*$");
+
+    static Path root, templates;
+    static StringBuilder tests = new StringBuilder();
+
+    public static void main(String[] args) throws IOException{
+        root = Paths.get(args.length > 0 ? args[0] : "..");
+        templates = root.resolve("structgen/templates");
+
+        for(String key : keys){
+            for(String value : values){
+                generate("PrimitiveMap", cap(key) + cap(value) + "Map", key, value);
+            }
+        }
+
+        for(String value : values){
+            generate("ObjectPrimitiveMap", "Object" + cap(value) + "Map", "Object", value);
+        }
+
+        for(String key : keys){
+            generate("PrimitiveSet", cap(key) + "Set", key, null);
+        }
+
+        for(String key : keys){
+            generate("ConcurrentPrimitiveMap", "Concurrent" + cap(key) + "Map", key, null);
+        }
+
+        for(String value : gridValues){
+            generate("PrimitiveChunkedGrid", cap(value) + "ChunkedGrid", null, value);
+        }
+
+        String test = read("StructsTest").replace("$tests$", tests.toString().trim());
+        write(root.resolve("test/utils/GeneratedStructsTest.java"), test, "StructsTest");
+    }
+
+    static void generate(String template, String name, String key, String value) throws IOException{
+        Map<String, String> tokens = new LinkedHashMap<>();
+        tokens.put("$Map$", name);
+        tokens.put("$Set$", name);
+        tokens.put("$Grid$", name);
+        if(key != null){
+            tokens.put("$key$", key);
+            tokens.put("$Key$", cap(key));
+            tokens.put("$KeyBox$", box(key));
+            tokens.put("$randomKey$", key.equals("long") ? "(rand.nextInt(2000) - 1000) * 0x100000001L" : "rand.nextInt(2000) - 1000");
+        }
+        if(value != null){
+            tokens.put("$value$", value);
+            tokens.put("$Value$", cap(value));
+            tokens.put("$ValueBox$", box(value));
+        }
+
+        write(root.resolve("src/arc/struct/" + name + ".java"), replace(read(template), tokens), template);
+        tests.append(replace(read(template + "Test"), tokens)).append('\n');
+        System.out.println("Generated " + name);
+    }
+
+    static String replace(String text, Map<String, String> tokens){
+        text = sections(text, tokens);
+        for(Map.Entry<String, String> entry : tokens.entrySet()){
+            text = text.replace(entry.getKey(), entry.getValue());
+        }
+        Matcher leftover = Pattern.compile("\\$[A-Za-z]+\\$").matcher(text);
+        if(leftover.find()) throw new IllegalArgumentException("Unknown token: " + leftover.group());
+        return text;
+    }
+
+    /** Removes the sections whose conditions don't match the tokens, and all section markers. */
+    static String sections(String text, Map<String, String> tokens){
+        StringBuilder out = new StringBuilder();
+        Boolean keep = null;
+        for(String line : text.split("\n", -1)){
+            Matcher start = sectionStart.matcher(line);
+            if(start.matches()){
+                if(keep != null) throw new IllegalArgumentException("Nested section: " + line.trim());
+                keep = matches(start.group(1).trim(), tokens);
+            }else if(sectionEnd.matcher(line).matches()){
+                if(keep == null) throw new IllegalArgumentException("//#end without //#if");
+                keep = null;
+            }else if(keep == null || keep){
+                out.append(line).append('\n');
+            }
+        }
+        if(keep != null) throw new IllegalArgumentException("Unterminated section");
+        return out.substring(0, out.length() - 1);
+    }
+
+    static boolean matches(String condition, Map<String, String> tokens){
+        for(String part : condition.split("\\s+")){
+            int split = part.indexOf('=');
+            if(split < 0) throw new IllegalArgumentException("Invalid section condition: " + part);
+            String token = "$" + part.substring(0, split) + "$";
+            if(!tokens.containsKey(token)) throw new IllegalArgumentException("Unknown token in section condition: " + part);
+            if(!Arrays.asList(part.substring(split + 1).split("\\|")).contains(tokens.get(token))) return false;
+        }
+        return true;
+    }
+
+    static String read(String template) throws IOException{
+        return new String(Files.readAllBytes(templates.resolve(template + ".java.template")), StandardCharsets.UTF_8);
+    }
+
+    static void write(Path path, String text, String template) throws IOException{
+        text = "// Do not edit this file! Generated by structgen/StructGenerator.java from " + template + ".java.template.\n" + text;
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String cap(String type){
+        return Character.toUpperCase(type.charAt(0)) + type.substring(1);
+    }
+
+    static String box(String type){
+        return type.equals("int") ? "Integer" : cap(type);
+    }
+}
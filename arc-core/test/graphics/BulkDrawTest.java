@@ -0,0 +1,153 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.math.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class BulkDrawTest{
+    static Texture textureA, textureB;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        textureA = new Texture(new Pixmap(4, 4));
+        textureB = new Texture(new Pixmap(4, 4));
+    }
+
+    @Test
+    public void matchesSingleDraws(){
+        for(boolean sort : new boolean[]{false, true}){
+            TextureRegion[] regions = {new TextureRegion(textureA, 0, 0, 2, 2), new TextureRegion(textureA, 2, 2, 2, 2), new TextureRegion(textureB)};
+            Sprites sprites = new Sprites(500, regions.length, new Rand(1));
+            //a few unrotated sprites go through the fast path
+            for(int i = 0; i < sprites.count; i += 3) sprites.rotation[i] = 0f;
+
+            CapturingBatch single = new CapturingBatch(sort), bulk = new CapturingBatch(sort);
+            for(int i = 0; i < sprites.count; i++){
+                single.single(regions[sprites.regions[i]], sprites, i);
+            }
+            single.end();
+
+            bulk.bulk(regions, sprites);
+            bulk.end();
+
+            assertEquals(single.vertices.size, bulk.vertices.size);
+            for(int i = 0; i < single.vertices.size; i++){
+                assertEquals("vertex float " + i, single.vertices.get(i), bulk.vertices.get(i), 0.0001f);
+            }
+            assertEquals(single.textures, bulk.textures);
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmarkBulk(){
+        //not an actual benchmark, ignore
+        TextureRegion[] regions = {new TextureRegion(textureA)};
+        Sprites sprites = new Sprites(100_000, 1, new Rand(2));
+        CapturingBatch batch = new CapturingBatch(true);
+        batch.capture = false;
+
+        for(boolean rotated : new boolean[]{true, false}){
+            float[] rotation = rotated ? sprites.rotation : null;
+            if(!rotated) sprites.rotation = new float[sprites.count];
+
+            for(int iteration = 0; iteration < 10; iteration++){
+                Time.mark();
+                for(int i = 0; i < sprites.count; i++){
+                    batch.single(regions[0], sprites, i);
+                }
+                batch.end();
+                float singleTime = Time.elapsed();
+
+                Time.mark();
+                batch.draw(regions, null, sprites.x, sprites.y, sprites.w, sprites.h, rotation, sprites.colors, sprites.count);
+                batch.end();
+                float bulkTime = Time.elapsed();
+
+                Log.info("@ @ sprites: single @ms, bulk @ms", sprites.count, rotated ? "rotated" : "unrotated", singleTime, bulkTime);
+            }
+        }
+    }
+
+    static class Sprites{
+        final int count;
+        final float[] x, y, w, h, colors;
+        float[] rotation;
+        final int[] regions;
+
+        Sprites(int count, int regionCount, Rand rand){
+            this.count = count;
+            x = new float[count];
+            y = new float[count];
+            w = new float[count];
+            h = new float[count];
+            rotation = new float[count];
+            colors = new float[count];
+            regions = new int[count];
+            for(int i = 0; i < count; i++){
+                x[i] = rand.range(500f);
+                y[i] = rand.range(500f);
+                w[i] = rand.random(1f, 40f);
+                h[i] = rand.random(1f, 40f);
+                rotation[i] = rand.random(360f);
+                colors[i] = Color.toFloatBits(rand.nextInt(256), rand.nextInt(256), rand.nextInt(256), 255);
+                //runs of the same region, like a real scene
+                regions[i] = (i / 7) % regionCount;
+            }
+        }
+    }
+
+    /** Batch that records flushed vertices instead of drawing them. */
+    static class CapturingBatch extends SpriteBatch{
+        FloatSeq vertices = new FloatSeq();
+        Seq<Texture> textures = new Seq<>();
+        boolean capture = true;
+
+        CapturingBatch(boolean sort){
+            super(0);
+            setSort(sort);
+        }
+
+        void single(TextureRegion region, Sprites sprites, int i){
+            setPackedColor(sprites.colors[i]);
+            float w = sprites.w[i], h = sprites.h[i];
+            draw(region, sprites.x[i] - w / 2f, sprites.y[i] - h / 2f, w / 2f, h / 2f, w, h, sprites.rotation[i]);
+        }
+
+        void bulk(TextureRegion[] regions, Sprites sprites){
+            draw(regions, sprites.regions, sprites.x, sprites.y, sprites.w, sprites.h, sprites.rotation, sprites.colors, 0, sprites.count);
+        }
+
+        void draw(TextureRegion[] regions, int[] indices, float[] x, float[] y, float[] w, float[] h, float[] rotation, float[] colors, int count){
+            draw(regions, indices, x, y, w, h, rotation, colors, 0, count);
+        }
+
+        void end(){
+            flush();
+        }
+
+        @Override
+        protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+            if(!capture) return;
+            if(textures.isEmpty() || textures.peek() != texture) textures.add(texture);
+            vertices.addAll(spriteVertices, offset, count);
+        }
+
+        @Override
+        protected void drawSuper(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+            if(!capture) return;
+            float[] out = new float[SPRITE_SIZE];
+            constructVertices(out, 0, region, x, y, originX, originY, width, height, rotation);
+            drawSuper(region.texture, out, 0, SPRITE_SIZE);
+        }
+    }
+}
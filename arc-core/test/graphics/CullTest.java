@@ -0,0 +1,103 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.math.geom.*;
+import arc.mock.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class CullTest{
+    static TextureRegion region;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        region = new TextureRegion(new Texture(new Pixmap(4, 4)));
+    }
+
+    @Test
+    public void cullsRegions(){
+        CountingBatch batch = new CountingBatch();
+        Core.batch = batch;
+        Draw.cull(new Rect(0f, 0f, 100f, 100f));
+
+        Draw.rect(region, 50f, 50f, 10f, 10f);
+        Draw.rect(region, 200f, 50f, 10f, 10f);
+        //partially visible
+        Draw.rect(region, -4f, 50f, 10f, 10f);
+        //only visible when rotated
+        Draw.rect(region, 50f, 104f, 2f, 10f, 90f);
+        Draw.rect(region, 50f, -50f, 10f, 10f, 45f);
+        Draw.flush();
+
+        assertEquals(3, batch.sprites);
+        assertEquals(3, batch.stats.spritesDrawn);
+        assertEquals(2, batch.stats.spritesCulled);
+
+        Draw.noCull();
+        Draw.rect(region, 200f, 50f, 10f, 10f);
+        Draw.flush();
+        assertEquals(4, batch.sprites);
+    }
+
+    @Test
+    public void cullsVertices(){
+        CountingBatch batch = new CountingBatch();
+        Core.batch = batch;
+        Draw.cull(new Rect(0f, 0f, 100f, 100f));
+
+        float[] vertices = new float[SpriteBatch.SPRITE_SIZE];
+        for(int i = 0; i < 4; i++){
+            vertices[i * SpriteBatch.VERTEX_SIZE] = 150f + i;
+            vertices[i * SpriteBatch.VERTEX_SIZE + 1] = 50f;
+        }
+        Draw.vert(region.texture, vertices, 0, vertices.length);
+        vertices[0] = 99f;
+        Draw.vert(region.texture, vertices, 0, vertices.length);
+        Draw.flush();
+
+        assertEquals(1, batch.sprites);
+        assertEquals(1, batch.stats.spritesCulled);
+        Draw.noCull();
+    }
+
+    @Test
+    public void followsProjection(){
+        CountingBatch batch = new CountingBatch();
+        Core.batch = batch;
+        Draw.proj(0f, 0f, 100f, 100f);
+        Draw.cull();
+
+        Draw.rect(region, 50f, 50f, 10f, 10f);
+        Draw.rect(region, 150f, 50f, 10f, 10f);
+
+        Draw.proj(100f, 0f, 100f, 100f);
+        Draw.rect(region, 50f, 50f, 10f, 10f);
+        Draw.rect(region, 150f, 50f, 10f, 10f);
+        Draw.flush();
+
+        assertEquals(2, batch.sprites);
+        assertEquals(2, batch.stats.spritesCulled);
+        Draw.noCull();
+    }
+
+    /** Sorting batch that counts flushed sprites instead of drawing them. */
+    static class CountingBatch extends SpriteBatch{
+        int sprites;
+
+        CountingBatch(){
+            super(0);
+            setSort(true);
+        }
+
+        @Override
+        protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+            sprites += count / SPRITE_SIZE;
+        }
+    }
+}
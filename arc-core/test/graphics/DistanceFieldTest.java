@@ -0,0 +1,94 @@
+package graphics;
+
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.PixmapPacker.*;
+import arc.math.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class DistanceFieldTest{
+    static final int glyphs = 95, spread = 4;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+    }
+
+    @Test
+    public void distanceField(){
+        Pixmap disk = new Pixmap(32, 32);
+        disk.fillCircle(16, 16, 10, Color.white.rgba());
+
+        Pixmap field = Pixmaps.distanceField(disk, spread, Color.white.rgba());
+        assertEquals(32 + spread * 2, field.width);
+        assertEquals(32 + spread * 2, field.height);
+
+        int cx = 16 + spread, cy = 16 + spread;
+        assertEquals(255, field.getA(cx, cy));
+        assertEquals(0, field.getA(0, 0));
+        assertEquals(0xffffff, field.get(cx, cy) >>> 8);
+
+        //alpha falls off evenly across the outline
+        int last = 256;
+        for(int x = cx; x < field.width; x++){
+            int a = field.getA(x, cy);
+            assertTrue(a <= last);
+            last = a;
+        }
+        assertEquals(128, field.getA(cx + 10, cy), 40);
+        assertEquals(128, field.getA(cx - 10, cy), 40);
+        assertEquals(0, field.getA(cx + 10 + spread + 1, cy));
+
+        //thresholding at 0.5 gives back the original shape
+        for(int y = 0; y < disk.height; y++){
+            for(int x = 0; x < disk.width; x++){
+                assertEquals(disk.getA(x, y) >= 128, field.getA(x + spread, y + spread) >= 128);
+            }
+        }
+
+        disk.dispose();
+        field.dispose();
+    }
+
+    @Test
+    public void textureMemory(){
+        //one distance field font replaces bitmap fonts at five sizes
+        int[] sizes = {12, 16, 24, 32, 48};
+        long bitmapBytes = 0;
+        for(int size : sizes){
+            bitmapBytes += packGlyphs(size, false);
+        }
+        long fieldBytes = packGlyphs(32, true);
+
+        Log.info("Bitmap fonts: @ KB, distance field font: @ KB", bitmapBytes / 1024, fieldBytes / 1024);
+        assertTrue(fieldBytes * 2 < bitmapBytes);
+    }
+
+    /** Packs glyph-sized shapes like FreeTypeFontGenerator.generateData does. @return the size of the pages in bytes. */
+    static long packGlyphs(int size, boolean distanceField){
+        int padding = distanceField ? spread * 2 : 0, lineHeight = (int)(size * 1.2f) + padding;
+        int pageSize = Mathf.nextPowerOfTwo((int)Math.sqrt(lineHeight * lineHeight * glyphs));
+        PixmapPacker packer = new PixmapPacker(pageSize, pageSize, 1, false, new SkylineStrategy());
+
+        Rand rand = new Rand(size);
+        for(int i = 0; i < glyphs; i++){
+            int width = Math.max((int)(size * rand.random(0.3f, 0.7f)), 1), height = Math.max((int)(size * rand.random(0.5f, 0.8f)), 1);
+            Pixmap glyph = new Pixmap(width, height);
+            glyph.fillCircle(width / 2, height / 2, Math.min(width, height) / 2, Color.white.rgba());
+            if(distanceField){
+                Pixmap field = Pixmaps.distanceField(glyph, spread, Color.white.rgba());
+                glyph.dispose();
+                glyph = field;
+            }
+            packer.pack(glyph);
+            glyph.dispose();
+        }
+
+        long bytes = (long)packer.getPages().size * pageSize * pageSize * 4;
+        packer.dispose();
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class DrawListTest{
+    static TextureRegion regionA, regionB;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        regionA = new TextureRegion(new Texture(new Pixmap(4, 4)));
+        regionB = new TextureRegion(new Texture(new Pixmap(4, 4)));
+    }
+
+    @Test
+    public void replayMatchesDirectDraws(){
+        for(boolean sort : new boolean[]{false, true}){
+            RecordingBatch direct = new RecordingBatch(sort), replayed = new RecordingBatch(sort);
+
+            Core.batch = direct;
+            scene(direct.log, 10f, 5f);
+            direct.end();
+
+            DrawList list = new DrawList();
+            list.begin();
+            scene(replayed.log, 0f, 0f);
+            list.end();
+
+            Core.batch = replayed;
+            list.draw(10f, 5f);
+            replayed.end();
+
+            assertTrue(direct.vertices.size > 0);
+            assertEquals(direct.vertices.size, replayed.vertices.size);
+            for(int i = 0; i < direct.vertices.size; i++){
+                //translating after rotation rounds slightly differently
+                assertEquals(direct.vertices.get(i), replayed.vertices.get(i), 0.001f);
+            }
+            assertEquals(direct.log, replayed.log);
+        }
+    }
+
+    @Test
+    public void mergesEntries(){
+        DrawList list = new DrawList();
+        Core.batch = new RecordingBatch(false);
+        list.begin();
+        for(int i = 0; i < 10; i++){
+            Draw.rect(regionA, i, 0f, 1f, 1f);
+        }
+        Draw.z(1f);
+        Draw.rect(regionA, 0f, 0f, 1f, 1f);
+        Draw.z(0f);
+        list.end();
+
+        //one entry per z layer
+        assertEquals(2, list.size());
+        assertEquals(11 * SpriteBatch.SPRITE_SIZE, list.vertexSize());
+    }
+
+    static void scene(Seq<String> log, float x, float y){
+        Draw.z(2f);
+        Draw.color(Color.red);
+        Draw.rect(regionA, x + 1f, y + 2f, 4f, 4f);
+        Draw.rect(regionB, x + 3f, y, 2f, 2f, 45f);
+        Draw.draw(1f, () -> log.add("run"));
+        Draw.z(0f);
+        Draw.blend(Blending.additive);
+        Draw.rect(regionA, x - 5f, y - 5f, 8f, 8f);
+        Draw.blend();
+        Draw.color();
+    }
+
+    /** Batch that records flushed vertices and blending changes instead of drawing them. */
+    static class RecordingBatch extends SpriteBatch{
+        FloatSeq vertices = new FloatSeq();
+        Seq<String> log = new Seq<>();
+
+        RecordingBatch(boolean sort){
+            super(0);
+            setSort(sort);
+        }
+
+        void end(){
+            flush();
+        }
+
+        @Override
+        protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+            log.add((texture == regionA.texture ? "A " : "B ") + blending);
+            vertices.addAll(spriteVertices, offset, count);
+        }
+
+        @Override
+        protected void drawSuper(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+            float[] out = new float[SPRITE_SIZE];
+            constructVertices(out, 0, region, x, y, originX, originY, width, height, rotation);
+            drawSuper(region.texture, out, 0, SPRITE_SIZE);
+        }
+    }
+}
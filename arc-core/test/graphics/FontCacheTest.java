@@ -0,0 +1,151 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.scene.ui.*;
+import arc.mock.*;
+import arc.scene.ui.Label.*;
+import arc.scene.ui.layout.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class FontCacheTest{
+    static Font font;
+
+    @BeforeClass
+    public static void init(){
+        FontData data = new FontData();
+        font = new Font(data, new TextureRegion(), false);
+        for(char c = ' '; c <= 'z'; c++){
+            Glyph glyph = new Glyph();
+            glyph.id = c;
+            glyph.width = 8;
+            glyph.height = 10;
+            glyph.xadvance = 10;
+            data.setGlyph(c, glyph);
+        }
+        data.spaceXadvance = 10;
+        data.capHeight = 10;
+        data.lineHeight = 12;
+        data.down = -12;
+    }
+
+    @Test
+    public void movesUnchangedLayouts(){
+        FontCache cache = new FontCache(font, false);
+        GlyphLayout layout = new GlyphLayout(font, "abc");
+
+        cache.updateText(layout, 0f, 0f);
+        float firstX = cache.getVertices()[0];
+        cache.updateText(layout, 5f, 3f);
+
+        assertEquals(1, cache.rebuilds);
+        assertEquals(1, cache.rebuildsSkipped);
+        assertEquals(firstX + 5f, cache.getVertices()[0], 0.0001f);
+
+        //setting the layout again changes its version, so the glyphs are rebuilt
+        layout.setText(font, "abcd");
+        cache.updateText(layout, 5f, 3f);
+        assertEquals(2, cache.rebuilds);
+        assertEquals(4 * 24, cache.getVertexCount(0));
+        assertEquals(firstX + 5f, cache.getVertices()[0], 0.0001f);
+    }
+
+    @Test
+    public void tintOnlyChangesColors(){
+        FontCache cache = new FontCache(font, false);
+        cache.updateText(new GlyphLayout(font, "abc"), 0f, 0f);
+        float[] before = cache.getVertices().clone();
+
+        cache.tint(Color.red);
+        float[] after = cache.getVertices();
+        for(int i = 0; i < cache.getVertexCount(0); i++){
+            if(i % 6 == 2){
+                assertEquals(Color.red.toFloatBits(), after[i], 0f);
+            }else{
+                assertEquals(before[i], after[i], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void labelSkipsRebuilds(){
+        for(boolean cached : new boolean[]{false, true}){
+            LabelStyle style = new LabelStyle();
+            style.font = font;
+            Label label = new Label("hello\nworld", style);
+            if(cached) label.layoutCache = new GlyphLayoutCache();
+            label.setAlignment(Align.center);
+            label.setSize(200f, 40f);
+            label.validate();
+            GlyphLayout layout = label.getGlyphLayout();
+            int version = layout.version;
+
+            //moving and resizing vertically only changes the position of the text
+            label.setSize(200f, 80f);
+            label.validate();
+            label.setPosition(30f, 30f);
+            label.validate();
+            label.invalidate();
+            label.validate();
+            assertEquals(1, label.getFontCache().rebuilds);
+            assertEquals(2, label.getFontCache().rebuildsSkipped);
+            assertSame(layout, label.getGlyphLayout());
+            assertEquals(version, layout.version);
+
+            label.setText("world");
+            label.validate();
+            assertEquals(2, label.getFontCache().rebuilds);
+            assertEquals(cached, label.getGlyphLayout().isReadOnly());
+
+            //changing a layout parameter lays the text out again
+            label.setAlignment(Align.left);
+            label.validate();
+            assertEquals(3, label.getFontCache().rebuilds);
+        }
+    }
+
+    @Test
+    public void labelRelayoutsAddedGlyphs(){
+        Core.graphics = new MockGraphics();
+        LabelStyle style = new LabelStyle();
+        style.font = font;
+        GlyphLabel label = new GlyphLabel("hello", style);
+        Table table = new Table();
+        table.add(label);
+        table.setSize(200f, 40f);
+        table.validate();
+        float width = label.getPrefWidth();
+
+        //same glyph sizes: only the label lays its text out again
+        font.getData().glyphVersion++;
+        label.checkGlyphs();
+        assertTrue(label.needsLayout());
+        assertFalse(table.needsLayout());
+        table.validate();
+
+        //a wider glyph changes the preferred size, so the table is laid out again too
+        Glyph glyph = font.getData().getGlyph('h');
+        glyph.xadvance = 20;
+        font.getData().glyphVersion++;
+        label.checkGlyphs();
+        assertTrue(table.needsLayout());
+        assertEquals(width + 10f, label.getPrefWidth(), 0.0001f);
+        glyph.xadvance = 10;
+    }
+
+    static class GlyphLabel extends Label{
+        GlyphLabel(CharSequence text, LabelStyle style){
+            super(text, style);
+        }
+
+        @Override
+        public void checkGlyphs(){
+            super.checkGlyphs();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package graphics;
+
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class GlyphLayoutCacheTest{
+    static Font font;
+
+    @BeforeClass
+    public static void init(){
+        FontData data = new FontData();
+        font = new Font(data, new TextureRegion(), false);
+        for(char c = ' '; c <= 'z'; c++){
+            Glyph glyph = new Glyph();
+            glyph.id = c;
+            glyph.width = 8;
+            glyph.height = 10;
+            glyph.xadvance = 10;
+            data.setGlyph(c, glyph);
+        }
+        data.spaceXadvance = 10;
+        data.capHeight = 10;
+        data.lineHeight = 12;
+        data.down = -12;
+    }
+
+    @Test
+    public void hitsAndMisses(){
+        GlyphLayoutCache cache = new GlyphLayoutCache();
+        StringBuilder text = new StringBuilder("hello world");
+
+        GlyphLayout first = cache.get(font, text, Color.white, 0f, Align.left, false);
+        assertSame(first, cache.get(font, "hello world", Color.white, 0f, Align.left, false));
+        assertTrue(first.isReadOnly());
+        try{
+            first.setText(font, "changed");
+            fail("Cached layouts must be read-only.");
+        }catch(IllegalStateException expected){
+        }
+        assertEquals(1, cache.hits);
+        assertEquals(1, cache.misses);
+
+        //matches a layout made without the cache
+        GlyphLayout direct = new GlyphLayout(font, text, Color.white, 0f, Align.left, false);
+        assertEquals(direct.width, first.width, 0.0001f);
+        assertEquals(direct.height, first.height, 0.0001f);
+
+        //changing the source text must not change the cached key
+        text.setCharAt(0, 'j');
+        assertNotSame(first, cache.get(font, text, Color.white, 0f, Align.left, false));
+        assertSame(first, cache.get(font, "hello world", Color.white, 0f, Align.left, false));
+
+        //every layout parameter is part of the key
+        assertNotSame(first, cache.get(font, "hello world", Color.red, 0f, Align.left, false));
+        assertNotSame(first, cache.get(font, "hello world", Color.white, 60f, Align.left, true));
+        assertNotSame(first, cache.get(font, "hello world", Color.white, 60f, Align.left, false, "..."));
+        font.getData().setScale(2f);
+        assertNotSame(first, cache.get(font, "hello world", Color.white, 0f, Align.left, false));
+        font.getData().setScale(1f);
+
+        //glyphs that replace placeholders change the layout
+        font.getData().glyphVersion++;
+        assertNotSame(first, cache.get(font, "hello world", Color.white, 0f, Align.left, false));
+
+        assertEquals(7, cache.size());
+        cache.clear(font);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.memory());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed(){
+        GlyphLayoutCache cache = new GlyphLayoutCache(3, Long.MAX_VALUE);
+        GlyphLayout a = cache.get(font, "a"), b = cache.get(font, "b");
+        cache.get(font, "c");
+
+        //touch a, so b is the oldest
+        cache.get(font, "a");
+        cache.get(font, "d");
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictions);
+        assertSame(a, cache.get(font, "a"));
+        assertNotSame(b, cache.get(font, "b"));
+    }
+
+    @Test
+    public void memoryCap(){
+        GlyphLayoutCache cache = new GlyphLayoutCache(Integer.MAX_VALUE, 4096);
+        for(int i = 0; i < 1000; i++){
+            cache.get(font, "label number " + i);
+        }
+
+        assertTrue(cache.memory() <= 4096);
+        assertTrue(cache.size() > 0);
+        assertEquals(1000 - cache.size(), cache.evictions);
+    }
+}
@@ -0,0 +1,196 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.math.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.lang.reflect.*;
+
+import static org.junit.Assert.*;
+
+public class InstancedSpriteBatchTest{
+    static Texture texture;
+    static Application lastApp;
+    RecordingBatch batch;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        StreamingVertexBufferTest.RecordingGL gl = new StreamingVertexBufferTest.RecordingGL();
+        Core.gl = Core.gl20 = gl;
+        //GL30-only calls do nothing, the rest compile any shader
+        Core.gl30 = (GL30)Proxy.newProxyInstance(GL30.class.getClassLoader(), new Class[]{GL30.class}, (proxy, method, args) -> {
+            if(method.getDeclaringClass().isAssignableFrom(GL20.class)) return method.invoke(gl, args);
+            Class<?> type = method.getReturnType();
+            if(type == boolean.class) return false;
+            if(type == int.class) return 0;
+            return null;
+        });
+        Core.graphics = new MockGraphics();
+        //shaders are preprocessed for the platform when GL30 is present
+        lastApp = Core.app;
+        Core.app = new MockApplication();
+        texture = new Texture(new Pixmap(4, 4));
+    }
+
+    @AfterClass
+    public static void reset(){
+        Core.gl30 = null;
+        Core.app = lastApp;
+        Core.gl = Core.gl20 = new MockGL20();
+    }
+
+    @After
+    public void disposeBatch(){
+        //batches hold a reference to the shared quad indices
+        if(batch != null) batch.dispose();
+        batch = null;
+    }
+
+    @Test
+    public void packsRecords(){
+        batch = new RecordingBatch();
+        TextureRegion region = new TextureRegion(texture, 0f, 0.25f, 1f, 0.75f);
+        batch.color(Color.red.toFloatBits());
+        batch.sprite(region, 10f, 20f, 3f, 4f, 30f, 40f, 45f);
+
+        assertEquals(1, batch.instances());
+        //(u, v2) then (u2, v) at full precision
+        assertArrayEquals(new float[]{10f, 20f, 30f, 40f, 3f, 4f, 45f, 0f, 0.75f, 1f, 0.25f, Color.red.toFloatBits(), Color.clearFloatBits}, batch.record(0), 0f);
+    }
+
+    @Test
+    public void matchesSpriteVertices(){
+        batch = new RecordingBatch();
+        TextureRegion region = new TextureRegion(texture, 0.1f, 0.2f, 0.6f, 0.9f);
+        float[][] draws = {
+            {0f, 0f, 0f, 0f, 16f, 16f, 0f},
+            {-5f, 7f, 8f, 2f, 16f, 4f, 90f},
+            {100f, -30f, -3f, 12f, 9f, 25f, 217.5f}
+        };
+
+        float[] vertices = new float[SpriteBatch.SPRITE_SIZE];
+        for(int d = 0; d < draws.length; d++){
+            float[] a = draws[d];
+            batch.sprite(region, a[0], a[1], a[2], a[3], a[4], a[5], a[6]);
+            batch.vertices(vertices, region, a);
+            float[] record = batch.record(d);
+
+            //expand the record into its 4 corners the same way the vertex shader does
+            float x = record[0], y = record[1], width = record[2], height = record[3], originX = record[4], originY = record[5];
+            float cos = Mathf.cosDeg(record[6]), sin = Mathf.sinDeg(record[6]);
+            float[] uv = {record[7], record[8], record[9], record[10]};
+            float[] corners = {0f, 0f, 0f, 1f, 1f, 1f, 1f, 0f};
+
+            for(int v = 0; v < 4; v++){
+                float cx = corners[v * 2], cy = corners[v * 2 + 1];
+                float lx = cx * width - originX, ly = cy * height - originY;
+                int i = v * SpriteBatch.VERTEX_SIZE;
+                assertEquals(vertices[i], x + originX + cos * lx - sin * ly, 0.001f);
+                assertEquals(vertices[i + 1], y + originY + sin * lx + cos * ly, 0.001f);
+                assertEquals(vertices[i + 3], Mathf.lerp(uv[0], uv[2], cx), 0.000001f);
+                assertEquals(vertices[i + 4], Mathf.lerp(uv[1], uv[3], cy), 0.000001f);
+            }
+        }
+        assertEquals(draws.length, batch.instances());
+    }
+
+    @Test
+    public void repeatingRegionsAreInstanced(){
+        batch = new RecordingBatch();
+        batch.sprite(new TextureRegion(texture, 0f, 0f, 2f, 1f), 0f, 0f, 0f, 0f, 1f, 1f, 0f);
+        assertEquals(1, batch.instances());
+        assertEquals(0, batch.vertexCount());
+        assertEquals(2f, batch.record(0)[9], 0f);
+    }
+
+    @Test
+    public void sortedSpritesAreInstanced(){
+        batch = new RecordingBatch();
+        batch.sort();
+        TextureRegion region = new TextureRegion(texture);
+        batch.layer(2f);
+        batch.sprite(region, 1f, 0f, 0f, 0f, 1f, 1f, 0f);
+        batch.sprite(region, 2f, 0f, 0f, 0f, 1f, 1f, 0f);
+        batch.layer(1f);
+        batch.color(Color.red.toFloatBits());
+        batch.sprite(region, 3f, 0f, 0f, 0f, 1f, 1f, 0f);
+        assertEquals(0, batch.instances());
+        assertEquals(0, batch.vertexCount());
+
+        batch.end();
+        //one draw call for all three, ordered by z, without building any vertices
+        assertEquals(1, batch.uploads.size);
+        assertEquals(1, batch.stats.drawCalls);
+        assertEquals(0, batch.vertexCount());
+        float[] records = batch.uploads.first();
+        assertEquals(3 * InstancedSpriteBatch.RECORD_SIZE, records.length);
+        assertEquals(3f, records[0], 0f);
+        assertEquals(Color.red.toFloatBits(), records[11], 0f);
+        assertEquals(1f, records[InstancedSpriteBatch.RECORD_SIZE], 0f);
+        assertEquals(2f, records[InstancedSpriteBatch.RECORD_SIZE * 2], 0f);
+        assertEquals(Color.whiteFloatBits, records[InstancedSpriteBatch.RECORD_SIZE * 2 + 11], 0f);
+    }
+
+    static class RecordingBatch extends InstancedSpriteBatch{
+        Seq<float[]> uploads = new Seq<>();
+
+        RecordingBatch(){
+            super(16);
+            assertTrue(instanced);
+        }
+
+        void sort(){
+            setSort(true);
+        }
+
+        void layer(float z){
+            z(z);
+        }
+
+        void end(){
+            flush();
+        }
+
+        @Override
+        protected void flushInstances(int cause){
+            if(instances > 0){
+                float[] copy = new float[instances * RECORD_SIZE];
+                System.arraycopy(records, 0, copy, 0, copy.length);
+                uploads.add(copy);
+            }
+            super.flushInstances(cause);
+        }
+
+        void color(float color){
+            setPackedColor(color);
+        }
+
+        void sprite(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float rotation){
+            draw(region, x, y, originX, originY, width, height, rotation);
+        }
+
+        int instances(){
+            return instances;
+        }
+
+        int vertexCount(){
+            return idx;
+        }
+
+        float[] record(int index){
+            float[] out = new float[RECORD_SIZE];
+            System.arraycopy(records, index * RECORD_SIZE, out, 0, RECORD_SIZE);
+            return out;
+        }
+
+        void vertices(float[] out, TextureRegion region, float[] a){
+            constructVertices(out, 0, region, a[0], a[1], a[2], a[3], a[4], a[5], a[6]);
+        }
+    }
+}
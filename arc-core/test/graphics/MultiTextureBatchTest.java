@@ -0,0 +1,166 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class MultiTextureBatchTest{
+    static Texture[] all = new Texture[6];
+    RecordingBatch batch;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        //a GL that compiles any shader and reports 16 texture units
+        Core.gl = Core.gl20 = new StreamingVertexBufferTest.RecordingGL(){
+            @Override
+            public void glGetIntegerv(int pname, IntBuffer params){
+                params.put(0, pname == GL20.GL_MAX_TEXTURE_IMAGE_UNITS ? 16 : 0);
+            }
+        };
+        Core.graphics = new MockGraphics();
+        for(int i = 0; i < all.length; i++){
+            all[i] = new Texture(new Pixmap(4, 4));
+        }
+    }
+
+    @AfterClass
+    public static void reset(){
+        Core.gl = Core.gl20 = new MockGL20();
+    }
+
+    @After
+    public void disposeBatch(){
+        //batches hold a reference to the shared quad indices
+        if(batch != null) batch.dispose();
+        batch = null;
+    }
+
+    @Test
+    public void assignsSlots(){
+        batch = new RecordingBatch(100, 4);
+        assertEquals(4, batch.getSlots());
+
+        //repeated textures keep their slot
+        batch.draw(0, 1, 0, 2, 3, 1);
+        batch.end();
+        assertEquals(1, batch.flushes.size);
+        Flush flush = batch.flushes.first();
+        assertArrayEquals(new Texture[]{all[0], all[1], all[2], all[3]}, flush.textures);
+        assertArrayEquals(new int[]{0, 1, 0, 2, 3, 1}, flush.slots.toArray());
+        assertEquals(BatchStats.flushExplicit, flush.cause);
+        assertEquals(1, batch.stats.drawCalls);
+    }
+
+    @Test
+    public void flushesWhenSlotsAreFull(){
+        batch = new RecordingBatch(100, 4);
+
+        //the fifth texture doesn't fit, so the batch flushes and starts again at slot 0
+        batch.draw(0, 1, 2, 3, 4, 0, 5);
+        batch.end();
+        assertEquals(2, batch.flushes.size);
+        assertEquals(BatchStats.flushTexture, batch.flushes.get(0).cause);
+        assertEquals(4, batch.flushes.get(0).textures.length);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, batch.flushes.get(0).slots.toArray());
+        assertArrayEquals(new Texture[]{all[4], all[0], all[5]}, batch.flushes.get(1).textures);
+        assertArrayEquals(new int[]{0, 1, 2}, batch.flushes.get(1).slots.toArray());
+    }
+
+    @Test
+    public void flushesWhenBufferIsFull(){
+        batch = new RecordingBatch(3, 4);
+
+        batch.draw(0, 1, 0, 1, 2);
+        batch.end();
+        assertEquals(2, batch.flushes.size);
+        assertEquals(BatchStats.flushBuffer, batch.flushes.get(0).cause);
+        assertArrayEquals(new int[]{0, 1, 0}, batch.flushes.get(0).slots.toArray());
+        //slots are assigned again after every flush
+        assertArrayEquals(new Texture[]{all[1], all[2]}, batch.flushes.get(1).textures);
+        assertArrayEquals(new int[]{0, 1}, batch.flushes.get(1).slots.toArray());
+    }
+
+    @Test
+    public void countsFlushesSavedByStateSorting(){
+        int[] order = {0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5};
+        batch = new RecordingBatch(100, 4);
+        batch.sort(false);
+        batch.draw(order);
+        batch.end();
+        int unsorted = batch.stats.flushes[BatchStats.flushTexture];
+        assertEquals(2, unsorted);
+        assertEquals(0, batch.stats.stateSortSaved);
+        batch.dispose();
+
+        batch = new RecordingBatch(100, 4);
+        batch.sort(true);
+        batch.draw(order);
+        batch.end();
+        //only actual flushes count, not every texture change
+        assertEquals(1, batch.stats.flushes[BatchStats.flushTexture]);
+        assertEquals(unsorted - 1, batch.stats.stateSortSaved);
+    }
+
+    @Test
+    public void clampsSlots(){
+        assertEquals(MultiTextureBatch.maxSlots, MultiTextureBatch.supportedSlots(64));
+        assertEquals(1, MultiTextureBatch.supportedSlots(0));
+    }
+
+    static class Flush{
+        Texture[] textures;
+        IntSeq slots = new IntSeq();
+        int cause;
+    }
+
+    static class RecordingBatch extends MultiTextureBatch{
+        Seq<Flush> flushes = new Seq<>();
+
+        RecordingBatch(int size, int slots){
+            super(size, slots);
+        }
+
+        void draw(int... textureIndices){
+            for(int index : textureIndices){
+                draw(new TextureRegion(all[index]), 0f, 0f, 0f, 0f, 1f, 1f, 0f);
+            }
+        }
+
+        void sort(boolean state){
+            setSort(true);
+            setStateSort(state);
+        }
+
+        void end(){
+            flush();
+        }
+
+        @Override
+        protected void flush(){
+            if(idx > 0){
+                Flush flush = new Flush();
+                flush.textures = new Texture[usedSlots];
+                System.arraycopy(this.textures, 0, flush.textures, 0, usedSlots);
+                flush.cause = flushCause;
+                for(int i = 0; i < idx; i += SPRITE_SIZE){
+                    //every vertex of a sprite has the same slot
+                    for(int v = 0; v < 4; v++){
+                        assertEquals(buffer.get(i + 6), buffer.get(i + v * VERTEX_SIZE + 6), 0f);
+                    }
+                    flush.slots.add((int)buffer.get(i + 6));
+                }
+                flushes.add(flush);
+            }
+            super.flush();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.gl.*;
+import arc.mock.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class QuadIndexDataTest{
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        Core.gl30 = null;
+    }
+
+    @Test
+    public void sharedAndGrown(){
+        QuadIndexData small = QuadIndexData.obtain(10, false);
+        QuadIndexData large = QuadIndexData.obtain(100, false);
+
+        assertSame(small, large);
+        assertEquals(2, small.references());
+        assertEquals(100, small.quads());
+        assertEquals(600, small.max());
+        assertEquals(GL20.GL_UNSIGNED_SHORT, small.type());
+
+        ShortBuffer buffer = small.buffer();
+        short[] expected = {0, 1, 2, 2, 3, 0, 4, 5, 6, 6, 7, 4};
+        for(int i = 0; i < expected.length; i++){
+            assertEquals(expected[i], buffer.get(i));
+        }
+        assertEquals(396, buffer.get(594));
+
+        small.dispose();
+        assertEquals(1, large.references());
+        large.dispose();
+        assertEquals(0, large.references());
+
+        //a new instance is created once all references are gone
+        QuadIndexData next = QuadIndexData.obtain(4, false);
+        assertNotSame(small, next);
+        assertEquals(4, next.quads());
+        next.dispose();
+    }
+
+    @Test
+    public void wideIndices(){
+        Application app = Core.app;
+        Graphics graphics = Core.graphics;
+        Core.app = new MockApplication();
+        QuadIndexData wide = QuadIndexData.obtain(QuadIndexData.maxShortQuads + 1, false);
+        assertEquals(GL20.GL_UNSIGNED_INT, wide.type());
+        QuadIndexData narrow = QuadIndexData.obtain(1, false, false);
+        assertNotSame(wide, narrow);
+        narrow.dispose();
+        wide.dispose();
+
+        try{
+            QuadIndexData.obtain(QuadIndexData.maxShortQuads + 1, true);
+            fail("32-bit client-side indices should not be allowed");
+        }catch(IllegalArgumentException ignored){
+        }
+
+        //GLES 2.0 without OES_element_index_uint can't draw 32-bit indices
+        Core.app = null;
+        Core.graphics = new MockGraphics();
+        assertFalse(QuadIndexData.wideSupported());
+        try{
+            QuadIndexData.obtain(QuadIndexData.maxShortQuads + 1, false);
+            fail("32-bit indices should not be allowed without GL 3.0 or the extension");
+        }catch(ArcRuntimeException ignored){
+        }
+        QuadIndexData.obtain(QuadIndexData.maxShortQuads, false).dispose();
+
+        Core.app = app;
+        Core.graphics = graphics;
+    }
+
+    @Test
+    public void batchesShareIndices(){
+        //a GL that compiles any shader
+        Core.gl = Core.gl20 = new StreamingVertexBufferTest.RecordingGL();
+        Core.graphics = new MockGraphics();
+        MeshBatch a = new MeshBatch(100), b = new MeshBatch(1000);
+        SpriteCache cache = new SpriteCache(10, true);
+
+        QuadIndexData shared = (QuadIndexData)a.mesh().indices;
+        assertSame(shared, b.mesh().indices);
+        assertEquals(1000, shared.quads());
+        assertEquals(2, shared.references());
+
+        a.dispose();
+        b.dispose();
+        cache.dispose();
+        assertEquals(0, shared.references());
+        Core.gl = Core.gl20 = new MockGL20();
+    }
+
+    static class MeshBatch extends SpriteBatch{
+        MeshBatch(int size){
+            super(size);
+        }
+
+        Mesh mesh(){
+            return mesh;
+        }
+    }
+}
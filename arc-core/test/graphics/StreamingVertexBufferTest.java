@@ -0,0 +1,149 @@
+package graphics;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.gl.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class StreamingVertexBufferTest{
+    static RecordingGL gl;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = gl = new RecordingGL();
+        Core.gl30 = null;
+    }
+
+    @Test
+    public void segmentRotation(){
+        Mesh mesh = new Mesh(false, 16, 0, VertexAttribute.position, VertexAttribute.color);
+        mesh.setStreaming(3);
+        StreamingVertexBufferObject vertices = (StreamingVertexBufferObject)mesh.vertices;
+        Shader shader = new Shader("attribute vec4 a_position;\nvoid main(){}", "void main(){}");
+
+        int segmentBytes = mesh.vertexSize * 16;
+        assertEquals(-1, vertices.segment());
+        assertEquals(16, vertices.max());
+
+        gl.clear();
+        for(int i = 0; i < 5; i++){
+            FloatBuffer buffer = mesh.getVerticesBuffer();
+            buffer.clear();
+            buffer.put(new float[mesh.vertexSize / 4 * 4]);
+            buffer.flip();
+
+            mesh.bind(shader);
+            assertEquals(i % 3, vertices.segment());
+            assertEquals((i % 3) * segmentBytes, vertices.segmentOffset());
+            mesh.unbind(shader);
+        }
+
+        //every upload goes to the next segment
+        assertEquals(IntSeq.with(0, segmentBytes, 2 * segmentBytes, 0, segmentBytes), gl.subDataOffsets);
+        //the buffer is orphaned each time the ring wraps around
+        assertEquals(2, gl.orphans);
+        //attribute pointers follow the segment
+        assertEquals(IntSeq.with(0, segmentBytes, 2 * segmentBytes, 0, segmentBytes), gl.pointerOffsets);
+    }
+
+    @Test
+    public void rebindWithoutChanges(){
+        Mesh mesh = new Mesh(false, 8, 0, VertexAttribute.position);
+        mesh.setStreaming(2);
+        StreamingVertexBufferObject vertices = (StreamingVertexBufferObject)mesh.vertices;
+        Shader shader = new Shader("attribute vec4 a_position;\nvoid main(){}", "void main(){}");
+
+        gl.clear();
+        mesh.bind(shader);
+        mesh.unbind(shader);
+        mesh.bind(shader);
+        mesh.unbind(shader);
+
+        //the second bind reuses the uploaded segment
+        assertEquals(1, gl.subDataOffsets.size);
+        assertEquals(0, vertices.segment());
+        assertEquals(IntSeq.with(0, 0), gl.pointerOffsets);
+
+        mesh.getVerticesBuffer();
+        mesh.bind(shader);
+        assertEquals(1, vertices.segment());
+        assertEquals(8 * mesh.vertexSize, gl.pointerOffsets.peek());
+        mesh.unbind(shader);
+    }
+
+    /** Mock GL that records buffer uploads and attribute pointers, and compiles any shader with a single position attribute. */
+    static class RecordingGL extends MockGL20{
+        IntSeq subDataOffsets = new IntSeq(), pointerOffsets = new IntSeq();
+        int orphans;
+
+        void clear(){
+            subDataOffsets.clear();
+            pointerOffsets.clear();
+            orphans = 0;
+        }
+
+        @Override
+        public void glBufferData(int target, int size, Buffer data, int usage){
+            if(data == null) orphans++;
+        }
+
+        @Override
+        public void glBufferSubData(int target, int offset, int size, Buffer data){
+            subDataOffsets.add(offset);
+        }
+
+        @Override
+        public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr){
+            //only the first attribute is recorded, which starts at the segment offset
+            if(indx == 0) pointerOffsets.add(ptr);
+        }
+
+        @Override
+        public int glCreateShader(int type){
+            return 1;
+        }
+
+        @Override
+        public int glCreateProgram(){
+            return 1;
+        }
+
+        @Override
+        public void glGetShaderiv(int shader, int pname, IntBuffer params){
+            params.put(0, 1);
+        }
+
+        @Override
+        public void glGetProgramiv(int program, int pname, IntBuffer params){
+            params.put(0, pname == GL20.GL_ACTIVE_UNIFORMS ? 0 : 1);
+        }
+
+        @Override
+        public String glGetActiveAttrib(int program, int index, IntBuffer size, IntBuffer type){
+            return Shader.positionAttribute;
+        }
+
+        @Override
+        public int glGetAttribLocation(int program, String name){
+            return name.equals(Shader.positionAttribute) ? 0 : -1;
+        }
+
+        @Override
+        public String glGetShaderInfoLog(int shader){
+            return "";
+        }
+
+        @Override
+        public String glGetProgramInfoLog(int program){
+            return "";
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package scene;
+
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.math.geom.*;
+import arc.mock.*;
+import arc.scene.*;
+import arc.scene.actions.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class BitmapCacheTest{
+    static TextureRegion region;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        Core.app = new MockApplication();
+        Core.graphics = new MockGraphics();
+        Core.batch = new NullBatch();
+        region = new TextureRegion(new Texture(new Pixmap(4, 4)));
+    }
+
+    @Test
+    public void redrawsOnlyWhenChanged(){
+        Group group = new Group(){};
+        group.setSize(100f, 100f);
+        CountingElement a = new CountingElement(), b = new CountingElement();
+        group.addChild(a);
+        group.addChild(b);
+        a.setBounds(0f, 0f, 10f, 10f);
+        b.setBounds(20f, 0f, 10f, 10f);
+
+        group.setCacheAsBitmap(true);
+        group.draw();
+        group.draw();
+        group.draw();
+        assertEquals(1, a.draws);
+        assertEquals(0, group.cacheInvalidations);
+        assertTrue(Group.cacheMemory() > 0);
+
+        //layout
+        b.invalidate();
+        group.draw();
+        assertEquals(2, a.draws);
+
+        //color and visibility
+        b.setColor(1f, 1f, 1f, 0.5f);
+        group.draw();
+        b.visible(() -> false);
+        b.updateVisibility();
+        group.draw();
+        assertEquals(4, a.draws);
+        assertEquals(3, b.draws);
+
+        //actions
+        a.addAction(Actions.delay(1f));
+        group.act(0.1f);
+        group.draw();
+        assertEquals(5, a.draws);
+        assertEquals(4, group.cacheInvalidations);
+
+        //nothing changed, the group is still drawn from the cache
+        a.clearActions();
+        group.act(0.1f);
+        group.draw();
+        assertEquals(5, a.draws);
+
+        //transform setters
+        a.setTranslation(1f, 0f);
+        group.draw();
+        a.setScale(2f);
+        group.draw();
+        a.setRotation(45f);
+        group.draw();
+        assertEquals(8, a.draws);
+
+        group.setCacheAsBitmap(false);
+        group.draw();
+        assertEquals(9, a.draws);
+    }
+
+    @Test
+    public void paranoidCatchesFieldWrites(){
+        Group group = new Group(){};
+        group.setSize(100f, 100f);
+        CountingElement a = new CountingElement();
+        group.addChild(a);
+        a.setBounds(0f, 0f, 10f, 10f);
+        group.setCacheAsBitmap(true);
+        group.draw();
+
+        //without the flag, direct writes are not noticed
+        a.x = 5f;
+        a.color.a = 0.5f;
+        group.draw();
+        assertEquals(1, a.draws);
+
+        group.paranoid = true;
+        group.draw();
+        assertEquals(2, a.draws);
+        group.draw();
+        assertEquals(2, a.draws);
+
+        a.visible = false;
+        group.draw();
+        a.visible = true;
+        a.y = 3f;
+        group.draw();
+        assertEquals(3, a.draws);
+        group.setCacheAsBitmap(false);
+    }
+
+    @Test
+    public void clipsInsideTheCache(){
+        Graphics lastGraphics = Core.graphics;
+        GL20 lastGL = Core.gl;
+        ScissorGL gl = new ScissorGL();
+        Core.gl = Core.gl20 = gl;
+        Core.graphics = new MockGraphics(){
+            @Override
+            public int getWidth(){
+                return 200;
+            }
+
+            @Override
+            public int getHeight(){
+                return 200;
+            }
+
+            @Override
+            public int getBackBufferWidth(){
+                return 200;
+            }
+
+            @Override
+            public int getBackBufferHeight(){
+                return 200;
+            }
+        };
+
+        try{
+            Scene scene = new Scene();
+            Group group = new Group(){};
+            scene.root.addChild(group);
+            group.setBounds(50f, 50f, 100f, 100f);
+            ClippingElement child = new ClippingElement();
+            group.addChild(child);
+            child.setBounds(10f, 20f, 30f, 40f);
+            group.setCacheAsBitmap(true);
+
+            Draw.proj(0f, 0f, 200f, 200f);
+            Draw.blend(Blending.additive);
+            Draw.color(Color.red);
+            //the screen scissor doesn't overlap the child, but must not clip the cache
+            assertTrue(ScissorStack.push(new Rect(100f, 100f, 100f, 100f)));
+            group.draw();
+
+            //the child is clipped at its position in the cache, not on the screen
+            assertTrue(child.clipped);
+            assertArrayEquals(new int[]{10, 20, 30, 40}, gl.scissors.get(1));
+            //the screen scissor is applied again afterwards
+            assertArrayEquals(new int[]{100, 100, 100, 100}, gl.scissors.peek());
+            assertTrue(gl.scissorTest);
+
+            //the caller's state is kept
+            assertSame(Blending.additive, Draw.getBlend());
+            assertEquals(Color.red.toFloatBits(), Draw.getColorPacked(), 0f);
+
+            Draw.flush();
+            ScissorStack.pop();
+            assertFalse(gl.scissorTest);
+            group.setCacheAsBitmap(false);
+        }finally{
+            Draw.blend();
+            Draw.color();
+            Core.graphics = lastGraphics;
+            Core.gl = Core.gl20 = lastGL;
+        }
+    }
+
+    static class ClippingElement extends Element{
+        boolean clipped;
+
+        @Override
+        public void draw(){
+            if(clipBegin()){
+                clipped = true;
+                Draw.rect(region, x, y, width, height);
+                clipEnd();
+            }
+        }
+    }
+
+    static class ScissorGL extends MockGL20{
+        Seq<int[]> scissors = new Seq<>();
+        boolean scissorTest;
+
+        @Override
+        public void glScissor(int x, int y, int width, int height){
+            scissors.add(new int[]{x, y, width, height});
+        }
+
+        @Override
+        public void glEnable(int cap){
+            if(cap == GL20.GL_SCISSOR_TEST) scissorTest = true;
+        }
+
+        @Override
+        public void glDisable(int cap){
+            if(cap == GL20.GL_SCISSOR_TEST) scissorTest = false;
+        }
+    }
+
+    static class CountingElement extends Element{
+        int draws;
+
+        @Override
+        public void draw(){
+            super.draw();
+            draws++;
+            Draw.rect(region, x, y, width, height);
+        }
+    }
+
+    /** Batch that drops everything it is given. */
+    static class NullBatch extends SpriteBatch{
+        NullBatch(){
+            super(0);
+            setSort(true);
+        }
+
+        @Override
+        protected void drawSuper(Texture texture, float[] spriteVertices, int offset, int count){
+        }
+    }
+}
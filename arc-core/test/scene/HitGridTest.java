@@ -0,0 +1,134 @@
+package scene;
+
+import arc.math.*;
+import arc.scene.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class HitGridTest{
+
+    @Test
+    public void matchesLinearSearch(){
+        Rand rand = new Rand(1);
+        Group plain = new Group(){}, indexed = new Group(){};
+        indexed.setHitGrid(32f);
+        for(Group group : new Group[]{plain, indexed}){
+            group.setSize(1000f, 1000f);
+            rand.setSeed(1);
+            for(int i = 0; i < 500; i++){
+                Element e = new Element();
+                e.setBounds(rand.random(1000f), rand.random(1000f), rand.random(5f, 80f), rand.random(5f, 80f));
+                if(i % 50 == 0) e.setRotation(rand.random(360f));
+                if(i % 70 == 0) e.setScale(2f);
+                e.name = "e" + i;
+                group.addChild(e);
+            }
+        }
+
+        assertSameHits(plain, indexed, rand);
+
+        //moving, resizing and reordering children keeps the grid up to date
+        for(Group group : new Group[]{plain, indexed}){
+            rand.setSeed(2);
+            for(int i = 0; i < 100; i++){
+                Element e = group.getChildren().get(rand.random(group.getChildren().size - 1));
+                switch(i % 5){
+                    case 0: e.setPosition(rand.random(1000f), rand.random(1000f)); break;
+                    case 1: e.setSize(rand.random(5f, 120f), rand.random(5f, 120f)); break;
+                    case 2: e.toFront(); break;
+                    case 3: e.setTranslation(rand.random(-50f, 50f), 0f); break;
+                    default: e.remove(); break;
+                }
+            }
+        }
+
+        assertSameHits(plain, indexed, rand);
+        assertTrue(indexed.getHitGrid().moves > 0);
+    }
+
+    @Test
+    public void keepsZOrder(){
+        Group group = new Group(){};
+        group.setSize(100f, 100f);
+        group.setHitGrid(10f);
+        Element back = new Element(), front = new Element();
+        back.setBounds(0f, 0f, 50f, 50f);
+        front.setBounds(20f, 20f, 50f, 50f);
+        group.addChild(back);
+        group.addChild(front);
+
+        assertSame(front, group.hit(30f, 30f, true));
+        assertSame(back, group.hit(5f, 5f, true));
+
+        front.toBack();
+        assertSame(back, group.hit(30f, 30f, true));
+
+        back.visible = false;
+        assertSame(front, group.hit(30f, 30f, true));
+
+        //no child under the point hits the group itself
+        assertSame(group, group.hit(90f, 90f, true));
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        Group plain = new Group(){}, indexed = new Group(){};
+        indexed.setHitGrid(16f);
+        for(Group group : new Group[]{plain, indexed}){
+            group.setSize(4096f, 4096f);
+            for(int i = 0; i < 50000; i++){
+                Element e = new Element();
+                e.setBounds((i % 250) * 16f, (i / 250) * 16f, 14f, 14f);
+                group.addChild(e);
+            }
+        }
+
+        Rand rand = new Rand(0);
+        int queries = 2000;
+        float[] points = new float[queries * 2];
+        for(int i = 0; i < points.length; i++){
+            points[i] = rand.random(4000f);
+        }
+
+        for(int warmup = 0; warmup < 3; warmup++){
+            query(plain, points);
+            query(indexed, points);
+        }
+
+        Time.mark();
+        int plainHits = query(plain, points);
+        float plainTime = Time.elapsed();
+
+        Time.mark();
+        int indexedHits = query(indexed, points);
+        float indexedTime = Time.elapsed();
+
+        Log.info("@ queries over 50000 children: linear @ms, grid @ms", queries, plainTime, indexedTime);
+        assertEquals(plainHits, indexedHits);
+    }
+
+    static int query(Group group, float[] points){
+        int hits = 0;
+        for(int i = 0; i < points.length; i += 2){
+            if(group.hit(points[i], points[i + 1], true) != group) hits++;
+        }
+        return hits;
+    }
+
+    static void assertSameHits(Group plain, Group indexed, Rand rand){
+        for(int i = 0; i < 5000; i++){
+            float x = rand.random(-50f, 1100f), y = rand.random(-50f, 1100f);
+            Element a = plain.hit(x, y, true), b = indexed.hit(x, y, true);
+
+            assertEquals(name(plain, a), name(indexed, b));
+        }
+    }
+
+    static String name(Group group, Element hit){
+        return hit == null ? "none" : hit == group ? "group" : hit.name;
+    }
+}
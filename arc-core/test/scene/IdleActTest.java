@@ -0,0 +1,129 @@
+package scene;
+
+import arc.*;
+import arc.func.*;
+import arc.mock.*;
+import arc.scene.*;
+import arc.scene.actions.*;
+import arc.scene.ui.layout.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class IdleActTest{
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new MockApplication();
+        Core.graphics = new MockGraphics();
+        Core.gl = Core.gl20 = new MockGL20();
+    }
+
+    @Test
+    public void skipsIdleSubtrees(){
+        Scene scene = new Scene();
+        scene.skipIdle = true;
+
+        Table[] rows = new Table[100];
+        for(int i = 0; i < rows.length; i++){
+            rows[i] = new Table();
+            for(int j = 0; j < 10; j++){
+                rows[i].add(new Element());
+            }
+            scene.add(rows[i]);
+        }
+
+        scene.act(1f);
+        assertEquals(0, scene.actedElements);
+        assertEquals(100, scene.skippedElements);
+
+        //an update runnable wakes up the path to its element
+        int[] updates = {0};
+        Element target = rows[50].getChildren().get(3);
+        target.update(() -> updates[0]++);
+        scene.act(1f);
+        assertEquals(1, updates[0]);
+        assertEquals(2, scene.actedElements);
+        assertEquals(99 + 9, scene.skippedElements);
+
+        //actions are run, and the element sleeps again once they are done
+        Element other = rows[10].getChildren().get(0);
+        other.addAction(Actions.moveBy(10f, 0f, 0.5f));
+        scene.act(0.25f);
+        scene.act(0.25f);
+        assertEquals(10f, other.x, 0.01f);
+        scene.act(1f);
+        assertEquals(2, scene.actedElements);
+
+        //visibility providers are still applied
+        boolean[] visible = {true};
+        rows[20].visible(() -> visible[0]);
+        visible[0] = false;
+        scene.act(1f);
+        assertFalse(rows[20].visible);
+
+        //removing or clearing an acting subtree puts its ancestors to sleep
+        rows[20].visible((Boolp)null);
+        rows[50].remove();
+        scene.act(1f);
+        assertEquals(0, scene.actedElements);
+        assertEquals(99, scene.skippedElements);
+
+        //adding it again wakes them up
+        int last = updates[0];
+        scene.add(rows[50]);
+        scene.act(1f);
+        assertEquals(last + 1, updates[0]);
+        target.update(null);
+        scene.act(1f);
+        assertEquals(0, scene.actedElements);
+    }
+
+    @Test
+    public void overriddenActAlwaysRuns(){
+        Scene scene = new Scene();
+        scene.skipIdle = true;
+        int[] acts = {0};
+        Table table = new Table();
+        table.add(new Element(){
+            @Override
+            public void act(float delta){
+                super.act(delta);
+                acts[0]++;
+            }
+        });
+        scene.add(table);
+
+        scene.act(1f);
+        scene.act(1f);
+        assertEquals(2, acts[0]);
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        Scene scene = new Scene();
+        for(int i = 0; i < 1000; i++){
+            Table table = new Table();
+            for(int j = 0; j < 50; j++){
+                table.add(new Element());
+            }
+            if(i % 100 == 0) table.getChildren().first().update(() -> {});
+            scene.add(table);
+        }
+
+        for(boolean skip : new boolean[]{false, true, false, true}){
+            scene.skipIdle = skip;
+            scene.act(1f / 60f);
+            int acted = scene.actedElements, skipped = scene.skippedElements;
+            //only time the element updates, not the enter/exit checks of the scene
+            Time.mark();
+            for(int i = 0; i < 100; i++){
+                scene.root.act(1f / 60f);
+            }
+            Log.info("skipIdle=@: 100 frames in @ms, @ acted and @ skipped per frame", skip, Time.elapsed(), acted, skipped);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package scene;
+
+import arc.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.mock.*;
+import arc.scene.*;
+import arc.scene.LayoutStats.*;
+import arc.scene.ui.*;
+import arc.scene.ui.Label.*;
+import arc.scene.ui.layout.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TableLayoutTest{
+    static MockGraphics graphics;
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new MockApplication();
+        Core.graphics = graphics = new MockGraphics();
+    }
+
+    @After
+    public void disable(){
+        LayoutStats.enabled = false;
+    }
+
+    @Test
+    public void measuresOnlyChangedCells(){
+        Table root = new Table(), inner = new Table();
+        Box[] boxes = new Box[100];
+        for(int i = 0; i < boxes.length; i++){
+            boxes[i] = new Box(10f, 10f);
+            (i < 50 ? root : inner).add(boxes[i]);
+            if(i % 10 == 9) (i < 50 ? root : inner).row();
+        }
+        root.add(inner).colspan(10);
+        root.setSize(root.getPrefWidth(), root.getPrefHeight());
+        root.validate();
+        //elements resized by the first layout are measured once more at their new size
+        inner.invalidate();
+        root.invalidate();
+        root.validate();
+
+        LayoutStats.enabled = true;
+        frame();
+
+        //only the box and the cell of the inner table are measured again
+        boxes[75].resize(30f, 10f);
+        root.setSize(root.getPrefWidth(), root.getPrefHeight());
+        root.validate();
+        frame();
+        assertEquals(2, LayoutStats.lastFrameMeasures());
+        assertEquals(inner.getCell(boxes[75]).prefWidth(), 30f, 0.01f);
+        assertEquals(100f + 20f, inner.getPrefWidth(), 0.01f);
+        assertEquals(inner.getPrefWidth(), root.getPrefWidth(), 0.01f);
+        assertEquals(30f, boxes[75].getWidth(), 0.01f);
+        //the box was resized by the layout, so the query above measured it again
+        frame();
+
+        //invalidating the table itself measures all of its cells
+        inner.invalidate();
+        inner.validate();
+        frame();
+        assertEquals(50, LayoutStats.lastFrameMeasures());
+    }
+
+    @Test
+    public void countsLayoutsByClass(){
+        Table root = new Table();
+        for(int i = 0; i < 10; i++){
+            Table row = new Table();
+            row.add(new Box(5f, 5f));
+            root.add(row).row();
+        }
+
+        LayoutStats.enabled = true;
+        frame();
+        root.setSize(100f, 100f);
+        root.validate();
+        frame();
+
+        assertEquals(21, LayoutStats.lastFrameLayouts());
+        ClassStats boxes = null, tables = null;
+        for(ClassStats stats : LayoutStats.lastFrame()){
+            if(stats.type == Box.class) boxes = stats;
+            if(stats.type == Table.class) tables = stats;
+        }
+        assertNotNull(boxes);
+        assertNotNull(tables);
+        assertEquals(10, boxes.layouts);
+        assertEquals(11, tables.layouts);
+
+        //nothing changed, so nothing is laid out
+        root.validate();
+        frame();
+        assertEquals(0, LayoutStats.lastFrameLayouts());
+    }
+
+    @Test
+    public void measuresWrappedLabelsAtTheirNewWidth(){
+        FontData data = new FontData();
+        Font font = new Font(data, new TextureRegion(), false);
+        for(char c = 'a'; c <= 'z'; c++){
+            Glyph glyph = new Glyph();
+            glyph.id = c;
+            glyph.width = 8;
+            glyph.height = 10;
+            glyph.xadvance = 10;
+            data.setGlyph(c, glyph);
+        }
+        data.spaceXadvance = 10;
+        data.capHeight = 10;
+        data.lineHeight = 12;
+        data.down = -12;
+
+        LabelStyle style = new LabelStyle();
+        style.font = font;
+        Label label = new Label("aaaa bbbb cccc dddd", style);
+        label.setWrap(true);
+        Table table = new Table();
+        Cell<?> cell = table.add(label).growX();
+        table.setSize(400f, 100f);
+        table.validate();
+        assertEquals(400f, label.getWidth(), 0.01f);
+        float oneLine = label.getPrefHeight();
+
+        //the label is narrower after this layout, but was measured before its width changed
+        table.setSize(100f, 100f);
+        table.validate();
+        assertEquals(100f, label.getWidth(), 0.01f);
+        assertTrue(label.getPrefHeight() > oneLine);
+
+        //resizing the table again measures the label at its new width
+        table.setSize(100f, 120f);
+        table.validate();
+        assertEquals(label.getPrefHeight(), cell.prefHeight(), 0.01f);
+        assertEquals(label.getPrefHeight(), table.getPrefHeight(), 0.01f);
+    }
+
+    static void frame(){
+        graphics.incrementFrameId();
+        LayoutStats.lastFrameLayouts();
+    }
+
+    static class Box extends Element{
+        float prefWidth, prefHeight;
+
+        Box(float prefWidth, float prefHeight){
+            this.prefWidth = prefWidth;
+            this.prefHeight = prefHeight;
+        }
+
+        void resize(float width, float height){
+            prefWidth = width;
+            prefHeight = height;
+            invalidateHierarchy();
+        }
+
+        @Override
+        public float getPrefWidth(){
+            return prefWidth;
+        }
+
+        @Override
+        public float getPrefHeight(){
+            return prefHeight;
+        }
+    }
+}
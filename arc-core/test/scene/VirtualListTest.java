@@ -0,0 +1,129 @@
+package scene;
+
+import arc.*;
+import arc.math.geom.*;
+import arc.mock.*;
+import arc.scene.*;
+import arc.scene.ui.layout.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class VirtualListTest{
+    static final int items = 100000;
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new MockApplication();
+        Core.graphics = new MockGraphics();
+    }
+
+    @Test
+    public void recyclesRows(){
+        VirtualList<Row> list = new VirtualList<>(items, 20f, Row::new, (row, index) -> row.index = index);
+        list.setSize(200f, list.getPrefHeight());
+        assertEquals(items * 20f, list.getPrefHeight(), 0.01f);
+
+        Rect area = new Rect(0f, 0f, 200f, 300f);
+        for(float scroll = 0f; scroll < list.getHeight() - area.height; scroll += 137f){
+            area.y = list.getHeight() - area.height - scroll;
+            list.setCullingArea(area);
+            checkRows(list, area);
+        }
+
+        //a view of 300 pixels needs at most 16 rows at once, however far it was scrolled
+        assertTrue(list.rowsCreated <= 17);
+        assertEquals(list.rowsCreated, list.getChildren().size);
+
+        //unchanged rows are not rebound
+        int binds = list.binds;
+        list.setCullingArea(area);
+        assertEquals(binds, list.binds);
+        list.refresh();
+        list.validate();
+        assertTrue(list.binds > binds);
+    }
+
+    @Test
+    public void variableHeights(){
+        VirtualList<Row> list = new VirtualList<>(1000, i -> i % 3 == 0 ? 40f : 20f, Row::new, (row, index) -> row.index = index);
+        list.setSize(100f, list.getPrefHeight());
+
+        float top = 0f;
+        for(int i = 0; i < 1000; i++){
+            assertEquals(top, list.rowTop(i), 0.01f);
+            assertEquals(i, list.indexAt(top));
+            assertEquals(i, list.indexAt(top + list.rowHeight(i) - 1f));
+            top += list.rowHeight(i);
+        }
+        assertEquals(top, list.getPrefHeight(), 0.01f);
+
+        Rect area = new Rect(0f, 0f, 100f, 250f);
+        for(float scroll = 0f; scroll < list.getHeight() - area.height; scroll += 71f){
+            area.y = list.getHeight() - area.height - scroll;
+            list.setCullingArea(area);
+            checkRows(list, area);
+        }
+
+        //shrinking the data set drops rows past the end
+        list.setCount(5);
+        list.setSize(100f, list.getPrefHeight());
+        list.setCullingArea(new Rect(0f, 0f, 100f, list.getHeight()));
+        for(Element child : list.getChildren()){
+            assertTrue(!child.visible || ((Row)child).index < 5);
+        }
+        assertNotNull(list.getRow(4));
+        assertNull(list.getRow(5));
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        Time.mark();
+        Table table = new Table();
+        for(int i = 0; i < items; i++){
+            table.add(new Row()).size(200f, 20f).row();
+        }
+        table.setSize(table.getPrefWidth(), table.getPrefHeight());
+        table.validate();
+        float tableTime = Time.elapsed();
+
+        Time.mark();
+        VirtualList<Row> list = new VirtualList<>(items, 20f, Row::new, (row, index) -> row.index = index);
+        list.setSize(200f, list.getPrefHeight());
+        Rect area = new Rect(0f, 0f, 200f, 600f);
+        for(int i = 0; i < 1000; i++){
+            area.y = list.getHeight() - area.height - i * 1000f;
+            list.setCullingArea(area);
+        }
+        float listTime = Time.elapsed();
+
+        Log.info("@ rows: table layout @ms with @ elements, list scrolled 1000 times in @ms with @ elements",
+        items, tableTime, table.getChildren().size, listTime, list.getChildren().size);
+        assertTrue(list.getChildren().size < 40);
+    }
+
+    static void checkRows(VirtualList<Row> list, Rect area){
+        int visible = 0;
+        for(Element child : list.getChildren()){
+            Row row = (Row)child;
+            if(!row.visible) continue;
+            visible++;
+            assertEquals(list.getHeight() - list.rowTop(row.index) - list.rowHeight(row.index), row.y, 0.01f);
+            assertEquals(list.rowHeight(row.index), row.getHeight(), 0.01f);
+            assertTrue(row.y < area.y + area.height && row.y + row.getHeight() >= area.y);
+        }
+        //every row that overlaps the area is bound
+        int first = list.indexAt(list.getHeight() - area.y - area.height), last = list.indexAt(list.getHeight() - area.y);
+        assertEquals(last - first + 1, visible);
+        for(int i = first; i <= last; i++){
+            assertEquals(i, list.getRow(i).index);
+        }
+    }
+
+    static class Row extends Element{
+        int index = -1;
+    }
+}
@@ -0,0 +1,182 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ChunkedGridTest{
+
+    static long key(int x, int y){
+        return (((long)x) << 32) | (y & 0xffffffffL);
+    }
+
+    @Test
+    public void matchesHashMap(){
+        Random random = new Random(1);
+        ChunkedGrid<Integer> grid = new ChunkedGrid<>(16);
+        IntChunkedGrid ints = new IntChunkedGrid(16);
+        FloatChunkedGrid floats = new FloatChunkedGrid(16);
+        HashMap<Long, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 200000; i++){
+            int x = random.nextInt(600) - 300, y = random.nextInt(600) - 300, value = random.nextInt(1000);
+            Long key = key(x, y);
+            switch(random.nextInt(4)){
+                case 0:
+                    assertEquals(expected.put(key, value), grid.put(x, y, value));
+                    ints.put(x, y, value);
+                    floats.put(x, y, value);
+                    break;
+                case 1:
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed, grid.remove(x, y));
+                    assertEquals(removed == null ? -1 : removed, ints.remove(x, y, -1));
+                    assertEquals(removed == null ? -1f : removed, floats.remove(x, y, -1f), 0f);
+                    break;
+                default:
+                    assertEquals(expected.get(key), grid.get(x, y));
+                    assertEquals(expected.getOrDefault(key, -1).intValue(), ints.get(x, y, -1));
+                    assertEquals(expected.getOrDefault(key, -1), floats.get(x, y, -1f), 0f);
+                    assertEquals(expected.containsKey(key), ints.containsKey(x, y));
+                    break;
+            }
+            assertEquals(expected.size(), grid.size());
+            assertEquals(expected.size(), ints.size());
+            assertEquals(expected.size(), floats.size());
+        }
+
+        HashMap<Long, Integer> visited = new HashMap<>();
+        grid.each((x, y, value) -> assertNull(visited.put(key(x, y), value)));
+        assertEquals(expected, visited);
+        int[] count = {0};
+        ints.each((x, y, value) -> {
+            assertEquals((int)expected.get(key(x, y)), value);
+            count[0]++;
+        });
+        floats.each((x, y, value) -> {
+            assertEquals((int)expected.get(key(x, y)), value, 0f);
+            count[0]++;
+        });
+        assertEquals(expected.size() * 2, count[0]);
+
+        for(int i = 0; i < 100; i++){
+            int x = random.nextInt(800) - 400, y = random.nextInt(800) - 400, width = random.nextInt(200), height = random.nextInt(200);
+            HashMap<Long, Integer> region = new HashMap<>();
+            grid.each(x, y, width, height, (cx, cy, value) -> {
+                assertTrue(cx >= x && cy >= y && cx < x + width && cy < y + height);
+                assertNull(region.put(key(cx, cy), value));
+            });
+            int[] regionCount = {0};
+            ints.each(x, y, width, height, (cx, cy, value) -> regionCount[0]++);
+            floats.each(x, y, width, height, (cx, cy, value) -> regionCount[0]++);
+
+            int inside = 0;
+            for(Map.Entry<Long, Integer> entry : expected.entrySet()){
+                int cx = (int)(entry.getKey() >> 32), cy = (int)(long)entry.getKey();
+                if(cx >= x && cy >= y && cx < x + width && cy < y + height){
+                    assertEquals(entry.getValue(), region.get(entry.getKey()));
+                    inside++;
+                }
+            }
+            assertEquals(inside, region.size());
+            assertEquals(inside * 2, regionCount[0]);
+        }
+
+        //removing every cell frees every chunk
+        for(long key : expected.keySet()){
+            int x = (int)(key >> 32), y = (int)key;
+            grid.remove(x, y);
+            ints.remove(x, y);
+            floats.remove(x, y);
+        }
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.chunks());
+        assertEquals(0, ints.chunks());
+        assertEquals(0, floats.chunks());
+    }
+
+    @Test
+    public void growsInEveryDirection(){
+        ChunkedGrid<String> grid = new ChunkedGrid<>(8);
+        for(int i = -1000; i <= 1000; i += 7){
+            grid.put(i, -i, "a" + i);
+            grid.put(-i * 2, i, "b" + i);
+        }
+        for(int i = -1000; i <= 1000; i += 7){
+            assertEquals("a" + i, grid.get(i, -i));
+            assertEquals("b" + i, grid.get(-i * 2, i));
+        }
+        assertNull(grid.get(1, 1));
+        assertEquals("x", grid.get(1, 1, "x"));
+
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertNull(grid.get(7, -7));
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        int size = 2048, reads = 1 << 22;
+        Integer[] values = new Integer[1024];
+        for(int i = 0; i < values.length; i++) values[i] = i;
+        Random random = new Random(0);
+        int[] xs = new int[reads], ys = new int[reads];
+        for(int i = 0; i < reads; i++){
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+        }
+
+        for(int round = 0; round < 3; round++){
+            GridMap<Integer> map = new GridMap<>();
+            ChunkedGrid<Integer> grid = new ChunkedGrid<>();
+            IntChunkedGrid ints = new IntChunkedGrid();
+            long[] sums = new long[6];
+
+            Time.mark();
+            for(int y = 0; y < size; y++) for(int x = 0; x < size; x++) map.put(x, y, values[(x + y) & 1023]);
+            float mapPut = Time.elapsed();
+            Time.mark();
+            for(int y = 0; y < size; y++) for(int x = 0; x < size; x++) grid.put(x, y, values[(x + y) & 1023]);
+            float gridPut = Time.elapsed();
+            Time.mark();
+            for(int y = 0; y < size; y++) for(int x = 0; x < size; x++) ints.put(x, y, (x + y) & 1023);
+            float intsPut = Time.elapsed();
+
+            Time.mark();
+            for(int i = 0; i < reads; i++) sums[0] += map.get(xs[i], ys[i]);
+            float mapGet = Time.elapsed();
+            Time.mark();
+            for(int i = 0; i < reads; i++) sums[1] += grid.get(xs[i], ys[i]);
+            float gridGet = Time.elapsed();
+            Time.mark();
+            for(int i = 0; i < reads; i++) sums[2] += ints.get(xs[i], ys[i]);
+            float intsGet = Time.elapsed();
+
+            Time.mark();
+            for(Integer value : map.values()) sums[3] += value;
+            float mapScan = Time.elapsed();
+            Time.mark();
+            grid.each((x, y, value) -> sums[4] += value);
+            float gridScan = Time.elapsed();
+            Time.mark();
+            ints.each((x, y, value) -> sums[5] += value);
+            float intsScan = Time.elapsed();
+
+            assertEquals(sums[0], sums[1]);
+            assertEquals(sums[0], sums[2]);
+            assertEquals(sums[3], sums[4]);
+            assertEquals(sums[3], sums[5]);
+
+            Log.info("@x@ world, put all / @ random gets / full scan:", size, size, reads);
+            Log.info("  GridMap        @ms / @ms / @ms", mapPut, mapGet, mapScan);
+            Log.info("  ChunkedGrid    @ms / @ms / @ms", gridPut, gridGet, gridScan);
+            Log.info("  IntChunkedGrid @ms / @ms / @ms", intsPut, intsGet, intsScan);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentMapTest{
+    static final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    @Test
+    public void matchesHashMap(){
+        Random random = new Random(1);
+        ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>(4, 0.75f, 4);
+        ConcurrentLongMap<Integer> longMap = new ConcurrentLongMap<>(4, 0.75f, 4);
+        ConcurrentIntIntMap intMap = new ConcurrentIntIntMap(4, 0.75f, 4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 200000; i++){
+            int key = random.nextInt(4000) - 2000, value = random.nextInt(100);
+            long longKey = key * 0x100000001L;
+            switch(random.nextInt(5)){
+                case 0:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    longMap.put(longKey, value);
+                    intMap.put(key, value);
+                    break;
+                case 1:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    int result = previous == null ? value : previous;
+                    assertEquals(result, (int)map.getOrPut(key, () -> value));
+                    assertEquals(result, (int)longMap.getOrPut(longKey, () -> value));
+                    assertEquals(result, intMap.getOrPut(key, value));
+                    break;
+                case 2:
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed, map.remove(key));
+                    assertEquals(removed, longMap.remove(longKey));
+                    assertEquals(removed == null ? -1 : removed, intMap.remove(key, -1));
+                    break;
+                case 3:
+                    Integer computed = expected.compute(key, (k, v) -> v == null ? value : v + value);
+                    assertEquals(computed, map.compute(key, v -> v == null ? value : v + value));
+                    assertEquals(computed, longMap.compute(longKey, v -> v == null ? value : v + value));
+                    assertEquals((int)computed, intMap.compute(key, 0, v -> v + value));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.get(key), longMap.get(longKey));
+                    assertEquals(expected.getOrDefault(key, -1).intValue(), intMap.get(key, -1));
+                    assertEquals(expected.containsKey(key), intMap.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.size(), longMap.size());
+            assertEquals(expected.size(), intMap.size());
+        }
+
+        HashSet<Integer> visited = new HashSet<>();
+        for(ConcurrentIntMap.Entries<Integer> entries = map.entries(); entries.hasNext(); ){
+            ConcurrentIntMap.Entry<Integer> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            assertEquals(expected.get(entry.key), entry.value);
+            if(entry.value < 50) entries.remove();
+        }
+        assertEquals(expected.size(), visited.size());
+        expected.values().removeIf(v -> v < 50);
+        assertEquals(expected.size(), map.size());
+
+        int[] sum = {0};
+        for(ConcurrentIntIntMap.Entry entry : intMap) sum[0] += entry.value;
+        assertEquals(sum[0], intMap.values().toArray().sum());
+        assertEquals(longMap.size(), longMap.keys().toArray().size);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.keys().hasNext);
+    }
+
+    @Test
+    public void stress() throws Exception{
+        ConcurrentIntMap<Integer> counts = new ConcurrentIntMap<>();
+        ConcurrentIntIntMap increments = new ConcurrentIntIntMap();
+        ConcurrentLongMap<Object> created = new ConcurrentLongMap<>();
+        ConcurrentIntIntMap owned = new ConcurrentIntIntMap(4);
+        AtomicInteger suppliers = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> badEntry = new AtomicReference<>();
+        int iterations = 100000, keys = 1000;
+
+        //iterates while the other threads write: every entry it sees must be one that was put
+        Thread reader = new Thread(() -> {
+            while(!done.get()){
+                for(ConcurrentIntIntMap.Entry entry : owned.entries()){
+                    if(entry.value != entry.key * 2) badEntry.set(entry.toString());
+                }
+            }
+        });
+        reader.start();
+
+        run(thread -> {
+            Random random = new Random(thread);
+            for(int i = 0; i < iterations; i++){
+                int key = random.nextInt(keys) - keys / 2;
+                counts.compute(key, v -> v == null ? 1 : v + 1);
+                increments.increment(key);
+                created.getOrPut(key * 31L, () -> {
+                    suppliers.incrementAndGet();
+                    return new Object();
+                });
+
+                //every thread owns a disjoint set of keys, which grows and shrinks the segments
+                int own = i * threads + thread;
+                owned.put(own, own * 2);
+                if(i % 2 == 1) assertEquals(own * 2 - threads * 2, owned.remove(own - threads, -1));
+            }
+        });
+        done.set(true);
+        reader.join();
+        assertNull(badEntry.get());
+
+        int total = 0;
+        for(ConcurrentIntMap.Entry<Integer> entry : counts){
+            assertEquals((int)entry.value, increments.get(entry.key));
+            total += entry.value;
+        }
+        assertEquals(iterations * threads, total);
+        assertEquals(created.size(), suppliers.get());
+        assertEquals(iterations / 2 * threads, owned.size());
+        for(ConcurrentIntIntMap.Entry entry : owned) assertEquals(entry.key * 2, entry.value);
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark() throws Exception{
+        //not an actual benchmark, ignore
+        int keys = 1 << 16, iterations = 1 << 20;
+        for(int round = 0; round < 3; round++){
+            ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>(keys, 0.75f, 64);
+            ConcurrentHashMap<Integer, Integer> hashMap = new ConcurrentHashMap<>(keys, 0.75f, 64);
+
+            Time.mark();
+            run(thread -> {
+                Random random = new Random(thread);
+                for(int i = 0; i < iterations; i++){
+                    int key = random.nextInt(keys), op = random.nextInt(10);
+                    if(op == 0) map.put(key, key);
+                    else if(op == 1) map.remove(key);
+                    else map.get(key);
+                }
+            });
+            float concurrentIntMap = Time.elapsed();
+
+            Time.mark();
+            run(thread -> {
+                Random random = new Random(thread);
+                for(int i = 0; i < iterations; i++){
+                    int key = random.nextInt(keys), op = random.nextInt(10);
+                    if(op == 0) hashMap.put(key, key);
+                    else if(op == 1) hashMap.remove(key);
+                    else hashMap.get(key);
+                }
+            });
+            float concurrentHashMap = Time.elapsed();
+
+            Log.info("@ threads, @ ops each (80% get): ConcurrentIntMap @ms, ConcurrentHashMap<Integer, Integer> @ms", threads, iterations, concurrentIntMap, concurrentHashMap);
+        }
+    }
+
+    /** Runs the task on all threads at once, and rethrows the first failure. */
+    static void run(ThreadTask task) throws Exception{
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int i = 0; i < threads; i++){
+            int thread = i;
+            futures.add(exec.submit(() -> {
+                start.await();
+                task.get(thread);
+                return null;
+            }));
+        }
+        try{
+            for(Future<?> future : futures){
+                future.get();
+            }
+        }finally{
+            exec.shutdown();
+        }
+    }
+
+    interface ThreadTask{
+        void get(int i) throws Exception;
+    }
+}
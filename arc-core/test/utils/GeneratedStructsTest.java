@@ -0,0 +1,1047 @@
+// Do not edit this file! Generated by structgen/StructGenerator.java from StructsTest.java.template.
+package utils;
+
+import arc.struct.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** Checks every generated map, set and grid against the java.util collections with random operations. */
+public class GeneratedStructsTest{
+
+    @Test
+    public void testIntIntMap(){
+        Random rand = new Random(1234);
+        IntIntMap map = new IntIntMap(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int key = rand.nextInt(2000) - 1000;
+            int value = (int)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (int)-1), map.get(key, (int)-1));
+                    break;
+                case 2:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    int old = expected.getOrDefault(key, (int)0);
+                    expected.put(key, (int)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Integer removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (int)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Integer> visited = new HashSet<>();
+        for(IntIntMap.Entries entries = map.entries(); entries.hasNext(); ){
+            IntIntMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        IntIntMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        assertEquals(IntIntMap.of(1, 2, 3, 4), IntIntMap.of(3, 4, 1, 2));
+        assertEquals(4, IntIntMap.of(1, 2, 3, 4).get(3));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (int)-1));
+    }
+
+    @Test
+    public void testIntLongMap(){
+        Random rand = new Random(1234);
+        IntLongMap map = new IntLongMap(4);
+        HashMap<Integer, Long> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int key = rand.nextInt(2000) - 1000;
+            long value = (long)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (long)-1), map.get(key, (long)-1));
+                    break;
+                case 2:
+                    Long previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    long old = expected.getOrDefault(key, (long)0);
+                    expected.put(key, (long)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Long removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (long)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Integer> visited = new HashSet<>();
+        for(IntLongMap.Entries entries = map.entries(); entries.hasNext(); ){
+            IntLongMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        IntLongMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (long)-1));
+    }
+
+    @Test
+    public void testIntFloatMap(){
+        Random rand = new Random(1234);
+        IntFloatMap map = new IntFloatMap(4);
+        HashMap<Integer, Float> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int key = rand.nextInt(2000) - 1000;
+            float value = (float)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (float)-1), map.get(key, (float)-1));
+                    break;
+                case 2:
+                    Float previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    float old = expected.getOrDefault(key, (float)0);
+                    expected.put(key, (float)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Float removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (float)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Integer> visited = new HashSet<>();
+        for(IntFloatMap.Entries entries = map.entries(); entries.hasNext(); ){
+            IntFloatMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        IntFloatMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        //every value left is at least 50, and empty slots must not match
+        assertFalse(map.containsValue(0f, 1f));
+        map.put(7, 0.5f);
+        assertTrue(map.containsValue(0.51f, 0.02f));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (float)-1));
+    }
+
+    @Test
+    public void testLongIntMap(){
+        Random rand = new Random(1234);
+        LongIntMap map = new LongIntMap(4);
+        HashMap<Long, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            long key = (rand.nextInt(2000) - 1000) * 0x100000001L;
+            int value = (int)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (int)-1), map.get(key, (int)-1));
+                    break;
+                case 2:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    int old = expected.getOrDefault(key, (int)0);
+                    expected.put(key, (int)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Integer removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (int)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Long> visited = new HashSet<>();
+        for(LongIntMap.Entries entries = map.entries(); entries.hasNext(); ){
+            LongIntMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        LongIntMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (int)-1));
+    }
+
+    @Test
+    public void testLongLongMap(){
+        Random rand = new Random(1234);
+        LongLongMap map = new LongLongMap(4);
+        HashMap<Long, Long> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            long key = (rand.nextInt(2000) - 1000) * 0x100000001L;
+            long value = (long)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (long)-1), map.get(key, (long)-1));
+                    break;
+                case 2:
+                    Long previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    long old = expected.getOrDefault(key, (long)0);
+                    expected.put(key, (long)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Long removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (long)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Long> visited = new HashSet<>();
+        for(LongLongMap.Entries entries = map.entries(); entries.hasNext(); ){
+            LongLongMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        LongLongMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (long)-1));
+    }
+
+    @Test
+    public void testLongFloatMap(){
+        Random rand = new Random(1234);
+        LongFloatMap map = new LongFloatMap(4);
+        HashMap<Long, Float> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            long key = (rand.nextInt(2000) - 1000) * 0x100000001L;
+            float value = (float)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (float)-1), map.get(key, (float)-1));
+                    break;
+                case 2:
+                    Float previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    float old = expected.getOrDefault(key, (float)0);
+                    expected.put(key, (float)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Float removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (float)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Long> visited = new HashSet<>();
+        for(LongFloatMap.Entries entries = map.entries(); entries.hasNext(); ){
+            LongFloatMap.Entry entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        LongFloatMap copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        //every value left is at least 50, and empty slots must not match
+        assertFalse(map.containsValue(0f, 1f));
+        map.put(7, 0.5f);
+        assertTrue(map.containsValue(0.51f, 0.02f));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get(0, (float)-1));
+    }
+
+    @Test
+    public void testObjectIntMap(){
+        Random rand = new Random(1234);
+        ObjectIntMap<String> map = new ObjectIntMap<>(4);
+        HashMap<String, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            String key = "key" + rand.nextInt(2000);
+            int value = (int)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (int)-1), map.get(key, (int)-1));
+                    break;
+                case 2:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    int old = expected.getOrDefault(key, (int)0);
+                    expected.put(key, (int)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Integer removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (int)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<String> visited = new HashSet<>();
+        for(ObjectIntMap.Entries<String> entries = map.entries(); entries.hasNext(); ){
+            ObjectIntMap.Entry<String> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        ObjectIntMap<String> copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        ObjectIntMap<String> pairs = new ObjectIntMap<>();
+        pairs.putAll("a", 1, "b", 2);
+        assertEquals(2, pairs.get("b"));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get("key0", (int)-1));
+    }
+
+    @Test
+    public void testObjectLongMap(){
+        Random rand = new Random(1234);
+        ObjectLongMap<String> map = new ObjectLongMap<>(4);
+        HashMap<String, Long> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            String key = "key" + rand.nextInt(2000);
+            long value = (long)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (long)-1), map.get(key, (long)-1));
+                    break;
+                case 2:
+                    Long previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    long old = expected.getOrDefault(key, (long)0);
+                    expected.put(key, (long)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Long removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (long)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<String> visited = new HashSet<>();
+        for(ObjectLongMap.Entries<String> entries = map.entries(); entries.hasNext(); ){
+            ObjectLongMap.Entry<String> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        ObjectLongMap<String> copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get("key0", (long)-1));
+    }
+
+    @Test
+    public void testObjectFloatMap(){
+        Random rand = new Random(1234);
+        ObjectFloatMap<String> map = new ObjectFloatMap<>(4);
+        HashMap<String, Float> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            String key = "key" + rand.nextInt(2000);
+            float value = (float)rand.nextInt(100);
+
+            switch(rand.nextInt(6)){
+                case 0:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    check(expected.getOrDefault(key, (float)-1), map.get(key, (float)-1));
+                    break;
+                case 2:
+                    Float previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, value));
+                    break;
+                case 3:
+                    float old = expected.getOrDefault(key, (float)0);
+                    expected.put(key, (float)(old + value));
+                    check(old, map.increment(key, 0, value));
+                    break;
+                case 4:
+                    Float removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, map.remove(key, (float)-1));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size);
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<String> visited = new HashSet<>();
+        for(ObjectFloatMap.Entries<String> entries = map.entries(); entries.hasNext(); ){
+            ObjectFloatMap.Entry<String> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            check(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size);
+
+        int[] count = {0};
+        map.each(entry -> {
+            check(expected.get(entry.key), entry.value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.keys().toArray().size);
+        assertEquals(expected.size(), map.values().toArray().size);
+
+        ObjectFloatMap<String> copy = map.copy();
+        assertEquals(map, copy);
+        assertEquals(map.hashCode(), copy.hashCode());
+        copy.increment(expected.keySet().iterator().next());
+        assertNotEquals(map, copy);
+
+        //every value left is at least 50, and empty slots must not match
+        assertFalse(map.containsValue(0f, 1f));
+        map.put("key7", 0.5f);
+        assertTrue(map.containsValue(0.51f, 0.02f));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        assertFalse(map.keys().hasNext);
+        check(-1, map.get("key0", (float)-1));
+    }
+
+    @Test
+    public void testIntSet(){
+        Random rand = new Random(1234);
+        IntSet set = new IntSet(4);
+        HashSet<Integer> expected = new HashSet<>();
+
+        for(int i = 0; i < 100000; i++){
+            int key = rand.nextInt(2000) - 1000;
+
+            switch(rand.nextInt(3)){
+                case 0:
+                    assertEquals(expected.add(key), set.add(key));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), set.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.contains(key), set.contains(key));
+                    break;
+            }
+            assertEquals(expected.size(), set.size);
+        }
+
+        //removing during iteration must visit every key exactly once
+        HashSet<Integer> visited = new HashSet<>();
+        for(IntSet.IntSetIterator iterator = set.iterator(); iterator.hasNext; ){
+            int key = iterator.next();
+            assertTrue(visited.add(key));
+            assertTrue(expected.contains(key));
+            if(rand.nextBoolean()){
+                iterator.remove();
+                expected.remove(key);
+            }
+        }
+        assertEquals(expected.size(), set.size);
+
+        int[] count = {0};
+        set.each(key -> {
+            assertTrue(expected.contains(key));
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), set.iterator().toArray().size);
+        assertTrue(expected.contains(set.first()));
+
+        IntSet copy = new IntSet(set);
+        assertEquals(set, copy);
+        assertEquals(set.hashCode(), copy.hashCode());
+
+        set.clear(4);
+        assertEquals(0, set.size);
+        assertFalse(set.iterator().hasNext);
+        assertEquals(set, IntSet.with());
+    }
+
+    @Test
+    public void testLongSet(){
+        Random rand = new Random(1234);
+        LongSet set = new LongSet(4);
+        HashSet<Long> expected = new HashSet<>();
+
+        for(int i = 0; i < 100000; i++){
+            long key = (rand.nextInt(2000) - 1000) * 0x100000001L;
+
+            switch(rand.nextInt(3)){
+                case 0:
+                    assertEquals(expected.add(key), set.add(key));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), set.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.contains(key), set.contains(key));
+                    break;
+            }
+            assertEquals(expected.size(), set.size);
+        }
+
+        //removing during iteration must visit every key exactly once
+        HashSet<Long> visited = new HashSet<>();
+        for(LongSet.LongSetIterator iterator = set.iterator(); iterator.hasNext; ){
+            long key = iterator.next();
+            assertTrue(visited.add(key));
+            assertTrue(expected.contains(key));
+            if(rand.nextBoolean()){
+                iterator.remove();
+                expected.remove(key);
+            }
+        }
+        assertEquals(expected.size(), set.size);
+
+        int[] count = {0};
+        set.each(key -> {
+            assertTrue(expected.contains(key));
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), set.iterator().toArray().size);
+        assertTrue(expected.contains(set.first()));
+
+        LongSet copy = new LongSet(set);
+        assertEquals(set, copy);
+        assertEquals(set.hashCode(), copy.hashCode());
+
+        set.clear(4);
+        assertEquals(0, set.size);
+        assertFalse(set.iterator().hasNext);
+        assertEquals(set, LongSet.with());
+    }
+
+    @Test
+    public void testConcurrentIntMap(){
+        Random rand = new Random(1234);
+        ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>(4, 0.75f, 4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int key = rand.nextInt(2000) - 1000;
+            int value = rand.nextInt(100);
+
+            switch(rand.nextInt(5)){
+                case 0:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, () -> value));
+                    break;
+                case 2:
+                    assertEquals(expected.compute(key, (k, v) -> v == null ? value : v + value), map.compute(key, v -> v == null ? value : v + value));
+                    break;
+                case 3:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Integer> visited = new HashSet<>();
+        for(ConcurrentIntMap.Entries<Integer> entries = map.entries(); entries.hasNext(); ){
+            ConcurrentIntMap.Entry<Integer> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            assertEquals(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.keys().toArray().size);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.keys().hasNext);
+    }
+
+    @Test
+    public void testConcurrentLongMap(){
+        Random rand = new Random(1234);
+        ConcurrentLongMap<Integer> map = new ConcurrentLongMap<>(4, 0.75f, 4);
+        HashMap<Long, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            long key = (rand.nextInt(2000) - 1000) * 0x100000001L;
+            int value = rand.nextInt(100);
+
+            switch(rand.nextInt(5)){
+                case 0:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    Integer previous = expected.putIfAbsent(key, value);
+                    check(previous == null ? value : previous, map.getOrPut(key, () -> value));
+                    break;
+                case 2:
+                    assertEquals(expected.compute(key, (k, v) -> v == null ? value : v + value), map.compute(key, v -> v == null ? value : v + value));
+                    break;
+                case 3:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        //removing during iteration must visit every entry exactly once
+        HashSet<Long> visited = new HashSet<>();
+        for(ConcurrentLongMap.Entries<Integer> entries = map.entries(); entries.hasNext(); ){
+            ConcurrentLongMap.Entry<Integer> entry = entries.next();
+            assertTrue(visited.add(entry.key));
+            assertEquals(expected.get(entry.key), entry.value);
+            if(entry.value < 50){
+                entries.remove();
+                expected.remove(entry.key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.keys().toArray().size);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.keys().hasNext);
+    }
+
+    @Test
+    public void testIntChunkedGrid(){
+        Random rand = new Random(1234);
+        IntChunkedGrid grid = new IntChunkedGrid(16);
+        HashMap<Long, Integer> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int x = rand.nextInt(600) - 300, y = rand.nextInt(600) - 300;
+            int value = (int)rand.nextInt(100);
+            Long key = cell(x, y);
+
+            switch(rand.nextInt(5)){
+                case 0:
+                    grid.put(x, y, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    Integer removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, grid.remove(x, y, (int)-1));
+                    break;
+                case 2:
+                    int old = expected.getOrDefault(key, (int)0);
+                    expected.put(key, (int)(old + value));
+                    check(old, grid.increment(x, y, 0, value));
+                    break;
+                default:
+                    check(expected.getOrDefault(key, (int)-1), grid.get(x, y, (int)-1));
+                    assertEquals(expected.containsKey(key), grid.containsKey(x, y));
+                    break;
+            }
+            assertEquals(expected.size(), grid.size());
+        }
+
+        HashMap<Long, Integer> visited = new HashMap<>();
+        grid.each((x, y, value) -> assertNull(visited.put(cell(x, y), value)));
+        assertEquals(expected, visited);
+
+        for(int i = 0; i < 100; i++){
+            int x = rand.nextInt(800) - 400, y = rand.nextInt(800) - 400, width = rand.nextInt(200), height = rand.nextInt(200);
+            HashMap<Long, Integer> region = new HashMap<>();
+            grid.each(x, y, width, height, (cx, cy, value) -> assertNull(region.put(cell(cx, cy), value)));
+
+            int inside = 0;
+            for(Map.Entry<Long, Integer> entry : expected.entrySet()){
+                int cx = (int)(entry.getKey() >> 32), cy = (int)(long)entry.getKey();
+                if(cx >= x && cy >= y && cx < x + width && cy < y + height){
+                    assertEquals(entry.getValue(), region.get(entry.getKey()));
+                    inside++;
+                }
+            }
+            assertEquals(inside, region.size());
+        }
+
+        //removing every cell frees every chunk
+        for(long key : expected.keySet()){
+            grid.remove((int)(key >> 32), (int)key);
+        }
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.chunks());
+
+        //the directory grows in every direction
+        for(int i = -1000; i <= 1000; i += 7){
+            grid.put(i, -i * 2, i);
+        }
+        for(int i = -1000; i <= 1000; i += 7){
+            check(i, grid.get(i, -i * 2));
+        }
+        assertFalse(grid.containsKey(1, 1));
+    }
+
+    @Test
+    public void testFloatChunkedGrid(){
+        Random rand = new Random(1234);
+        FloatChunkedGrid grid = new FloatChunkedGrid(16);
+        HashMap<Long, Float> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++){
+            int x = rand.nextInt(600) - 300, y = rand.nextInt(600) - 300;
+            float value = (float)rand.nextInt(100);
+            Long key = cell(x, y);
+
+            switch(rand.nextInt(5)){
+                case 0:
+                    grid.put(x, y, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    Float removed = expected.remove(key);
+                    check(removed == null ? -1 : removed, grid.remove(x, y, (float)-1));
+                    break;
+                case 2:
+                    float old = expected.getOrDefault(key, (float)0);
+                    expected.put(key, (float)(old + value));
+                    check(old, grid.increment(x, y, 0, value));
+                    break;
+                default:
+                    check(expected.getOrDefault(key, (float)-1), grid.get(x, y, (float)-1));
+                    assertEquals(expected.containsKey(key), grid.containsKey(x, y));
+                    break;
+            }
+            assertEquals(expected.size(), grid.size());
+        }
+
+        HashMap<Long, Float> visited = new HashMap<>();
+        grid.each((x, y, value) -> assertNull(visited.put(cell(x, y), value)));
+        assertEquals(expected, visited);
+
+        for(int i = 0; i < 100; i++){
+            int x = rand.nextInt(800) - 400, y = rand.nextInt(800) - 400, width = rand.nextInt(200), height = rand.nextInt(200);
+            HashMap<Long, Float> region = new HashMap<>();
+            grid.each(x, y, width, height, (cx, cy, value) -> assertNull(region.put(cell(cx, cy), value)));
+
+            int inside = 0;
+            for(Map.Entry<Long, Float> entry : expected.entrySet()){
+                int cx = (int)(entry.getKey() >> 32), cy = (int)(long)entry.getKey();
+                if(cx >= x && cy >= y && cx < x + width && cy < y + height){
+                    assertEquals(entry.getValue(), region.get(entry.getKey()));
+                    inside++;
+                }
+            }
+            assertEquals(inside, region.size());
+        }
+
+        //removing every cell frees every chunk
+        for(long key : expected.keySet()){
+            grid.remove((int)(key >> 32), (int)key);
+        }
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.chunks());
+
+        //the directory grows in every direction
+        for(int i = -1000; i <= 1000; i += 7){
+            grid.put(i, -i * 2, i);
+        }
+        for(int i = -1000; i <= 1000; i += 7){
+            check(i, grid.get(i, -i * 2));
+        }
+        assertFalse(grid.containsKey(1, 1));
+    }
+
+    static long cell(int x, int y){
+        return (long)x << 32 | y & 0xffffffffL;
+    }
+
+    static void check(long expected, long actual){
+        assertEquals(expected, actual);
+    }
+
+    static void check(float expected, float actual){
+        assertEquals(expected, actual, 0f);
+    }
+}
@@ -0,0 +1,484 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HashMapTest{
+    static final int ops = 200000;
+
+    @Test
+    public void objectMap(){
+        Random random = new Random(1);
+        ObjectMap<Integer, Integer> map = new ObjectMap<>(4);
+        HashMap<Integer, Integer> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i), value = random.nextInt();
+            switch(random.nextInt(4)){
+                case 0: case 1: assertEquals(check.put(key, value), map.put(key, value)); break;
+                case 2: assertEquals(check.remove(key), map.remove(key)); break;
+                default: assertEquals(check.get(key), map.get(key));
+            }
+            assertEquals(check.size(), map.size);
+            if(i % 1000 == 0){
+                assertEquals(check.containsKey(key), map.containsKey(key));
+                HashSet<Integer> seen = new HashSet<>();
+                for(ObjectMap.Entry<Integer, Integer> e : map.entries()){
+                    assertTrue(seen.add(e.key));
+                    assertEquals(check.get(e.key), e.value);
+                }
+                assertEquals(check.size(), seen.size());
+            }
+        }
+        assertEquals(map, new ObjectMap<>(map));
+
+        //removing during iteration visits every entry exactly once
+        HashSet<Integer> seen = new HashSet<>();
+        ObjectMap.Keys<Integer> keys = map.keys();
+        while(keys.hasNext()){
+            Integer key = keys.next();
+            assertTrue(seen.add(key));
+            if(key % 3 != 0){
+                keys.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals(check.get(key), map.get(key));
+    }
+
+    @Test
+    public void objectSet(){
+        Random random = new Random(2);
+        ObjectSet<Integer> set = new ObjectSet<>(4);
+        HashSet<Integer> check = new HashSet<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i);
+            switch(random.nextInt(4)){
+                case 0: case 1: assertEquals(check.add(key), set.add(key)); break;
+                case 2: assertEquals(check.remove(key), set.remove(key)); break;
+                default: assertEquals(check.contains(key), set.contains(key));
+            }
+            assertEquals(check.size(), set.size);
+        }
+
+        int visited = 0;
+        HashSet<Integer> seen = new HashSet<>();
+        ObjectSet<Integer>.ObjectSetIterator it = set.iterator();
+        while(it.hasNext()){
+            Integer key = it.next();
+            assertTrue(seen.add(key));
+            visited++;
+            if(key % 2 == 0){
+                it.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(seen.size(), visited);
+        assertEquals(check.size(), set.size);
+        for(Integer key : check) assertTrue(set.contains(key));
+    }
+
+    @Test
+    public void intMap(){
+        Random random = new Random(3);
+        IntMap<Integer> map = new IntMap<>(4);
+        HashMap<Integer, Integer> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i), value = random.nextInt();
+            switch(random.nextInt(4)){
+                case 0: case 1: assertEquals(check.put(key, value), map.put(key, value)); break;
+                case 2: assertEquals(check.remove(key), map.remove(key)); break;
+                default: assertEquals(check.get(key), map.get(key));
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new IntMap<>(map));
+
+        HashSet<Integer> seen = new HashSet<>();
+        IntMap.Entries<Integer> entries = map.entries();
+        while(entries.hasNext()){
+            IntMap.Entry<Integer> e = entries.next();
+            assertTrue(seen.add(e.key));
+            assertEquals(check.get(e.key), e.value);
+            if(e.key % 2 == 0){
+                entries.remove();
+                check.remove(e.key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals(check.get(key), map.get(key));
+    }
+
+    @Test
+    public void longMap(){
+        Random random = new Random(4);
+        LongMap<Long> map = new LongMap<>(4);
+        HashMap<Long, Long> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            long key = (long)key(random, i) << (random.nextBoolean() ? 32 : 0);
+            long value = random.nextLong();
+            switch(random.nextInt(4)){
+                case 0: case 1: assertEquals(check.put(key, value), map.put(key, value)); break;
+                case 2: assertEquals(check.remove(key), map.remove(key)); break;
+                default: assertEquals(check.get(key), map.get(key));
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new LongMap<>(map));
+
+        HashSet<Long> seen = new HashSet<>();
+        LongMap.Keys keys = map.keys();
+        while(keys.hasNext){
+            long key = keys.next();
+            assertTrue(seen.add(key));
+            if(key % 2 == 0){
+                keys.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Long key : check.keySet()) assertEquals(check.get(key), map.get(key));
+    }
+
+    @Test
+    public void intIntMap(){
+        Random random = new Random(5);
+        IntIntMap map = new IntIntMap(4);
+        HashMap<Integer, Integer> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i), value = random.nextInt(1000);
+            switch(random.nextInt(5)){
+                case 0: case 1: map.put(key, value); check.put(key, value); break;
+                case 2: assertEquals((int)check.getOrDefault(key, -1), map.remove(key, -1)); check.remove(key); break;
+                case 3: assertEquals((int)check.getOrDefault(key, 0), map.increment(key, 0, 5)); check.merge(key, 5, Integer::sum); break;
+                default: assertEquals((int)check.getOrDefault(key, -1), map.get(key, -1));
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new IntIntMap(map));
+
+        HashSet<Integer> seen = new HashSet<>();
+        IntIntMap.Entries entries = map.entries();
+        while(entries.hasNext()){
+            IntIntMap.Entry e = entries.next();
+            assertTrue(seen.add(e.key));
+            assertEquals((int)check.get(e.key), e.value);
+            if(e.key % 2 == 0){
+                entries.remove();
+                check.remove(e.key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals((int)check.get(key), map.get(key, -1));
+    }
+
+    @Test
+    public void intFloatMap(){
+        Random random = new Random(6);
+        IntFloatMap map = new IntFloatMap(4);
+        HashMap<Integer, Float> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i);
+            float value = random.nextInt(1000);
+            switch(random.nextInt(4)){
+                case 0: case 1: map.put(key, value); check.put(key, value); break;
+                case 2: assertEquals(check.getOrDefault(key, -1f), map.remove(key, -1f), 0f); check.remove(key); break;
+                default: assertEquals(check.getOrDefault(key, -1f), map.get(key, -1f), 0f);
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new IntFloatMap(map));
+
+        IntFloatMap.Keys keys = map.keys();
+        HashSet<Integer> seen = new HashSet<>();
+        while(keys.hasNext){
+            int key = keys.next();
+            assertTrue(seen.add(key));
+            if(key % 2 == 0){
+                keys.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals(check.get(key), map.get(key, -1f), 0f);
+    }
+
+    @Test
+    public void objectIntMap(){
+        Random random = new Random(7);
+        ObjectIntMap<Integer> map = new ObjectIntMap<>(4);
+        HashMap<Integer, Integer> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i), value = random.nextInt(1000);
+            switch(random.nextInt(5)){
+                case 0: case 1: map.put(key, value); check.put(key, value); break;
+                case 2: assertEquals((int)check.getOrDefault(key, -1), map.remove(key, -1)); check.remove(key); break;
+                case 3: assertEquals((int)check.getOrDefault(key, 0), map.increment(key, 0, 3)); check.merge(key, 3, Integer::sum); break;
+                default: assertEquals((int)check.getOrDefault(key, -1), map.get(key, -1));
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new ObjectIntMap<>(map));
+
+        ObjectIntMap.Keys<Integer> keys = map.keys();
+        HashSet<Integer> seen = new HashSet<>();
+        while(keys.hasNext()){
+            Integer key = keys.next();
+            assertTrue(seen.add(key));
+            if(key % 2 == 0){
+                keys.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals((int)check.get(key), map.get(key, -1));
+    }
+
+    @Test
+    public void objectFloatMap(){
+        Random random = new Random(8);
+        ObjectFloatMap<Integer> map = new ObjectFloatMap<>(4);
+        HashMap<Integer, Float> check = new HashMap<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i);
+            float value = random.nextInt(1000);
+            switch(random.nextInt(4)){
+                case 0: case 1: map.put(key, value); check.put(key, value); break;
+                case 2: assertEquals(check.getOrDefault(key, -1f), map.remove(key, -1f), 0f); check.remove(key); break;
+                default: assertEquals(check.getOrDefault(key, -1f), map.get(key, -1f), 0f);
+            }
+            assertEquals(check.size(), map.size);
+        }
+        assertEquals(map, new ObjectFloatMap<>(map));
+
+        ObjectFloatMap.Keys<Integer> keys = map.keys();
+        HashSet<Integer> seen = new HashSet<>();
+        while(keys.hasNext()){
+            Integer key = keys.next();
+            assertTrue(seen.add(key));
+            if(key % 2 == 0){
+                keys.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), map.size);
+        for(Integer key : check.keySet()) assertEquals(check.get(key), map.get(key, -1f), 0f);
+    }
+
+    @Test
+    public void intSet(){
+        Random random = new Random(9);
+        IntSet set = new IntSet(4);
+        HashSet<Integer> check = new HashSet<>();
+        for(int i = 0; i < ops; i++){
+            int key = key(random, i);
+            switch(random.nextInt(4)){
+                case 0: case 1: assertEquals(check.add(key), set.add(key)); break;
+                case 2: assertEquals(check.remove(key), set.remove(key)); break;
+                default: assertEquals(check.contains(key), set.contains(key));
+            }
+            assertEquals(check.size(), set.size);
+        }
+        assertEquals(set, new IntSet(set));
+
+        IntSet.IntSetIterator it = set.iterator();
+        HashSet<Integer> seen = new HashSet<>();
+        while(it.hasNext){
+            int key = it.next();
+            assertTrue(seen.add(key));
+            if(key % 2 == 0){
+                it.remove();
+                check.remove(key);
+            }
+        }
+        assertEquals(check.size(), set.size);
+        for(Integer key : check) assertTrue(set.contains(key));
+    }
+
+    @Test
+    public void shrinkAndClear(){
+        IntMap<String> map = new IntMap<>();
+        for(int i = 0; i < 1000; i++) map.put(i * 7, "" + i);
+        for(int i = 0; i < 990; i++) map.remove(i * 7);
+        map.shrink(10);
+        assertEquals(10, map.size);
+        for(int i = 990; i < 1000; i++) assertEquals("" + i, map.get(i * 7));
+
+        map.clear(4);
+        assertEquals(0, map.size);
+        map.put(5, "a");
+        assertEquals("a", map.get(5));
+    }
+
+    /** Mostly random keys in a small range so entries get replaced and removed, with some strided and zero keys. */
+    static int key(Random random, int i){
+        switch(random.nextInt(8)){
+            case 0: return 0;
+            case 1: return random.nextInt(64) << 16;
+            default: return random.nextInt(20000) - 10000;
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        int count = 1 << 19;
+        Random random = new Random(0);
+        int[] keys = new int[count], misses = new int[count], strided = new int[count];
+        Integer[] boxed = new Integer[count], boxedMisses = new Integer[count];
+        for(int i = 0; i < count; i++){
+            keys[i] = random.nextInt();
+            misses[i] = random.nextInt();
+            strided[i] = i << 10;
+            boxed[i] = keys[i];
+            boxedMisses[i] = misses[i];
+        }
+
+        //the fastest of several rounds, as the first ones include warmup and garbage collection
+        OrderedMap<String, float[]> best = new OrderedMap<>();
+        for(int round = 0; round < 6; round++){
+            {
+                ObjectMap<Integer, Integer> map = new ObjectMap<>();
+                Time.mark();
+                for(Integer key : boxed) map.put(key, key);
+                float put = Time.elapsed();
+                int found = 0;
+                Time.mark();
+                for(Integer key : boxed) if(map.get(key) != null) found++;
+                for(Integer key : boxedMisses) if(map.get(key) != null) found++;
+                float get = Time.elapsed();
+                float bytes = bytesPerEntry(map, map.size);
+                Time.mark();
+                for(Integer key : boxed) map.remove(key);
+                float remove = Time.elapsed();
+                record(best, "ObjectMap", put, get, remove, bytes, found);
+            }
+            {
+                ObjectSet<Integer> set = new ObjectSet<>();
+                Time.mark();
+                for(Integer key : boxed) set.add(key);
+                float put = Time.elapsed();
+                int found = 0;
+                Time.mark();
+                for(Integer key : boxed) if(set.contains(key)) found++;
+                for(Integer key : boxedMisses) if(set.contains(key)) found++;
+                float get = Time.elapsed();
+                float bytes = bytesPerEntry(set, set.size);
+                Time.mark();
+                for(Integer key : boxed) set.remove(key);
+                float remove = Time.elapsed();
+                record(best, "ObjectSet", put, get, remove, bytes, found);
+            }
+            for(int[] source : new int[][]{keys, strided}){
+                String name = source == keys ? "random" : "strided";
+                {
+                    IntMap<Object> map = new IntMap<>();
+                    Time.mark();
+                    for(int key : source) map.put(key, map);
+                    float put = Time.elapsed();
+                    int found = 0;
+                    Time.mark();
+                    for(int key : source) if(map.get(key) != null) found++;
+                    for(int key : misses) if(map.get(key) != null) found++;
+                    float get = Time.elapsed();
+                    float bytes = bytesPerEntry(map, map.size);
+                    Time.mark();
+                    for(int key : source) map.remove(key);
+                    float remove = Time.elapsed();
+                    record(best, "IntMap, " + name + " keys", put, get, remove, bytes, found);
+                }
+                {
+                    IntIntMap map = new IntIntMap();
+                    Time.mark();
+                    for(int key : source) map.put(key, key);
+                    float put = Time.elapsed();
+                    int found = 0;
+                    Time.mark();
+                    for(int key : source) if(map.containsKey(key)) found++;
+                    for(int key : misses) if(map.containsKey(key)) found++;
+                    float get = Time.elapsed();
+                    float bytes = bytesPerEntry(map, map.size);
+                    Time.mark();
+                    for(int key : source) map.remove(key, 0);
+                    float remove = Time.elapsed();
+                    record(best, "IntIntMap, " + name + " keys", put, get, remove, bytes, found);
+                }
+                {
+                    IntSet set = new IntSet();
+                    Time.mark();
+                    for(int key : source) set.add(key);
+                    float put = Time.elapsed();
+                    int found = 0;
+                    Time.mark();
+                    for(int key : source) if(set.contains(key)) found++;
+                    for(int key : misses) if(set.contains(key)) found++;
+                    float get = Time.elapsed();
+                    float bytes = bytesPerEntry(set, set.size);
+                    Time.mark();
+                    for(int key : source) set.remove(key);
+                    float remove = Time.elapsed();
+                    record(best, "IntSet, " + name + " keys", put, get, remove, bytes, found);
+                }
+            }
+            {
+                LongMap<Object> map = new LongMap<>();
+                Time.mark();
+                for(int key : keys) map.put((long)key << 20, map);
+                float put = Time.elapsed();
+                int found = 0;
+                Time.mark();
+                for(int key : keys) if(map.get((long)key << 20) != null) found++;
+                for(int key : misses) if(map.get(key) != null) found++;
+                float get = Time.elapsed();
+                float bytes = bytesPerEntry(map, map.size);
+                Time.mark();
+                for(int key : keys) map.remove((long)key << 20);
+                float remove = Time.elapsed();
+                record(best, "LongMap", put, get, remove, bytes, found);
+            }
+        }
+
+        for(ObjectMap.Entry<String, float[]> e : best){
+            Log.info("@: put @ms, get (hit + miss) @ms, remove @ms, @ bytes per entry", e.key, e.value[0], e.value[1], e.value[2], e.value[3]);
+        }
+    }
+
+    static void record(OrderedMap<String, float[]> best, String name, float put, float get, float remove, float bytes, int found){
+        assertTrue(found >= 1 << 19);
+        float[] times = best.get(name, () -> new float[]{Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, 0f});
+        times[0] = Math.min(times[0], put);
+        times[1] = Math.min(times[1], get);
+        times[2] = Math.min(times[2], remove);
+        times[3] = bytes;
+    }
+
+    /** Size of the backing arrays divided by the number of entries, assuming 4 byte references. Keys and values themselves are not counted. */
+    static float bytesPerEntry(Object map, int size){
+        long bytes = 0;
+        try{
+            for(Class<?> type = map.getClass(); type != Object.class; type = type.getSuperclass()){
+                for(Field field : type.getDeclaredFields()){
+                    if(!field.getType().isArray() || Modifier.isStatic(field.getModifiers())) continue;
+                    field.setAccessible(true);
+                    Object array = field.get(map);
+                    if(array == null) continue;
+                    Class<?> component = field.getType().getComponentType();
+                    int width = component == long.class || component == double.class ? 8 : component == byte.class || component == boolean.class ? 1 : 4;
+                    bytes += (long)Array.getLength(array) * width;
+                }
+            }
+        }catch(IllegalAccessException e){
+            throw new RuntimeException(e);
+        }
+        return (float)bytes / size;
+    }
+}
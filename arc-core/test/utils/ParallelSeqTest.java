@@ -0,0 +1,153 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelSeqTest{
+    ForkJoinPool lastPool;
+
+    @Before
+    public void savePool(){
+        lastPool = Parallel.pool;
+    }
+
+    @After
+    public void restorePool(){
+        if(Parallel.pool != lastPool) Parallel.pool.shutdown();
+        Parallel.pool = lastPool;
+    }
+
+    @Test
+    public void matchesSequential(){
+        Parallel.pool = new ForkJoinPool(4);
+        Random random = new Random(1);
+        //sizes below and above the threshold, and one that does not split evenly into chunks
+        for(int size : new int[]{0, 1, 100, Parallel.threshold - 1, Parallel.threshold * 8 + 7}){
+            Seq<String> seq = new Seq<>();
+            IntSeq ints = new IntSeq();
+            FloatSeq floats = new FloatSeq();
+            LongSeq longs = new LongSeq();
+            for(int i = 0; i < size; i++){
+                int value = random.nextInt(1000) - 500;
+                seq.add("s" + value);
+                ints.add(value);
+                floats.add(value == 0 ? -0f : value == 1 ? Float.NaN : value / 3f);
+                longs.add(value * 0x100000001L);
+            }
+
+            assertEquals(seq.select(s -> s.length() == 3), seq.parallelSelect(s -> s.length() == 3));
+            assertEquals(seq.map(String::length), seq.parallelMap(String::length));
+            IntSeq expectedInts = new IntSeq();
+            ints.each(i -> {
+                if(i % 3 == 0) expectedInts.add(i * 7);
+            });
+            assertEquals(expectedInts, ints.parallelSelect(i -> i % 3 == 0).parallelMap(i -> i * 7));
+            assertEquals(longs.size, longs.parallelSelect(l -> true).size);
+            assertEquals(0, floats.parallelSelect(f -> false).size);
+
+            AtomicLong sum = new AtomicLong();
+            ints.parallelEach(sum::addAndGet);
+            assertEquals(ints.sum(), sum.get());
+            AtomicInteger count = new AtomicInteger();
+            seq.parallelEach(s -> count.incrementAndGet());
+            floats.parallelEach(f -> count.incrementAndGet());
+            longs.parallelEach(l -> count.incrementAndGet());
+            assertEquals(size * 3, count.get());
+
+            //sorting by length alone leaves ties, which must keep their original order
+            Comparator<String> byLength = Comparator.comparingInt(String::length);
+            assertEquals(seq.copy().sort(byLength), seq.copy().parallelSort(byLength));
+            assertEquals(seq.copy().sort(), seq.copy().parallelSort());
+
+            IntSeq sortedInts = new IntSeq(ints);
+            sortedInts.sort();
+            ints.parallelSort();
+            assertEquals(sortedInts, ints);
+            FloatSeq sortedFloats = new FloatSeq(floats);
+            sortedFloats.sort();
+            floats.parallelSort();
+            for(int i = 0; i < size; i++) assertEquals(Float.floatToIntBits(sortedFloats.get(i)), Float.floatToIntBits(floats.get(i)));
+            LongSeq sortedLongs = new LongSeq(longs);
+            sortedLongs.sort();
+            longs.parallelSort();
+            assertEquals(sortedLongs, longs);
+        }
+    }
+
+    @Test
+    public void sameResultOnAnyPool(){
+        Seq<Integer> seq = new Seq<>();
+        Random random = new Random(2);
+        for(int i = 0; i < 100000; i++) seq.add(random.nextInt(50));
+
+        Seq<Integer> expectedSelect = null, expectedSort = null;
+        for(int threads : new int[]{1, 2, 3, 8}){
+            if(Parallel.pool != lastPool) Parallel.pool.shutdown();
+            Parallel.pool = new ForkJoinPool(threads);
+            Seq<Integer> selected = seq.parallelSelect(i -> i % 2 == 0);
+            //stable sort on a key with many ties: the boxed instances must end up in the same order
+            Seq<Integer> sorted = seq.parallelMap(i -> new Integer(i)).parallelSort(Comparator.comparingInt(i -> i / 10));
+            if(expectedSelect == null){
+                expectedSelect = selected;
+                expectedSort = sorted;
+            }else{
+                assertEquals(expectedSelect, selected);
+                for(int i = 0; i < sorted.size; i++){
+                    assertEquals(expectedSort.get(i), sorted.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark(){
+        //not an actual benchmark, ignore
+        int size = 1 << 21, cores = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(0);
+        IntSeq ints = new IntSeq(size);
+        Seq<String> strings = new Seq<>(size);
+        for(int i = 0; i < size; i++){
+            ints.add(random.nextInt());
+            strings.add(Integer.toString(random.nextInt(1 << 20)));
+        }
+
+        for(int round = 0; round < 2; round++){
+            Log.info("@ items, @ cores: sort ints / sort strings / select / map", size, cores);
+            for(int threads = 1; ; threads = Math.min(threads * 2, cores)){
+                Parallel.pool = new ForkJoinPool(threads);
+
+                IntSeq sortInts = new IntSeq(ints);
+                Time.mark();
+                sortInts.parallelSort();
+                float intSort = Time.elapsed();
+
+                Seq<String> sortStrings = strings.copy();
+                Time.mark();
+                sortStrings.parallelSort();
+                float stringSort = Time.elapsed();
+
+                Time.mark();
+                Seq<String> selected = strings.parallelSelect(s -> s.hashCode() % 3 == 0);
+                float select = Time.elapsed();
+
+                Time.mark();
+                Seq<Integer> mapped = strings.parallelMap(Integer::parseInt);
+                float map = Time.elapsed();
+
+                assertEquals(size, mapped.size);
+                assertTrue(selected.size > 0);
+                Log.info("  @ threads: @ms / @ms / @ms / @ms", threads, intSort, stringSort, select, map);
+                if(threads == cores) break;
+                Parallel.pool.shutdown();
+            }
+        }
+    }
+}
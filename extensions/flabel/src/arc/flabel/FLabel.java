@@ -52,6 +52,8 @@ public class FLabel extends Label{
 
     public FLabel(CharSequence text){
         super(text);
+        //glyphs of the layout are modified while the text is revealed
+        useLayoutCache = false;
         saveOriginalText();
     }
 
@@ -690,6 +692,7 @@ public class FLabel extends Label{
 
     @Override
     public void draw(){
+        checkGlyphs();
         super.validate();
         addMissingGlyphs();
 
@@ -0,0 +1,321 @@
+package arc.freetype;
+
+import arc.files.*;
+import arc.freetype.FreeTypeFontGenerator.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.graphics.gl.*;
+import arc.struct.*;
+import arc.util.*;
+import arc.util.io.*;
+
+import java.nio.*;
+import java.util.zip.*;
+
+/**
+ * Stores fonts generated by a {@link FreeTypeFontGenerator} on disk, so they don't have to be rasterized again on the next launch.
+ * Each font is one file in the cache directory, named after the hash of the font file and the {@link FreeTypeFontParameter}
+ * fields that change the generated glyphs. Cache files are memory mapped, and each page is copied from the mapping into its own
+ * pixmap, which is disposed once its texture is uploaded, so nothing keeps the cache file open.
+ * <p>
+ * Only fonts that use their own pages are cached: incremental fonts and fonts packed with {@link FreeTypeFontParameter#packer}
+ * are always generated.
+ */
+public class FreeTypeFontCache{
+    static final int magic = 0x41464e54, version = 1;
+    /** Hashes of font file contents, by file and modification time, so each font file is only read once. */
+    private static final ObjectMap<String, String> fileHashes = new ObjectMap<>();
+
+    /** The directory that cached fonts are stored in. */
+    public final Fi directory;
+    /** Number of fonts loaded from the cache, and fonts that had to be generated. */
+    public int hits, misses;
+
+    public FreeTypeFontCache(Fi directory){
+        this.directory = directory;
+    }
+
+    /** @return whether fonts generated with these parameters can be cached. */
+    public static boolean cacheable(FreeTypeFontParameter parameter){
+        return !parameter.incremental && parameter.packer == null;
+    }
+
+    /** @return the cache key of a font file with the specified parameters. Reads the entire font file the first time it is used. */
+    public static String key(Fi fontFile, FreeTypeFontParameter parameter){
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, parameter.size);
+        h = mix(h, parameter.mono ? 1 : 0);
+        h = mix(h, parameter.hinting.ordinal());
+        h = mix(h, parameter.color.rgba());
+        h = mix(h, Float.floatToIntBits(parameter.gamma));
+        h = mix(h, parameter.renderCount);
+        h = mix(h, Float.floatToIntBits(parameter.borderWidth));
+        h = mix(h, parameter.borderColor.rgba());
+        h = mix(h, parameter.borderStraight ? 1 : 0);
+        h = mix(h, Float.floatToIntBits(parameter.borderGamma));
+        h = mix(h, parameter.shadowOffsetX);
+        h = mix(h, parameter.shadowOffsetY);
+        h = mix(h, parameter.shadowColor.rgba());
+        h = mix(h, parameter.spaceX);
+        h = mix(h, parameter.spaceY);
+        h = mix(h, parameter.padTop);
+        h = mix(h, parameter.padLeft);
+        h = mix(h, parameter.padBottom);
+        h = mix(h, parameter.padRight);
+        h = mix(h, parameter.kerning ? 1 : 0);
+        h = mix(h, parameter.flip ? 1 : 0);
+        h = mix(h, parameter.distanceField ? parameter.distanceFieldSpread : -1);
+        h = mix(h, FreeTypeFontGenerator.getMaxTextureSize());
+        String chars = parameter.characters;
+        for(int i = 0; i < chars.length(); i++){
+            h = mix(h, chars.charAt(i));
+        }
+
+        return fileHash(fontFile) + "-" + Long.toHexString(h);
+    }
+
+    /** @return a hash of the contents of a font file, which is only computed again if the file was modified. */
+    static String fileHash(Fi fontFile){
+        String file = fontFile.type() + ":" + fontFile.path() + ":" + fontFile.lastModified();
+        synchronized(fileHashes){
+            String hash = fileHashes.get(file);
+            if(hash != null) return hash;
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] bytes = fontFile.readBytes();
+        crc.update(bytes, 0, bytes.length);
+        String hash = Long.toHexString(crc.getValue() << 32 | bytes.length & 0xffffffffL);
+        synchronized(fileHashes){
+            fileHashes.put(file, hash);
+        }
+        return hash;
+    }
+
+    private static long mix(long h, long value){
+        return (h ^ value) * 0x100000001b3L;
+    }
+
+    /** @return the file that a font with the specified key is cached in. */
+    public Fi file(String key){
+        return directory.child(key + ".font");
+    }
+
+    /**
+     * Returns a cached font, or generates it and adds it to the cache. Must be called on the main thread.
+     * @param fontFile the file the generator was created from
+     */
+    public Font generateFont(FreeTypeFontGenerator generator, Fi fontFile, FreeTypeFontParameter parameter){
+        if(!cacheable(parameter)) return generator.generateFont(parameter);
+
+        String key = key(fontFile, parameter);
+        CachedFont cached = read(key);
+        if(cached != null) return cached.createFont(parameter);
+
+        FreeTypeFontData data = new FreeTypeFontData();
+        Font font = generator.generateFont(parameter, data);
+        write(key, data);
+        return font;
+    }
+
+    /**
+     * Reads a cached font without creating any textures, so this can be called on any thread.
+     * @return null if the font is not cached or the cache file is invalid.
+     */
+    public @Nullable CachedFont read(String key){
+        Fi file = file(key);
+        if(!file.exists()){
+            misses++;
+            return null;
+        }
+
+        try{
+            //written as big endian with Writes; the mapping is dropped once the pages are copied
+            ByteBuffer buffer = file.map().order(ByteOrder.BIG_ENDIAN);
+            if(buffer.getInt() != magic || buffer.getInt() != version) throw new ArcRuntimeException("Invalid font cache header");
+
+            FreeTypeFontData data = new FreeTypeFontData();
+            data.flipped = buffer.get() != 0;
+            data.lineHeight = buffer.getFloat();
+            data.capHeight = buffer.getFloat();
+            data.ascent = buffer.getFloat();
+            data.descent = buffer.getFloat();
+            data.down = buffer.getFloat();
+            data.spaceXadvance = buffer.getFloat();
+            data.xHeight = buffer.getFloat();
+            data.padTop = buffer.getFloat();
+            data.padRight = buffer.getFloat();
+            data.padBottom = buffer.getFloat();
+            data.padLeft = buffer.getFloat();
+            int missing = buffer.getInt();
+
+            int glyphs = buffer.getInt();
+            for(int i = 0; i < glyphs; i++){
+                Glyph glyph = new Glyph();
+                glyph.id = buffer.getInt();
+                glyph.srcX = buffer.getInt();
+                glyph.srcY = buffer.getInt();
+                glyph.width = buffer.getInt();
+                glyph.height = buffer.getInt();
+                glyph.xoffset = buffer.getInt();
+                glyph.yoffset = buffer.getInt();
+                glyph.xadvance = buffer.getInt();
+                glyph.page = buffer.getInt();
+                int kernings = buffer.getInt();
+                for(int k = 0; k < kernings; k++){
+                    glyph.setKerning(buffer.getChar(), buffer.get());
+                }
+                data.setGlyph(glyph.id, glyph);
+                if(glyph.id == missing) data.missingGlyph = glyph;
+            }
+
+            int pages = buffer.getInt();
+            Seq<Pixmap> pixmaps = new Seq<>(pages);
+            for(int i = 0; i < pages; i++){
+                int width = buffer.getInt(), height = buffer.getInt(), size = width * height * 4;
+                ByteBuffer pixels = buffer.slice();
+                pixels.limit(size);
+                Pixmap page = new Pixmap(width, height);
+                page.pixels.position(0);
+                page.pixels.put(pixels);
+                page.pixels.position(0);
+                pixmaps.add(page);
+                buffer.position(buffer.position() + size);
+            }
+
+            hits++;
+            return new CachedFont(data, pixmaps);
+        }catch(Throwable e){
+            Log.err("Invalid font cache file: " + file, e);
+            file.delete();
+            misses++;
+            return null;
+        }
+    }
+
+    /** Writes the generated data of a font to the cache. Its pages must still be held in memory. */
+    public void write(String key, FreeTypeFontData data){
+        Seq<Pixmap> pages = new Seq<>();
+        for(TextureRegion region : data.regions){
+            TextureData texture = region.texture.getTextureData();
+            if(!(texture instanceof PixmapTextureData)) return;
+            pages.add(texture.consumePixmap());
+        }
+
+        Seq<Glyph> glyphs = new Seq<>();
+        for(Glyph[] page : ((FontData)data).glyphs){
+            if(page == null) continue;
+            for(Glyph glyph : page){
+                if(glyph != null) glyphs.add(glyph);
+            }
+        }
+
+        directory.mkdirs();
+        Fi file = file(key), temp = directory.child(key + ".tmp");
+        try(Writes write = temp.writes()){
+            write.i(magic);
+            write.i(version);
+
+            write.bool(data.flipped);
+            write.f(data.lineHeight);
+            write.f(data.capHeight);
+            write.f(data.ascent);
+            write.f(data.descent);
+            write.f(data.down);
+            write.f(data.spaceXadvance);
+            write.f(data.xHeight);
+            write.f(data.padTop);
+            write.f(data.padRight);
+            write.f(data.padBottom);
+            write.f(data.padLeft);
+            write.i(data.missingGlyph == null ? -1 : data.missingGlyph.id);
+
+            write.i(glyphs.size);
+            for(Glyph glyph : glyphs){
+                write.i(glyph.id);
+                write.i(glyph.srcX);
+                write.i(glyph.srcY);
+                write.i(glyph.width);
+                write.i(glyph.height);
+                write.i(glyph.xoffset);
+                write.i(glyph.yoffset);
+                write.i(glyph.xadvance);
+                write.i(glyph.page);
+
+                int kernings = 0;
+                if(glyph.kerning != null){
+                    for(byte[] page : glyph.kerning){
+                        if(page == null) continue;
+                        for(byte kerning : page){
+                            if(kerning != 0) kernings++;
+                        }
+                    }
+                }
+                write.i(kernings);
+                if(kernings > 0){
+                    for(int p = 0; p < glyph.kerning.length; p++){
+                        byte[] page = glyph.kerning[p];
+                        if(page == null) continue;
+                        for(int i = 0; i < page.length; i++){
+                            if(page[i] != 0){
+                                write.s(p * page.length + i);
+                                write.b(page[i]);
+                            }
+                        }
+                    }
+                }
+            }
+
+            write.i(pages.size);
+            byte[] bytes = new byte[4096];
+            for(Pixmap page : pages){
+                write.i(page.width);
+                write.i(page.height);
+                ByteBuffer pixels = page.pixels;
+                pixels.position(0);
+                for(int remaining = page.width * page.height * 4; remaining > 0; remaining -= bytes.length){
+                    int length = Math.min(remaining, bytes.length);
+                    pixels.get(bytes, 0, length);
+                    write.b(bytes, 0, length);
+                }
+                pixels.position(0);
+            }
+        }catch(Throwable e){
+            Log.err("Failed to write font cache file: " + file, e);
+            temp.delete();
+            return;
+        }
+
+        temp.moveTo(file);
+    }
+
+    /** Removes all cached fonts. */
+    public void clear(){
+        for(Fi file : directory.list()){
+            if(file.extEquals("font")) file.delete();
+        }
+    }
+
+    /** Font data and pages read from the cache, before the page textures are created. The pages are disposed by {@link #createFont(FreeTypeFontParameter)}. */
+    public static class CachedFont{
+        public final FreeTypeFontData data;
+        public final Seq<Pixmap> pages;
+
+        CachedFont(FreeTypeFontData data, Seq<Pixmap> pages){
+            this.data = data;
+            this.pages = pages;
+        }
+
+        /** Uploads the pages, disposing them, and creates the font. Must be called on the main thread, and only once. */
+        public Font createFont(FreeTypeFontParameter parameter){
+            data.regions = new Seq<>(pages.size);
+            for(Pixmap page : pages){
+                Texture texture = new Texture(new PixmapTextureData(page, parameter.genMipMaps, true));
+                texture.setFilter(parameter.pageMinFilter(), parameter.pageMagFilter());
+                data.regions.add(new TextureRegion(texture));
+            }
+            return FreeTypeFontGenerator.createFont(data, parameter);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import arc.util.io.*;
 
 import java.io.*;
 import java.nio.*;
+import java.util.concurrent.*;
 
 /**
  * Generates {@link Font} and {@link FontData} instances from TrueType, OTF, and other FreeType supported fonts.
@@ -55,7 +56,11 @@ public class FreeTypeFontGenerator implements Disposable{
     final Library library;
     final Face face;
     final String name;
+    final ByteBuffer fontBuffer;
+    final int faceIndex;
     boolean bitmapped = false;
+    /** Created when the first glyph is requested asynchronously. */
+    @Nullable AsyncRasterizer rasterizer;
 
     /** {@link #FreeTypeFontGenerator(Fi, int)} */
     public FreeTypeFontGenerator(Fi fontFile){
@@ -101,6 +106,8 @@ public class FreeTypeFontGenerator implements Disposable{
             }
         }
 
+        fontBuffer = buffer;
+        this.faceIndex = faceIndex;
         face = library.newMemoryFace(buffer, faceIndex);
         if(face == null) throw new ArcRuntimeException("Couldn't create face for font: " + fontFile);
 
@@ -197,9 +204,22 @@ public class FreeTypeFontGenerator implements Disposable{
         if(updateTextureRegions) data.regions = new Seq<>();
         generateData(parameter, data);
         if(updateTextureRegions)
-            parameter.packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+            parameter.packer.updateTextureRegions(data.regions, parameter.pageMinFilter(), parameter.pageMagFilter(), parameter.genMipMaps);
+        return createFont(data, parameter);
+    }
+
+    /** Creates a font from generated data with texture regions, and adds the fallbacks of the parameter. */
+    static Font createFont(FreeTypeFontData data, FreeTypeFontParameter parameter){
         if(data.regions.isEmpty()) throw new ArcRuntimeException("Unable to create a font with no texture regions.");
-        Font font = new Font(data, data.regions, true);
+        Font font;
+        if(parameter.distanceField){
+            //drawn at any scale, so positions aren't rounded
+            DistanceFieldFont field = new DistanceFieldFont(data, data.regions, false);
+            field.setDistanceFieldSmoothing(parameter.distanceFieldSpread);
+            font = field;
+        }else{
+            font = new Font(data, data.regions, true);
+        }
         font.setOwnsTexture(parameter.packer == null);
 
         for(Prov<Font> fallbackProv : parameter.fallback){
@@ -334,6 +354,7 @@ public class FreeTypeFontGenerator implements Disposable{
         int charactersLength = characters.length;
         boolean incremental = parameter.incremental;
         int flags = getLoadingFlags(parameter);
+        int fieldPadding = parameter.distanceField ? parameter.distanceFieldSpread * 2 : 0;
 
         setPixelSizes(0, parameter.size);
 
@@ -398,7 +419,7 @@ public class FreeTypeFontGenerator implements Disposable{
                 size = maxTextureSize;
                 packStrategy = new GuillotineStrategy();
             }else{
-                int maxGlyphHeight = (int)Math.ceil(data.lineHeight);
+                int maxGlyphHeight = (int)Math.ceil(data.lineHeight) + fieldPadding;
                 size = Mathf.nextPowerOfTwo((int)Math.sqrt(maxGlyphHeight * maxGlyphHeight * charactersLength));
                 if(maxTextureSize > 0) size = Math.min(size, maxTextureSize);
                 packStrategy = new SkylineStrategy();
@@ -502,7 +523,7 @@ public class FreeTypeFontGenerator implements Disposable{
         // Generate texture regions.
         if(ownsAtlas){
             data.regions = new Seq();
-            packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+            packer.updateTextureRegions(data.regions, parameter.pageMinFilter(), parameter.pageMagFilter(), parameter.genMipMaps);
         }
 
         // Set space glyph.
@@ -521,11 +542,21 @@ public class FreeTypeFontGenerator implements Disposable{
     /** @return null if glyph was not found. */
     Glyph createGlyph(char c, FreeTypeFontData data, FreeTypeFontParameter parameter, Stroker stroker, float baseLine,
                       PixmapPacker packer){
+        RasterizedGlyph result = rasterizeGlyph(face, c, parameter, stroker, baseLine);
+        return result == null ? null : packGlyph(result, data, parameter, packer);
+    }
+
+    /**
+     * Renders a glyph into a pixmap without packing it. Only uses the specified face, so glyphs can be rasterized on another
+     * thread with a separate face.
+     * @return null if glyph was not found.
+     */
+    @Nullable RasterizedGlyph rasterizeGlyph(Face face, char c, FreeTypeFontParameter parameter, Stroker stroker, float baseLine){
 
         boolean missing = face.getCharIndex(c) == 0 && c != 0;
         if(missing) return null;
 
-        if(!loadChar(c, getLoadingFlags(parameter))) return null;
+        if(!face.loadChar(c, getLoadingFlags(parameter))) return null;
 
         GlyphSlot slot = face.getGlyph();
         FreeType.Glyph mainGlyph = slot.getGlyph();
@@ -637,24 +668,49 @@ public class FreeTypeFontGenerator implements Disposable{
             }
         }
 
-        Rect rect = packer.pack(mainPixmap);
+        if(parameter.distanceField && mainPixmap.width > 0 && mainPixmap.height > 0){
+            int spread = parameter.distanceFieldSpread;
+            Pixmap field = Pixmaps.distanceField(mainPixmap, spread, parameter.color.rgba());
+            mainPixmap.dispose();
+            mainPixmap = field;
+            glyph.width = field.width;
+            glyph.height = field.height;
+            glyph.xoffset -= spread;
+            glyph.yoffset -= spread;
+        }
+
+        mainGlyph.dispose();
+
+        return new RasterizedGlyph(glyph, mainPixmap);
+    }
+
+    /** Packs a rasterized glyph and disposes its pixmap. */
+    Glyph packGlyph(RasterizedGlyph result, FreeTypeFontData data, FreeTypeFontParameter parameter, PixmapPacker packer){
+        Glyph glyph = result.glyph;
+        Rect rect = packer.pack(result.pixmap);
         glyph.page = packer.getPages().size - 1; // Glyph is always packed into the last page for now.
         glyph.srcX = (int)rect.x;
         glyph.srcY = (int)rect.y;
 
         // If a page was added, create a new texture region for the incrementally added glyph.
         if(parameter.incremental && data.regions != null && data.regions.size <= glyph.page)
-            packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+            packer.updateTextureRegions(data.regions, parameter.pageMinFilter(), parameter.pageMagFilter(), parameter.genMipMaps);
 
-        mainPixmap.dispose();
-        mainGlyph.dispose();
+        result.pixmap.dispose();
 
         return glyph;
     }
 
+    AsyncRasterizer rasterizer(){
+        if(rasterizer == null) rasterizer = new AsyncRasterizer();
+        return rasterizer;
+    }
+
     /** Cleans up all resources of the generator. Call this if you no longer use the generator. */
     @Override
     public void dispose(){
+        // the background face reads the same font data, so it has to be gone before the buffer is freed
+        if(rasterizer != null) rasterizer.dispose();
         face.dispose();
         library.dispose();
     }
@@ -696,6 +752,22 @@ public class FreeTypeFontGenerator implements Disposable{
         PixmapPacker packer;
         Seq<Glyph> glyphs;
         private boolean dirty;
+
+        // Fields for asynchronous glyph generation.
+        /** Glyphs that were rasterized in the background and are waiting to be packed. */
+        final ConcurrentLinkedQueue<RasterizedGlyph> rasterized = new ConcurrentLinkedQueue<>();
+        /** Characters that were queued for rasterization. Only accessed on the main thread. */
+        final IntSet requested = new IntSet();
+        volatile boolean disposed;
+        private int pending;
+        private boolean updateQueued;
+        /** Number of glyphs that were rasterized asynchronously and packed so far. */
+        public int asyncGlyphs;
+        /**
+         * Called on the main thread after asynchronously rasterized glyphs were added. {@link #glyphVersion} is incremented before,
+         * which labels and {@link GlyphLayoutCache} use to lay out text with placeholder glyphs again.
+         */
+        public @Nullable Runnable glyphsAdded;
         Seq<FontData> fallback = new Seq<>();
         @Nullable FontData override;
 
@@ -726,8 +798,19 @@ public class FreeTypeFontGenerator implements Disposable{
 
             Glyph glyph = super.getGlyph(ch);
             if(glyph == null && generator != null){
-                generator.setPixelSizes(0, parameter.size);
                 float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
+
+                //glyphs that are in the font are rendered in the background; a placeholder is used until they are packed
+                if(parameter.async && generator.face.getCharIndex(ch) != 0){
+                    if(requested.add(ch)){
+                        pending++;
+                        generator.rasterizer().queue(this, ch, baseline);
+                        queueUpdate();
+                    }
+                    return placeholder(ch);
+                }
+
+                generator.setPixelSizes(0, parameter.size);
                 glyph = generator.createGlyph(ch, this, parameter, stroker, baseline, packer);
                 if(glyph == null){
                     //look through fallbacks for other glyphs
@@ -741,27 +824,88 @@ public class FreeTypeFontGenerator implements Disposable{
                     return missingGlyph;
                 }
 
-                setGlyphRegion(glyph, regions.get(glyph.page));
-                setGlyph(ch, glyph);
-                glyphs.add(glyph);
-                dirty = true;
+                addGlyph(ch, glyph);
+            }
+            return glyph;
+        }
 
-                Face face = generator.face;
-                if(parameter.kerning){
-                    int glyphIndex = face.getCharIndex(ch);
-                    for(int i = 0, n = glyphs.size; i < n; i++){
-                        Glyph other = glyphs.get(i);
-                        int otherIndex = face.getCharIndex(other.id);
+        void addGlyph(char ch, Glyph glyph){
+            setGlyphRegion(glyph, regions.get(glyph.page));
+            setGlyph(ch, glyph);
+            glyphs.add(glyph);
+            dirty = true;
 
-                        int kerning = face.getKerning(glyphIndex, otherIndex, 0);
-                        if(kerning != 0) glyph.setKerning(other.id, FreeType.toInt(kerning));
+            Face face = generator.face;
+            if(parameter.kerning){
+                int glyphIndex = face.getCharIndex(ch);
+                for(int i = 0, n = glyphs.size; i < n; i++){
+                    Glyph other = glyphs.get(i);
+                    int otherIndex = face.getCharIndex(other.id);
 
-                        kerning = face.getKerning(otherIndex, glyphIndex, 0);
-                        if(kerning != 0) other.setKerning(ch, FreeType.toInt(kerning));
-                    }
+                    int kerning = face.getKerning(glyphIndex, otherIndex, 0);
+                    if(kerning != 0) glyph.setKerning(other.id, FreeType.toInt(kerning));
+
+                    kerning = face.getKerning(otherIndex, glyphIndex, 0);
+                    if(kerning != 0) other.setKerning(ch, FreeType.toInt(kerning));
                 }
             }
-            return glyph;
+        }
+
+        /** @return the glyph drawn while a character is being rasterized: a fallback font's glyph if there is one, otherwise the missing glyph. */
+        Glyph placeholder(char ch){
+            for(FontData other : fallback){
+                Glyph result = other.getGlyph(ch);
+                if(result != other.missingGlyph) return result;
+            }
+            return missingGlyph;
+        }
+
+        void queueUpdate(){
+            if(!updateQueued){
+                updateQueued = true;
+                Core.app.post(this::update);
+            }
+        }
+
+        /**
+         * Packs glyphs that were rasterized in the background and uploads them to the glyph pages. Runs at most
+         * {@link FreeTypeFontParameter#asyncBudget} milliseconds per call, and is posted once per frame by the font while glyphs
+         * are pending, so it normally doesn't need to be called manually.
+         */
+        public void update(){
+            updateQueued = false;
+            if(disposed) return;
+
+            long start = Time.nanos(), budget = (long)(parameter.asyncBudget * 1000000f);
+            boolean added = false;
+            RasterizedGlyph next;
+
+            //new glyphs are written into existing pages with sub-uploads; new pages are uploaded by updateTextureRegions
+            packer.setPackToTexture(true);
+            generator.setPixelSizes(0, parameter.size);
+
+            while((next = rasterized.poll()) != null){
+                pending--;
+                if(next.glyph != null && super.getGlyph((char)next.glyph.id) == null){
+                    Glyph glyph = generator.packGlyph(next, this, parameter, packer);
+                    addGlyph((char)glyph.id, glyph);
+                    asyncGlyphs++;
+                    added = true;
+                }else if(next.pixmap != null){
+                    next.pixmap.dispose();
+                }
+
+                if(Time.timeSinceNanos(start) >= budget) break;
+            }
+
+            if(added){
+                packer.updateTextureRegions(regions, parameter.pageMinFilter(), parameter.pageMagFilter(), parameter.genMipMaps);
+                dirty = false;
+                glyphVersion++;
+                if(glyphsAdded != null) glyphsAdded.run();
+            }
+
+            if(pending > 0) queueUpdate();
         }
 
         //MDTX: Don't update fonts more than once per frame (from https://github.com/mindustry-antigrief/Arc/commit/fed63f365839b5d0d3e8b6fe02307c373360e36e)
@@ -775,18 +919,109 @@ public class FreeTypeFontGenerator implements Disposable{
                 queued = true;
                 Core.app.post(() -> {
                     dirty = queued = false;
-                    packer.updateTextureRegions(regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+                    packer.updateTextureRegions(regions, parameter.pageMinFilter(), parameter.pageMagFilter(), parameter.genMipMaps);
                 });
             }
         }
 
+        /** Disposes the pixmaps of rasterized glyphs that were not packed. May be called from any thread. */
+        void drainRasterized(){
+            RasterizedGlyph next;
+            while((next = rasterized.poll()) != null){
+                if(next.pixmap != null) next.pixmap.dispose();
+            }
+        }
+
         @Override
         public void dispose(){
+            disposed = true;
+            drainRasterized();
             if(stroker != null) stroker.dispose();
             if(packer != null) packer.dispose();
         }
     }
 
+    /** A rendered glyph that has not been packed yet. */
+    static class RasterizedGlyph{
+        final @Nullable Glyph glyph;
+        final @Nullable Pixmap pixmap;
+
+        RasterizedGlyph(@Nullable Glyph glyph, @Nullable Pixmap pixmap){
+            this.glyph = glyph;
+            this.pixmap = pixmap;
+        }
+    }
+
+    /**
+     * Renders glyphs for {@link FreeTypeFontParameter#async} fonts on a single background thread. FreeType libraries and faces
+     * must not be used from multiple threads, so the thread has its own library and face, created from the font data of the
+     * generator.
+     */
+    class AsyncRasterizer implements Disposable{
+        final ExecutorService executor = Threads.executor("FreeType Rasterizer", 1);
+        // only accessed on the executor thread
+        Library asyncLibrary;
+        Face asyncFace;
+        Stroker asyncStroker;
+
+        void queue(FreeTypeFontData data, char c, float baseline){
+            FreeTypeFontParameter parameter = data.parameter;
+            executor.execute(() -> {
+                if(data.disposed) return;
+
+                RasterizedGlyph result = null;
+                try{
+                    if(asyncFace == null){
+                        asyncLibrary = FreeType.initFreeType();
+                        //a duplicate, so the background library doesn't free the buffer of the generator
+                        asyncFace = asyncLibrary.newMemoryFace(fontBuffer.duplicate(), faceIndex);
+                    }
+                    if(!bitmapped && !asyncFace.setPixelSizes(0, parameter.size)) throw new ArcRuntimeException("Couldn't set size for font");
+
+                    Stroker stroker = null;
+                    if(parameter.borderWidth > 0){
+                        if(asyncStroker == null) asyncStroker = asyncLibrary.createStroker();
+                        asyncStroker.set((int)(parameter.borderWidth * 64f),
+                        parameter.borderStraight ? FreeType.FT_STROKER_LINECAP_BUTT : FreeType.FT_STROKER_LINECAP_ROUND,
+                        parameter.borderStraight ? FreeType.FT_STROKER_LINEJOIN_MITER_FIXED : FreeType.FT_STROKER_LINEJOIN_ROUND, 0);
+                        stroker = asyncStroker;
+                    }
+
+                    result = rasterizeGlyph(asyncFace, c, parameter, stroker, baseline);
+                }catch(Throwable e){
+                    Log.err("Couldn't rasterize char: " + c, e);
+                }
+
+                //the font may have been disposed while the glyph was rendered
+                if(data.disposed){
+                    if(result != null && result.pixmap != null) result.pixmap.dispose();
+                    return;
+                }
+
+                //failed glyphs are still reported, so the font stops waiting for them
+                data.rasterized.add(result == null ? new RasterizedGlyph(null, null) : result);
+
+                //if it was disposed right before the glyph was added, the queue may already have been drained
+                if(data.disposed) data.drainRasterized();
+            });
+        }
+
+        /** Waits for queued glyphs to finish and frees the background face. */
+        @Override
+        public void dispose(){
+            executor.execute(() -> {
+                if(asyncStroker != null) asyncStroker.dispose();
+                if(asyncFace != null) asyncFace.dispose();
+                if(asyncLibrary != null) asyncLibrary.dispose();
+            });
+            executor.shutdown();
+            try{
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }catch(InterruptedException ignored){
+            }
+        }
+    }
+
     /**
      * Parameter container class that helps configure how {@link FreeTypeFontData} and {@link Font} instances are
      * generated.
@@ -857,8 +1092,33 @@ public class FreeTypeFontGenerator implements Disposable{
          * {@link FreeTypeFontGenerator#getMaxTextureSize()}.
          */
         public boolean incremental;
+        /**
+         * When true along with {@link #incremental}, missing glyphs are rendered on a background thread instead of stalling the
+         * frame that first uses them. Until a glyph is ready, a fallback font's glyph or the missing glyph is drawn in its place.
+         */
+        public boolean async;
+        /** Milliseconds per frame spent packing and uploading asynchronously rendered glyphs. At least one glyph is packed per frame. */
+        public float asyncBudget = 2f;
+        /**
+         * When true, glyphs are stored as signed distance fields and a {@link DistanceFieldFont} is generated, which stays sharp
+         * when scaled. One distance field font can replace fonts generated at several sizes; {@link #size} should then be the
+         * largest size that is commonly drawn. The batch must use {@link DistanceFieldFont#createDistanceFieldShader()}.
+         */
+        public boolean distanceField;
+        /** Distance in pixels that the distance field extends outside and inside of each glyph outline. */
+        public int distanceFieldSpread = 4;
         /** Fallback fonts to use. Since these fonts may only be loaded at a future time, they are providers. */
         public Seq<Prov<Font>> fallback = new Seq<>();
+
+        /** @return the minification filter of the glyph pages. Distance fields are always filtered linearly. */
+        TextureFilter pageMinFilter(){
+            return distanceField ? TextureFilter.linear : minFilter;
+        }
+
+        /** @return the magnification filter of the glyph pages. Distance fields are always filtered linearly. */
+        TextureFilter pageMagFilter(){
+            return distanceField ? TextureFilter.linear : magFilter;
+        }
     }
 
     public class GlyphAndBitmap{
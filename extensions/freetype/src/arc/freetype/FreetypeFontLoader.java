@@ -7,30 +7,66 @@ import arc.assets.loaders.AsynchronousAssetLoader;
 import arc.assets.loaders.FileHandleResolver;
 import arc.struct.Seq;
 import arc.files.Fi;
+import arc.freetype.FreeTypeFontCache.CachedFont;
+import arc.freetype.FreeTypeFontGenerator.FreeTypeFontData;
 import arc.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import arc.graphics.g2d.Font;
+import arc.util.Nullable;
 
 /**
  * Creates {@link Font} instances from FreeType font files. Requires a {@link FreeTypeFontLoaderParameter} to be
  * passed to {@link AssetManager#load(String, Class, AssetLoaderParameters)} which specifies the name of the TTF
  * file as well the parameters used to generate the BitmapFont (size, characters, etc.)
+ * <p>
+ * If a {@link FreeTypeFontCache} is set, fonts are read from it when possible, and generated fonts are added to it.
  */
 public class FreetypeFontLoader extends AsynchronousAssetLoader<Font, FreetypeFontLoader.FreeTypeFontLoaderParameter>{
+    /** The cache to load generated fonts from, or null to always generate them. */
+    public @Nullable FreeTypeFontCache cache;
+
+    @Nullable String key;
+    @Nullable CachedFont cached;
+
     public FreetypeFontLoader(FileHandleResolver resolver){
         super(resolver);
     }
 
+    public FreetypeFontLoader(FileHandleResolver resolver, @Nullable FreeTypeFontCache cache){
+        super(resolver);
+        this.cache = cache;
+    }
+
     @Override
     public void loadAsync(AssetManager manager, String fileName, Fi file, FreeTypeFontLoaderParameter parameter){
         if(parameter == null)
             throw new RuntimeException("FreetypeFontParameter must be set in AssetManager#load to point at a TTF file!");
+
+        key = null;
+        cached = null;
+        if(cache != null && FreeTypeFontCache.cacheable(parameter.fontParameters)){
+            key = FreeTypeFontCache.key(resolve(parameter.fontFileName), parameter.fontParameters);
+            cached = cache.read(key);
+        }
     }
 
     @Override
     public Font loadSync(AssetManager manager, String fileName, Fi file, FreeTypeFontLoaderParameter parameter){
         if(parameter == null)
             throw new RuntimeException("FreetypeFontParameter must be set in AssetManager#load to point at a TTF file!");
+
+        if(cached != null){
+            Font font = cached.createFont(parameter.fontParameters);
+            cached = null;
+            return font;
+        }
+
         FreeTypeFontGenerator generator = manager.get(parameter.fontFileName + ".gen", FreeTypeFontGenerator.class);
+        if(cache != null && key != null){
+            FreeTypeFontData data = new FreeTypeFontData();
+            Font font = generator.generateFont(parameter.fontParameters, data);
+            cache.write(key, data);
+            return font;
+        }
         return generator.generateFont(parameter.fontParameters);
     }
 
@@ -0,0 +1,149 @@
+package arc.freetype;
+
+import arc.*;
+import arc.files.*;
+import arc.freetype.FreeTypeFontCache.*;
+import arc.freetype.FreeTypeFontGenerator.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.graphics.gl.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class FreeTypeFontCacheTest{
+    Fi directory;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.gl = Core.gl20 = new MockGL20();
+        Core.graphics = new MockGraphics();
+    }
+
+    @Before
+    public void createDirectory(){
+        directory = Fi.tempDirectory("fontcache");
+    }
+
+    @After
+    public void deleteDirectory(){
+        directory.deleteDirectory();
+    }
+
+    @Test
+    public void roundTrip(){
+        FreeTypeFontData data = new FreeTypeFontData();
+        data.flipped = true;
+        data.lineHeight = 18f;
+        data.capHeight = 11f;
+        data.ascent = -3f;
+        data.descent = -4f;
+        data.down = 18f;
+        data.spaceXadvance = 5f;
+        data.xHeight = 8f;
+        data.padTop = 1f;
+        data.padRight = 2f;
+        data.padBottom = 3f;
+        data.padLeft = 4f;
+
+        for(int i = 0; i < 3; i++){
+            Glyph glyph = new Glyph();
+            glyph.id = 'A' + i;
+            glyph.srcX = i * 8;
+            glyph.srcY = i;
+            glyph.width = 7;
+            glyph.height = 9 + i;
+            glyph.xoffset = -i;
+            glyph.yoffset = 2 * i;
+            glyph.xadvance = 8;
+            glyph.page = i % 2;
+            data.setGlyph(glyph.id, glyph);
+        }
+        //kerning pairs in different kerning pages, including one outside of the first 512 characters
+        data.getGlyph('A').setKerning('B', -2);
+        data.getGlyph('A').setKerning('Ж', 3);
+        data.getGlyph('C').setKerning('A', -1);
+        data.missingGlyph = data.getGlyph('B');
+
+        data.regions = new Seq<>();
+        for(int p = 0; p < 2; p++){
+            Pixmap page = new Pixmap(16, 8 + p);
+            page.each((x, y) -> page.set(x, y, x * 0x10000000 | y * 0x100000 | 0xff));
+            data.regions.add(new TextureRegion(new Texture(new PixmapTextureData(page, false, false))));
+        }
+
+        FreeTypeFontCache cache = new FreeTypeFontCache(directory);
+        cache.write("test", data);
+        CachedFont cached = cache.read("test");
+        assertNotNull(cached);
+        assertEquals(1, cache.hits);
+
+        FreeTypeFontData read = cached.data;
+        assertTrue(read.flipped);
+        assertArrayEquals(new float[]{18f, 11f, -3f, -4f, 18f, 5f, 8f, 1f, 2f, 3f, 4f}, new float[]{read.lineHeight, read.capHeight, read.ascent,
+            read.descent, read.down, read.spaceXadvance, read.xHeight, read.padTop, read.padRight, read.padBottom, read.padLeft}, 0f);
+        assertEquals('B', read.missingGlyph.id);
+
+        for(char c = 'A'; c <= 'C'; c++){
+            Glyph expected = data.getGlyph(c), glyph = read.getGlyph(c);
+            assertNotNull(glyph);
+            assertArrayEquals(new int[]{expected.srcX, expected.srcY, expected.width, expected.height, expected.xoffset, expected.yoffset, expected.xadvance, expected.page},
+                new int[]{glyph.srcX, glyph.srcY, glyph.width, glyph.height, glyph.xoffset, glyph.yoffset, glyph.xadvance, glyph.page});
+            for(char other : new char[]{'A', 'B', 'C', 'Ж'}){
+                assertEquals(expected.getKerning(other), glyph.getKerning(other));
+            }
+        }
+        assertNull(read.getGlyph('D'));
+
+        assertEquals(2, cached.pages.size);
+        for(int p = 0; p < 2; p++){
+            Pixmap expected = data.regions.get(p).texture.getTextureData().consumePixmap(), page = cached.pages.get(p);
+            assertEquals(expected.width, page.width);
+            assertEquals(expected.height, page.height);
+            for(int y = 0; y < page.height; y++){
+                for(int x = 0; x < page.width; x++){
+                    assertEquals(expected.get(x, y), page.get(x, y));
+                }
+            }
+        }
+
+        //pages are owned by the cached font, and freed once they are uploaded
+        Seq<Pixmap> pages = cached.pages.copy();
+        Font font = cached.createFont(new FreeTypeFontParameter());
+        assertEquals(2, font.getRegions().size);
+        assertTrue(pages.allMatch(Pixmap::isDisposed));
+        font.dispose();
+    }
+
+    @Test
+    public void hashesFontFilesOnce(){
+        Fi font = directory.child("font.ttf");
+        font.writeString("first");
+        font.file().setLastModified(100000L);
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        String key = FreeTypeFontCache.key(font, parameter);
+
+        //the contents are not read again while the file is unmodified
+        font.writeString("other");
+        font.file().setLastModified(100000L);
+        assertEquals(key, FreeTypeFontCache.key(font, parameter));
+
+        font.file().setLastModified(200000L);
+        assertNotEquals(key, FreeTypeFontCache.key(font, parameter));
+    }
+
+    @Test
+    public void invalidFile(){
+        FreeTypeFontCache cache = new FreeTypeFontCache(directory);
+        assertNull(cache.read("missing"));
+        cache.file("broken").writeString("not a font");
+        assertNull(cache.read("broken"));
+        assertFalse(cache.file("broken").exists());
+        assertEquals(2, cache.misses);
+    }
+}